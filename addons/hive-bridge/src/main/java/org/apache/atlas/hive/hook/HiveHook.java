@@ -24,8 +24,8 @@ import org.apache.atlas.hive.hook.events.*;
 import org.apache.atlas.hook.AtlasHook;
 // Atlas 类型系统中的类型模型
 import org.apache.atlas.model.instance.AtlasEntity;
-// 缓存Atlas的LRU存储
-import org.apache.atlas.utils.LruCache;
+// 线程安全的有界缓存
+import org.apache.atlas.utils.AtlasCache;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
@@ -85,14 +85,14 @@ public class HiveHook extends AtlasHook implements ExecuteWithHookContext {
     private static final int     nameCacheTableMaxCount;
     private static final int     nameCacheRebuildIntervalSeconds;
 
-    private static final boolean                       skipHiveColumnLineageHive20633;
-    private static final int                           skipHiveColumnLineageHive20633InputsThreshold;
-    private static final List<Pattern>                 hiveTablesToIgnore = new ArrayList<>();
-    private static final List<Pattern>                 hiveTablesToPrune  = new ArrayList<>();
-    private static final Map<String, PreprocessAction> hiveTablesCache;
-    private static final List                          ignoreDummyDatabaseName;
-    private static final List                          ignoreDummyTableName;
-    private static final String                        ignoreValuesTmpTableNamePrefix;
+    private static final boolean                              skipHiveColumnLineageHive20633;
+    private static final int                                  skipHiveColumnLineageHive20633InputsThreshold;
+    private static final List<Pattern>                        hiveTablesToIgnore = new ArrayList<>();
+    private static final List<Pattern>                        hiveTablesToPrune  = new ArrayList<>();
+    private static final AtlasCache<String, PreprocessAction> hiveTablesCache;
+    private static final List                                 ignoreDummyDatabaseName;
+    private static final List                                 ignoreDummyTableName;
+    private static final String                               ignoreValuesTmpTableNamePrefix;
 
     private static HiveHookObjectNamesCache knownObjects = null;
 
@@ -140,11 +140,9 @@ public class HiveHook extends AtlasHook implements ExecuteWithHookContext {
             }
         }
 
-        if (!hiveTablesToIgnore.isEmpty() || !hiveTablesToPrune.isEmpty()) {
-            hiveTablesCache = new LruCache<>(atlasProperties.getInt(HOOK_HIVE_TABLE_CACHE_SIZE, 10000), 0);
-        } else {
-            hiveTablesCache = Collections.emptyMap();
-        }
+        int hiveTablesCacheSize = (!hiveTablesToIgnore.isEmpty() || !hiveTablesToPrune.isEmpty()) ? atlasProperties.getInt(HOOK_HIVE_TABLE_CACHE_SIZE, 10000) : 0;
+
+        hiveTablesCache = AtlasCache.<String, PreprocessAction>newBuilder().name("hiveTablesCache").maximumSize(hiveTablesCacheSize).build();
 
         knownObjects = nameCacheEnabled ? new HiveHookObjectNamesCache(nameCacheDatabaseMaxCount, nameCacheTableMaxCount, nameCacheRebuildIntervalSeconds) : null;
 
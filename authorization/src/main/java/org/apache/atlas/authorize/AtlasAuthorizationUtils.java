@@ -33,7 +33,9 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import javax.servlet.http.HttpServletRequest;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.BitSet;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public class AtlasAuthorizationUtils {
@@ -63,6 +65,17 @@ public class AtlasAuthorizationUtils {
         }
     }
 
+    /**
+     * Verifies access for a batch of entities with a single authorizer call.
+     * @return index of the first request that is not allowed; -1 if all requests are allowed
+     */
+    public static int getFirstDeniedIndex(List<AtlasEntityAccessRequest> requests) {
+        BitSet allowed = isAccessAllowed(requests);
+        int    ret     = allowed.nextClearBit(0);
+
+        return ret < requests.size() ? ret : -1;
+    }
+
     public static void verifyAccess(AtlasRelationshipAccessRequest request, Object... errorMsgParams) throws AtlasBaseException {
         if (!isAccessAllowed(request)) {
             String message = (errorMsgParams != null && errorMsgParams.length > 0) ? StringUtils.join(errorMsgParams) : "";
@@ -137,6 +150,67 @@ public class AtlasAuthorizationUtils {
         return ret;
     }
 
+    /**
+     * @return true if the action is allowed on all entities of the type in the request, irrespective of their ids and classifications
+     */
+    public static boolean isAccessAllowedOnAllEntities(AtlasEntityAccessRequest request) {
+        MetricRecorder metric = RequestContext.get().startMetricRecord("isAccessAllowedOnAllEntities");
+
+        boolean ret      = false;
+        String  userName = getCurrentUserName();
+
+        if (StringUtils.isNotEmpty(userName) && !RequestContext.get().isImportInProgress()) {
+            try {
+                AtlasAuthorizer authorizer = AtlasAuthorizerFactory.getAtlasAuthorizer();
+
+                request.setUser(userName, getCurrentUserGroups());
+                request.setClientIPAddress(RequestContext.get().getClientIPAddress());
+                ret = authorizer.isAccessAllowedOnAllEntities(request);
+            } catch (AtlasAuthorizationException e) {
+                LOG.error("Unable to obtain AtlasAuthorizer", e);
+            }
+        } else {
+            ret = true;
+        }
+
+        RequestContext.get().endMetricRecord(metric);
+
+        return ret;
+    }
+
+    /**
+     * @return decisions for the requests: bit i is set if requests.get(i) is allowed
+     */
+    public static BitSet isAccessAllowed(List<AtlasEntityAccessRequest> requests) {
+        MetricRecorder metric = RequestContext.get().startMetricRecord("isAccessAllowed");
+
+        BitSet ret      = new BitSet(requests.size());
+        String userName = getCurrentUserName();
+
+        if (StringUtils.isNotEmpty(userName) && !RequestContext.get().isImportInProgress()) {
+            try {
+                AtlasAuthorizer authorizer      = AtlasAuthorizerFactory.getAtlasAuthorizer();
+                Set<String>     userGroups      = getCurrentUserGroups();
+                String          clientIPAddress = RequestContext.get().getClientIPAddress();
+
+                for (AtlasEntityAccessRequest request : requests) {
+                    request.setUser(userName, userGroups);
+                    request.setClientIPAddress(clientIPAddress);
+                }
+
+                ret = authorizer.isAccessAllowed(requests);
+            } catch (AtlasAuthorizationException e) {
+                LOG.error("Unable to obtain AtlasAuthorizer", e);
+            }
+        } else {
+            ret.set(0, requests.size());
+        }
+
+        RequestContext.get().endMetricRecord(metric);
+
+        return ret;
+    }
+
     public static boolean isAccessAllowed(AtlasTypeAccessRequest request) {
         MetricRecorder metric = RequestContext.get().startMetricRecord("isAccessAllowed");
 
@@ -21,6 +21,9 @@ package org.apache.atlas.authorize;
 
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 
+import java.util.BitSet;
+import java.util.List;
+
 public interface AtlasAuthorizer {
     /**
      * initialization of authorizer implementation
@@ -48,6 +51,35 @@ public interface AtlasAuthorizer {
      */
     boolean isAccessAllowed(AtlasEntityAccessRequest request) throws AtlasAuthorizationException;
 
+    /**
+     * authorize operations on a batch of entities
+     * @param requests
+     * @return decisions for the requests: bit i is set if requests.get(i) is allowed
+     * @throws AtlasAuthorizationException
+     */
+    default BitSet isAccessAllowed(List<AtlasEntityAccessRequest> requests) throws AtlasAuthorizationException {
+        BitSet ret = new BitSet(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            if (isAccessAllowed(requests.get(i))) {
+                ret.set(i);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * authorize operations on all entities of the type in the request, irrespective of their ids and classifications;
+     * used for data aggregated over entities that can't be scrubbed per entity, like search facets
+     * @param request
+     * @return true only if the operation is allowed on every entity of the type
+     * @throws AtlasAuthorizationException
+     */
+    default boolean isAccessAllowedOnAllEntities(AtlasEntityAccessRequest request) throws AtlasAuthorizationException {
+        return false;
+    }
+
     /**
      * authorize operations on a type
      * @param request
@@ -62,8 +94,7 @@ public interface AtlasAuthorizer {
      * @return
      * @throws AtlasAuthorizationException
      */
-    default
-    boolean isAccessAllowed(AtlasRelationshipAccessRequest request) throws AtlasAuthorizationException {
+    default boolean isAccessAllowed(AtlasRelationshipAccessRequest request) throws AtlasAuthorizationException {
         return true;
     }
 
@@ -73,12 +104,10 @@ public interface AtlasAuthorizer {
      * @return
      * @throws AtlasAuthorizationException
      */
-    default
-    void scrubSearchResults(AtlasSearchResultScrubRequest request) throws AtlasAuthorizationException {
+    default void scrubSearchResults(AtlasSearchResultScrubRequest request) throws AtlasAuthorizationException {
     }
 
-    default
-    void scrubEntityHeader(AtlasEntityHeader entity) {
+    default void scrubEntityHeader(AtlasEntityHeader entity) {
         entity.setGuid("-1");
 
         if(entity.getAttributes() != null) {
@@ -41,6 +41,11 @@ public class AtlasNoneAuthorizer implements AtlasAuthorizer {
         return true;
     }
 
+    @Override
+    public boolean isAccessAllowedOnAllEntities(AtlasEntityAccessRequest request) throws AtlasAuthorizationException {
+        return true;
+    }
+
     public boolean isAccessAllowed(AtlasTypeAccessRequest request) throws AtlasAuthorizationException {
         return true;
     }
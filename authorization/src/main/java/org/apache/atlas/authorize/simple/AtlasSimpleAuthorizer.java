@@ -20,22 +20,29 @@ package org.apache.atlas.authorize.simple;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.authorize.*;
-import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicy.*;
+import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicyIndex.*;
 import org.apache.atlas.model.discovery.AtlasSearchResult;
 import org.apache.atlas.model.discovery.AtlasSearchResult.AtlasFullTextResult;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.utils.AtlasCache;
 import org.apache.atlas.utils.AtlasJson;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
-import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,7 +52,12 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
 
     private final static String WILDCARD_ASTERISK = "*";
 
-    private AtlasSimpleAuthzPolicy authzPolicy;
+    private final static String DECISION_CACHE_SIZE_PROPERTY        = "atlas.authorizer.simple.decision.cache.size";
+    private final static String DECISION_CACHE_TTL_SECONDS_PROPERTY = "atlas.authorizer.simple.decision.cache.ttl.seconds";
+    private final static int    DEFAULT_DECISION_CACHE_SIZE         = 10000;
+    private final static int    DEFAULT_DECISION_CACHE_TTL_SECONDS  = 300;
+
+    private volatile CompiledPolicy compiledPolicy;
 
 
     public AtlasSimpleAuthorizer() {
@@ -60,7 +72,10 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
         try {
             inputStream = ApplicationProperties.getFileAsInputStream(ApplicationProperties.get(), "atlas.authorizer.simple.authz.policy.file", "atlas-simple-authz-policy.json");
 
-            authzPolicy = AtlasJson.fromJson(inputStream, AtlasSimpleAuthzPolicy.class);
+            AtlasSimpleAuthzPolicy authzPolicy = AtlasJson.fromJson(inputStream, AtlasSimpleAuthzPolicy.class);
+
+            setPolicy(authzPolicy, ApplicationProperties.get().getInt(DECISION_CACHE_SIZE_PROPERTY, DEFAULT_DECISION_CACHE_SIZE),
+                      ApplicationProperties.get().getInt(DECISION_CACHE_TTL_SECONDS_PROPERTY, DEFAULT_DECISION_CACHE_TTL_SECONDS));
         } catch (IOException | AtlasException e) {
             LOG.error("SimpleAtlasAuthorizer.init(): initialization failed", e);
 
@@ -82,7 +97,7 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
     public void cleanUp() {
         LOG.info("==> SimpleAtlasAuthorizer.cleanUp()");
 
-        authzPolicy = null;
+        compiledPolicy = null;
 
         LOG.info("<== SimpleAtlasAuthorizer.cleanUp()");
     }
@@ -95,20 +110,19 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
 
         boolean ret = false;
 
-        Set<String> roles = getRoles(request.getUser(), request.getUserGroups());
+        final AtlasSimpleAuthzPolicyIndex policyIndex = getPolicyIndex();
 
-        for (String role : roles) {
-            List<AtlasAdminPermission> permissions = getAdminPermissionsForRole(role);
+        if (policyIndex != null) {
+            Set<String> roles = policyIndex.getRoles(request.getUser(), request.getUserGroups());
 
-            if (permissions != null) {
-                final String action = request.getAction() != null ? request.getAction().getType() : null;
+            for (String role : roles) {
+                // permissions are indexed by action, hence all returned permissions match the action
+                List<CompiledAdminPermission> permissions = policyIndex.getAdminPermissions(role, request.getAction());
 
-                for (AtlasAdminPermission permission : permissions) {
-                    if (isMatch(action, permission.getPrivileges())) {
-                        ret = true;
+                if (CollectionUtils.isNotEmpty(permissions)) {
+                    ret = true;
 
-                        break;
-                    }
+                    break;
                 }
             }
         }
@@ -128,25 +142,29 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
 
         boolean ret = false;
 
-        Set<String> roles = getRoles(request.getUser(), request.getUserGroups());
+        final AtlasSimpleAuthzPolicyIndex policyIndex = getPolicyIndex();
 
-        for (String role : roles) {
-            List<AtlasTypePermission> permissions = getTypePermissionsForRole(role);
+        if (policyIndex != null) {
+            final Set<String> roles        = policyIndex.getRoles(request.getUser(), request.getUserGroups());
+            final String      typeCategory = request.getTypeDef() != null ? request.getTypeDef().getCategory().name() : null;
+            final String      typeName     = request.getTypeDef() != null ? request.getTypeDef().getName() : null;
 
-            if (permissions != null) {
-                final String action       = request.getAction() != null ? request.getAction().getType() : null;
-                final String typeCategory = request.getTypeDef() != null ? request.getTypeDef().getCategory().name() : null;
-                final String typeName     = request.getTypeDef() != null ? request.getTypeDef().getName() : null;
+            for (String role : roles) {
+                List<CompiledTypePermission> permissions = policyIndex.getTypePermissions(role, request.getAction());
 
-                for (AtlasTypePermission permission : permissions) {
-                    if (isMatch(action, permission.getPrivileges()) &&
-                        isMatch(typeCategory, permission.getTypeCategories()) &&
-                        isMatch(typeName, permission.getTypeNames())) {
-                        ret = true;
+                if (permissions != null) {
+                    for (CompiledTypePermission permission : permissions) {
+                        if (permission.typeCategories.isMatch(typeCategory) && permission.typeNames.isMatch(typeName)) {
+                            ret = true;
 
-                        break;
+                            break;
+                        }
                     }
                 }
+
+                if (ret) {
+                    break;
+                }
             }
         }
 
@@ -159,7 +177,13 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
 
     @Override
     public boolean isAccessAllowed(AtlasRelationshipAccessRequest request) throws AtlasAuthorizationException {
-        final Set<String> roles                       = getRoles(request.getUser(), request.getUserGroups());
+        final AtlasSimpleAuthzPolicyIndex policyIndex = getPolicyIndex();
+
+        if (policyIndex == null) {
+            return false;
+        }
+
+        final Set<String> roles                       = policyIndex.getRoles(request.getUser(), request.getUserGroups());
         final String      relationShipType            = request.getRelationshipType();
         final Set<String> end1EntityTypeAndSuperTypes = request.getEnd1EntityTypeAndAllSuperTypes();
         final Set<String> end1Classifications         = new HashSet<>(request.getEnd1EntityClassifications());
@@ -167,27 +191,26 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
         final Set<String> end2EntityTypeAndSuperTypes = request.getEnd2EntityTypeAndAllSuperTypes();
         final Set<String> end2Classifications         = new HashSet<>(request.getEnd2EntityClassifications());
         final String      end2EntityId                = request.getEnd2EntityId();
-        final String      action                      = request.getAction() != null ? request.getAction().getType() : null;
 
         boolean hasEnd1EntityAccess = false;
         boolean hasEnd2EntityAccess = false;
 
         for (String role : roles) {
-            final List<AtlasRelationshipPermission> permissions = getRelationshipPermissionsForRole(role);
+            final List<CompiledRelationshipPermission> permissions = policyIndex.getRelationshipPermissions(role, request.getAction());
 
             if (permissions == null) {
                 continue;
             }
 
-            for (AtlasRelationshipPermission permission : permissions) {
-                if (isMatch(relationShipType, permission.getRelationshipTypes()) && isMatch(action, permission.getPrivileges())) {
+            for (CompiledRelationshipPermission permission : permissions) {
+                if (permission.relationshipTypes.isMatch(relationShipType)) {
                     //End1 permission check
                     if (!hasEnd1EntityAccess) {
-                         if (isMatchAny(end1EntityTypeAndSuperTypes, permission.getEnd1EntityType()) && isMatch(end1EntityId, permission.getEnd1EntityId())) {
+                         if (permission.end1EntityType.isMatchAny(end1EntityTypeAndSuperTypes) && permission.end1EntityId.isMatch(end1EntityId)) {
                              for (Iterator<String> iter = end1Classifications.iterator(); iter.hasNext();) {
                                  String entityClassification = iter.next();
 
-                                 if (isMatchAny(request.getClassificationTypeAndAllSuperTypes(entityClassification), permission.getEnd1EntityClassification())) {
+                                 if (permission.end1EntityClassification.isMatchAny(request.getClassificationTypeAndAllSuperTypes(entityClassification))) {
                                      iter.remove();
                                  }
                              }
@@ -198,11 +221,11 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
 
                     //End2 permission chech
                     if (!hasEnd2EntityAccess) {
-                        if (isMatchAny(end2EntityTypeAndSuperTypes, permission.getEnd2EntityType()) && isMatch(end2EntityId, permission.getEnd2EntityId())) {
+                        if (permission.end2EntityType.isMatchAny(end2EntityTypeAndSuperTypes) && permission.end2EntityId.isMatch(end2EntityId)) {
                             for (Iterator<String> iter = end2Classifications.iterator(); iter.hasNext();) {
                                 String entityClassification = iter.next();
 
-                                if (isMatchAny(request.getClassificationTypeAndAllSuperTypes(entityClassification), permission.getEnd2EntityClassification())) {
+                                if (permission.end2EntityClassification.isMatchAny(request.getClassificationTypeAndAllSuperTypes(entityClassification))) {
                                     iter.remove();
                                 }
                             }
@@ -223,57 +246,78 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
             LOG.debug("==> SimpleAtlasAuthorizer.isAccessAllowed({})", request);
         }
 
-        final String      action         = request.getAction() != null ? request.getAction().getType() : null;
-        final Set<String> entityTypes    = request.getEntityTypeAndAllSuperTypes();
-        final String      entityId       = request.getEntityId();
-        final String      classification = request.getClassification() != null ? request.getClassification().getTypeName() : null;
-        final String      attribute      = request.getAttributeName();
-        final Set<String> entClsToAuthz  = new HashSet<>(request.getEntityClassifications());
-        final Set<String> roles          = getRoles(request.getUser(), request.getUserGroups());
-        boolean hasEntityAccess          = false;
-        boolean hasClassificationsAccess = false;
+        final CompiledPolicy policy = compiledPolicy;
+        final boolean        ret    = policy != null && isAccessAllowed(request, new EvaluationContext(policy));
 
-        for (String role : roles) {
-            List<AtlasEntityPermission> permissions = getEntityPermissionsForRole(role);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== SimpleAtlasAuthorizer.isAccessAllowed({}): {}", request, ret);
+        }
 
-            if (permissions != null) {
-                for (AtlasEntityPermission permission : permissions) {
-                    // match entity-type/entity-id/attribute
-                    if (isMatchAny(entityTypes, permission.getEntityTypes()) && isMatch(entityId, permission.getEntityIds()) && isMatch(attribute, permission.getAttributes())) {
-                        // match permission/classification
-                        if (!hasEntityAccess) {
-                            if (isMatch(action, permission.getPrivileges()) && isMatch(classification, permission.getClassifications())) {
-                                hasEntityAccess = true;
-                            }
-                        }
+        return ret;
+    }
 
-                        // match entity-classifications
-                        for (Iterator<String> iter = entClsToAuthz.iterator(); iter.hasNext();) {
-                            String entityClassification = iter.next();
+    @Override
+    public BitSet isAccessAllowed(List<AtlasEntityAccessRequest> requests) throws AtlasAuthorizationException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> SimpleAtlasAuthorizer.isAccessAllowed(requests={})", requests.size());
+        }
 
-                            if (isMatchAny(request.getClassificationTypeAndAllSuperTypes(entityClassification), permission.getClassifications())) {
-                                iter.remove();
-                            }
-                        }
+        final BitSet         ret    = new BitSet(requests.size());
+        final CompiledPolicy policy = compiledPolicy;
 
-                        hasClassificationsAccess = CollectionUtils.isEmpty(entClsToAuthz);
+        if (policy != null) {
+            // roles, per-action permissions and classification super-types are computed once for the batch
+            final EvaluationContext context = new EvaluationContext(policy);
 
-                        if (hasEntityAccess && hasClassificationsAccess) {
-                            break;
-                        }
-                    }
+            for (int i = 0; i < requests.size(); i++) {
+                if (isAccessAllowed(requests.get(i), context)) {
+                    ret.set(i);
                 }
             }
         }
 
-        boolean ret = hasEntityAccess && hasClassificationsAccess;
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== SimpleAtlasAuthorizer.isAccessAllowed(requests={}): allowed={}", requests.size(), ret.cardinality());
+        }
 
+        return ret;
+    }
+
+    @Override
+    public boolean isAccessAllowedOnAllEntities(AtlasEntityAccessRequest request) throws AtlasAuthorizationException {
         if (LOG.isDebugEnabled()) {
-            if (!ret) {
-                LOG.debug("hasEntityAccess={}; hasClassificationsAccess={}, classificationsWithNoAccess={}", hasEntityAccess, hasClassificationsAccess, entClsToAuthz);
+            LOG.debug("==> SimpleAtlasAuthorizer.isAccessAllowedOnAllEntities({})", request);
+        }
+
+        final CompiledPolicy policy = compiledPolicy;
+        boolean              ret    = false;
+
+        if (policy != null) {
+            final EvaluationContext context     = new EvaluationContext(policy);
+            final Set<String>       entityTypes = request.getEntityTypeAndAllSuperTypes();
+
+            // a permission that matches all entity-ids and all classifications must allow the action on the type
+            for (String role : context.getRoles(request)) {
+                List<CompiledEntityPermission> permissions = policy.index.getEntityPermissions(role, request.getAction());
+
+                if (permissions != null) {
+                    for (CompiledEntityPermission permission : permissions) {
+                        if (permission.entityTypes.isMatchAny(entityTypes) && permission.entityIds.isMatchAll() && permission.classifications.isMatchAll() && isMatch(request.getAction(), permission.privileges)) {
+                            ret = true;
+
+                            break;
+                        }
+                    }
+                }
+
+                if (ret) {
+                    break;
+                }
             }
+        }
 
-            LOG.debug("<== SimpleAtlasAuthorizer.isAccessAllowed({}): {}", request, ret);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== SimpleAtlasAuthorizer.isAccessAllowedOnAllEntities({}): {}", request, ret);
         }
 
         return ret;
@@ -285,179 +329,248 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
             LOG.debug("==> SimpleAtlasAuthorizer.scrubSearchResults({})", request);
         }
 
-        final AtlasSearchResult result = request.getSearchResult();
+        final AtlasSearchResult       result   = request.getSearchResult();
+        final List<AtlasEntityHeader> entities = new ArrayList<>();
 
         if (CollectionUtils.isNotEmpty(result.getEntities())) {
             for (AtlasEntityHeader entity : result.getEntities()) {
-                checkAccessAndScrub(entity, request);
+                if (entity != null) {
+                    entities.add(entity);
+                }
             }
         }
 
         if (CollectionUtils.isNotEmpty(result.getFullTextResult())) {
             for (AtlasFullTextResult fullTextResult : result.getFullTextResult()) {
-                if (fullTextResult != null) {
-                    checkAccessAndScrub(fullTextResult.getEntity(), request);
+                if (fullTextResult != null && fullTextResult.getEntity() != null) {
+                    entities.add(fullTextResult.getEntity());
                 }
             }
         }
 
         if (MapUtils.isNotEmpty(result.getReferredEntities())) {
             for (AtlasEntityHeader entity : result.getReferredEntities().values()) {
-                checkAccessAndScrub(entity, request);
+                if (entity != null) {
+                    entities.add(entity);
+                }
             }
         }
 
+        checkAccessAndScrub(entities, request);
+
         if (LOG.isDebugEnabled()) {
             LOG.debug("<== SimpleAtlasAuthorizer.scrubSearchResults({}): {}", request, result);
         }
     }
 
-    private Set<String> getRoles(String userName, Set<String> userGroups) {
-        Set<String> ret = new HashSet<>();
+    /**
+     * Replaces the policy in use with the given one. Decisions cached for the earlier policy are discarded along with it.
+     */
+    void setPolicy(AtlasSimpleAuthzPolicy authzPolicy, int decisionCacheSize, int decisionCacheTtlSeconds) {
+        AtlasSimpleAuthzPolicyIndex index         = new AtlasSimpleAuthzPolicyIndex(authzPolicy);
+        AtlasCache<String, Boolean> decisionCache = null;
+
+        if (decisionCacheSize > 0) {
+            decisionCache = AtlasCache.<String, Boolean>newBuilder().name("SimpleAuthorizerDecisionCache")
+                                                                     .maximumSize(decisionCacheSize)
+                                                                     .expireAfterWrite(decisionCacheTtlSeconds, TimeUnit.SECONDS)
+                                                                     .build();
+        }
 
-        if (authzPolicy != null) {
-            if (userName != null && authzPolicy.getUserRoles() != null) {
-                List<String> userRoles = authzPolicy.getUserRoles().get(userName);
+        compiledPolicy = new CompiledPolicy(index, decisionCache);
 
-                if (userRoles != null) {
-                    ret.addAll(userRoles);
-                }
-            }
+        LOG.info("SimpleAtlasAuthorizer: policy compiled; decisionCacheSize={}, decisionCacheTtlSeconds={}", decisionCacheSize, decisionCacheTtlSeconds);
+    }
 
-            if (userGroups != null && authzPolicy.getGroupRoles() != null) {
-                for (String groupName : userGroups) {
-                    List<String> groupRoles = authzPolicy.getGroupRoles().get(groupName);
+    private AtlasSimpleAuthzPolicyIndex getPolicyIndex() {
+        final CompiledPolicy policy = compiledPolicy;
 
-                    if (groupRoles != null) {
-                        ret.addAll(groupRoles);
-                    }
-                }
+        return policy != null ? policy.index : null;
+    }
+
+    private boolean isAccessAllowed(AtlasEntityAccessRequest request, EvaluationContext context) {
+        final AtlasCache<String, Boolean> decisionCache = context.policy.decisionCache;
+        final boolean                     ret;
+
+        if (decisionCache == null) {
+            ret = evaluate(request, context);
+        } else {
+            String  cacheKey = getDecisionCacheKey(request, context);
+            Boolean decision = decisionCache.get(cacheKey);
+
+            if (decision == null) {
+                decision = evaluate(request, context);
+
+                decisionCache.put(cacheKey, decision);
             }
-        }
 
-        if (LOG.isDebugEnabled()) {
-            LOG.debug("<== getRoles({}, {}): {}", userName, userGroups, ret);
+            ret = decision;
         }
 
         return ret;
     }
 
-    private List<AtlasAdminPermission> getAdminPermissionsForRole(String roleName) {
-        List<AtlasAdminPermission> ret = null;
-
-        if (authzPolicy != null && roleName != null) {
-            AtlasAuthzRole role = authzPolicy.getRoles().get(roleName);
+    private boolean evaluate(AtlasEntityAccessRequest request, EvaluationContext context) {
+        final AtlasSimpleAuthzPolicyIndex policyIndex = context.policy.index;
+        final Set<String>                 roles       = context.getRoles(request);
 
-            ret = role != null ? role.getAdminPermissions() : null;
+        if (!context.hasAnyEntityPermission(request.getAction())) {
+            return false;
         }
 
-        return ret;
-    }
+        final Set<String> entityTypes    = request.getEntityTypeAndAllSuperTypes();
+        final String      entityId       = request.getEntityId();
+        final String      classification = request.getClassification() != null ? request.getClassification().getTypeName() : null;
+        final String      attribute      = request.getAttributeName();
+        final Set<String> entClsToAuthz  = new HashSet<>(request.getEntityClassifications());
+        boolean hasEntityAccess          = false;
+        boolean hasClassificationsAccess = false;
 
-    private List<AtlasTypePermission> getTypePermissionsForRole(String roleName) {
-        List<AtlasTypePermission> ret = null;
+        for (String role : roles) {
+            // permissions for all actions are needed, as entity-classifications are matched irrespective of the action
+            List<CompiledEntityPermission> permissions = policyIndex.getEntityPermissions(role, null);
 
-        if (authzPolicy != null && roleName != null) {
-            AtlasAuthzRole role = authzPolicy.getRoles().get(roleName);
+            if (permissions != null) {
+                for (CompiledEntityPermission permission : permissions) {
+                    // match entity-type/entity-id/attribute
+                    if (permission.entityTypes.isMatchAny(entityTypes) && permission.entityIds.isMatch(entityId) && permission.attributes.isMatch(attribute)) {
+                        // match permission/classification
+                        if (!hasEntityAccess) {
+                            if (isMatch(request.getAction(), permission.privileges) && permission.classifications.isMatch(classification)) {
+                                hasEntityAccess = true;
+                            }
+                        }
 
-            ret = role != null ? role.getTypePermissions() : null;
-        }
+                        // match entity-classifications
+                        for (Iterator<String> iter = entClsToAuthz.iterator(); iter.hasNext();) {
+                            String entityClassification = iter.next();
 
-        return ret;
-    }
+                            if (permission.classifications.isMatchAny(context.getClassificationTypeAndAllSuperTypes(request, entityClassification))) {
+                                iter.remove();
+                            }
+                        }
 
-    private List<AtlasEntityPermission> getEntityPermissionsForRole(String roleName) {
-        List<AtlasEntityPermission> ret = null;
+                        hasClassificationsAccess = CollectionUtils.isEmpty(entClsToAuthz);
 
-        if (authzPolicy != null && roleName != null) {
-            AtlasAuthzRole role = authzPolicy.getRoles().get(roleName);
+                        if (hasEntityAccess && hasClassificationsAccess) {
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        boolean ret = hasEntityAccess && hasClassificationsAccess;
 
-            ret = role != null ? role.getEntityPermissions() : null;
+        if (!ret && LOG.isDebugEnabled()) {
+            LOG.debug("hasEntityAccess={}; hasClassificationsAccess={}, classificationsWithNoAccess={}", hasEntityAccess, hasClassificationsAccess, entClsToAuthz);
         }
 
         return ret;
     }
 
+    private boolean isMatch(AtlasPrivilege action, PatternList privileges) {
+        return privileges.isMatch(action != null ? action.getType() : null);
+    }
 
-    private List<AtlasRelationshipPermission> getRelationshipPermissionsForRole(String roleName) {
-        List<AtlasRelationshipPermission> ret = null;
+    private String getDecisionCacheKey(AtlasEntityAccessRequest request, EvaluationContext context) {
+        StringBuilder sb = new StringBuilder();
 
-        if (authzPolicy != null && roleName != null) {
-            AtlasAuthzRole role = authzPolicy.getRoles().get(roleName);
+        sb.append(context.getUserKey(request)).append('\u0000')
+          .append(request.getAction()).append('\u0000')
+          .append(request.getEntityType()).append('\u0000')
+          .append(request.getEntityId()).append('\u0000')
+          .append(request.getClassification() != null ? request.getClassification().getTypeName() : null).append('\u0000')
+          .append(request.getAttributeName()).append('\u0000')
+          .append(new TreeSet<>(request.getEntityClassifications()));
 
-            ret = role != null ? role.getRelationshipPermissions() : null;
-        }
-
-        return ret;
+        return sb.toString();
     }
 
-    private boolean isMatch(String value, List<String> patterns) {
-        boolean ret = false;
+    private void checkAccessAndScrub(List<AtlasEntityHeader> entities, AtlasSearchResultScrubRequest request) throws AtlasAuthorizationException {
+        if (CollectionUtils.isNotEmpty(entities) && request != null) {
+            final List<AtlasEntityAccessRequest> entityAccessRequests = new ArrayList<>(entities.size());
 
-        if (value == null) {
-            ret = true;
-        } if (CollectionUtils.isNotEmpty(patterns)) {
-            for (String pattern : patterns) {
-                if (isMatch(value, pattern)) {
-                    ret = true;
+            for (AtlasEntityHeader entity : entities) {
+                final AtlasEntityAccessRequest entityAccessRequest = new AtlasEntityAccessRequest(request.getTypeRegistry(), AtlasPrivilege.ENTITY_READ, entity, request.getUser(), request.getUserGroups());
 
-                    break;
-                }
+                entityAccessRequest.setClientIPAddress(request.getClientIPAddress());
+
+                entityAccessRequests.add(entityAccessRequest);
             }
-        }
 
-        if (!ret && LOG.isDebugEnabled()) {
-            LOG.debug("<== isMatch({}, {}): {}", value, patterns, ret);
-        }
+            final BitSet allowed = isAccessAllowed(entityAccessRequests);
 
-        return ret;
+            for (int i = allowed.nextClearBit(0); i < entities.size(); i = allowed.nextClearBit(i + 1)) {
+                scrubEntityHeader(entities.get(i));
+            }
+        }
     }
 
-    private boolean isMatchAny(Set<String> values, List<String> patterns) {
-        boolean ret = false;
+    private static class CompiledPolicy {
+        final AtlasSimpleAuthzPolicyIndex index;
+        final AtlasCache<String, Boolean> decisionCache;
 
-        if (CollectionUtils.isEmpty(values)) {
-            ret = true;
-        }if (CollectionUtils.isNotEmpty(patterns)) {
-            for (String value : values) {
-                if (isMatch(value, patterns)) {
-                    ret = true;
-
-                    break;
-                }
-            }
+        CompiledPolicy(AtlasSimpleAuthzPolicyIndex index, AtlasCache<String, Boolean> decisionCache) {
+            this.index         = index;
+            this.decisionCache = decisionCache;
         }
+    }
 
-        if (!ret && LOG.isDebugEnabled()) {
-            LOG.debug("<== isMatchAny({}, {}): {}", values, patterns, ret);
+    /**
+     * State shared by evaluation of requests in a batch. Requests in a batch are usually from the same user, hence
+     * roles of the last seen user and groups are retained.
+     */
+    private static class EvaluationContext {
+        final CompiledPolicy               policy;
+        final Map<AtlasPrivilege, Boolean> hasAnyEntityPermission = new HashMap<>();
+        final Map<String, Set<String>>     clsTypeAndSuperTypes   = new HashMap<>();
+        private String                     user;
+        private Set<String>                userGroups;
+        private Set<String>                roles;
+        private String                     userKey;
+
+        EvaluationContext(CompiledPolicy policy) {
+            this.policy = policy;
         }
 
-        return ret;
-    }
+        Set<String> getRoles(AtlasAccessRequest request) {
+            setUser(request);
 
-    private boolean isMatch(String value, String pattern) {
-        boolean ret;
+            return roles;
+        }
 
-        if (value == null) {
-            ret = true;
-        } else {
-            ret = StringUtils.equalsIgnoreCase(value, pattern) || value.matches(pattern);
+        String getUserKey(AtlasAccessRequest request) {
+            setUser(request);
+
+            return userKey;
         }
 
-        return ret;
-    }
+        boolean hasAnyEntityPermission(AtlasPrivilege action) {
+            return hasAnyEntityPermission.computeIfAbsent(action, a -> {
+                for (String role : roles) {
+                    if (CollectionUtils.isNotEmpty(policy.index.getEntityPermissions(role, a))) {
+                        return true;
+                    }
+                }
 
-    private void checkAccessAndScrub(AtlasEntityHeader entity, AtlasSearchResultScrubRequest request) throws AtlasAuthorizationException {
-        if (entity != null && request != null) {
-            final AtlasEntityAccessRequest entityAccessRequest = new AtlasEntityAccessRequest(request.getTypeRegistry(), AtlasPrivilege.ENTITY_READ, entity, request.getUser(), request.getUserGroups());
+                return false;
+            });
+        }
+
+        Set<String> getClassificationTypeAndAllSuperTypes(AtlasEntityAccessRequest request, String classificationName) {
+            return clsTypeAndSuperTypes.computeIfAbsent(classificationName, request::getClassificationTypeAndAllSuperTypes);
+        }
 
-            entityAccessRequest.setClientIPAddress(request.getClientIPAddress());
+        private void setUser(AtlasAccessRequest request) {
+            if (roles == null || !Objects.equals(user, request.getUser()) || !Objects.equals(userGroups, request.getUserGroups())) {
+                user       = request.getUser();
+                userGroups = request.getUserGroups();
+                roles      = policy.index.getRoles(user, userGroups);
+                userKey    = user + "\u0000" + (userGroups != null ? new TreeSet<>(userGroups) : null);
 
-            if (!isAccessAllowed(entityAccessRequest)) {
-                scrubEntityHeader(entity);
+                hasAnyEntityPermission.clear();
             }
         }
     }
 }
-
-
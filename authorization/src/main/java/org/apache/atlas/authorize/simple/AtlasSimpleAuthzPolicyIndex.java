@@ -0,0 +1,335 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.authorize.simple;
+
+import org.apache.atlas.authorize.AtlasPrivilege;
+import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicy.AtlasAdminPermission;
+import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicy.AtlasAuthzRole;
+import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicy.AtlasEntityPermission;
+import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicy.AtlasRelationshipPermission;
+import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicy.AtlasTypePermission;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * AtlasSimpleAuthzPolicy compiled for evaluation: permissions of each role are indexed by the action (privilege) they
+ * allow and all patterns in the policy are compiled once. Instances are immutable; a policy reload creates a new index.
+ */
+public class AtlasSimpleAuthzPolicyIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(AtlasSimpleAuthzPolicyIndex.class);
+
+    private static final String REGEX_META_CHARS  = "\\^$.|?*+()[]{}";
+    private static final String MATCH_ALL_PATTERN = ".*";
+
+    private final Map<String, List<String>> userRoles;
+    private final Map<String, List<String>> groupRoles;
+    private final Map<String, RoleIndex>    roles = new HashMap<>();
+
+    public AtlasSimpleAuthzPolicyIndex(AtlasSimpleAuthzPolicy policy) {
+        this.userRoles  = policy.getUserRoles() != null ? policy.getUserRoles() : Collections.emptyMap();
+        this.groupRoles = policy.getGroupRoles() != null ? policy.getGroupRoles() : Collections.emptyMap();
+
+        if (MapUtils.isNotEmpty(policy.getRoles())) {
+            for (Map.Entry<String, AtlasAuthzRole> entry : policy.getRoles().entrySet()) {
+                if (entry.getValue() != null) {
+                    roles.put(entry.getKey(), new RoleIndex(entry.getValue()));
+                }
+            }
+        }
+    }
+
+    public Set<String> getRoles(String userName, Set<String> userGroups) {
+        Set<String> ret = new HashSet<>();
+
+        if (userName != null) {
+            List<String> roles = userRoles.get(userName);
+
+            if (roles != null) {
+                ret.addAll(roles);
+            }
+        }
+
+        if (userGroups != null) {
+            for (String groupName : userGroups) {
+                List<String> roles = groupRoles.get(groupName);
+
+                if (roles != null) {
+                    ret.addAll(roles);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    public List<CompiledAdminPermission> getAdminPermissions(String roleName, AtlasPrivilege action) {
+        RoleIndex role = roleName != null ? roles.get(roleName) : null;
+
+        return role != null ? role.adminPermissions.get(action) : null;
+    }
+
+    public List<CompiledTypePermission> getTypePermissions(String roleName, AtlasPrivilege action) {
+        RoleIndex role = roleName != null ? roles.get(roleName) : null;
+
+        return role != null ? role.typePermissions.get(action) : null;
+    }
+
+    public List<CompiledEntityPermission> getEntityPermissions(String roleName, AtlasPrivilege action) {
+        RoleIndex role = roleName != null ? roles.get(roleName) : null;
+
+        return role != null ? role.entityPermissions.get(action) : null;
+    }
+
+    public List<CompiledRelationshipPermission> getRelationshipPermissions(String roleName, AtlasPrivilege action) {
+        RoleIndex role = roleName != null ? roles.get(roleName) : null;
+
+        return role != null ? role.relationshipPermissions.get(action) : null;
+    }
+
+
+    /**
+     * Compiled form of a list of patterns in the policy. A value matches a pattern if it is equal to the pattern,
+     * ignoring case, or if it matches the pattern as a regular expression.
+     */
+    public static class PatternList {
+        private final boolean       isEmpty;
+        private final boolean       isMatchAll;
+        private final Set<String>   literals;
+        private final List<Pattern> regexes;
+
+        public PatternList(List<String> patterns) {
+            this.isEmpty    = CollectionUtils.isEmpty(patterns);
+            this.isMatchAll = !isEmpty && patterns.contains(MATCH_ALL_PATTERN);
+            this.literals   = new HashSet<>();
+            this.regexes    = new ArrayList<>();
+
+            if (!isEmpty) {
+                for (String pattern : patterns) {
+                    if (pattern == null) {
+                        continue;
+                    }
+
+                    literals.add(pattern.toLowerCase(Locale.ROOT));
+
+                    if (hasRegexMetaChars(pattern)) {
+                        try {
+                            regexes.add(Pattern.compile(pattern));
+                        } catch (PatternSyntaxException excp) {
+                            LOG.warn("invalid pattern '{}' in authorization policy; will be matched as literal", pattern, excp);
+                        }
+                    }
+                }
+            }
+        }
+
+        public boolean isMatch(String value) {
+            boolean ret;
+
+            if (value == null) {
+                ret = true;
+            } else if (isEmpty) {
+                ret = false;
+            } else if (literals.contains(value.toLowerCase(Locale.ROOT))) {
+                ret = true;
+            } else {
+                ret = false;
+
+                for (Pattern regex : regexes) {
+                    if (regex.matcher(value).matches()) {
+                        ret = true;
+
+                        break;
+                    }
+                }
+            }
+
+            return ret;
+        }
+
+        /**
+         * @return true if every value matches, i.e. the list has the pattern .*
+         */
+        public boolean isMatchAll() {
+            return isMatchAll;
+        }
+
+        public boolean isMatchAny(Set<String> values) {
+            boolean ret = false;
+
+            if (CollectionUtils.isEmpty(values)) {
+                ret = true;
+            } else if (!isEmpty) {
+                for (String value : values) {
+                    if (isMatch(value)) {
+                        ret = true;
+
+                        break;
+                    }
+                }
+            }
+
+            return ret;
+        }
+
+        private static boolean hasRegexMetaChars(String pattern) {
+            for (int i = 0; i < pattern.length(); i++) {
+                if (REGEX_META_CHARS.indexOf(pattern.charAt(i)) != -1) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    public static class CompiledAdminPermission {
+        final PatternList privileges;
+
+        CompiledAdminPermission(AtlasAdminPermission permission) {
+            this.privileges = new PatternList(permission.getPrivileges());
+        }
+    }
+
+    public static class CompiledTypePermission {
+        final PatternList privileges;
+        final PatternList typeCategories;
+        final PatternList typeNames;
+
+        CompiledTypePermission(AtlasTypePermission permission) {
+            this.privileges     = new PatternList(permission.getPrivileges());
+            this.typeCategories = new PatternList(permission.getTypeCategories());
+            this.typeNames      = new PatternList(permission.getTypeNames());
+        }
+    }
+
+    public static class CompiledEntityPermission {
+        final PatternList privileges;
+        final PatternList entityTypes;
+        final PatternList entityIds;
+        final PatternList classifications;
+        final PatternList attributes;
+
+        CompiledEntityPermission(AtlasEntityPermission permission) {
+            this.privileges      = new PatternList(permission.getPrivileges());
+            this.entityTypes     = new PatternList(permission.getEntityTypes());
+            this.entityIds       = new PatternList(permission.getEntityIds());
+            this.classifications = new PatternList(permission.getClassifications());
+            this.attributes      = new PatternList(permission.getAttributes());
+        }
+    }
+
+    public static class CompiledRelationshipPermission {
+        final PatternList privileges;
+        final PatternList relationshipTypes;
+        final PatternList end1EntityType;
+        final PatternList end1EntityId;
+        final PatternList end1EntityClassification;
+        final PatternList end2EntityType;
+        final PatternList end2EntityId;
+        final PatternList end2EntityClassification;
+
+        CompiledRelationshipPermission(AtlasRelationshipPermission permission) {
+            this.privileges               = new PatternList(permission.getPrivileges());
+            this.relationshipTypes        = new PatternList(permission.getRelationshipTypes());
+            this.end1EntityType           = new PatternList(permission.getEnd1EntityType());
+            this.end1EntityId             = new PatternList(permission.getEnd1EntityId());
+            this.end1EntityClassification = new PatternList(permission.getEnd1EntityClassification());
+            this.end2EntityType           = new PatternList(permission.getEnd2EntityType());
+            this.end2EntityId             = new PatternList(permission.getEnd2EntityId());
+            this.end2EntityClassification = new PatternList(permission.getEnd2EntityClassification());
+        }
+    }
+
+    /**
+     * Permissions of a role, indexed by action. As in the policy evaluation, a null action matches every permission.
+     */
+    private static class RoleIndex {
+        final ActionIndex<CompiledAdminPermission>        adminPermissions        = new ActionIndex<>();
+        final ActionIndex<CompiledTypePermission>         typePermissions         = new ActionIndex<>();
+        final ActionIndex<CompiledEntityPermission>       entityPermissions       = new ActionIndex<>();
+        final ActionIndex<CompiledRelationshipPermission> relationshipPermissions = new ActionIndex<>();
+
+        RoleIndex(AtlasAuthzRole role) {
+            if (role.getAdminPermissions() != null) {
+                for (AtlasAdminPermission permission : role.getAdminPermissions()) {
+                    CompiledAdminPermission compiled = new CompiledAdminPermission(permission);
+
+                    adminPermissions.add(compiled, compiled.privileges);
+                }
+            }
+
+            if (role.getTypePermissions() != null) {
+                for (AtlasTypePermission permission : role.getTypePermissions()) {
+                    CompiledTypePermission compiled = new CompiledTypePermission(permission);
+
+                    typePermissions.add(compiled, compiled.privileges);
+                }
+            }
+
+            if (role.getEntityPermissions() != null) {
+                for (AtlasEntityPermission permission : role.getEntityPermissions()) {
+                    CompiledEntityPermission compiled = new CompiledEntityPermission(permission);
+
+                    entityPermissions.add(compiled, compiled.privileges);
+                }
+            }
+
+            if (role.getRelationshipPermissions() != null) {
+                for (AtlasRelationshipPermission permission : role.getRelationshipPermissions()) {
+                    CompiledRelationshipPermission compiled = new CompiledRelationshipPermission(permission);
+
+                    relationshipPermissions.add(compiled, compiled.privileges);
+                }
+            }
+        }
+    }
+
+    private static class ActionIndex<T> {
+        private final List<T>                      all      = new ArrayList<>();
+        private final Map<AtlasPrivilege, List<T>> byAction = new EnumMap<>(AtlasPrivilege.class);
+
+        void add(T permission, PatternList privileges) {
+            all.add(permission);
+
+            for (AtlasPrivilege action : AtlasPrivilege.values()) {
+                if (privileges.isMatch(action.getType())) {
+                    byAction.computeIfAbsent(action, k -> new ArrayList<>()).add(permission);
+                }
+            }
+        }
+
+        List<T> get(AtlasPrivilege action) {
+            return action == null ? all : byAction.get(action);
+        }
+    }
+}
@@ -24,7 +24,10 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 import org.testng.AssertJUnit;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.List;
 
 public class AtlasSimpleAuthorizerTest {
     private static Logger LOG = LoggerFactory.getLogger(AtlasSimpleAuthorizerTest.class);
@@ -104,4 +107,64 @@ public class AtlasSimpleAuthorizerTest {
             AssertJUnit.fail();
         }
     }
+
+    @Test(enabled = true)
+    public void testBatchAccess() {
+        try {
+            List<AtlasEntityAccessRequest> requests = new ArrayList<>();
+
+            for (int i = 0; i < 10; i++) {
+                AtlasEntityAccessRequest request = new AtlasEntityAccessRequest(null, AtlasPrivilege.ENTITY_UPDATE);
+
+                if (i % 2 == 0) {
+                    request.setUser("admin", Collections.singleton("ROLE_ADMIN"));
+                } else {
+                    request.setUser("nonmappeduser", Collections.singleton("GROUP-NOT-IN-POLICYFILE"));
+                }
+
+                requests.add(request);
+            }
+
+            BitSet allowed = authorizer.isAccessAllowed(requests);
+
+            for (int i = 0; i < requests.size(); i++) {
+                AssertJUnit.assertEquals(authorizer.isAccessAllowed(requests.get(i)), allowed.get(i));
+                AssertJUnit.assertEquals(i % 2 == 0, allowed.get(i));
+            }
+        } catch (AtlasAuthorizationException e) {
+            LOG.error("Exception in AtlasSimpleAuthorizerTest", e);
+
+            AssertJUnit.fail();
+        }
+    }
+
+    @Test(enabled = true)
+    public void testAccessAllowedOnAllEntities() {
+        try {
+            AtlasEntityAccessRequest request = new AtlasEntityAccessRequest(null, AtlasPrivilege.ENTITY_READ);
+
+            request.setUser("nonmappeduser", Collections.singleton("DATA_STEWARD"));
+
+            AssertJUnit.assertEquals(true, authorizer.isAccessAllowedOnAllEntities(request));
+
+            // read is allowed only on entities having specific ids
+            request.setUser("nonmappeduser", Collections.singleton("DB1_READERS"));
+
+            AssertJUnit.assertEquals(false, authorizer.isAccessAllowedOnAllEntities(request));
+
+            request.setUser("nonmappeduser", Collections.singleton("GROUP-NOT-IN-POLICYFILE"));
+
+            AssertJUnit.assertEquals(false, authorizer.isAccessAllowedOnAllEntities(request));
+
+            request = new AtlasEntityAccessRequest(null, AtlasPrivilege.ENTITY_DELETE);
+
+            request.setUser("nonmappeduser", Collections.singleton("DATA_STEWARD"));
+
+            AssertJUnit.assertEquals(false, authorizer.isAccessAllowedOnAllEntities(request));
+        } catch (AtlasAuthorizationException e) {
+            LOG.error("Exception in AtlasSimpleAuthorizerTest", e);
+
+            AssertJUnit.fail();
+        }
+    }
 }
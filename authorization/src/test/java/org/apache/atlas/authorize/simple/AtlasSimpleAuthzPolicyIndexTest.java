@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.authorize.simple;
+
+import org.apache.atlas.authorize.AtlasEntityAccessRequest;
+import org.apache.atlas.authorize.AtlasPrivilege;
+import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicy.AtlasAuthzRole;
+import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicy.AtlasEntityPermission;
+import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicyIndex.PatternList;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class AtlasSimpleAuthzPolicyIndexTest {
+    @Test
+    public void testPatternList() {
+        PatternList patterns = new PatternList(Arrays.asList("entity-read", "hive_.*", "invalid[regex"));
+
+        assertTrue(patterns.isMatch(null));
+        assertTrue(patterns.isMatch("entity-read"));
+        assertTrue(patterns.isMatch("ENTITY-READ"));
+        assertTrue(patterns.isMatch("hive_table"));
+        assertFalse(patterns.isMatch("HIVE_TABLE"));
+        assertFalse(patterns.isMatch("hdfs_path"));
+        assertTrue(patterns.isMatch("INVALID[REGEX"));
+
+        assertTrue(patterns.isMatchAny(null));
+        assertTrue(patterns.isMatchAny(new HashSet<>(Arrays.asList("DataSet", "hive_table"))));
+        assertFalse(patterns.isMatchAny(new HashSet<>(Arrays.asList("DataSet", "Referenceable"))));
+
+        PatternList empty = new PatternList(null);
+
+        assertTrue(empty.isMatch(null));
+        assertFalse(empty.isMatch("entity-read"));
+        assertTrue(empty.isMatchAny(Collections.emptySet()));
+        assertFalse(empty.isMatchAny(Collections.singleton("hive_table")));
+    }
+
+    @Test
+    public void testPermissionsIndexedByAction() {
+        AtlasSimpleAuthzPolicyIndex index = new AtlasSimpleAuthzPolicyIndex(createPolicy("entity-read|entity-update"));
+
+        assertEquals(index.getRoles("user1", null), Collections.singleton("ROLE1"));
+        assertEquals(index.getRoles("user2", Collections.singleton("group1")), Collections.singleton("ROLE1"));
+        assertTrue(index.getRoles("user2", Collections.singleton("group2")).isEmpty());
+
+        assertEquals(index.getEntityPermissions("ROLE1", AtlasPrivilege.ENTITY_READ).size(), 1);
+        assertEquals(index.getEntityPermissions("ROLE1", AtlasPrivilege.ENTITY_UPDATE).size(), 1);
+        assertEquals(index.getEntityPermissions("ROLE1", null).size(), 1);
+        assertNull(index.getEntityPermissions("ROLE1", AtlasPrivilege.ENTITY_DELETE));
+        assertNull(index.getEntityPermissions("ROLE2", AtlasPrivilege.ENTITY_READ));
+    }
+
+    @Test
+    public void testDecisionCacheInvalidatedOnPolicyChange() throws Exception {
+        AtlasSimpleAuthorizer    authorizer = new AtlasSimpleAuthorizer();
+        AtlasEntityAccessRequest request    = new AtlasEntityAccessRequest(null, AtlasPrivilege.ENTITY_UPDATE);
+
+        request.setUser("user1", Collections.emptySet());
+
+        authorizer.setPolicy(createPolicy("entity-read|entity-update"), 100, 300);
+
+        assertTrue(authorizer.isAccessAllowed(request));
+        assertTrue(authorizer.isAccessAllowed(request));
+
+        authorizer.setPolicy(createPolicy("entity-read"), 100, 300);
+
+        assertFalse(authorizer.isAccessAllowed(request));
+
+        authorizer.cleanUp();
+
+        assertFalse(authorizer.isAccessAllowed(request));
+    }
+
+    private AtlasSimpleAuthzPolicy createPolicy(String privileges) {
+        AtlasEntityPermission       permission = new AtlasEntityPermission(Collections.singletonList(privileges), Collections.singletonList(".*"), Collections.singletonList(".*"), Collections.singletonList(".*"), null);
+        Map<String, AtlasAuthzRole> roles      = new HashMap<>();
+        Map<String, List<String>>   userRoles  = new HashMap<>();
+        Map<String, List<String>>   groupRoles = new HashMap<>();
+
+        roles.put("ROLE1", new AtlasAuthzRole(null, null, Collections.singletonList(permission), null));
+        userRoles.put("user1", Collections.singletonList("ROLE1"));
+        groupRoles.put("group1", Collections.singletonList("ROLE1"));
+
+        AtlasSimpleAuthzPolicy ret = new AtlasSimpleAuthzPolicy();
+
+        ret.setRoles(roles);
+        ret.setUserRoles(userRoles);
+        ret.setGroupRoles(groupRoles);
+
+        return ret;
+    }
+}
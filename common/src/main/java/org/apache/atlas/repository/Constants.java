@@ -50,6 +50,13 @@ public final class Constants {
      */
     public static final String SUPER_TYPES_PROPERTY_KEY = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "superTypeNames");
 
+    /**
+     * Type name and names of all super-types of entity/classification, as a single delimited value. Unlike
+     * SUPER_TYPES_PROPERTY_KEY, this is added to the search index; used to find instances of a type and its sub-types.
+     */
+    public static final String TYPE_HIERARCHY_PROPERTY_KEY = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "typeHierarchy");
+    public static final String TYPE_HIERARCHY_DELIMITER    = "|";
+
     /**
      * Full-text for the entity for enabling full-text search.
      */
@@ -66,6 +73,11 @@ public final class Constants {
     public static final String TYPEOPTIONS_PROPERTY_KEY     = getEncodedTypePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "type.options");
     public static final String TYPESERVICETYPE_PROPERTY_KEY = getEncodedTypePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "type.servicetype");
 
+    /**
+     * Property of the type-system version vertex; updated on every typedef change.
+     */
+    public static final String TYPESYSTEM_VERSION_PROPERTY_KEY = getEncodedTypePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "type.system.version");
+
     // relationship def constants
     public static final String RELATIONSHIPTYPE_END1_KEY                               = "endDef1";
     public static final String RELATIONSHIPTYPE_END2_KEY                               = "endDef2";
@@ -94,6 +106,12 @@ public final class Constants {
     public static final String PATCH_ACTION_PROPERTY_KEY      = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "patch.action");
     public static final String PATCH_STATE_PROPERTY_KEY       = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "patch.state");
 
+    /**
+     * Entity counts (metrics) vertex property keys.
+     */
+    public static final String ENTITY_COUNTS_ID_PROPERTY_KEY    = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "entityCounts.id");
+    public static final String ENTITY_COUNTS_VALUE_PROPERTY_KEY = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "entityCounts.value");
+
     /**
      * The homeId field is used when saving into Atlas a copy of an object that is being imported from another
      * repository. The homeId will be set to a String that identifies the other repository. The specific format
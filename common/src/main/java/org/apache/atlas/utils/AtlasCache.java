@@ -0,0 +1,605 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Array;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Thread-safe, bounded cache.
+ *
+ * Entries are spread over independently locked segments, so concurrent readers and writers of different keys
+ * do not contend on a single lock. Each segment uses a Window-TinyLFU policy: new entries enter a small LRU
+ * window and, once they age out of it, are admitted to the main LRU region only if they have been accessed more
+ * often than the entry they would replace. Access frequencies are tracked in a compact count-min sketch that is
+ * periodically aged, so one-off scans do not flush frequently used entries.
+ *
+ * Entries can optionally expire a fixed duration after they were written; expired entries are removed lazily, on
+ * access or when they reach the eviction end of the cache. The size bound is either an entry count or, when a
+ * weigher is given, a total weight.
+ */
+public class AtlasCache<K, V> {
+    private static final Logger LOG = LoggerFactory.getLogger(AtlasCache.class);
+
+    private static final int  DEFAULT_CONCURRENCY_LEVEL   = 16;
+    private static final int  MIN_SEGMENT_WEIGHT          = 32;
+    private static final int  WINDOW_PERCENT              = 1;
+
+    private final String                          name;
+    private final Segment[]                       segments;
+    private final int                             segmentShift;
+    private final Weigher<? super K, ? super V>   weigher;
+    private final long                            expireAfterWriteNanos;
+    private final LongAdder                       hitCount        = new LongAdder();
+    private final LongAdder                       missCount       = new LongAdder();
+    private final LongAdder                       evictionCount   = new LongAdder();
+    private final LongAdder                       expirationCount = new LongAdder();
+
+    public static <K, V> Builder<K, V> newBuilder() {
+        return new Builder<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    private AtlasCache(Builder<K, V> builder) {
+        long maxWeight    = builder.maximumWeight;
+        int  segmentCount = 1;
+
+        while (segmentCount < builder.concurrencyLevel && (maxWeight / (segmentCount << 1)) >= MIN_SEGMENT_WEIGHT) {
+            segmentCount <<= 1;
+        }
+
+        this.name                  = builder.name;
+        this.weigher               = builder.weigher;
+        this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+        this.segments              = (Segment[]) Array.newInstance(Segment.class, segmentCount);
+        this.segmentShift          = 32 - Integer.numberOfTrailingZeros(segmentCount);
+
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(maxWeight / segmentCount + (i < (maxWeight % segmentCount) ? 1 : 0));
+        }
+
+        LOG.info("AtlasCache(name={}, maximumWeight={}, segments={}, expireAfterWriteMs={})", name, maxWeight, segmentCount, TimeUnit.NANOSECONDS.toMillis(expireAfterWriteNanos));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return value mapped to the given key, or null if the key is not present or has expired
+     */
+    public V get(K key) {
+        Segment segment = segmentFor(key);
+        V       ret;
+
+        segment.lock.lock();
+
+        try {
+            ret = segment.get(key);
+        } finally {
+            segment.lock.unlock();
+        }
+
+        if (ret != null) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns the value mapped to the given key, computing and caching it with the given loader if absent.
+     * The loader is called outside of the cache locks, hence concurrent callers for the same key may each invoke
+     * it; the first value cached wins. A null value returned by the loader is not cached.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V ret = get(key);
+
+        if (ret == null) {
+            V value = loader.apply(key);
+
+            if (value != null) {
+                ret = putIfAbsent(key, value);
+
+                if (ret == null) {
+                    ret = value;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, false);
+    }
+
+    /**
+     * @return the existing value if present, otherwise null after caching the given value
+     */
+    public V putIfAbsent(K key, V value) {
+        return put(key, value, true);
+    }
+
+    public V remove(K key) {
+        Segment segment = segmentFor(key);
+
+        segment.lock.lock();
+
+        try {
+            Node<V> node = segment.remove(key);
+
+            return node != null ? node.value : null;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+
+            try {
+                segment.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    public long size() {
+        long ret = 0;
+
+        for (Segment segment : segments) {
+            segment.lock.lock();
+
+            try {
+                ret += segment.window.size() + segment.main.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+
+        return ret;
+    }
+
+    public long weightedSize() {
+        long ret = 0;
+
+        for (Segment segment : segments) {
+            segment.lock.lock();
+
+            try {
+                ret += segment.windowWeight + segment.mainWeight;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+
+        return ret;
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), expirationCount.sum());
+    }
+
+    @Override
+    public String toString() {
+        return "AtlasCache{name=" + name + ", size=" + size() + ", stats=" + getStats() + "}";
+    }
+
+    private V put(K key, V value, boolean onlyIfAbsent) {
+        if (key == null || value == null) {
+            throw new NullPointerException("AtlasCache does not permit null keys or values");
+        }
+
+        Segment segment = segmentFor(key);
+        int     weight  = weigher != null ? weigher.weigh(key, value) : 1;
+
+        if (weight < 0) {
+            throw new IllegalArgumentException("invalid weight " + weight + " for key " + key);
+        }
+
+        segment.lock.lock();
+
+        try {
+            if (onlyIfAbsent) {
+                V existing = segment.get(key);
+
+                if (existing != null) {
+                    return existing;
+                }
+            }
+
+            segment.put(key, new Node<>(value, weight, expireAfterWriteNanos > 0 ? System.nanoTime() : 0L));
+        } finally {
+            segment.lock.unlock();
+        }
+
+        return null;
+    }
+
+    private Segment segmentFor(K key) {
+        return segments.length == 1 ? segments[0] : segments[spread(key.hashCode()) >>> segmentShift];
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+
+        return h ^ (h >>> 16);
+    }
+
+    public interface Weigher<K, V> {
+        int weigh(K key, V value);
+    }
+
+    public static class Builder<K, V> {
+        private String                        name                  = "AtlasCache";
+        private long                          maximumWeight         = -1;
+        private Weigher<? super K, ? super V> weigher               = null;
+        private long                          expireAfterWriteNanos = 0;
+        private int                           concurrencyLevel      = DEFAULT_CONCURRENCY_LEVEL;
+
+        private Builder() { }
+
+        public Builder<K, V> name(String name) {
+            this.name = name;
+
+            return this;
+        }
+
+        public Builder<K, V> maximumSize(long maximumSize) {
+            this.maximumWeight = maximumSize;
+            this.weigher       = null;
+
+            return this;
+        }
+
+        public Builder<K, V> maximumWeight(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+            this.maximumWeight = maximumWeight;
+            this.weigher       = weigher;
+
+            return this;
+        }
+
+        public Builder<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+            this.expireAfterWriteNanos = unit.toNanos(duration);
+
+            return this;
+        }
+
+        public Builder<K, V> concurrencyLevel(int concurrencyLevel) {
+            this.concurrencyLevel = concurrencyLevel;
+
+            return this;
+        }
+
+        public AtlasCache<K, V> build() {
+            if (maximumWeight < 0) {
+                throw new IllegalStateException(name + ": maximumSize or maximumWeight must be set");
+            }
+
+            if (concurrencyLevel < 1) {
+                throw new IllegalStateException(name + ": invalid concurrencyLevel " + concurrencyLevel);
+            }
+
+            return new AtlasCache<>(this);
+        }
+    }
+
+    /**
+     * Point-in-time snapshot of cache statistics.
+     */
+    public static class CacheStats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final long expirationCount;
+
+        public CacheStats(long hitCount, long missCount, long evictionCount, long expirationCount) {
+            this.hitCount        = hitCount;
+            this.missCount       = missCount;
+            this.evictionCount   = evictionCount;
+            this.expirationCount = expirationCount;
+        }
+
+        public long getHitCount() { return hitCount; }
+
+        public long getMissCount() { return missCount; }
+
+        public long getEvictionCount() { return evictionCount; }
+
+        public long getExpirationCount() { return expirationCount; }
+
+        public long getRequestCount() { return hitCount + missCount; }
+
+        public double getHitRate() {
+            long requestCount = getRequestCount();
+
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        @Override
+        public String toString() {
+            return "CacheStats{hitCount=" + hitCount + ", missCount=" + missCount + ", evictionCount=" + evictionCount +
+                   ", expirationCount=" + expirationCount + ", hitRate=" + getHitRate() + "}";
+        }
+    }
+
+    private static final class Node<V> {
+        final V    value;
+        final int  weight;
+        final long writeTimeNanos;
+
+        Node(V value, int weight, long writeTimeNanos) {
+            this.value          = value;
+            this.weight         = weight;
+            this.writeTimeNanos = writeTimeNanos;
+        }
+    }
+
+    private final class Segment {
+        final ReentrantLock             lock   = new ReentrantLock();
+        final LinkedHashMap<K, Node<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+        final LinkedHashMap<K, Node<V>> main   = new LinkedHashMap<>(16, 0.75f, true);
+        final FrequencySketch           sketch;
+        final long                      maxWindowWeight;
+        final long                      maxMainWeight;
+        long                            windowWeight = 0;
+        long                            mainWeight   = 0;
+
+        Segment(long maxWeight) {
+            // window holds at least one entry, so that a new entry isn't evicted before it can be read again
+            this.maxWindowWeight = Math.min(maxWeight, Math.max(1, maxWeight * WINDOW_PERCENT / 100));
+            this.maxMainWeight   = maxWeight - maxWindowWeight;
+            this.sketch          = new FrequencySketch(maxWeight);
+        }
+
+        V get(K key) {
+            sketch.increment(key);
+
+            Node<V> node = window.get(key);
+
+            if (node == null) {
+                node = main.get(key);
+            }
+
+            if (node == null) {
+                return null;
+            }
+
+            if (isExpired(node)) {
+                remove(key);
+
+                expirationCount.increment();
+
+                return null;
+            }
+
+            return node.value;
+        }
+
+        void put(K key, Node<V> node) {
+            remove(key);
+
+            if (node.weight > Math.max(maxWindowWeight, maxMainWeight)) { // too large to ever be held
+                return;
+            }
+
+            sketch.increment(key);
+
+            window.put(key, node);
+
+            windowWeight += node.weight;
+
+            evict();
+        }
+
+        Node<V> remove(K key) {
+            Node<V> ret = window.remove(key);
+
+            if (ret != null) {
+                windowWeight -= ret.weight;
+            } else {
+                ret = main.remove(key);
+
+                if (ret != null) {
+                    mainWeight -= ret.weight;
+                }
+            }
+
+            return ret;
+        }
+
+        void clear() {
+            window.clear();
+            main.clear();
+
+            windowWeight = 0;
+            mainWeight   = 0;
+        }
+
+        private void evict() {
+            while (windowWeight > maxWindowWeight) {
+                Iterator<Map.Entry<K, Node<V>>> iter      = window.entrySet().iterator();
+                Map.Entry<K, Node<V>>           candidate = iter.next();
+
+                iter.remove();
+
+                windowWeight -= candidate.getValue().weight;
+
+                if (admit(candidate.getKey(), candidate.getValue())) {
+                    main.put(candidate.getKey(), candidate.getValue());
+
+                    mainWeight += candidate.getValue().weight;
+                } else {
+                    evictionCount.increment();
+                }
+            }
+        }
+
+        /*
+         * make room in the main region for the candidate, by evicting entries that are accessed less frequently
+         * than the candidate. Returns false if the candidate should be rejected instead.
+         */
+        private boolean admit(K candidateKey, Node<V> candidate) {
+            if (isExpired(candidate) || candidate.weight > maxMainWeight) {
+                return false;
+            }
+
+            int candidateFreq = -1;
+
+            while (mainWeight + candidate.weight > maxMainWeight) {
+                Iterator<Map.Entry<K, Node<V>>> iter   = main.entrySet().iterator();
+                Map.Entry<K, Node<V>>           victim = iter.next();
+
+                if (isExpired(victim.getValue())) {
+                    iter.remove();
+
+                    mainWeight -= victim.getValue().weight;
+
+                    expirationCount.increment();
+
+                    continue;
+                }
+
+                if (candidateFreq == -1) {
+                    candidateFreq = sketch.frequency(candidateKey);
+                }
+
+                if (candidateFreq <= sketch.frequency(victim.getKey())) {
+                    return false;
+                }
+
+                iter.remove();
+
+                mainWeight -= victim.getValue().weight;
+
+                evictionCount.increment();
+            }
+
+            return true;
+        }
+
+        private boolean isExpired(Node<V> node) {
+            return expireAfterWriteNanos > 0 && (System.nanoTime() - node.writeTimeNanos) >= expireAfterWriteNanos;
+        }
+    }
+
+    /*
+     * Count-min sketch with four 4-bit counters per entry, packed 16 to a long. Counters are halved once the number
+     * of increments reaches 10 times the table size, so that the recorded frequencies reflect recent history.
+     * Not thread-safe: guarded by the owning segment's lock.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS      = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+        private static final long   RESET_MASK = 0x7777777777777777L;
+        private static final long   ONE_MASK   = 0x1111111111111111L;
+        private static final int    MAX_TABLE  = 1 << 20;
+
+        private final long[] table;
+        private final int    tableMask;
+        private final int    sampleSize;
+        private       int    size;
+
+        FrequencySketch(long maximumSize) {
+            int tableSize = 16;
+
+            while (tableSize < maximumSize && tableSize < MAX_TABLE) {
+                tableSize <<= 1;
+            }
+
+            this.table      = new long[tableSize];
+            this.tableMask  = tableSize - 1;
+            this.sampleSize = 10 * tableSize;
+        }
+
+        int frequency(Object e) {
+            int hash  = spread(e.hashCode());
+            int start = (hash & 3) << 2;
+            int ret   = Integer.MAX_VALUE;
+
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+
+                ret = Math.min(ret, count);
+            }
+
+            return ret;
+        }
+
+        void increment(Object e) {
+            int     hash  = spread(e.hashCode());
+            int     start = (hash & 3) << 2;
+            boolean added = false;
+
+            for (int i = 0; i < 4; i++) {
+                added |= incrementAt(indexOf(hash, i), start + i);
+            }
+
+            if (added && ++size == sampleSize) {
+                reset();
+            }
+        }
+
+        private boolean incrementAt(int i, int j) {
+            int  offset = j << 2;
+            long mask   = (0xfL << offset);
+
+            if ((table[i] & mask) != mask) {
+                table[i] += (1L << offset);
+
+                return true;
+            }
+
+            return false;
+        }
+
+        private int indexOf(int item, int i) {
+            long hash = (item + SEEDS[i]) * SEEDS[i];
+
+            hash += (hash >>> 32);
+
+            return ((int) hash) & tableMask;
+        }
+
+        private void reset() {
+            int count = 0;
+
+            for (int i = 0; i < table.length; i++) {
+                count += Long.bitCount(table[i] & ONE_MASK);
+
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+
+            size = (size >>> 1) - (count >>> 2);
+        }
+    }
+}
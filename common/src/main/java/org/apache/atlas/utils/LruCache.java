@@ -28,7 +28,11 @@ import org.slf4j.LoggerFactory;
 /**
  * Fixed size LRU Cache.
  *
+ * Not thread-safe, as even get() updates the access order.
+ *
+ * @deprecated use {@link AtlasCache}, which is thread-safe.
  */
+@Deprecated
 public class LruCache<K, V> extends LinkedHashMap<K, V>{
 
     private static final long serialVersionUID = 8715233786643882558L;
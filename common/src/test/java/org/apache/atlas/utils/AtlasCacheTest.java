@@ -0,0 +1,231 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.utils;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class AtlasCacheTest {
+    @Test
+    public void testBasicOps() {
+        AtlasCache<String, String> cache = AtlasCache.<String, String>newBuilder().maximumSize(100).build();
+
+        assertNull(cache.get("k1"));
+
+        cache.put("k1", "v1");
+        cache.put("k2", "v2");
+
+        assertEquals(cache.get("k1"), "v1");
+        assertEquals(cache.get("k2"), "v2");
+        assertEquals(cache.size(), 2);
+
+        cache.put("k1", "v1b");
+
+        assertEquals(cache.get("k1"), "v1b");
+        assertEquals(cache.size(), 2);
+
+        assertEquals(cache.putIfAbsent("k2", "v2b"), "v2");
+        assertEquals(cache.get("k2"), "v2");
+
+        assertEquals(cache.remove("k1"), "v1b");
+        assertNull(cache.get("k1"));
+
+        cache.invalidateAll();
+
+        assertEquals(cache.size(), 0);
+        assertEquals(cache.weightedSize(), 0);
+    }
+
+    @Test
+    public void testLoader() {
+        AtlasCache<Integer, String> cache     = AtlasCache.<Integer, String>newBuilder().maximumSize(100).build();
+        AtomicInteger               loadCount = new AtomicInteger();
+
+        assertEquals(cache.get(1, k -> { loadCount.incrementAndGet(); return "v" + k; }), "v1");
+        assertEquals(cache.get(1, k -> { loadCount.incrementAndGet(); return "v" + k; }), "v1");
+        assertEquals(loadCount.get(), 1);
+
+        assertNull(cache.get(2, k -> null));
+        assertEquals(cache.size(), 1);
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        AtlasCache<Integer, Integer> cache = AtlasCache.<Integer, Integer>newBuilder().maximumSize(1000).build();
+
+        for (int i = 0; i < 10000; i++) {
+            cache.put(i, i);
+        }
+
+        assertTrue(cache.size() <= 1000, "size=" + cache.size());
+        assertTrue(cache.getStats().getEvictionCount() >= 9000, "evictions=" + cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void testSmallCapacity() {
+        for (int maxSize : new int[] { 1, 2, 10, 60 }) {
+            AtlasCache<Integer, Integer> cache = AtlasCache.<Integer, Integer>newBuilder().maximumSize(maxSize).build();
+
+            // make existing entries frequent, so that a new entry can't replace them in the main region
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < maxSize; i++) {
+                    cache.put(i, i);
+                    cache.get(i);
+                }
+            }
+
+            for (int i = 100; i < 110; i++) {
+                cache.put(i, i);
+
+                assertEquals(cache.get(i), Integer.valueOf(i), "maxSize=" + maxSize);
+                assertTrue(cache.size() <= maxSize, "maxSize=" + maxSize + ", size=" + cache.size());
+            }
+        }
+    }
+
+    @Test
+    public void testFrequentEntriesSurviveScan() {
+        AtlasCache<Integer, Integer> cache = AtlasCache.<Integer, Integer>newBuilder().maximumSize(1000).build();
+
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 100; i++) {
+                if (cache.get(i) == null) {
+                    cache.put(i, i);
+                }
+            }
+        }
+
+        // a scan of many keys accessed only once must not flush the frequently accessed ones, even though each of
+        // them is accessed less often than an LRU cache of this size would need to retain it
+        for (int i = 1000; i < 20000; i++) {
+            cache.put(i, i);
+
+            if (i % 20 == 0) {
+                cache.get((i / 20) % 100);
+            }
+        }
+
+        int retained = 0;
+
+        for (int i = 0; i < 100; i++) {
+            if (cache.get(i) != null) {
+                retained++;
+            }
+        }
+
+        assertTrue(retained >= 90, "retained=" + retained);
+    }
+
+    @Test
+    public void testWeightedSize() {
+        AtlasCache<String, String> cache = AtlasCache.<String, String>newBuilder().maximumWeight(1000, (k, v) -> v.length()).build();
+
+        for (int i = 0; i < 1000; i++) {
+            cache.put("k" + i, "0123456789");
+        }
+
+        assertTrue(cache.weightedSize() <= 1000, "weightedSize=" + cache.weightedSize());
+
+        cache.put("large", new String(new char[2000]));
+
+        assertNull(cache.get("large"));
+    }
+
+    @Test
+    public void testExpireAfterWrite() throws Exception {
+        AtlasCache<String, String> cache = AtlasCache.<String, String>newBuilder().maximumSize(100).expireAfterWrite(50, TimeUnit.MILLISECONDS).build();
+
+        cache.put("k1", "v1");
+
+        assertEquals(cache.get("k1"), "v1");
+
+        Thread.sleep(100);
+
+        assertNull(cache.get("k1"));
+        assertEquals(cache.getStats().getExpirationCount(), 1);
+    }
+
+    @Test
+    public void testStats() {
+        AtlasCache<String, String> cache = AtlasCache.<String, String>newBuilder().maximumSize(100).build();
+
+        cache.put("k1", "v1");
+
+        cache.get("k1");
+        cache.get("k1");
+        cache.get("k2");
+
+        AtlasCache.CacheStats stats = cache.getStats();
+
+        assertEquals(stats.getHitCount(), 2);
+        assertEquals(stats.getMissCount(), 1);
+        assertEquals(stats.getRequestCount(), 3);
+        assertEquals(stats.getHitRate(), 2.0 / 3.0, 0.0001);
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final AtlasCache<Integer, Integer> cache    = AtlasCache.<Integer, Integer>newBuilder().maximumSize(500).build();
+        ExecutorService                    executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>>              results  = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < 8; t++) {
+                final int seed = t;
+
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int i = 0; i < 20000; i++) {
+                            int     key   = (i * 31 + seed) % 2000;
+                            Integer value = cache.get(key, k -> k * 2);
+
+                            if (value == null || value != key * 2) {
+                                return false;
+                            }
+                        }
+
+                        return true;
+                    }
+                }));
+            }
+
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(cache.size() <= 500, "size=" + cache.size());
+        assertNotNull(cache.toString());
+    }
+}
@@ -471,7 +471,13 @@ def get_topics_to_create(confdir):
     if topic_list is not None:
         topics = topic_list.split(",")
     else:
-        topics = [getConfigWithDefault("atlas.notification.hook.topic.name", "ATLAS_HOOK"), getConfigWithDefault("atlas.notification.entities.topic.name", "ATLAS_ENTITIES")]
+        topics = [getConfigWithDefault(confdir, "atlas.notification.hook.topic.name", "ATLAS_HOOK"), getConfigWithDefault(confdir, "atlas.notification.entities.topic.name", "ATLAS_ENTITIES")]
+
+    dead_letter_enabled = getConfigWithDefault(confdir, "atlas.notification.hook.dead.letter.enabled", "false")
+    if dead_letter_enabled.strip().lower() == 'true':
+        dead_letter_topic = getConfigWithDefault(confdir, "atlas.notification.hook.dead.letter.topic.name", "ATLAS_HOOK_DLQ")
+        if dead_letter_topic not in topics:
+            topics.append(dead_letter_topic)
     return topics
 
 def get_atlas_url_port(confdir):
@@ -25,6 +25,7 @@ import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
@@ -135,6 +136,17 @@ public interface AtlasGraph<V, E> {
      */
     Iterable<AtlasVertex<V, E>> getVertices(String key, Object value);
 
+    /**
+     * Loads properties, and edges having the given labels, of the given vertices from the storage in a single batch;
+     * subsequent reads of these from the vertices are served from the transaction cache, instead of going to the storage
+     * one vertex at a time. Edges of other labels are not loaded, as a vertex can have a very large number of them.
+     * This is an optimization hint: implementations may ignore it.
+     *
+     * @param vertices
+     * @param edgeLabels labels of edges to load; no edges are loaded if empty
+     */
+    void prefetchVertices(Collection<? extends AtlasVertex> vertices, Collection<String> edgeLabels);
+
     /**
      * Creates a graph query.
      *
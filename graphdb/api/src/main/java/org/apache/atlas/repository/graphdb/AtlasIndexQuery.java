@@ -18,7 +18,9 @@
 
 package org.apache.atlas.repository.graphdb;
 
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.Map;
 
 /**
  * A graph query that runs directly against a particular index.
@@ -49,6 +51,19 @@ public interface AtlasIndexQuery<V, E> {
      */
     Long vertexTotals();
 
+    /**
+     * Gets the number of query results for each value of the given properties, as computed by the index.
+     * Values are as stored in the index. Values of tokenized properties, like strings with the default text mapping,
+     * are counted per token - which is not a count by property value; such properties are ignored unless
+     * includeTokenized is true.
+     *
+     * @param propertyKeys properties to count the values of
+     * @param includeTokenized whether to count tokens of tokenized properties
+     * @param limit max number of values, with the highest counts, to return for each property
+     * @return counts of values by property, for properties that could be counted; null if the index backend doesn't support counting values
+     */
+    Map<String, Map<String, Long>> vertexFacets(Collection<String> propertyKeys, boolean includeTokenized, int limit);
+
     /**
      * Query result from an index query.
      *
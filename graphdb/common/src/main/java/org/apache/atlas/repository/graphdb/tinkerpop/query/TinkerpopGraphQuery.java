@@ -350,4 +350,9 @@ public abstract class TinkerpopGraphQuery<V, E> implements AtlasGraphQuery<V, E>
     public boolean isChildQuery() {
         return isChildQuery;
     }
+
+    @Override
+    public String toString() {
+        return queryCondition.toString();
+    }
 }
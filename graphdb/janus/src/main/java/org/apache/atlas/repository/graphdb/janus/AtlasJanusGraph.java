@@ -37,6 +37,7 @@ import org.apache.atlas.repository.graphdb.GremlinVersion;
 import org.apache.atlas.repository.graphdb.janus.query.AtlasJanusGraphQuery;
 import org.apache.atlas.repository.graphdb.utils.IteratorToIterableAdapter;
 import org.apache.atlas.type.AtlasType;
+import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.configuration.Configuration;
 import org.apache.tinkerpop.gremlin.groovy.jsr223.GremlinGroovyScriptEngine;
 import org.apache.tinkerpop.gremlin.jsr223.DefaultImportCustomizer;
@@ -55,24 +56,37 @@ import org.janusgraph.core.Cardinality;
 import org.janusgraph.core.JanusGraph;
 import org.janusgraph.core.JanusGraphFactory;
 import org.janusgraph.core.JanusGraphIndexQuery;
+import org.janusgraph.core.JanusGraphVertex;
 import org.janusgraph.core.PropertyKey;
 import org.janusgraph.core.SchemaViolationException;
 import org.janusgraph.core.schema.JanusGraphIndex;
 import org.janusgraph.core.schema.JanusGraphManagement;
+import org.janusgraph.core.schema.Mapping;
+import org.janusgraph.core.schema.Parameter;
 import org.janusgraph.diskstorage.BackendException;
+import org.janusgraph.diskstorage.indexing.IndexInformation;
+import org.janusgraph.diskstorage.indexing.StandardKeyInformation;
+import org.janusgraph.diskstorage.solr.Solr6Index;
 import org.janusgraph.graphdb.database.StandardJanusGraph;
+import org.janusgraph.graphdb.database.serialize.AttributeUtil;
+import org.janusgraph.graphdb.types.ParameterType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.script.Bindings;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -84,11 +98,15 @@ import static org.apache.atlas.repository.graphdb.janus.AtlasJanusGraphDatabase.
  * Janus implementation of AtlasGraph.
  */
 public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusEdge> {
+    private static final Logger LOG = LoggerFactory.getLogger(AtlasJanusGraph.class);
 
     private static Configuration APPLICATION_PROPERTIES = null;
 
     private final ConvertGremlinValueFunction GREMLIN_VALUE_CONVERSION_FUNCTION = new ConvertGremlinValueFunction();
     private final Set<String>                 multiProperties                   = new HashSet<>();
+    private final Map<String, String>         indexFieldNames                   = new ConcurrentHashMap<>();
+    private final Map<String, Boolean>        tokenizedIndexFields              = new ConcurrentHashMap<>();
+    private final Map<String, String>         backingIndexNames                 = new ConcurrentHashMap<>();
     private final StandardJanusGraph          janusGraph;
 
     public AtlasJanusGraph() {
@@ -217,7 +235,7 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
         String               prefix = getIndexQueryPrefix();
         JanusGraphIndexQuery query  = getGraph().indexQuery(fulltextIndex, graphQuery).setElementIdentifier(prefix).offset(offset);
 
-        return new AtlasJanusIndexQuery(this, query);
+        return new AtlasJanusIndexQuery(this, query, fulltextIndex, graphQuery, prefix);
     }
 
     @Override
@@ -262,6 +280,33 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
         return query.vertices();
     }
 
+    @Override
+    public void prefetchVertices(Collection<? extends AtlasVertex> vertices, Collection<String> edgeLabels) {
+        if (vertices == null || vertices.size() < 2) {
+            return;
+        }
+
+        List<JanusGraphVertex> janusVertices = new ArrayList<>(vertices.size());
+
+        for (AtlasVertex vertex : vertices) {
+            Object wrapped = vertex != null ? vertex.getWrappedElement() : null;
+
+            if (wrapped instanceof JanusGraphVertex) {
+                janusVertices.add((JanusGraphVertex) wrapped);
+            }
+        }
+
+        try {
+            getGraph().multiQuery(janusVertices).properties();
+
+            if (CollectionUtils.isNotEmpty(edgeLabels)) {
+                getGraph().multiQuery(janusVertices).labels(edgeLabels.toArray(new String[edgeLabels.size()])).edges();
+            }
+        } catch (Exception excp) { // prefetch is only an optimization; vertices will be read individually
+            LOG.warn("prefetchVertices(count={}, edgeLabels={}) failed", janusVertices.size(), edgeLabels, excp);
+        }
+    }
+
     @Override
     public GremlinVersion getSupportedGremlinVersion() {
         return GremlinVersion.THREE;
@@ -390,6 +435,97 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
     }
 
 
+    /**
+     * Name of the field in the backing index for the given property of a mixed index.
+     * @return field name; null if the property is not in the index
+     */
+    String getIndexFieldName(String indexName, String propertyName) {
+        String ret = indexFieldNames.get(indexName + "." + propertyName);
+
+        if (ret == null) {
+            JanusGraphManagement mgmt = janusGraph.openManagement();
+
+            try {
+                JanusGraphIndex index = mgmt.getGraphIndex(indexName);
+                PropertyKey     key   = mgmt.getPropertyKey(propertyName);
+
+                if (index != null && index.isMixedIndex() && key != null && Arrays.asList(index.getFieldKeys()).contains(key)) {
+                    Parameter[] parameters = index.getParametersFor(key);
+
+                    ret = ParameterType.MAPPED_NAME.findParameter(parameters, null);
+
+                    if (ret == null) {
+                        ret = janusGraph.getIndexSerializer().getDefaultFieldName(key, parameters, index.getBackingIndex());
+                    }
+
+                    indexFieldNames.put(indexName + "." + propertyName, ret);
+                }
+            } finally {
+                mgmt.rollback();
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Whether values of the given property of a mixed index are tokenized by the backing index, as for strings with the
+     * default (text) mapping.
+     * @return false if the property is not in the index
+     */
+    boolean isTokenizedIndexField(String indexName, String propertyName) {
+        Boolean ret = tokenizedIndexFields.get(indexName + "." + propertyName);
+
+        if (ret == null) {
+            JanusGraphManagement mgmt = janusGraph.openManagement();
+
+            try {
+                JanusGraphIndex index = mgmt.getGraphIndex(indexName);
+                PropertyKey     key   = mgmt.getPropertyKey(propertyName);
+
+                if (index != null && index.isMixedIndex() && key != null && Arrays.asList(index.getFieldKeys()).contains(key)) {
+                    Mapping mapping = Mapping.getMapping(new StandardKeyInformation(key, index.getParametersFor(key)));
+
+                    ret = AttributeUtil.isString(key.dataType()) && mapping != Mapping.STRING;
+
+                    tokenizedIndexFields.put(indexName + "." + propertyName, ret);
+                }
+            } finally {
+                mgmt.rollback();
+            }
+        }
+
+        return ret != null && ret;
+    }
+
+    /**
+     * Solr index backing the given mixed index; used to run queries that aren't supported by JanusGraph, like facet queries.
+     * @return null if the index is not backed by Solr
+     */
+    Solr6Index getSolrIndex(String indexName) {
+        String backingIndex = backingIndexNames.get(indexName);
+
+        if (backingIndex == null) {
+            JanusGraphManagement mgmt = janusGraph.openManagement();
+
+            try {
+                JanusGraphIndex index = mgmt.getGraphIndex(indexName);
+
+                if (index != null && index.isMixedIndex()) {
+                    backingIndex = index.getBackingIndex();
+
+                    backingIndexNames.put(indexName, backingIndex);
+                }
+            } finally {
+                mgmt.rollback();
+            }
+        }
+
+        IndexInformation indexInformation = backingIndex != null ? janusGraph.getBackend().getIndexInformation().get(backingIndex) : null;
+
+        return indexInformation instanceof Solr6Index ? (Solr6Index) indexInformation : null;
+    }
+
     private String getIndexQueryPrefix() {
         final String ret;
 
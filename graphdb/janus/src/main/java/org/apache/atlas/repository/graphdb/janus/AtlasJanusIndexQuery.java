@@ -17,7 +17,12 @@
  */
 package org.apache.atlas.repository.graphdb.janus;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.google.common.base.Preconditions;
 import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
@@ -27,17 +32,33 @@ import com.google.common.base.Function;
 import com.google.common.collect.Iterators;
 import org.janusgraph.core.JanusGraphIndexQuery;
 import org.janusgraph.core.JanusGraphVertex;
+import org.janusgraph.diskstorage.BackendException;
+import org.janusgraph.diskstorage.solr.Solr6Index;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Janus implementation of AtlasIndexQuery.
  */
 public class AtlasJanusIndexQuery implements AtlasIndexQuery<AtlasJanusVertex, AtlasJanusEdge> {
+    private static final Logger LOG = LoggerFactory.getLogger(AtlasJanusIndexQuery.class);
+
     private AtlasJanusGraph      graph;
     private JanusGraphIndexQuery query;
+    private String               indexName;
+    private String               queryString;
+    private String               prefix;
 
     public AtlasJanusIndexQuery(AtlasJanusGraph graph, JanusGraphIndexQuery query) {
-        this.query = query;
-        this.graph = graph;
+        this(graph, query, null, null, null);
+    }
+
+    public AtlasJanusIndexQuery(AtlasJanusGraph graph, JanusGraphIndexQuery query, String indexName, String queryString, String prefix) {
+        this.query       = query;
+        this.graph       = graph;
+        this.indexName   = indexName;
+        this.queryString = queryString;
+        this.prefix      = prefix;
     }
 
     @Override
@@ -82,6 +103,70 @@ public class AtlasJanusIndexQuery implements AtlasIndexQuery<AtlasJanusVertex, A
         return query.vertexTotals();
     }
 
+    @Override
+    public Map<String, Map<String, Long>> vertexFacets(Collection<String> propertyKeys, boolean includeTokenized, int limit) {
+        Solr6Index solrIndex = indexName != null ? graph.getSolrIndex(indexName) : null;
+
+        if (solrIndex == null || indexName == null) {
+            return null;
+        }
+
+        Map<String, Map<String, Long>> ret       = new HashMap<>();
+        Map<String, String>            fieldKeys = new HashMap<>(); // index field name -> property key
+
+        for (String propertyKey : propertyKeys) {
+            String fieldName = graph.getIndexFieldName(indexName, propertyKey);
+
+            if (fieldName == null) {
+                LOG.warn("vertexFacets(): property {} is not in index {}; ignored", propertyKey, indexName);
+            } else if (!includeTokenized && graph.isTokenizedIndexField(indexName, propertyKey)) {
+                LOG.warn("vertexFacets(): property {} is tokenized in index {}; ignored", propertyKey, indexName);
+            } else {
+                fieldKeys.put(fieldName, propertyKey);
+            }
+        }
+
+        if (!fieldKeys.isEmpty()) {
+            try {
+                Map<String, Map<String, Long>> facets = solrIndex.facets(indexName, toIndexFieldQuery(), fieldKeys.keySet(), limit);
+
+                for (Map.Entry<String, Map<String, Long>> entry : facets.entrySet()) {
+                    String propertyKey = fieldKeys.get(entry.getKey());
+
+                    if (propertyKey != null) {
+                        ret.put(propertyKey, entry.getValue());
+                    }
+                }
+            } catch (BackendException | IllegalArgumentException excp) {
+                LOG.warn("vertexFacets(): failed to get facets for query {}", queryString, excp);
+
+                ret = null;
+            }
+        }
+
+        return ret;
+    }
+
+    // replaces property references in the query, like v."__typeName", with names of fields in the index - as JanusGraph does for index queries
+    private String toIndexFieldQuery() {
+        StringBuffer ret     = new StringBuffer();
+        Matcher      matcher = Pattern.compile(Pattern.quote(prefix) + "\"([^\"]+)\"").matcher(queryString);
+
+        while (matcher.find()) {
+            String fieldName = graph.getIndexFieldName(indexName, matcher.group(1));
+
+            if (fieldName == null) {
+                throw new IllegalArgumentException("property " + matcher.group(1) + " is not in index " + indexName);
+            }
+
+            matcher.appendReplacement(ret, Matcher.quoteReplacement(fieldName));
+        }
+
+        matcher.appendTail(ret);
+
+        return ret.toString();
+    }
+
     /**
      * Janus implementation of AtlasIndexQuery.Result.
      */
@@ -18,37 +18,22 @@
 
 package org.apache.atlas.repository.graphdb.janus.migration;
 
-import org.apache.atlas.utils.LruCache;
+import org.apache.atlas.utils.AtlasCache;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Map;
-
 import static org.apache.atlas.repository.Constants.VERTEX_ID_IN_IMPORT_KEY;
 
 public class MappedElementCache {
     private static final Logger LOG = LoggerFactory.getLogger(MappedElementCache.class);
 
-    final Map<Object, Vertex> lruVertexCache = new LruCache<>(500, 100000);
+    final AtlasCache<Object, Vertex> vertexCache = AtlasCache.<Object, Vertex>newBuilder().name("mappedVertexCache").maximumSize(500).build();
 
     public Vertex getMappedVertex(Graph gr, Object key) {
         try {
-            Vertex ret = lruVertexCache.get(key);
-
-            if (ret == null) {
-                synchronized (lruVertexCache) {
-                    ret = lruVertexCache.get(key);
-
-                    if(ret == null) {
-                        ret = fetchVertex(gr, key);
-                        lruVertexCache.put(key, ret);
-                    }
-                }
-            }
-
-            return ret;
+            return vertexCache.get(key, k -> fetchVertex(gr, k));
         } catch (Exception ex) {
             LOG.error("getMappedVertex: {}", key, ex);
             return null;
@@ -65,6 +50,6 @@ public class MappedElementCache {
     }
 
     public void clearAll() {
-        lruVertexCache.clear();
+        vertexCache.invalidateAll();
     }
 }
@@ -34,6 +34,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -73,6 +74,7 @@ import org.apache.solr.client.solrj.impl.SolrHttpClientBuilder;
 import org.apache.solr.client.solrj.request.CollectionAdminRequest;
 import org.apache.solr.client.solrj.request.UpdateRequest;
 import org.apache.solr.client.solrj.response.CollectionAdminResponse;
+import org.apache.solr.client.solrj.response.FacetField;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.util.ClientUtils;
 import org.apache.solr.common.SolrDocument;
@@ -640,6 +642,49 @@ public class Solr6Index implements IndexProvider {
         }
     }
 
+    /**
+     * Number of documents matching the query, for each value of the given fields; only values with a
+     * non-zero count are returned, at most limit values per field
+     */
+    public Map<String, Map<String, Long>> facets(String collection, String query, Collection<String> fields, int limit) throws BackendException {
+        final SolrQuery solrQuery = new SolrQuery(query)
+                .setRows(0)
+                .setFacet(true)
+                .setFacetLimit(limit)
+                .setFacetMinCount(1);
+
+        for (final String field : fields) {
+            solrQuery.addFacetField(field);
+        }
+
+        try {
+            final QueryResponse                  response = solrClient.query(collection, solrQuery);
+            final Map<String, Map<String, Long>> ret      = new HashMap<>();
+
+            logger.debug("Executed facet query [{}] in {} ms", query, response.getElapsedTime());
+
+            if (response.getFacetFields() != null) {
+                for (final FacetField facetField : response.getFacetFields()) {
+                    final Map<String, Long> counts = new LinkedHashMap<>();
+
+                    for (final FacetField.Count count : facetField.getValues()) {
+                        counts.put(count.getName(), count.getCount());
+                    }
+
+                    ret.put(facetField.getName(), counts);
+                }
+            }
+
+            return ret;
+        } catch (final IOException e) {
+            logger.error("Query did not complete : ", e);
+            throw new PermanentBackendException(e);
+        } catch (final SolrServerException e) {
+            logger.error("Unable to query Solr index.", e);
+            throw new PermanentBackendException(e);
+        }
+    }
+
     private static String escapeValue(Object value) {
         return ClientUtils.escapeQueryChars(value.toString());
     }
@@ -887,6 +932,7 @@ public class Solr6Index implements IndexProvider {
     @Override
     public void close() throws BackendException {
         logger.trace("Shutting down connection to Solr", solrClient);
+
         try {
             solrClient.close();
         } catch (final IOException e) {
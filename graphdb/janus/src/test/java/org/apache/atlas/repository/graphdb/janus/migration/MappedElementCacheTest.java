@@ -41,7 +41,7 @@ public class MappedElementCacheTest extends BaseUtils {
 
         Vertex vx = cache.getMappedVertex(tg, 98336);
         assertNotNull(vx);
-        assertEquals(cache.lruVertexCache.size(), 1);
+        assertEquals(cache.vertexCache.size(), 1);
     }
 
     @Test
@@ -51,6 +51,6 @@ public class MappedElementCacheTest extends BaseUtils {
 
         addEdge(tg, cache);
 
-        assertEquals(cache.lruVertexCache.size(), 4);
+        assertEquals(cache.vertexCache.size(), 4);
     }
 }
@@ -38,17 +38,59 @@ public enum AtlasConfiguration {
 
     NOTIFICATION_HOOK_TOPIC_NAME("atlas.notification.hook.topic.name", "ATLAS_HOOK"),
     NOTIFICATION_ENTITIES_TOPIC_NAME("atlas.notification.entities.topic.name", "ATLAS_ENTITIES"),
+    NOTIFICATION_HOOK_DEAD_LETTER_TOPIC_NAME("atlas.notification.hook.dead.letter.topic.name", "ATLAS_HOOK_DLQ"),
 
     NOTIFICATION_MESSAGE_MAX_LENGTH_BYTES("atlas.notification.message.max.length.bytes", (1000 * 1000)),
     NOTIFICATION_MESSAGE_COMPRESSION_ENABLED("atlas.notification.message.compression.enabled", true),
+    NOTIFICATION_MESSAGE_BINARY_ENCODING_ENABLED("atlas.notification.message.binary.encoding.enabled", false), // enable only after consumers are upgraded to read binary messages
+    NOTIFICATION_PRODUCER_PIPELINE_ENABLED("atlas.notification.producer.pipeline.enabled", false), // send without waiting for acknowledgement; failures are reported by subsequent sends
+    NOTIFICATION_PRODUCER_MAX_INFLIGHT_MESSAGES("atlas.notification.producer.max.inflight.messages", 10000),
+    NOTIFICATION_PRODUCER_PIPELINE_LINGER_MS("atlas.notification.producer.pipeline.linger.ms", 5), // used when atlas.kafka.linger.ms is not set
+    NOTIFICATION_HOOK_SPOOL_ENABLED("atlas.notification.hook.spool.enabled", false), // spool messages that fail to be sent, to replay when the broker recovers
+    NOTIFICATION_HOOK_SPOOL_DIRECTORY("atlas.notification.hook.spool.dir", System.getProperty("java.io.tmpdir") + "/atlas-hook-spool"),
+    NOTIFICATION_HOOK_SPOOL_MAX_SIZE_MB("atlas.notification.hook.spool.max.size.mb", 1024),
+    NOTIFICATION_HOOK_SPOOL_REPLAY_INTERVAL_MS("atlas.notification.hook.spool.replay.interval.ms", 30 * 1000),
+    NOTIFICATION_HOOK_COALESCE_WINDOW_MS("atlas.notification.hook.coalesce.window.ms", 0), // 0 disables coalescing of entity notifications in hooks
+    NOTIFICATION_HOOK_COALESCE_MAX_PENDING_MESSAGES("atlas.notification.hook.coalesce.max.pending.messages", 1000),
     NOTIFICATION_SPLIT_MESSAGE_SEGMENTS_WAIT_TIME_SECONDS("atlas.notification.split.message.segments.wait.time.seconds", 15 * 60),
     NOTIFICATION_SPLIT_MESSAGE_BUFFER_PURGE_INTERVAL_SECONDS("atlas.notification.split.message.buffer.purge.interval.seconds", 5 * 60),
+    NOTIFICATION_SPLIT_MESSAGE_BUFFER_MAX_MEMORY_MB("atlas.notification.split.message.buffer.max.memory.mb", 64), // parts received beyond this limit are spilled to files
+    NOTIFICATION_SPLIT_MESSAGE_BUFFER_SPILL_DIRECTORY("atlas.notification.split.message.buffer.spill.directory", System.getProperty("java.io.tmpdir")),
+    NOTIFICATION_CONSUMER_OFFSET_COMMIT_BATCH_SIZE("atlas.notification.consumer.offset.commit.batch.size", 50), // 1 to commit synchronously after every message
+    NOTIFICATION_HOOK_DEAD_LETTER_ENABLED("atlas.notification.hook.dead.letter.enabled", false), // publish messages that exhaust retries to the dead-letter topic
+    NOTIFICATION_HOOK_DEAD_LETTER_LOCAL_DIRECTORY("atlas.notification.hook.dead.letter.local.dir", System.getProperty("java.io.tmpdir") + "/atlas-hook-dlq"), // used when the dead-letter topic is unavailable
+    NOTIFICATION_HOOK_DEAD_LETTER_LOCAL_ROLL_INTERVAL_MS("atlas.notification.hook.dead.letter.local.roll.interval.ms", 5 * 60 * 1000),
+    NOTIFICATION_CONSUMER_OFFSET_COMMIT_INTERVAL_MS("atlas.notification.consumer.offset.commit.interval.ms", 1000),
 
     GRAPHSTORE_INDEXED_STRING_SAFE_LENGTH("atlas.graphstore.indexed.string.safe.length", Short.MAX_VALUE),  // based on org.apache.hadoop.hbase.client.Mutation.checkRow()
 
+    //type-registry snapshot; when file is not specified, typedef-snapshot.bin in atlas.data directory is used
+    TYPEDEF_SNAPSHOT_ENABLED("atlas.typedef.snapshot.enabled", true),
+    TYPEDEF_SNAPSHOT_FILE("atlas.typedef.snapshot.file", ""),
+
     //search configuration
     SEARCH_MAX_LIMIT("atlas.search.maxlimit", 10000),
-    SEARCH_DEFAULT_LIMIT("atlas.search.defaultlimit", 100);
+    SEARCH_DEFAULT_LIMIT("atlas.search.defaultlimit", 100),
+
+    //search result cache; entries are invalidated on any entity/classification/type change
+    SEARCH_RESULT_CACHE_ENABLED("atlas.search.result.cache.enabled", false),
+    SEARCH_RESULT_CACHE_MAX_SIZE("atlas.search.result.cache.max.size", 1000),
+    SEARCH_RESULT_CACHE_TTL_SECONDS("atlas.search.result.cache.ttl.seconds", 60),
+
+    //number of values, with highest counts, returned for each facet in basic search
+    SEARCH_FACETS_MAX_VALUES("atlas.search.facets.max.values", 100),
+    //max number of matching entities read to count the classification facet; the facet is not returned for larger results
+    SEARCH_FACETS_MAX_ENTITIES("atlas.search.facets.max.entities", 10000),
+
+    //entity-update audit details as changes from the previous audit event, with full entity every snapshot.interval updates
+    ENTITY_AUDIT_DELTA_ENABLED("atlas.entity.audit.delta.enabled", false),
+    ENTITY_AUDIT_DELTA_SNAPSHOT_INTERVAL("atlas.entity.audit.delta.snapshot.interval", 10),
+    ENTITY_AUDIT_DELTA_CACHE_SIZE("atlas.entity.audit.delta.cache.size", 10000),
+
+    //entity/classification counts for metrics, maintained from entity changes and reconciled periodically with the index
+    METRICS_ENTITY_COUNTS_ENABLED("atlas.metrics.entity.counts.enabled", true),
+    METRICS_ENTITY_COUNTS_FLUSH_INTERVAL_SECONDS("atlas.metrics.entity.counts.flush.interval.seconds", 60),
+    METRICS_ENTITY_COUNTS_RECONCILE_INTERVAL_SECONDS("atlas.metrics.entity.counts.reconcile.interval.seconds", 6 * 60 * 60);
 
     private static final Configuration APPLICATION_PROPERTIES;
 
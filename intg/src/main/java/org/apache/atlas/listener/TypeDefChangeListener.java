@@ -21,4 +21,10 @@ import org.apache.atlas.exception.AtlasBaseException;
 
 public interface TypeDefChangeListener {
     void onChange(ChangedTypeDefs changedTypeDefs) throws AtlasBaseException;
+
+    /**
+     * Called after the type-registry is loaded from the store at startup; onChange() is not called for the loaded types
+     */
+    default void onLoadCompletion() throws AtlasBaseException {
+    }
 }
@@ -0,0 +1,244 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.model.discovery;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_ONLY;
+
+/**
+ * Execution plan and timings of a search: processors that ran, queries they executed,
+ * number of vertices each processor read and retained, and time spent in each stage.
+ */
+@JsonAutoDetect(getterVisibility = PUBLIC_ONLY, setterVisibility = PUBLIC_ONLY, fieldVisibility = NONE)
+@JsonSerialize(include = JsonSerialize.Inclusion.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.PROPERTY)
+public class AtlasSearchProfile implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private List<ProcessorProfile>   processors;
+    private String                   gremlinQuery;
+    private Map<String, StageMetric> stages;
+    private long                     totalTimeMSecs;
+
+    public AtlasSearchProfile() { }
+
+    public List<ProcessorProfile> getProcessors() { return processors; }
+
+    public void setProcessors(List<ProcessorProfile> processors) { this.processors = processors; }
+
+    public String getGremlinQuery() { return gremlinQuery; }
+
+    public void setGremlinQuery(String gremlinQuery) { this.gremlinQuery = gremlinQuery; }
+
+    public Map<String, StageMetric> getStages() { return stages; }
+
+    public void setStages(Map<String, StageMetric> stages) { this.stages = stages; }
+
+    public long getTotalTimeMSecs() { return totalTimeMSecs; }
+
+    public void setTotalTimeMSecs(long totalTimeMSecs) { this.totalTimeMSecs = totalTimeMSecs; }
+
+    public ProcessorProfile addProcessor(String name) {
+        ProcessorProfile ret = new ProcessorProfile(name);
+
+        if (processors == null) {
+            processors = new ArrayList<>();
+        }
+
+        processors.add(ret);
+
+        return ret;
+    }
+
+    public void addStage(String name, int invocations, long timeMSecs) {
+        if (stages == null) {
+            stages = new LinkedHashMap<>();
+        }
+
+        stages.put(name, new StageMetric(invocations, timeMSecs));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AtlasSearchProfile that = (AtlasSearchProfile) o;
+        return totalTimeMSecs == that.totalTimeMSecs &&
+               Objects.equals(processors, that.processors) &&
+               Objects.equals(gremlinQuery, that.gremlinQuery) &&
+               Objects.equals(stages, that.stages);
+    }
+
+    @Override
+    public int hashCode() { return Objects.hash(processors, gremlinQuery, stages, totalTimeMSecs); }
+
+    @Override
+    public String toString() {
+        return "AtlasSearchProfile{" +
+                "processors=" + processors +
+                ", gremlinQuery=" + gremlinQuery +
+                ", stages=" + stages +
+                ", totalTimeMSecs=" + totalTimeMSecs +
+                '}';
+    }
+
+    /**
+     * A processor in the search chain. candidateCount is the number of vertices the processor read from its query
+     * or received from the previous processor; resultCount is the number of those that passed its filters.
+     */
+    @JsonAutoDetect(getterVisibility = PUBLIC_ONLY, setterVisibility = PUBLIC_ONLY, fieldVisibility = NONE)
+    @JsonSerialize(include = JsonSerialize.Inclusion.NON_NULL)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @XmlRootElement
+    @XmlAccessorType(XmlAccessType.PROPERTY)
+    public static class ProcessorProfile implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String name;
+        private String indexQuery;
+        private String graphQuery;
+        private String gremlinQuery;
+        private long   candidateCount;
+        private long   resultCount;
+
+        public ProcessorProfile() { }
+
+        public ProcessorProfile(String name) {
+            this.name = name;
+        }
+
+        public String getName() { return name; }
+
+        public void setName(String name) { this.name = name; }
+
+        public String getIndexQuery() { return indexQuery; }
+
+        public void setIndexQuery(String indexQuery) { this.indexQuery = indexQuery; }
+
+        public String getGraphQuery() { return graphQuery; }
+
+        public void setGraphQuery(String graphQuery) { this.graphQuery = graphQuery; }
+
+        public String getGremlinQuery() { return gremlinQuery; }
+
+        public void setGremlinQuery(String gremlinQuery) { this.gremlinQuery = gremlinQuery; }
+
+        public long getCandidateCount() { return candidateCount; }
+
+        public void setCandidateCount(long candidateCount) { this.candidateCount = candidateCount; }
+
+        public long getResultCount() { return resultCount; }
+
+        public void setResultCount(long resultCount) { this.resultCount = resultCount; }
+
+        public void addCandidates(int count) { candidateCount += count; }
+
+        public void addResults(int count) { resultCount += count; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ProcessorProfile that = (ProcessorProfile) o;
+            return candidateCount == that.candidateCount &&
+                   resultCount == that.resultCount &&
+                   Objects.equals(name, that.name) &&
+                   Objects.equals(indexQuery, that.indexQuery) &&
+                   Objects.equals(graphQuery, that.graphQuery) &&
+                   Objects.equals(gremlinQuery, that.gremlinQuery);
+        }
+
+        @Override
+        public int hashCode() { return Objects.hash(name, indexQuery, graphQuery, gremlinQuery, candidateCount, resultCount); }
+
+        @Override
+        public String toString() {
+            return "ProcessorProfile{" +
+                    "name=" + name +
+                    ", indexQuery=" + indexQuery +
+                    ", graphQuery=" + graphQuery +
+                    ", gremlinQuery=" + gremlinQuery +
+                    ", candidateCount=" + candidateCount +
+                    ", resultCount=" + resultCount +
+                    '}';
+        }
+    }
+
+    @JsonAutoDetect(getterVisibility = PUBLIC_ONLY, setterVisibility = PUBLIC_ONLY, fieldVisibility = NONE)
+    @JsonSerialize(include = JsonSerialize.Inclusion.NON_NULL)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @XmlRootElement
+    @XmlAccessorType(XmlAccessType.PROPERTY)
+    public static class StageMetric implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private int  invocations;
+        private long timeMSecs;
+
+        public StageMetric() { }
+
+        public StageMetric(int invocations, long timeMSecs) {
+            this.invocations = invocations;
+            this.timeMSecs   = timeMSecs;
+        }
+
+        public int getInvocations() { return invocations; }
+
+        public void setInvocations(int invocations) { this.invocations = invocations; }
+
+        public long getTimeMSecs() { return timeMSecs; }
+
+        public void setTimeMSecs(long timeMSecs) { this.timeMSecs = timeMSecs; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            StageMetric that = (StageMetric) o;
+            return invocations == that.invocations &&
+                   timeMSecs == that.timeMSecs;
+        }
+
+        @Override
+        public int hashCode() { return Objects.hash(invocations, timeMSecs); }
+
+        @Override
+        public String toString() {
+            return "StageMetric{" +
+                    "invocations=" + invocations +
+                    ", timeMSecs=" + timeMSecs +
+                    '}';
+        }
+    }
+}
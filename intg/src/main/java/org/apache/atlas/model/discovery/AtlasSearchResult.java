@@ -52,6 +52,10 @@ public class AtlasSearchResult implements Serializable {
     private AttributeSearchResult          attributes;
     private List<AtlasFullTextResult>      fullTextResult;
     private Map<String, AtlasEntityHeader> referredEntities;
+    private String                         continuationToken;
+    private AtlasSearchProfile             profile;
+    private Map<String, Map<String, Long>> facets;
+    private Map<String, String>            withheldFacets;
 
     public AtlasSearchResult() {}
 
@@ -126,8 +130,33 @@ public class AtlasSearchResult implements Serializable {
         this.referredEntities = referredEntities;
     }
 
+    /**
+     * @return token to retrieve the next page of results, by setting it in SearchParameters; null if there are no more results
+     */
+    public String getContinuationToken() { return continuationToken; }
+
+    public void setContinuationToken(String continuationToken) { this.continuationToken = continuationToken; }
+
+    public AtlasSearchProfile getProfile() { return profile; }
+
+    public void setProfile(AtlasSearchProfile profile) { this.profile = profile; }
+
+    /**
+     * @return for each facet requested in SearchParameters, number of matching entities by facet value
+     */
+    public Map<String, Map<String, Long>> getFacets() { return facets; }
+
+    public void setFacets(Map<String, Map<String, Long>> facets) { this.facets = facets; }
+
+    /**
+     * @return facets requested in SearchParameters that are not in the result, with the reason for each
+     */
+    public Map<String, String> getWithheldFacets() { return withheldFacets; }
+
+    public void setWithheldFacets(Map<String, String> withheldFacets) { this.withheldFacets = withheldFacets; }
+
     @Override
-    public int hashCode() { return Objects.hash(queryType, searchParameters, queryText, type, classification, entities, attributes, fullTextResult, referredEntities); }
+    public int hashCode() { return Objects.hash(queryType, searchParameters, queryText, type, classification, entities, attributes, fullTextResult, referredEntities, continuationToken, profile, facets, withheldFacets); }
 
     @Override
     public boolean equals(Object o) {
@@ -142,7 +171,11 @@ public class AtlasSearchResult implements Serializable {
                Objects.equals(entities, that.entities) &&
                Objects.equals(attributes, that.attributes) &&
                Objects.equals(fullTextResult, that.fullTextResult) &&
-               Objects.equals(referredEntities, that.referredEntities);
+               Objects.equals(referredEntities, that.referredEntities) &&
+               Objects.equals(continuationToken, that.continuationToken) &&
+               Objects.equals(profile, that.profile) &&
+               Objects.equals(facets, that.facets) &&
+               Objects.equals(withheldFacets, that.withheldFacets);
     }
 
     public void addEntity(AtlasEntityHeader newEntity) {
@@ -184,6 +217,10 @@ public class AtlasSearchResult implements Serializable {
                 ", attributes=" + attributes +
                 ", fullTextResult=" + fullTextResult +
                 ", referredEntities=" + referredEntities +
+                ", continuationToken=" + continuationToken +
+                ", profile=" + profile +
+                ", facets=" + facets +
+                ", withheldFacets=" + withheldFacets +
                 '}';
     }
 
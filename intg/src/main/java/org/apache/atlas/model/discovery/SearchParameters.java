@@ -50,15 +50,21 @@ public class SearchParameters implements Serializable {
     private boolean includeSubClassifications       = true;
     private int     limit;
     private int     offset;
+    private String  continuationToken;
+    private boolean profile;
 
     private FilterCriteria entityFilters;
     private FilterCriteria tagFilters;
     private Set<String>    attributes;
+    private Set<String>    facets;
 
     public static final String WILDCARD_CLASSIFICATIONS = "*";
     public static final String ALL_CLASSIFICATIONS      = "_CLASSIFIED";
     public static final String NO_CLASSIFICATIONS       = "_NOT_CLASSIFIED";
 
+    public static final String FACET_TYPE_NAME      = "typeName";
+    public static final String FACET_CLASSIFICATION = "classification";
+
     /**
      * @return The type of query
      */
@@ -210,6 +216,36 @@ public class SearchParameters implements Serializable {
         this.offset = offset;
     }
 
+    /**
+     * @return token returned in the result of the previous page of this search; when set, offset is ignored
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * Continue the search after the results returned in an earlier page
+     * @param continuationToken value of continuationToken in the result of the earlier page
+     */
+    public void setContinuationToken(String continuationToken) {
+        this.continuationToken = continuationToken;
+    }
+
+    /**
+     * @return true if the result should include the execution profile of the search
+     */
+    public boolean getProfile() {
+        return profile;
+    }
+
+    /**
+     * Include the processors, queries, counts and stage timings of the search in the result
+     * @param profile
+     */
+    public void setProfile(boolean profile) {
+        this.profile = profile;
+    }
+
     /**
      * Entity attribute filters for the type (if type name is specified)
      * @return
@@ -258,6 +294,23 @@ public class SearchParameters implements Serializable {
         this.attributes = attributes;
     }
 
+    /**
+     * Facets for which value counts are included in the results
+     * @return
+     */
+    public Set<String> getFacets() {
+        return facets;
+    }
+
+    /**
+     * Return counts of values of these facets in the result response: typeName, classification or attributes of the type
+     * that are indexed without tokenization, like numeric, boolean and date attributes
+     * @param facets
+     */
+    public void setFacets(Set<String> facets) {
+        this.facets = facets;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -267,19 +320,22 @@ public class SearchParameters implements Serializable {
                 includeClassificationAttributes == that.includeClassificationAttributes &&
                 limit == that.limit &&
                 offset == that.offset &&
+                profile == that.profile &&
+                Objects.equals(continuationToken, that.continuationToken) &&
                 Objects.equals(query, that.query) &&
                 Objects.equals(typeName, that.typeName) &&
                 Objects.equals(classification, that.classification) &&
                 Objects.equals(termName, that.termName) &&
                 Objects.equals(entityFilters, that.entityFilters) &&
                 Objects.equals(tagFilters, that.tagFilters) &&
-                Objects.equals(attributes, that.attributes);
+                Objects.equals(attributes, that.attributes) &&
+                Objects.equals(facets, that.facets);
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(query, typeName, classification, termName, excludeDeletedEntities, includeClassificationAttributes,
-                            limit, offset, entityFilters, tagFilters, attributes);
+                            limit, offset, continuationToken, profile, entityFilters, tagFilters, attributes, facets);
     }
 
     public StringBuilder toString(StringBuilder sb) {
@@ -296,9 +352,12 @@ public class SearchParameters implements Serializable {
         sb.append(", includeClassificationAttributes=").append(includeClassificationAttributes);
         sb.append(", limit=").append(limit);
         sb.append(", offset=").append(offset);
+        sb.append(", continuationToken=").append(continuationToken);
+        sb.append(", profile=").append(profile);
         sb.append(", entityFilters=").append(entityFilters);
         sb.append(", tagFilters=").append(tagFilters);
         sb.append(", attributes=").append(attributes);
+        sb.append(", facets=").append(facets);
         sb.append('}');
 
         return sb;
@@ -188,7 +188,7 @@ public class AtlasEntityHeader extends AtlasStruct implements Serializable {
                        status == that.status &&
                        Objects.equals(displayText, that.displayText) &&
                        Objects.equals(classificationNames, that.classificationNames) &&
-                       Objects.equals(meaningNames, that.classificationNames) &&
+                       Objects.equals(meaningNames, that.meaningNames) &&
                        Objects.equals(classifications, that.classifications) &&
                        Objects.equals(meanings, that.meanings);
     }
@@ -0,0 +1,147 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.model.notification;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_ONLY;
+
+/**
+ * Hook message that failed to be processed, along with where it was read from and the cause of the failure.
+ */
+@JsonAutoDetect(getterVisibility=PUBLIC_ONLY, setterVisibility=PUBLIC_ONLY, fieldVisibility=NONE)
+@JsonSerialize(include=JsonSerialize.Inclusion.ALWAYS)
+@JsonIgnoreProperties(ignoreUnknown=true)
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.PROPERTY)
+public class DeadLetterMessage implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private HookNotification message;
+    private String           sourceTopic;
+    private int              sourcePartition;
+    private long             sourceOffset;
+    private long             failedTime;
+    private int              attemptCount;
+    private String           failureCause;
+
+    public DeadLetterMessage() {
+    }
+
+    public DeadLetterMessage(HookNotification message, String sourceTopic, int sourcePartition, long sourceOffset, long failedTime, int attemptCount, String failureCause) {
+        this.message         = message;
+        this.sourceTopic     = sourceTopic;
+        this.sourcePartition = sourcePartition;
+        this.sourceOffset    = sourceOffset;
+        this.failedTime      = failedTime;
+        this.attemptCount    = attemptCount;
+        this.failureCause    = failureCause;
+    }
+
+    public HookNotification getMessage() {
+        return message;
+    }
+
+    public void setMessage(HookNotification message) {
+        this.message = message;
+    }
+
+    public String getSourceTopic() {
+        return sourceTopic;
+    }
+
+    public void setSourceTopic(String sourceTopic) {
+        this.sourceTopic = sourceTopic;
+    }
+
+    public int getSourcePartition() {
+        return sourcePartition;
+    }
+
+    public void setSourcePartition(int sourcePartition) {
+        this.sourcePartition = sourcePartition;
+    }
+
+    public long getSourceOffset() {
+        return sourceOffset;
+    }
+
+    public void setSourceOffset(long sourceOffset) {
+        this.sourceOffset = sourceOffset;
+    }
+
+    public long getFailedTime() {
+        return failedTime;
+    }
+
+    public void setFailedTime(long failedTime) {
+        this.failedTime = failedTime;
+    }
+
+    public int getAttemptCount() {
+        return attemptCount;
+    }
+
+    public void setAttemptCount(int attemptCount) {
+        this.attemptCount = attemptCount;
+    }
+
+    public String getFailureCause() {
+        return failureCause;
+    }
+
+    public void setFailureCause(String failureCause) {
+        this.failureCause = failureCause;
+    }
+
+    @Override
+    public String toString() {
+        return toString(new StringBuilder()).toString();
+    }
+
+    public StringBuilder toString(StringBuilder sb) {
+        if (sb == null) {
+            sb = new StringBuilder();
+        }
+
+        sb.append("DeadLetterMessage{");
+        sb.append("sourceTopic=").append(sourceTopic);
+        sb.append(", sourcePartition=").append(sourcePartition);
+        sb.append(", sourceOffset=").append(sourceOffset);
+        sb.append(", failedTime=").append(failedTime);
+        sb.append(", attemptCount=").append(attemptCount);
+        sb.append(", failureCause=").append(failureCause);
+        sb.append(", message=");
+
+        if (message != null) {
+            message.toString(sb);
+        }
+
+        sb.append("}");
+
+        return sb;
+    }
+}
@@ -36,6 +36,7 @@ import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -259,6 +260,17 @@ public class AtlasTypeRegistry {
             init();
         }
 
+        // shares the resolved types of the given registryData; types must be replaced, not modified, in the copy
+        RegistryData(RegistryData other) {
+            allTypes           = new TypeCache(other.allTypes);
+            enumDefs           = new TypeDefCache<>(other.enumDefs, allTypes);
+            structDefs         = new TypeDefCache<>(other.structDefs, allTypes);
+            classificationDefs = new TypeDefCache<>(other.classificationDefs, allTypes);
+            entityDefs         = new TypeDefCache<>(other.entityDefs, allTypes);
+            relationshipDefs   = new TypeDefCache<>(other.relationshipDefs, allTypes);
+            allDefCaches       = new TypeDefCache[] { enumDefs, structDefs, classificationDefs, entityDefs, relationshipDefs };
+        }
+
         void init() {
             allTypes.addType(new AtlasBuiltInTypes.AtlasBooleanType());
             allTypes.addType(new AtlasBuiltInTypes.AtlasByteType());
@@ -348,42 +360,292 @@ public class AtlasTypeRegistry {
         }
     }
 
+    /**
+     * Registry used to update types. It starts with the resolved types of the parent registry, which are shared with
+     * the parent and hence never modified here. On every change, only the types reachable from the changed types -
+     * through super/sub-types, relationship end-types and attribute types - are replaced with new instances and
+     * resolved again; all other types continue to use the instances from the parent.
+     */
     public static class AtlasTransientTypeRegistry extends AtlasTypeRegistry {
         private List<AtlasBaseTypeDef> addedTypes   = new ArrayList<>();
         private List<AtlasBaseTypeDef> updatedTypes = new ArrayList<>();
         private List<AtlasBaseTypeDef> deletedTypes = new ArrayList<>();
 
+        private final Set<String> changedTypeNames  = new HashSet<>(); // types changed since last resolveReferences()
+        private       boolean     resolveAllTypes   = false;
+        private       int         resolvedTypeCount = 0;
+        private       long        resolveTimeMs     = 0;
+
 
         private AtlasTransientTypeRegistry(AtlasTypeRegistry parent) throws AtlasBaseException {
             super(parent);
 
-            addTypesWithNoRefResolve(parent.getAllEnumDefs());
-            addTypesWithNoRefResolve(parent.getAllStructDefs());
-            addTypesWithNoRefResolve(parent.getAllClassificationDefs());
-            addTypesWithNoRefResolve(parent.getAllEntityDefs());
-            addTypesWithNoRefResolve(parent.getAllRelationshipDefs());
-
-            addedTypes.clear();
-            updatedTypes.clear();
-            deletedTypes.clear();
+            registryData = new RegistryData(parent.registryData);
         }
 
         private void resolveReferences() throws AtlasBaseException {
-            for (AtlasType type : registryData.allTypes.getAllTypes()) {
+            long            startTime      = System.currentTimeMillis();
+            Set<String>     typeNames      = getTypeNamesToResolve();
+            List<AtlasType> typesToResolve = new ArrayList<>(typeNames.size());
+
+            for (String typeName : typeNames) {
+                AtlasBaseTypeDef typeDef = registryData.getTypeDefByName(typeName);
+
+                if (typeDef != null) { // null for deleted types
+                    typesToResolve.add(createType(typeDef));
+                }
+            }
+
+            for (AtlasType type : typesToResolve) {
                 type.resolveReferences(this);
             }
 
-            for (AtlasType type : registryData.allTypes.getAllTypes()) {
+            for (AtlasType type : typesToResolve) {
                 type.resolveReferencesPhase2(this);
             }
 
-            for (AtlasType type : registryData.allTypes.getAllTypes()) {
+            for (AtlasType type : typesToResolve) {
                 type.resolveReferencesPhase3(this);
             }
+
+            changedTypeNames.clear();
+
+            resolveAllTypes = false;
+
+            long timeTaken = System.currentTimeMillis() - startTime;
+
+            resolvedTypeCount += typesToResolve.size();
+            resolveTimeMs     += timeTaken;
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("resolveReferences(): resolved {} of {} types in {} ms", typesToResolve.size(), registryData.allTypes.getAllTypeNames().size(), timeTaken);
+            }
         }
 
         public void clear() {
             registryData.clear();
+
+            changedTypeNames.clear();
+
+            resolveAllTypes = true;
+        }
+
+        /**
+         * @return number of types resolved by this registry, across all updates
+         */
+        public int getResolvedTypeCount() { return resolvedTypeCount; }
+
+        /**
+         * @return time taken, in milliseconds, to resolve types in this registry, across all updates
+         */
+        public long getResolveTimeMs() { return resolveTimeMs; }
+
+        /*
+         * Collects types that need to be resolved due to changes since the last call to resolveReferences():
+         *  - the changed types
+         *  - types linked to a resolved type both ways: super-types and sub-types, relationship types and their end-types.
+         *    Resolving a type updates its super-types and relationship end-types; hence these can't be shared with parent
+         *  - types that refer to a resolved type, in attributes or classification entityTypes. Resolved state of these
+         *    types holds references to the instance being replaced
+         */
+        private Set<String> getTypeNamesToResolve() {
+            Set<String> ret = new HashSet<>();
+
+            if (resolveAllTypes) {
+                for (TypeDefCache typeDefCache : registryData.allDefCaches) {
+                    ret.addAll(typeDefCache.getAllNames());
+                }
+            } else if (!changedTypeNames.isEmpty()) {
+                Map<String, Set<String>> dependentTypes = getDependentTypeNames();
+                List<String>             queue          = new ArrayList<>(changedTypeNames);
+
+                ret.addAll(changedTypeNames);
+
+                for (int i = 0; i < queue.size(); i++) {
+                    Set<String> dependents = dependentTypes.get(queue.get(i));
+
+                    if (dependents != null) {
+                        for (String dependent : dependents) {
+                            if (ret.add(dependent)) {
+                                queue.add(dependent);
+                            }
+                        }
+                    }
+                }
+            }
+
+            return ret;
+        }
+
+        // returns map of typeName => names of types to be resolved when the type is resolved
+        private Map<String, Set<String>> getDependentTypeNames() {
+            Map<String, Set<String>> ret = new HashMap<>();
+
+            for (TypeDefCache<? extends AtlasBaseTypeDef, ? extends AtlasType> typeDefCache : registryData.allDefCaches) {
+                for (AtlasBaseTypeDef typeDef : typeDefCache.getAll()) {
+                    String typeName = typeDef.getName();
+
+                    for (String linkedTypeName : getLinkedTypeNames(typeDef)) {
+                        addDependentTypeName(ret, linkedTypeName, typeName);
+                        addDependentTypeName(ret, typeName, linkedTypeName);
+                    }
+
+                    for (String referencedTypeName : getReferencedTypeNames(typeDef)) {
+                        addDependentTypeName(ret, referencedTypeName, typeName);
+                    }
+                }
+            }
+
+            return ret;
+        }
+
+        private static void addDependentTypeName(Map<String, Set<String>> dependentTypes, String typeName, String dependentTypeName) {
+            if (!StringUtils.equals(typeName, dependentTypeName)) {
+                Set<String> dependents = dependentTypes.get(typeName);
+
+                if (dependents == null) {
+                    dependents = new HashSet<>();
+
+                    dependentTypes.put(typeName, dependents);
+                }
+
+                dependents.add(dependentTypeName);
+            }
+        }
+
+        // super-types and relationship end-types
+        private static Set<String> getLinkedTypeNames(AtlasBaseTypeDef typeDef) {
+            final Set<String> ret;
+
+            if (typeDef instanceof AtlasEntityDef) {
+                ret = ((AtlasEntityDef) typeDef).getSuperTypes();
+            } else if (typeDef instanceof AtlasClassificationDef) {
+                ret = ((AtlasClassificationDef) typeDef).getSuperTypes();
+            } else if (typeDef instanceof AtlasRelationshipDef) {
+                AtlasRelationshipDef relationshipDef = (AtlasRelationshipDef) typeDef;
+
+                ret = new HashSet<>();
+
+                if (relationshipDef.getEndDef1() != null) {
+                    ret.add(relationshipDef.getEndDef1().getType());
+                }
+
+                if (relationshipDef.getEndDef2() != null) {
+                    ret.add(relationshipDef.getEndDef2().getType());
+                }
+            } else {
+                ret = null;
+            }
+
+            return ret != null ? ret : Collections.<String>emptySet();
+        }
+
+        // attribute types and classification entityTypes
+        private static Set<String> getReferencedTypeNames(AtlasBaseTypeDef typeDef) {
+            Set<String> ret = new HashSet<>();
+
+            if (typeDef instanceof AtlasStructDef) {
+                for (AtlasStructDef.AtlasAttributeDef attributeDef : ((AtlasStructDef) typeDef).getAttributeDefs()) {
+                    ret.addAll(AtlasTypeUtil.getReferencedTypeNames(attributeDef.getTypeName()));
+                }
+            }
+
+            if (typeDef instanceof AtlasClassificationDef && ((AtlasClassificationDef) typeDef).getEntityTypes() != null) {
+                ret.addAll(((AtlasClassificationDef) typeDef).getEntityTypes());
+            }
+
+            return ret;
+        }
+
+        // records the change of a type; existingTypeDef is the definition being updated or removed, if any
+        private void recordTypeChange(String typeName, AtlasBaseTypeDef existingTypeDef) {
+            if (typeName != null) {
+                changedTypeNames.add(typeName);
+            }
+
+            if (existingTypeDef != null) {
+                changedTypeNames.add(existingTypeDef.getName());
+
+                // types linked to the existing definition must be resolved, even if they are not linked to the new definition
+                changedTypeNames.addAll(getLinkedTypeNames(existingTypeDef));
+
+                // the existing definition might have been updated in place; hence collect the links from the resolved type as well
+                AtlasType existingType = registryData.allTypes.getTypeByName(existingTypeDef.getName());
+
+                if (existingType instanceof AtlasEntityType) {
+                    changedTypeNames.addAll(((AtlasEntityType) existingType).getAllSuperTypes());
+                } else if (existingType instanceof AtlasClassificationType) {
+                    changedTypeNames.addAll(((AtlasClassificationType) existingType).getAllSuperTypes());
+                } else if (existingType instanceof AtlasRelationshipType) {
+                    AtlasRelationshipType relationshipType = (AtlasRelationshipType) existingType;
+
+                    if (relationshipType.getEnd1Type() != null) {
+                        changedTypeNames.add(relationshipType.getEnd1Type().getTypeName());
+                    }
+
+                    if (relationshipType.getEnd2Type() != null) {
+                        changedTypeNames.add(relationshipType.getEnd2Type().getTypeName());
+                    }
+                }
+            }
+        }
+
+        // creates a new (unresolved) type for the given definition, replacing the existing type in registryData
+        private AtlasType createType(AtlasBaseTypeDef typeDef) {
+            final AtlasType ret;
+
+            switch (typeDef.getCategory()) {
+                case ENUM: {
+                    AtlasEnumType enumType = new AtlasEnumType((AtlasEnumDef) typeDef);
+
+                    registryData.enumDefs.addType((AtlasEnumDef) typeDef, enumType);
+
+                    ret = enumType;
+                }
+                break;
+
+                case STRUCT: {
+                    AtlasStructType structType = new AtlasStructType((AtlasStructDef) typeDef);
+
+                    registryData.structDefs.addType((AtlasStructDef) typeDef, structType);
+
+                    ret = structType;
+                }
+                break;
+
+                case CLASSIFICATION: {
+                    AtlasClassificationType classificationType = new AtlasClassificationType((AtlasClassificationDef) typeDef);
+
+                    registryData.classificationDefs.addType((AtlasClassificationDef) typeDef, classificationType);
+
+                    ret = classificationType;
+                }
+                break;
+
+                case ENTITY: {
+                    AtlasEntityType entityType = new AtlasEntityType((AtlasEntityDef) typeDef);
+
+                    registryData.entityDefs.addType((AtlasEntityDef) typeDef, entityType);
+
+                    ret = entityType;
+                }
+                break;
+
+                case RELATIONSHIP: {
+                    AtlasRelationshipType relationshipType = new AtlasRelationshipType((AtlasRelationshipDef) typeDef);
+
+                    registryData.relationshipDefs.addType((AtlasRelationshipDef) typeDef, relationshipType);
+
+                    ret = relationshipType;
+                }
+                break;
+
+                default:
+                    ret = registryData.allTypes.getTypeByName(typeDef.getName());
+                break;
+            }
+
+            return ret;
         }
 
         public void addType(AtlasBaseTypeDef typeDef) throws AtlasBaseException {
@@ -573,6 +835,8 @@ public class AtlasTypeRegistry {
         }
 
         private void removeTypeByNameWithNoRefResolve(AtlasBaseTypeDef typeDef) {
+            recordTypeChange(typeDef.getName(), registryData.getTypeDefByName(typeDef.getName()));
+
             switch (typeDef.getCategory()) {
                 case ENUM:
                     registryData.enumDefs.removeTypeDefByName(typeDef.getName());
@@ -594,6 +858,8 @@ public class AtlasTypeRegistry {
         }
 
         private void removeTypeByGuidWithNoRefResolve(AtlasBaseTypeDef typeDef) {
+            recordTypeChange(typeDef.getName(), registryData.getTypeDefByGuid(typeDef.getGuid()));
+
             switch (typeDef.getCategory()) {
                 case ENUM:
                     registryData.enumDefs.removeTypeDefByGuid(typeDef.getGuid());
@@ -622,6 +888,8 @@ public class AtlasTypeRegistry {
             if (guid != null) {
                 AtlasBaseTypeDef typeDef = getTypeDefByGuid(guid);
 
+                recordTypeChange(null, typeDef);
+
                 registryData.removeByGuid(guid);
 
                 resolveReferences();
@@ -644,6 +912,8 @@ public class AtlasTypeRegistry {
             if (name != null) {
                 AtlasBaseTypeDef typeDef = getTypeDefByName(name);
 
+                recordTypeChange(name, typeDef);
+
                 registryData.removeByName(name);
 
                 resolveReferences();
@@ -698,6 +968,8 @@ public class AtlasTypeRegistry {
                     registryData.relationshipDefs.addType(relationshipDef, new AtlasRelationshipType(relationshipDef));
                 }
 
+                recordTypeChange(typeDef.getName(), null);
+
                 addedTypes.add(typeDef);
             }
 
@@ -748,6 +1020,8 @@ public class AtlasTypeRegistry {
             }
 
             if (guid != null && typeDef != null) {
+                recordTypeChange(typeDef.getName(), registryData.getTypeDefByGuid(guid));
+
                 // ignore
                 if (typeDef.getClass().equals(AtlasEnumDef.class)) {
                     AtlasEnumDef enumDef = (AtlasEnumDef) typeDef;
@@ -791,6 +1065,8 @@ public class AtlasTypeRegistry {
             }
 
             if (name != null && typeDef != null) {
+                recordTypeChange(typeDef.getName(), registryData.getTypeDefByName(name));
+
                 if (typeDef.getClass().equals(AtlasEnumDef.class)) {
                     AtlasEnumDef enumDef = (AtlasEnumDef) typeDef;
 
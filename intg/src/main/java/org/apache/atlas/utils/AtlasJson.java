@@ -69,18 +69,7 @@ public class AtlasJson {
             .configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true);
 
     static {
-        SimpleModule atlasSerDeModule = new SimpleModule("AtlasSerDe", new Version(1, 0, 0, null));
-
-        atlasSerDeModule.addSerializer(Referenceable.class, new ReferenceableSerializer());
-        atlasSerDeModule.addDeserializer(Referenceable.class, new ReferenceableDeserializer());
-        atlasSerDeModule.addSerializer(Struct.class, new StructSerializer());
-        atlasSerDeModule.addDeserializer(Struct.class, new StructDeserializer());
-        atlasSerDeModule.addSerializer(Id.class, new IdSerializer());
-        atlasSerDeModule.addDeserializer(Id.class, new IdDeserializer());
-        atlasSerDeModule.addDeserializer(HookNotification.class, new HookNotificationDeserializer());
-        atlasSerDeModule.addDeserializer(EntityNotification.class, new EntityNotificationDeserializer());
-
-        mapper.registerModule(atlasSerDeModule);
+        mapper.registerModule(createAtlasSerDeModule());
 
         SimpleModule atlasSerDeV1Module = new SimpleModule("AtlasSerDeV1", new Version(1, 0, 0, null));
 
@@ -101,6 +90,32 @@ public class AtlasJson {
         mapperV1Search.registerModule(searchResultV1SerDeModule);
     }
 
+    /**
+     * Create a mapper for the given data format - like a binary format - with the serializers and deserializers used for JSON.
+     */
+    public static ObjectMapper createMapper(JsonFactory jsonFactory) {
+        ObjectMapper ret = new ObjectMapper(jsonFactory).configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true);
+
+        ret.registerModule(createAtlasSerDeModule());
+
+        return ret;
+    }
+
+    /**
+     * Create a streaming parser to read values, with the serializers and deserializers used for JSON, from the given stream.
+     */
+    public static JsonParser createParser(InputStream inputStream) throws IOException {
+        return mapper.getFactory().createParser(inputStream);
+    }
+
+    public static JsonParser createParser(byte[] bytes) throws IOException {
+        return mapper.getFactory().createParser(bytes);
+    }
+
+    public static JsonParser createParser(String jsonStr) throws IOException {
+        return mapper.getFactory().createParser(jsonStr);
+    }
+
     public static String toJson(Object obj) {
         String ret;
         try {
@@ -196,6 +211,21 @@ public class AtlasJson {
     }
 
 
+    private static SimpleModule createAtlasSerDeModule() {
+        SimpleModule ret = new SimpleModule("AtlasSerDe", new Version(1, 0, 0, null));
+
+        ret.addSerializer(Referenceable.class, new ReferenceableSerializer());
+        ret.addDeserializer(Referenceable.class, new ReferenceableDeserializer());
+        ret.addSerializer(Struct.class, new StructSerializer());
+        ret.addDeserializer(Struct.class, new StructDeserializer());
+        ret.addSerializer(Id.class, new IdSerializer());
+        ret.addDeserializer(Id.class, new IdDeserializer());
+        ret.addDeserializer(HookNotification.class, new HookNotificationDeserializer());
+        ret.addDeserializer(EntityNotification.class, new EntityNotificationDeserializer());
+
+        return ret;
+    }
+
     public static ObjectNode createV1ObjectNode() {
         return mapperV1.createObjectNode();
     }
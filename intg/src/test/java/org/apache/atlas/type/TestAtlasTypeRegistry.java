@@ -575,6 +575,193 @@ public class TestAtlasTypeRegistry {
         validateAllSubTypes(typeRegistry, "L1", new HashSet<String>());
     }
 
+    /* create entity types L0, L1 (sub-type of L0) and E1, and struct type S1, with L1 referring to S1 in an attribute
+     * add an unrelated classification - only the classification should be resolved; existing types should be retained
+     * update S1 - S1 and L1 (refers to S1) should be resolved, and L0 (super-type of L1); E1 should be retained
+     * add entity type L2 as sub-type of L1 - verify that sub-types of L0 and L1 are updated
+     */
+    @Test
+    public void testIncrementalResolve() throws AtlasBaseException {
+        AtlasEntityDef entL0 = new AtlasEntityDef("L0");
+        AtlasEntityDef entL1 = new AtlasEntityDef("L1");
+        AtlasEntityDef entE1 = new AtlasEntityDef("E1");
+        AtlasStructDef strS1 = new AtlasStructDef("S1");
+
+        entL1.addSuperType(entL0.getName());
+
+        entL0.addAttribute(new AtlasAttributeDef("L0_a1", AtlasBaseTypeDef.ATLAS_TYPE_INT));
+        entL1.addAttribute(new AtlasAttributeDef("L1_a1", strS1.getName()));
+        strS1.addAttribute(new AtlasAttributeDef("S1_a1", AtlasBaseTypeDef.ATLAS_TYPE_INT));
+
+        AtlasTypesDef typesDef = new AtlasTypesDef();
+
+        typesDef.getEntityDefs().add(entL0);
+        typesDef.getEntityDefs().add(entL1);
+        typesDef.getEntityDefs().add(entE1);
+        typesDef.getStructDefs().add(strS1);
+
+        AtlasTypeRegistry typeRegistry = new AtlasTypeRegistry();
+
+        assertEquals(updateTypes(typeRegistry, typesDef, true), 4);
+
+        AtlasEntityType typeL0 = typeRegistry.getEntityTypeByName("L0");
+        AtlasEntityType typeL1 = typeRegistry.getEntityTypeByName("L1");
+        AtlasEntityType typeE1 = typeRegistry.getEntityTypeByName("E1");
+
+        typesDef.clear();
+        typesDef.getClassificationDefs().add(new AtlasClassificationDef("C1"));
+
+        assertEquals(updateTypes(typeRegistry, typesDef, true), 1);
+        assertNotNull(typeRegistry.getClassificationTypeByName("C1"));
+        assertSame(typeRegistry.getEntityTypeByName("L0"), typeL0);
+        assertSame(typeRegistry.getEntityTypeByName("L1"), typeL1);
+        assertSame(typeRegistry.getEntityTypeByName("E1"), typeE1);
+
+        strS1.addAttribute(new AtlasAttributeDef("S1_a2", AtlasBaseTypeDef.ATLAS_TYPE_INT));
+
+        typesDef.clear();
+        typesDef.getStructDefs().add(strS1);
+
+        assertEquals(updateTypes(typeRegistry, typesDef, false), 3);
+        assertSame(typeRegistry.getEntityTypeByName("E1"), typeE1);
+
+        AtlasStructType typeS1 = typeRegistry.getStructTypeByName("S1");
+
+        assertSame(typeRegistry.getEntityTypeByName("L1").getAttribute("L1_a1").getAttributeType(), typeS1);
+        assertEquals(typeS1.getAllAttributes().keySet(), new HashSet<>(Arrays.asList("S1_a1", "S1_a2")));
+
+        AtlasEntityDef entL2 = new AtlasEntityDef("L2");
+
+        entL2.addSuperType(entL1.getName());
+
+        typesDef.clear();
+        typesDef.getEntityDefs().add(entL2);
+
+        updateTypes(typeRegistry, typesDef, true);
+
+        assertSame(typeRegistry.getEntityTypeByName("E1"), typeE1);
+
+        validateAllSuperTypes(typeRegistry, "L2", new HashSet<>(Arrays.asList("L0", "L1")));
+        validateAllSubTypes(typeRegistry, "L0", new HashSet<>(Arrays.asList("L1", "L2")));
+        validateAllSubTypes(typeRegistry, "L1", new HashSet<>(Arrays.asList("L2")));
+        validateAttributeNames(typeRegistry, "L2", new HashSet<>(Arrays.asList("L0_a1", "L1_a1")));
+    }
+
+    /* create entity types L0, L1 and L2, with L0 as super-type of L1, and L1 as super-type of L2
+     * update L2 to remove its super-types - verify that sub-types of L0 and L1 are updated
+     * delete L1 - verify that sub-types of L0 are updated
+     */
+    @Test
+    public void testIncrementalResolveOnSuperTypeRemoval() throws AtlasBaseException {
+        AtlasEntityDef entL0 = new AtlasEntityDef("L0");
+        AtlasEntityDef entL1 = new AtlasEntityDef("L1");
+        AtlasEntityDef entL2 = new AtlasEntityDef("L2");
+
+        entL1.addSuperType(entL0.getName());
+        entL2.addSuperType(entL1.getName());
+
+        AtlasTypesDef typesDef = new AtlasTypesDef();
+
+        typesDef.getEntityDefs().add(entL0);
+        typesDef.getEntityDefs().add(entL1);
+        typesDef.getEntityDefs().add(entL2);
+
+        AtlasTypeRegistry typeRegistry = new AtlasTypeRegistry();
+
+        updateTypes(typeRegistry, typesDef, true);
+
+        validateAllSubTypes(typeRegistry, "L0", new HashSet<>(Arrays.asList("L1", "L2")));
+
+        entL2.setSuperTypes(null);
+
+        typesDef.clear();
+        typesDef.getEntityDefs().add(entL2);
+
+        updateTypes(typeRegistry, typesDef, false);
+
+        validateAllSuperTypes(typeRegistry, "L2", new HashSet<String>());
+        validateAllSubTypes(typeRegistry, "L0", new HashSet<>(Arrays.asList("L1")));
+        validateAllSubTypes(typeRegistry, "L1", new HashSet<String>());
+
+        AtlasTransientTypeRegistry ttr    = null;
+        boolean                    commit = false;
+
+        try {
+            ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+            ttr.removeTypeByName("L1");
+
+            commit = true;
+        } finally {
+            typeRegistry.releaseTypeRegistryForUpdate(ttr, commit);
+        }
+
+        assertNull(typeRegistry.getEntityTypeByName("L1"));
+        validateAllSubTypes(typeRegistry, "L0", new HashSet<String>());
+    }
+
+    /* create entity type L0; add entity type L1 as sub-type of L0, but rollback the update
+     * verify that L0 in the registry is not modified by the discarded update
+     */
+    @Test
+    public void testIncrementalResolveOnRollback() throws AtlasBaseException {
+        AtlasEntityDef entL0 = new AtlasEntityDef("L0");
+        AtlasEntityDef entL1 = new AtlasEntityDef("L1");
+
+        entL1.addSuperType(entL0.getName());
+
+        AtlasTypesDef typesDef = new AtlasTypesDef();
+
+        typesDef.getEntityDefs().add(entL0);
+
+        AtlasTypeRegistry typeRegistry = new AtlasTypeRegistry();
+
+        updateTypes(typeRegistry, typesDef, true);
+
+        AtlasEntityType typeL0 = typeRegistry.getEntityTypeByName("L0");
+
+        AtlasTransientTypeRegistry ttr = null;
+
+        try {
+            ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+            ttr.addType(entL1);
+
+            assertEquals(ttr.getEntityTypeByName("L0").getAllSubTypes(), new HashSet<>(Arrays.asList("L1")));
+        } finally {
+            typeRegistry.releaseTypeRegistryForUpdate(ttr, false);
+        }
+
+        assertSame(typeRegistry.getEntityTypeByName("L0"), typeL0);
+        assertNull(typeRegistry.getEntityTypeByName("L1"));
+        validateAllSubTypes(typeRegistry, "L0", new HashSet<String>());
+    }
+
+    // returns the number of types resolved during the update
+    private int updateTypes(AtlasTypeRegistry typeRegistry, AtlasTypesDef typesDef, boolean isAdd) throws AtlasBaseException {
+        AtlasTransientTypeRegistry ttr    = null;
+        boolean                    commit = false;
+        int                        ret;
+
+        try {
+            ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+            if (isAdd) {
+                ttr.addTypes(typesDef);
+            } else {
+                ttr.updateTypes(typesDef);
+            }
+
+            ret = ttr.getResolvedTypeCount();
+
+            commit = true;
+        } finally {
+            typeRegistry.releaseTypeRegistryForUpdate(ttr, commit);
+        }
+
+        return ret;
+    }
+
     private boolean addType(AtlasTypeRegistry typeRegistry, AtlasBaseTypeDef typeDef) {
         boolean                    ret = false;
         AtlasTransientTypeRegistry ttr = null;
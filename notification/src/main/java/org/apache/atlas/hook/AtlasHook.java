@@ -21,11 +21,13 @@ package org.apache.atlas.hook;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasConstants;
 import org.apache.atlas.kafka.NotificationProvider;
 import org.apache.atlas.model.notification.HookNotification;
 import org.apache.atlas.notification.NotificationException;
 import org.apache.atlas.notification.NotificationInterface;
+import org.apache.atlas.notification.hook.HookMessageDeserializer;
 import org.apache.atlas.security.InMemoryJAASConfiguration;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang.StringUtils;
@@ -34,11 +36,15 @@ import org.apache.hadoop.util.ShutdownHookManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -63,12 +69,15 @@ public abstract class AtlasHook {
     protected static Configuration         atlasProperties;
     protected static NotificationInterface notificationInterface;
 
-    private static final int                  SHUTDOWN_HOOK_WAIT_TIME_MS = 3000;
-    private static final boolean              logFailedMessages;
-    private static final FailedMessagesLogger failedMessagesLogger;
-    private static final int                  notificationMaxRetries;
-    private static final int                  notificationRetryInterval;
-    private static       ExecutorService      executor = null;
+    private static final int                     SHUTDOWN_HOOK_WAIT_TIME_MS = 3000;
+    private static final HookMessageDeserializer ASYNC_FAILURE_DESERIALIZER = new HookMessageDeserializer(); // reassembles split messages that failed
+    private static final boolean                 logFailedMessages;
+    private static final FailedMessagesLogger    failedMessagesLogger;
+    private static final int                     notificationMaxRetries;
+    private static final int                     notificationRetryInterval;
+    private static final HookMessageSpool        spool;
+    private static final HookMessageCoalescer    coalescer;
+    private static       ExecutorService         executor = null;
 
 
     static {
@@ -108,6 +117,40 @@ public abstract class AtlasHook {
         }
 
         notificationInterface.setCurrentUser(currentUser);
+        if (AtlasConfiguration.NOTIFICATION_HOOK_SPOOL_ENABLED.getBoolean()) {
+            HookMessageSpool messageSpool = new HookMessageSpool(notificationInterface,
+                                                                 new File(AtlasConfiguration.NOTIFICATION_HOOK_SPOOL_DIRECTORY.getString()),
+                                                                 AtlasConfiguration.NOTIFICATION_HOOK_SPOOL_MAX_SIZE_MB.getLong() * 1024 * 1024,
+                                                                 AtlasConfiguration.NOTIFICATION_HOOK_SPOOL_REPLAY_INTERVAL_MS.getLong());
+
+            if (messageSpool.init()) {
+                messageSpool.start();
+
+                spool = messageSpool;
+            } else {
+                LOG.warn("Atlas Hook: spool is disabled, as directory {} can't be used", AtlasConfiguration.NOTIFICATION_HOOK_SPOOL_DIRECTORY.getString());
+
+                spool = null;
+            }
+        } else {
+            spool = null;
+        }
+
+        notificationInterface.setAsyncSendFailureHandler((type, excp) -> handleAsyncSendFailure(excp, logFailedMessages, failedMessagesLogger, spool));
+
+        if (AtlasConfiguration.NOTIFICATION_PRODUCER_PIPELINE_ENABLED.getBoolean()) {
+            // messages sent without waiting for acknowledgement would be lost if the process exits before they are sent
+            ShutdownHookManager.get().addShutdownHook(new Thread() {
+                @Override
+                public void run() {
+                    LOG.info("==> Atlas Hook: waiting for notifications in flight");
+
+                    notificationInterface.close();
+
+                    LOG.info("<== Atlas Hook: waiting for notifications in flight");
+                }
+            }, AtlasConstants.ATLAS_SHUTDOWN_HOOK_PRIORITY - 1); // after the executor is shutdown
+        }
 
         boolean isAsync = atlasProperties.getBoolean(ATLAS_NOTIFICATION_ASYNCHRONOUS, Boolean.TRUE);
 
@@ -139,6 +182,23 @@ public abstract class AtlasHook {
             }, AtlasConstants.ATLAS_SHUTDOWN_HOOK_PRIORITY);
         }
 
+        long coalesceWindowMs = AtlasConfiguration.NOTIFICATION_HOOK_COALESCE_WINDOW_MS.getLong();
+
+        if (coalesceWindowMs > 0) {
+            coalescer = new HookMessageCoalescer(coalesceWindowMs, AtlasConfiguration.NOTIFICATION_HOOK_COALESCE_MAX_PENDING_MESSAGES.getInt(), AtlasHook::sendEntities);
+
+            coalescer.start();
+
+            ShutdownHookManager.get().addShutdownHook(new Thread() {
+                @Override
+                public void run() {
+                    coalescer.stop();
+                }
+            }, AtlasConstants.ATLAS_SHUTDOWN_HOOK_PRIORITY + 1); // before the executor is shutdown
+        } else {
+            coalescer = null;
+        }
+
         LOG.info("Created Atlas Hook");
     }
 
@@ -152,27 +212,65 @@ public abstract class AtlasHook {
      * @param maxRetries maximum number of retries while sending message to messaging system
      */
     public static void notifyEntities(List<HookNotification> messages, UserGroupInformation ugi, int maxRetries) {
+        if (coalescer != null) { // sent after the coalescing window
+            coalescer.add(messages, ugi, maxRetries);
+        } else {
+            sendEntities(messages, ugi, maxRetries);
+        }
+    }
+
+    private static void sendEntities(List<HookNotification> messages, UserGroupInformation ugi, int maxRetries) {
         if (executor == null) { // send synchronously
-            notifyEntitiesInternal(messages, maxRetries, ugi, notificationInterface, logFailedMessages, failedMessagesLogger);
+            notifyEntitiesInternal(messages, maxRetries, ugi, notificationInterface, logFailedMessages, failedMessagesLogger, spool);
         } else {
-            executor.submit(new Runnable() {
-                @Override
-                public void run() {
-                    notifyEntitiesInternal(messages, maxRetries, ugi, notificationInterface, logFailedMessages, failedMessagesLogger);
+            try {
+                executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        notifyEntitiesInternal(messages, maxRetries, ugi, notificationInterface, logFailedMessages, failedMessagesLogger, spool);
+                    }
+                });
+            } catch (RejectedExecutionException excp) {
+                if (spool == null || !spool.append(messages)) {
+                    throw excp;
                 }
-            });
+
+                LOG.warn("Atlas Hook: notification queue is full; spooled {} messages", messages.size());
+            }
         }
     }
 
+    /**
+     * @return spool of messages that failed to be sent; null if the spool is not enabled
+     */
+    public static HookMessageSpool getSpool() {
+        return spool;
+    }
+
     @VisibleForTesting
     static void notifyEntitiesInternal(List<HookNotification> messages, int maxRetries, UserGroupInformation ugi,
                                        NotificationInterface notificationInterface,
                                        boolean shouldLogFailedMessages, FailedMessagesLogger logger) {
+        notifyEntitiesInternal(messages, maxRetries, ugi, notificationInterface, shouldLogFailedMessages, logger, null);
+    }
+
+    /**
+     * When a spool is given, messages are sent without retries; messages that fail to be sent are spooled, to be replayed
+     * later. While the spool has messages, new messages are spooled as well, to be sent after the earlier messages.
+     */
+    @VisibleForTesting
+    static void notifyEntitiesInternal(List<HookNotification> messages, int maxRetries, UserGroupInformation ugi,
+                                       NotificationInterface notificationInterface,
+                                       boolean shouldLogFailedMessages, FailedMessagesLogger logger, HookMessageSpool spool) {
         if (messages == null || messages.isEmpty()) {
             return;
         }
 
-        final int maxAttempts         = maxRetries < 1 ? 1 : maxRetries;
+        if (spool != null && spool.isPending() && spool.append(messages)) {
+            return;
+        }
+
+        final int maxAttempts         = (maxRetries < 1 || spool != null) ? 1 : maxRetries;
         Exception notificationFailure = null;
 
         for (int numAttempt = 1; numAttempt <= maxAttempts; numAttempt++) {
@@ -207,22 +305,69 @@ public abstract class AtlasHook {
 
                 break;
             } catch (Exception e) {
-                notificationFailure = e;
+                Exception excp = e instanceof UndeclaredThrowableException && e.getCause() instanceof NotificationException ? (NotificationException) e.getCause() : e;
+
+                notificationFailure = excp;
 
                 LOG.error("Failed to send notification - attempt #{}; error={}", numAttempt, e.getMessage());
             }
         }
 
+        if (notificationFailure != null && spool != null && spool.append(messages)) {
+            LOG.warn("Failed to send notification; spooled {} messages to send later", messages.size(), notificationFailure);
+
+            notificationFailure = null;
+        }
+
         if (notificationFailure != null) {
             if (shouldLogFailedMessages && notificationFailure instanceof NotificationException) {
-                final List<String> failedMessages = ((NotificationException) notificationFailure).getFailedMessages();
+                logFailedMessages((NotificationException) notificationFailure, logger);
+            }
 
-                for (String msg : failedMessages) {
-                    logger.log(msg);
+            LOG.error("Giving up after {} failed attempts to send notification to Atlas: {}", maxAttempts, messages.toString(), notificationFailure);
+        }
+    }
+
+    /**
+     * Messages sent without waiting for acknowledgement are not retried. When the spool is enabled, these are spooled to
+     * be replayed later; note that messages sent after the failed ones, and before the failure was detected, may already
+     * have been delivered - hence spooled messages can be processed out of order. Messages that can't be spooled are
+     * logged, like messages that failed all attempts.
+     */
+    @VisibleForTesting
+    static void handleAsyncSendFailure(NotificationException excp, boolean shouldLogFailedMessages, FailedMessagesLogger logger, HookMessageSpool spool) {
+        if (spool != null && excp.getFailedMessages() != null && !excp.getFailedMessages().isEmpty()) {
+            List<HookNotification> messages = new ArrayList<>(excp.getFailedMessages().size());
+
+            for (String failedMessage : excp.getFailedMessages()) {
+                HookNotification message = ASYNC_FAILURE_DESERIALIZER.deserialize(failedMessage);
+
+                if (message != null) { // null for parts of a split message, other than its last part
+                    messages.add(message);
                 }
             }
 
-            LOG.error("Giving up after {} failed attempts to send notification to Atlas: {}", maxAttempts, messages.toString(), notificationFailure);
+            if (spool.append(messages)) {
+                LOG.warn("Failed to send notification; spooled {} messages to send later; these may be processed out of order", messages.size(), excp);
+
+                return;
+            }
+        }
+
+        LOG.error("Failed to send {} notifications", excp.getFailedMessages() != null ? excp.getFailedMessages().size() : 0, excp);
+
+        if (shouldLogFailedMessages && logger != null) {
+            logFailedMessages(excp, logger);
+        }
+    }
+
+    private static void logFailedMessages(NotificationException excp, FailedMessagesLogger logger) {
+        final List<String> failedMessages = excp.getFailedMessages();
+
+        if (failedMessages != null) {
+            for (String msg : failedMessages) {
+                logger.log(msg);
+            }
         }
     }
 
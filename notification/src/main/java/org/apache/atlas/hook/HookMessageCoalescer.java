@@ -0,0 +1,452 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.hook;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.model.notification.HookNotification.EntityCreateRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityUpdateRequestV2;
+import org.apache.atlas.v1.model.instance.Id;
+import org.apache.atlas.v1.model.instance.Referenceable;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityCreateRequest;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces entity notifications sent by hooks within a time window, before they are sent.
+ *
+ * Notifications are held for up to the window duration. An ENTITY_CREATE/ENTITY_FULL_UPDATE notification (V1 or V2) is
+ * dropped when a later notification of the same kind, from the same user, replaces it entirely - i.e. the later notification
+ * has every entity of the earlier one, identified by type and qualifiedName, with at least the same attributes and
+ * classifications. As the server processes both as create-or-update of the entities, the final state is unchanged. The
+ * later notification is sent in place of the earlier one; other notifications are sent as they are, in the order received.
+ * A notification is not moved ahead of a notification having entities it refers to - for example, a table update referring
+ * to a database created after the earlier create of the table; nor is it moved when it refers to entities that can't be
+ * identified by qualifiedName.
+ */
+public class HookMessageCoalescer {
+    private static final Logger LOG = LoggerFactory.getLogger(HookMessageCoalescer.class);
+
+    private static final String ATTRIBUTE_QUALIFIED_NAME = "qualifiedName";
+
+    /**
+     * Sends notifications after coalescing
+     */
+    public interface MessageSender {
+        void send(List<HookNotification> messages, UserGroupInformation ugi, int maxRetries);
+    }
+
+    private final long                     windowMs;
+    private final int                      maxPendingMessages;
+    private final MessageSender            sender;
+    private final List<PendingMessage>     pending = new ArrayList<>();
+    private       ScheduledExecutorService scheduler;
+    private       long                     receivedCount  = 0;
+    private       long                     coalescedCount = 0;
+
+    public HookMessageCoalescer(long windowMs, int maxPendingMessages, MessageSender sender) {
+        this.windowMs           = windowMs;
+        this.maxPendingMessages = maxPendingMessages;
+        this.sender             = sender;
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("Atlas Notification Coalescer").setDaemon(true).build());
+
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, windowMs, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+
+        flush();
+
+        LOG.info("HookMessageCoalescer: received {} notifications, coalesced {}", getReceivedCount(), getCoalescedCount());
+    }
+
+    public synchronized void add(List<HookNotification> messages, UserGroupInformation ugi, int maxRetries) {
+        if (messages == null || messages.isEmpty()) {
+            return;
+        }
+
+        for (HookNotification message : messages) {
+            add(new PendingMessage(message, ugi, maxRetries));
+        }
+
+        if (pending.size() >= maxPendingMessages) {
+            flush();
+        }
+    }
+
+    /**
+     * Send pending notifications. Consecutive notifications of a ugi are sent together.
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("HookMessageCoalescer.flush(): sending {} notifications (received={}, coalesced={})", pending.size(), receivedCount, coalescedCount);
+        }
+
+        List<HookNotification> messages = new ArrayList<>();
+        PendingMessage         first    = null;
+
+        for (PendingMessage message : pending) {
+            if (first != null && !Objects.equals(first.ugi, message.ugi)) {
+                send(messages, first);
+
+                messages = new ArrayList<>();
+            }
+
+            if (messages.isEmpty()) {
+                first = message;
+            }
+
+            messages.add(message.message);
+        }
+
+        send(messages, first);
+
+        pending.clear();
+    }
+
+    public synchronized long getReceivedCount() {
+        return receivedCount;
+    }
+
+    public synchronized long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    private void add(PendingMessage message) {
+        receivedCount++;
+
+        if (message.entities != null) {
+            for (int i = pending.size() - 1; i >= 0; i--) {
+                PendingMessage earlier = pending.get(i);
+
+                if (earlier.entities == null) { // notification of other kinds are not reordered
+                    break;
+                }
+
+                if (!earlier.sharesEntitiesWith(message)) {
+                    if (!message.canBeSentBefore(earlier)) {
+                        break;
+                    }
+
+                    continue;
+                }
+
+                if (earlier.isReplacedBy(message)) {
+                    pending.set(i, message);
+
+                    coalescedCount++;
+
+                    return;
+                }
+
+                break;
+            }
+        }
+
+        pending.add(message);
+    }
+
+    private void send(List<HookNotification> messages, PendingMessage first) {
+        try {
+            sender.send(messages, first.ugi, first.maxRetries);
+        } catch (Exception excp) {
+            LOG.error("HookMessageCoalescer: failed to send {} notifications", messages.size(), excp);
+        }
+    }
+
+    private static class PendingMessage {
+        final HookNotification         message;
+        final UserGroupInformation     ugi;
+        final int                      maxRetries;
+        final boolean                  isV2;
+        final Map<String, Set<String>> entities;   // entity-key -> names of attributes and classifications; null if not coalescable
+        final Set<String>              references; // qualifiedNames of entities referred to, including the ones in the message; null if some can't be identified
+
+        PendingMessage(HookNotification message, UserGroupInformation ugi, int maxRetries) {
+            EntityCollector collector = new EntityCollector();
+            boolean         isValid   = false;
+
+            switch (message.getType()) {
+                case ENTITY_CREATE:
+                case ENTITY_FULL_UPDATE:
+                    isValid = collector.collect(((EntityCreateRequest) message).getEntities());
+                    break;
+
+                case ENTITY_CREATE_V2:
+                    isValid = collector.collect(((EntityCreateRequestV2) message).getEntities());
+                    break;
+
+                case ENTITY_FULL_UPDATE_V2:
+                    isValid = collector.collect(((EntityUpdateRequestV2) message).getEntities());
+                    break;
+
+                default:
+                    break;
+            }
+
+            this.message    = message;
+            this.ugi        = ugi;
+            this.maxRetries = maxRetries;
+            this.isV2       = message.getType() == HookNotification.HookNotificationType.ENTITY_CREATE_V2 || message.getType() == HookNotification.HookNotificationType.ENTITY_FULL_UPDATE_V2;
+            this.entities   = isValid ? collector.entities : null;
+            this.references = isValid && !collector.hasUnidentifiedReference ? collector.references : null;
+        }
+
+        boolean sharesEntitiesWith(PendingMessage other) {
+            for (String entityKey : other.entities.keySet()) {
+                if (entities.containsKey(entityKey)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        // the server must process the earlier notification first if this notification refers to any of its entities
+        boolean canBeSentBefore(PendingMessage earlier) {
+            if (references == null) {
+                return false;
+            }
+
+            for (String entityKey : earlier.entities.keySet()) {
+                if (references.contains(getQualifiedName(entityKey))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        boolean isReplacedBy(PendingMessage later) {
+            if (isV2 != later.isV2 || !Objects.equals(message.getUser(), later.message.getUser()) || !Objects.equals(ugi, later.ugi)) {
+                return false;
+            }
+
+            for (Map.Entry<String, Set<String>> entry : entities.entrySet()) {
+                Set<String> laterNames = later.entities.get(entry.getKey());
+
+                if (laterNames == null || !laterNames.containsAll(entry.getValue())) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private static String getQualifiedName(String entityKey) {
+            return entityKey.substring(entityKey.indexOf(':') + 1);
+        }
+    }
+
+    /**
+     * Collects entities in a notification, and the entities they refer to. References are tracked by qualifiedName alone,
+     * as the type in a reference can be a super-type of the entity.
+     */
+    private static class EntityCollector {
+        final Map<String, Set<String>> entities                  = new HashMap<>();
+        final Set<String>              references                = new HashSet<>();
+        boolean                        hasUnidentifiedReference = false;
+
+        // entities in the message, including the ones nested in attributes
+        boolean collect(List<Referenceable> entities) {
+            return entities != null && !entities.isEmpty() && collectV1(entities);
+        }
+
+        // entities in the message, including referred entities
+        boolean collect(AtlasEntitiesWithExtInfo entities) {
+            if (entities == null || entities.getEntities() == null || entities.getEntities().isEmpty()) {
+                return false;
+            }
+
+            Set<String> guids = new HashSet<>();
+
+            for (AtlasEntity entity : entities.getEntities()) {
+                guids.add(entity.getGuid());
+            }
+
+            if (entities.getReferredEntities() != null) {
+                guids.addAll(entities.getReferredEntities().keySet());
+            }
+
+            for (AtlasEntity entity : entities.getEntities()) {
+                if (!collectV2(entity, guids)) {
+                    return false;
+                }
+            }
+
+            if (entities.getReferredEntities() != null) {
+                for (AtlasEntity entity : entities.getReferredEntities().values()) {
+                    if (!collectV2(entity, guids)) {
+                        return false;
+                    }
+                }
+            }
+
+            return true;
+        }
+
+        private boolean collectV1(Object value) {
+            if (value instanceof Referenceable) {
+                Referenceable       entity = (Referenceable) value;
+                Map<String, Object> values = entity.getValues();
+                Set<String>         names  = getEntityNames(entity.getTypeName(), values != null ? values.get(ATTRIBUTE_QUALIFIED_NAME) : null);
+
+                if (names == null) {
+                    return false;
+                }
+
+                if (values != null) {
+                    names.addAll(values.keySet());
+
+                    for (Object attrValue : values.values()) {
+                        if (!collectV1(attrValue)) {
+                            return false;
+                        }
+                    }
+                }
+
+                if (entity.getTraitNames() != null) {
+                    for (String traitName : entity.getTraitNames()) {
+                        names.add("trait:" + traitName);
+                    }
+                }
+            } else if (value instanceof Id) { // reference by guid
+                hasUnidentifiedReference = true;
+            } else if (value instanceof Collection) {
+                for (Object element : (Collection<?>) value) {
+                    if (!collectV1(element)) {
+                        return false;
+                    }
+                }
+            } else if (value instanceof Map) {
+                for (Object element : ((Map<?, ?>) value).values()) {
+                    if (!collectV1(element)) {
+                        return false;
+                    }
+                }
+            }
+
+            return true;
+        }
+
+        private boolean collectV2(AtlasEntity entity, Set<String> guids) {
+            Set<String> names = getEntityNames(entity.getTypeName(), entity.getAttribute(ATTRIBUTE_QUALIFIED_NAME));
+
+            if (names == null) {
+                return false;
+            }
+
+            if (entity.getAttributes() != null) {
+                names.addAll(entity.getAttributes().keySet());
+
+                for (Object attrValue : entity.getAttributes().values()) {
+                    collectReferences(attrValue, guids);
+                }
+            }
+
+            if (entity.getRelationshipAttributes() != null) {
+                for (Map.Entry<String, Object> entry : entity.getRelationshipAttributes().entrySet()) {
+                    names.add("relationship:" + entry.getKey());
+
+                    collectReferences(entry.getValue(), guids);
+                }
+            }
+
+            if (entity.getClassifications() != null) {
+                for (AtlasClassification classification : entity.getClassifications()) {
+                    names.add("classification:" + classification.getTypeName());
+                }
+            }
+
+            return true;
+        }
+
+        // references to entities in the message are already collected as entities; others must have qualifiedName
+        private void collectReferences(Object value, Set<String> guids) {
+            if (value instanceof AtlasObjectId) {
+                AtlasObjectId objectId      = (AtlasObjectId) value;
+                Object        qualifiedName = objectId.getUniqueAttributes() != null ? objectId.getUniqueAttributes().get(ATTRIBUTE_QUALIFIED_NAME) : null;
+
+                if (qualifiedName instanceof String) {
+                    references.add((String) qualifiedName);
+                } else if (objectId.getGuid() == null || !guids.contains(objectId.getGuid())) {
+                    hasUnidentifiedReference = true;
+                }
+            } else if (value instanceof Collection) {
+                for (Object element : (Collection<?>) value) {
+                    collectReferences(element, guids);
+                }
+            } else if (value instanceof Map) {
+                for (Object element : ((Map<?, ?>) value).values()) {
+                    collectReferences(element, guids);
+                }
+            }
+        }
+
+        // entities without qualifiedName can't be identified; hence, notifications having them are not coalesced
+        private Set<String> getEntityNames(String typeName, Object qualifiedName) {
+            if (!(qualifiedName instanceof String)) {
+                return null;
+            }
+
+            String      entityKey = typeName + ":" + qualifiedName;
+            Set<String> ret       = entities.get(entityKey);
+
+            if (ret == null) {
+                ret = new HashSet<>();
+
+                entities.put(entityKey, ret);
+                references.add((String) qualifiedName);
+            }
+
+            return ret;
+        }
+    }
+}
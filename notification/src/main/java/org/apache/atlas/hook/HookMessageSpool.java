@@ -0,0 +1,411 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.hook;
+
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.notification.NotificationInterface;
+import org.apache.atlas.type.AtlasType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded on-disk spool of hook notifications that could not be sent, replayed in order once the broker is available.
+ *
+ * Messages are appended, one JSON per line, to segment files in the spool directory. A replay thread periodically rolls
+ * the current segment and sends messages of segments in the order they were written; lines replayed from a segment are
+ * recorded in an offset file, and the segment is deleted once all its messages are sent. When a send fails, replay stops
+ * and resumes in the next interval. While the spool has messages, new messages are appended to the spool as well - to
+ * preserve the order. The spool directory is locked, hence can be used by only one process at a time.
+ */
+public class HookMessageSpool {
+    private static final Logger LOG = LoggerFactory.getLogger(HookMessageSpool.class);
+
+    private static final String SEGMENT_PREFIX    = "spool-";
+    private static final String SEGMENT_SUFFIX    = ".log";
+    private static final String OFFSET_SUFFIX     = ".offset";
+    private static final String LOCK_FILE_NAME    = "spool.lock";
+    private static final int    REPLAY_BATCH_SIZE = 100;
+
+    private final NotificationInterface notificationInterface;
+    private final File                  spoolDir;
+    private final long                  maxSizeBytes;
+    private final long                  replayIntervalMs;
+    private final AtomicLong            spoolSizeBytes   = new AtomicLong(0);
+    private final AtomicLong            appendedCount    = new AtomicLong(0);
+    private final AtomicLong            replayedCount    = new AtomicLong(0);
+    private final AtomicLong            droppedCount     = new AtomicLong(0);
+    private       FileChannel           lockChannel;
+    private       FileLock              lock;
+    private       Writer                writer;
+    private       long                  segmentSeq       = 0;
+    private       Thread                replayThread;
+    private volatile boolean            isActive         = false;
+
+    public HookMessageSpool(NotificationInterface notificationInterface, File spoolDir, long maxSizeBytes, long replayIntervalMs) {
+        this.notificationInterface = notificationInterface;
+        this.spoolDir              = spoolDir;
+        this.maxSizeBytes          = maxSizeBytes;
+        this.replayIntervalMs      = replayIntervalMs;
+    }
+
+    /**
+     * Lock the spool directory, and account for messages spooled earlier.
+     *
+     * @return false if the spool directory can't be used
+     */
+    public boolean init() {
+        try {
+            if (!spoolDir.exists() && !spoolDir.mkdirs()) {
+                LOG.error("HookMessageSpool: failed to create directory {}", spoolDir);
+
+                return false;
+            }
+
+            lockChannel = new RandomAccessFile(new File(spoolDir, LOCK_FILE_NAME), "rw").getChannel();
+            try {
+                lock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException excp) { // locked by another spool in this process
+                lock = null;
+            }
+
+            if (lock == null) {
+                LOG.error("HookMessageSpool: directory {} is in use by another process", spoolDir);
+
+                lockChannel.close();
+
+                return false;
+            }
+        } catch (IOException excp) {
+            LOG.error("HookMessageSpool: failed to lock directory {}", spoolDir, excp);
+
+            return false;
+        }
+
+        for (File segment : getSegments()) {
+            spoolSizeBytes.addAndGet(segment.length());
+        }
+
+        LOG.info("HookMessageSpool: directory={}, maxSizeBytes={}, replayIntervalMs={}, spooledBytes={}", spoolDir, maxSizeBytes, replayIntervalMs, spoolSizeBytes.get());
+
+        return true;
+    }
+
+    public void start() {
+        isActive     = true;
+        replayThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (isActive) {
+                    try {
+                        Thread.sleep(replayIntervalMs);
+                    } catch (InterruptedException excp) {
+                        break;
+                    }
+
+                    if (isPending()) {
+                        replay();
+
+                        LOG.info("HookMessageSpool: {}", getMetrics());
+                    }
+                }
+            }
+        }, "Atlas Hook Spool Replay");
+
+        replayThread.setDaemon(true);
+        replayThread.start();
+    }
+
+    public void stop() {
+        isActive = false;
+
+        if (replayThread != null) {
+            replayThread.interrupt();
+        }
+
+        synchronized (this) {
+            closeWriter();
+        }
+
+        try {
+            if (lock != null) {
+                lock.release();
+            }
+
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } catch (IOException excp) {
+            LOG.warn("HookMessageSpool: failed to unlock directory {}", spoolDir, excp);
+        }
+    }
+
+    public boolean isPending() {
+        return spoolSizeBytes.get() > 0;
+    }
+
+    /**
+     * Append the messages to the spool.
+     *
+     * @return false if the messages could not be spooled, like when the spool is full
+     */
+    public synchronized boolean append(List<HookNotification> messages) {
+        List<String> lines     = new ArrayList<>(messages.size());
+        long         sizeBytes = 0;
+
+        for (HookNotification message : messages) {
+            String line = AtlasType.toV1Json(message);
+
+            lines.add(line);
+
+            sizeBytes += line.getBytes(StandardCharsets.UTF_8).length + 1;
+        }
+
+        if (spoolSizeBytes.get() + sizeBytes > maxSizeBytes) {
+            LOG.warn("HookMessageSpool: spool is full (size={} bytes, max={} bytes); {} messages not spooled", spoolSizeBytes.get(), maxSizeBytes, messages.size());
+
+            droppedCount.addAndGet(messages.size());
+
+            return false;
+        }
+
+        try {
+            if (writer == null) {
+                File segment = new File(spoolDir, SEGMENT_PREFIX + System.currentTimeMillis() + "-" + String.format("%06d", segmentSeq++) + SEGMENT_SUFFIX);
+
+                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(segment, true), StandardCharsets.UTF_8));
+            }
+
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+
+            writer.flush();
+        } catch (IOException excp) {
+            LOG.error("HookMessageSpool: failed to spool {} messages", messages.size(), excp);
+
+            closeWriter();
+
+            droppedCount.addAndGet(messages.size());
+
+            return false;
+        }
+
+        spoolSizeBytes.addAndGet(sizeBytes);
+        appendedCount.addAndGet(messages.size());
+
+        return true;
+    }
+
+    /**
+     * Send spooled messages, in the order they were spooled, until all are sent or a send fails.
+     */
+    void replay() {
+        while (isPending()) {
+            final List<File> segments;
+
+            synchronized (this) { // messages appended from now are written to a new segment, which will be replayed in next iteration
+                closeWriter();
+
+                segments = getSegments();
+            }
+
+            if (segments.isEmpty()) {
+                break;
+            }
+
+            for (File segment : segments) {
+                if (!replaySegment(segment)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    public long getSpoolSizeBytes() {
+        return spoolSizeBytes.get();
+    }
+
+    /**
+     * @return time since the oldest spooled message was spooled; 0 if the spool is empty
+     */
+    public long getOldestMessageAgeMs() {
+        List<File> segments = getSegments();
+
+        return segments.isEmpty() ? 0 : Math.max(0, System.currentTimeMillis() - getSegmentCreationTime(segments.get(0)));
+    }
+
+    public String getMetrics() {
+        return "sizeBytes=" + getSpoolSizeBytes() + ", oldestMessageAgeMs=" + getOldestMessageAgeMs() + ", appendedTotal=" + appendedCount.get() + ", replayedTotal=" + replayedCount.get() + ", droppedTotal=" + droppedCount.get();
+    }
+
+    private boolean replaySegment(File segment) {
+        File offsetFile    = new File(segment.getPath() + OFFSET_SUFFIX);
+        long replayedLines = readOffset(offsetFile);
+        long lineNum       = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(segment), StandardCharsets.UTF_8))) {
+            List<HookNotification> batch = new ArrayList<>(REPLAY_BATCH_SIZE);
+            String                 line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNum++;
+
+                if (lineNum <= replayedLines) {
+                    continue;
+                }
+
+                HookNotification message = AtlasType.fromV1Json(line, HookNotification.class);
+
+                if (message == null) {
+                    LOG.warn("HookMessageSpool: ignoring invalid message at line {} of {}", lineNum, segment);
+                } else {
+                    batch.add(message);
+                }
+
+                if (batch.size() >= REPLAY_BATCH_SIZE) {
+                    if (!send(batch)) {
+                        return false;
+                    }
+
+                    writeOffset(offsetFile, lineNum);
+
+                    batch.clear();
+                }
+            }
+
+            if (!batch.isEmpty() && !send(batch)) {
+                return false;
+            }
+        } catch (IOException excp) {
+            LOG.error("HookMessageSpool: failed to read {}", segment, excp);
+
+            return false;
+        }
+
+        long segmentSize = segment.length();
+
+        if (!segment.delete()) {
+            LOG.error("HookMessageSpool: failed to delete {}; its messages might be replayed again", segment);
+        }
+
+        if (offsetFile.exists() && !offsetFile.delete()) {
+            LOG.warn("HookMessageSpool: failed to delete {}", offsetFile);
+        }
+
+        spoolSizeBytes.addAndGet(-segmentSize);
+
+        return true;
+    }
+
+    private boolean send(List<HookNotification> messages) {
+        try {
+            notificationInterface.send(NotificationInterface.NotificationType.HOOK, messages);
+        } catch (Exception excp) {
+            LOG.warn("HookMessageSpool: failed to replay spooled messages; will retry in {} ms", replayIntervalMs, excp);
+
+            return false;
+        }
+
+        replayedCount.addAndGet(messages.size());
+
+        return true;
+    }
+
+    // segments in the order they were written
+    private List<File> getSegments() {
+        File[] files = spoolDir.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+
+        if (files == null || files.length == 0) {
+            return Collections.emptyList();
+        }
+
+        Arrays.sort(files, (f1, f2) -> {
+            int ret = Long.compare(getSegmentCreationTime(f1), getSegmentCreationTime(f2));
+
+            return ret != 0 ? ret : f1.getName().compareTo(f2.getName());
+        });
+
+        return Arrays.asList(files);
+    }
+
+    private static long getSegmentCreationTime(File segment) {
+        String name = segment.getName();
+
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.indexOf('-', SEGMENT_PREFIX.length())));
+        } catch (RuntimeException excp) {
+            return segment.lastModified();
+        }
+    }
+
+    private static long readOffset(File offsetFile) {
+        long ret = 0;
+
+        if (offsetFile.exists()) {
+            try {
+                ret = Long.parseLong(new String(Files.readAllBytes(offsetFile.toPath()), StandardCharsets.UTF_8).trim());
+            } catch (IOException | NumberFormatException excp) {
+                LOG.warn("HookMessageSpool: failed to read {}; messages of the segment will be replayed from the beginning", offsetFile, excp);
+            }
+        }
+
+        return ret;
+    }
+
+    private static void writeOffset(File offsetFile, long offset) {
+        try {
+            Files.write(offsetFile.toPath(), Long.toString(offset).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException excp) {
+            LOG.warn("HookMessageSpool: failed to write {}", offsetFile, excp);
+        }
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException excp) {
+                LOG.warn("HookMessageSpool: failed to close spool segment", excp);
+            }
+
+            writer = null;
+        }
+    }
+}
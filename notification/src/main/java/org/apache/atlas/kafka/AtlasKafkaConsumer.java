@@ -19,42 +19,85 @@ package org.apache.atlas.kafka;
 
 import org.apache.atlas.notification.AbstractNotificationConsumer;
 import org.apache.atlas.notification.AtlasNotificationMessageDeserializer;
+import org.apache.atlas.notification.BinaryMessageCodec;
 import org.apache.atlas.notification.NotificationInterface;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.errors.WakeupException;
 
 /**
  * Kafka specific notification consumer.
  *
+ * When commitBatchSize is greater than 1, offsets are committed asynchronously once commitBatchSize messages are completed
+ * or commitIntervalMs has elapsed since the last commit. The offset committed for a partition is that of the earliest
+ * message, from the last receive(), not yet completed - hence such messages are not skipped even if messages complete out
+ * of order. Messages are expected to be processed before the next receive(); messages not completed by then - like the
+ * ones that failed processing - don't hold back commits, as was the case with commit after every message.
+ * Offsets are committed synchronously before partitions are revoked and when the consumer is closed.
+ *
  * @param <T> the notification type returned by this consumer
  */
 public class AtlasKafkaConsumer<T> extends AbstractNotificationConsumer<T> {
     private static final Logger LOG = LoggerFactory.getLogger(AtlasKafkaConsumer.class);
 
-    private final KafkaConsumer kafkaConsumer;
-    private final boolean       autoCommitEnabled;
-    private       long          pollTimeoutMilliSeconds = 1000L;
+    private static final String METRIC_RECORDS_LAG_MAX = "records-lag-max";
+
+    private final KafkaConsumer                         kafkaConsumer;
+    private final boolean                               autoCommitEnabled;
+    private       long                                  pollTimeoutMilliSeconds = 1000L;
+    private final int                                   commitBatchSize;
+    private final long                                  commitIntervalMs;
+    private final Map<TopicPartition, PartitionOffsets> partitionOffsets        = new HashMap<>();
+    private       int                                   uncommittedCount        = 0;
+    private       long                                  lastCommitTime          = System.currentTimeMillis();
 
     public AtlasKafkaConsumer(NotificationInterface.NotificationType notificationType, KafkaConsumer kafkaConsumer, boolean autoCommitEnabled, long pollTimeoutMilliSeconds) {
         this(notificationType.getDeserializer(), kafkaConsumer, autoCommitEnabled, pollTimeoutMilliSeconds);
     }
 
+    public AtlasKafkaConsumer(NotificationInterface.NotificationType notificationType, KafkaConsumer kafkaConsumer, boolean autoCommitEnabled, long pollTimeoutMilliSeconds, int commitBatchSize, long commitIntervalMs) {
+        this(notificationType.getDeserializer(), kafkaConsumer, autoCommitEnabled, pollTimeoutMilliSeconds, commitBatchSize, commitIntervalMs);
+    }
+
     public AtlasKafkaConsumer(AtlasNotificationMessageDeserializer<T> deserializer, KafkaConsumer kafkaConsumer, boolean autoCommitEnabled, long pollTimeoutMilliSeconds) {
+        this(deserializer, kafkaConsumer, autoCommitEnabled, pollTimeoutMilliSeconds, 1, 0);
+    }
+
+    public AtlasKafkaConsumer(AtlasNotificationMessageDeserializer<T> deserializer, KafkaConsumer kafkaConsumer, boolean autoCommitEnabled, long pollTimeoutMilliSeconds, int commitBatchSize, long commitIntervalMs) {
         super(deserializer);
 
         this.autoCommitEnabled       = autoCommitEnabled;
         this.kafkaConsumer           = kafkaConsumer;
         this.pollTimeoutMilliSeconds = pollTimeoutMilliSeconds;
+        this.commitBatchSize         = commitBatchSize;
+        this.commitIntervalMs        = commitIntervalMs;
+
+        if (isBatchCommitEnabled() && kafkaConsumer != null) {
+            Set<String> topics = kafkaConsumer.subscription();
+
+            if (topics != null && !topics.isEmpty()) { // subscribe again, to commit offsets before partitions are revoked
+                kafkaConsumer.subscribe(topics, new CommitOnRebalanceListener());
+            }
+        }
     }
 
     public List<AtlasKafkaMessage<T>> receive() {
@@ -66,28 +109,46 @@ public class AtlasKafkaConsumer<T> extends AbstractNotificationConsumer<T> {
 
         List<AtlasKafkaMessage<T>> messages = new ArrayList();
 
+        if (isBatchCommitEnabled()) {
+            // messages received earlier and not completed by now were abandoned, like on failure; these shouldn't hold back commits
+            for (PartitionOffsets offsets : partitionOffsets.values()) {
+                offsets.pending.clear();
+            }
+
+            if ((System.currentTimeMillis() - lastCommitTime) >= commitIntervalMs) {
+                commitAsync();
+            }
+        }
+
         ConsumerRecords<?, ?> records = kafkaConsumer.poll(timeoutMilliSeconds);
 
         if (records != null) {
             for (ConsumerRecord<?, ?> record : records) {
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("Received Message topic ={}, partition ={}, offset = {}, key = {}, value = {}",
-                            record.topic(), record.partition(), record.offset(), record.key(), record.value());
+                            record.topic(), record.partition(), record.offset(), record.key(), toLogString(record.value()));
                 }
 
                 T message = null;
 
                 try {
-                    message = deserializer.deserialize(record.value().toString());
+                    Object value = record.value();
+
+                    // records are received as bytes, to be read without conversion to String when binary encoded
+                    message = value instanceof byte[] ? deserializer.deserialize((byte[]) value) : deserializer.deserialize(value.toString());
                 } catch (OutOfMemoryError excp) {
                     LOG.error("Ignoring message that failed to deserialize: topic={}, partition={}, offset={}, key={}, value={}",
-                              record.topic(), record.partition(), record.offset(), record.key(), record.value(), excp);
+                              record.topic(), record.partition(), record.offset(), record.key(), toLogString(record.value()), excp);
                 }
 
                 if (message == null) {
                     continue;
                 }
 
+                if (isBatchCommitEnabled()) {
+                    getPartitionOffsets(new TopicPartition(record.topic(), record.partition())).pending.add(record.offset());
+                }
+
                 messages.add(new AtlasKafkaMessage(message, record.offset(), record.partition()));
             }
         }
@@ -100,24 +161,186 @@ public class AtlasKafkaConsumer<T> extends AbstractNotificationConsumer<T> {
     @Override
     public void commit(TopicPartition partition, long offset) {
         if (!autoCommitEnabled) {
-            if (LOG.isDebugEnabled()) {
-                LOG.info(" commiting the offset ==>> " + offset);
+            if (isBatchCommitEnabled()) {
+                PartitionOffsets offsets = getPartitionOffsets(partition);
+
+                offsets.pending.remove(offset - 1);
+
+                offsets.completed = Math.max(offsets.completed, offset);
+
+                uncommittedCount++;
+
+                if (uncommittedCount >= commitBatchSize || (System.currentTimeMillis() - lastCommitTime) >= commitIntervalMs) {
+                    commitAsync();
+                }
+            } else {
+                if (LOG.isDebugEnabled()) {
+                    LOG.info(" commiting the offset ==>> " + offset);
+                }
+                kafkaConsumer.commitSync(Collections.singletonMap(partition, new OffsetAndMetadata(offset)));
             }
-            kafkaConsumer.commitSync(Collections.singletonMap(partition, new OffsetAndMetadata(offset)));
         }
     }
 
     @Override
     public void close() {
         if (kafkaConsumer != null) {
+            if (isBatchCommitEnabled()) {
+                try {
+                    commitSync(partitionOffsets.keySet());
+                } catch (WakeupException excp) { // consumer was woken up to shutdown; commit again, as wakeup affects only one call
+                    commitSync(partitionOffsets.keySet());
+                } catch (Exception excp) {
+                    LOG.warn("failed to commit offsets on close; messages after the last committed offsets will be received again", excp);
+                }
+            }
+
             kafkaConsumer.close();
         }
     }
 
+    /**
+     * @return max lag, in number of messages, of partitions assigned to this consumer - as seen in recent fetches; -1 if not known
+     */
+    public long getLag() {
+        long ret = -1;
+
+        if (kafkaConsumer != null) {
+            Map<MetricName, ? extends Metric> metrics = kafkaConsumer.metrics();
+
+            for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+                MetricName name = entry.getKey();
+
+                if (METRIC_RECORDS_LAG_MAX.equals(name.name()) && !name.tags().containsKey("partition")) {
+                    Object value = entry.getValue().metricValue();
+
+                    if (value instanceof Number && !Double.isNaN(((Number) value).doubleValue()) && !Double.isInfinite(((Number) value).doubleValue())) {
+                        ret = Math.max(ret, ((Number) value).longValue());
+                    }
+                }
+            }
+        }
+
+        return ret;
+    }
+
     @Override
     public void wakeup() {
         if (kafkaConsumer != null) {
             kafkaConsumer.wakeup();
         }
     }
+
+    // records received as bytes are logged as JSON, like the messages sent
+    private static Object toLogString(Object value) {
+        return value instanceof byte[] ? BinaryMessageCodec.toJsonString((byte[]) value) : value;
+    }
+
+    private boolean isBatchCommitEnabled() {
+        return !autoCommitEnabled && commitBatchSize > 1;
+    }
+
+    private PartitionOffsets getPartitionOffsets(TopicPartition partition) {
+        PartitionOffsets ret = partitionOffsets.get(partition);
+
+        if (ret == null) {
+            ret = new PartitionOffsets();
+
+            partitionOffsets.put(partition, ret);
+        }
+
+        return ret;
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> getOffsetsToCommit(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> ret = new HashMap<>();
+
+        for (TopicPartition partition : partitions) {
+            PartitionOffsets offsets = partitionOffsets.get(partition);
+            long             offset  = offsets != null ? offsets.getCommittableOffset() : -1;
+
+            if (offsets != null && offset > offsets.committed) {
+                ret.put(partition, new OffsetAndMetadata(offset));
+            }
+        }
+
+        return ret;
+    }
+
+    private void commitAsync() {
+        final Map<TopicPartition, OffsetAndMetadata> offsets = getOffsetsToCommit(partitionOffsets.keySet());
+
+        if (!offsets.isEmpty()) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("commiting offsets asynchronously: {}", offsets);
+            }
+
+            kafkaConsumer.commitAsync(offsets, new OffsetCommitCallback() {
+                @Override
+                public void onComplete(Map<TopicPartition, OffsetAndMetadata> committedOffsets, Exception excp) {
+                    if (excp != null) { // offsets will be included in the next commit
+                        LOG.warn("failed to commit offsets {}", offsets, excp);
+                    } else {
+                        onCommit(offsets);
+                    }
+                }
+            });
+        }
+
+        uncommittedCount = 0;
+        lastCommitTime   = System.currentTimeMillis();
+    }
+
+    private void commitSync(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = getOffsetsToCommit(partitions);
+
+        if (!offsets.isEmpty()) {
+            LOG.info("commiting offsets: {}", offsets);
+
+            kafkaConsumer.commitSync(offsets);
+
+            onCommit(offsets);
+        }
+    }
+
+    private void onCommit(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        for (Map.Entry<TopicPartition, OffsetAndMetadata> entry : offsets.entrySet()) {
+            PartitionOffsets partitionOffset = partitionOffsets.get(entry.getKey());
+
+            if (partitionOffset != null) {
+                partitionOffset.committed = Math.max(partitionOffset.committed, entry.getValue().offset());
+            }
+        }
+    }
+
+    // offsets of a partition, as seen by this consumer
+    private static class PartitionOffsets {
+        private final TreeSet<Long> pending   = new TreeSet<>(); // offsets of messages received, but not completed
+        private long                completed = -1;              // offset after the last completed message
+        private long                committed = -1;
+
+        // offset upto which all messages are completed
+        long getCommittableOffset() {
+            return pending.isEmpty() ? completed : Math.min(completed, pending.first());
+        }
+    }
+
+    // commits offsets of completed messages before partitions are reassigned, so that the new owner doesn't receive them again
+    private class CommitOnRebalanceListener implements ConsumerRebalanceListener {
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            try {
+                commitSync(partitions);
+            } catch (Exception excp) {
+                LOG.warn("failed to commit offsets of revoked partitions {}", partitions, excp);
+            }
+
+            partitionOffsets.keySet().removeAll(partitions);
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            partitionOffsets.keySet().removeAll(partitions);
+        }
+    }
 }
@@ -22,6 +22,7 @@ import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.notification.AbstractNotification;
+import org.apache.atlas.notification.BinaryMessageCodec;
 import org.apache.atlas.notification.NotificationConsumer;
 import org.apache.atlas.notification.NotificationException;
 import org.apache.atlas.service.Service;
@@ -29,12 +30,14 @@ import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationConverter;
 import org.apache.commons.lang.StringUtils;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.annotation.Order;
@@ -43,6 +46,7 @@ import org.springframework.stereotype.Component;
 import javax.inject.Inject;
 import java.util.*;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 /**
  * Kafka specific access point to the Atlas notification framework.
@@ -55,6 +59,7 @@ public class KafkaNotification extends AbstractNotification implements Service {
     public    static final String PROPERTY_PREFIX            = "atlas.kafka";
     public    static final String ATLAS_HOOK_TOPIC           = AtlasConfiguration.NOTIFICATION_HOOK_TOPIC_NAME.getString();
     public    static final String ATLAS_ENTITIES_TOPIC       = AtlasConfiguration.NOTIFICATION_ENTITIES_TOPIC_NAME.getString();
+    public    static final String ATLAS_HOOK_DLQ_TOPIC       = AtlasConfiguration.NOTIFICATION_HOOK_DEAD_LETTER_TOPIC_NAME.getString();
     protected static final String CONSUMER_GROUP_ID_PROPERTY = "group.id";
 
     private static final String DEFAULT_CONSUMER_CLOSED_ERROR_MESSAGE = "This consumer has already been closed.";
@@ -63,6 +68,7 @@ public class KafkaNotification extends AbstractNotification implements Service {
         {
             put(NotificationType.HOOK, ATLAS_HOOK_TOPIC);
             put(NotificationType.ENTITIES, ATLAS_ENTITIES_TOPIC);
+            put(NotificationType.HOOK_DEAD_LETTER, ATLAS_HOOK_DLQ_TOPIC);
         }
     };
 
@@ -71,6 +77,10 @@ public class KafkaNotification extends AbstractNotification implements Service {
     private       KafkaConsumer consumer;
     private       KafkaProducer producer;
     private       String        consumerClosedErrorMsg;
+    private final boolean       pipelineEnabled     = AtlasConfiguration.NOTIFICATION_PRODUCER_PIPELINE_ENABLED.getBoolean();
+    private final Semaphore     inFlightPermits     = new Semaphore(AtlasConfiguration.NOTIFICATION_PRODUCER_MAX_INFLIGHT_MESSAGES.getInt());
+
+    private volatile AsyncSendFailureHandler asyncSendFailureHandler;
 
     // ----- Constructors ----------------------------------------------------
 
@@ -95,9 +105,9 @@ public class KafkaNotification extends AbstractNotification implements Service {
 
         //Override default configs
         properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringSerializer");
-        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringSerializer");
+        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, NotificationMessageSerializer.class.getName());
         properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
-        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
+        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName()); // messages can be JSON or binary
         properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
 
         boolean oldApiCommitEnableFlag = kafkaConf.getBoolean("auto.commit.enable", false);
@@ -106,9 +116,23 @@ public class KafkaNotification extends AbstractNotification implements Service {
         properties.put("enable.auto.commit", kafkaConf.getBoolean("enable.auto.commit", oldApiCommitEnableFlag));
         properties.put("session.timeout.ms", kafkaConf.getString("session.timeout.ms", "30000"));
 
+        // dead-letter messages are read only by the replay tool; a group id need not be configured for it
+        String dlqGroupIdProperty = NotificationType.HOOK_DEAD_LETTER.toString().toLowerCase() + "." + CONSUMER_GROUP_ID_PROPERTY;
+
+        if (!properties.containsKey(dlqGroupIdProperty)) {
+            properties.put(dlqGroupIdProperty, "atlas_dlq_replay");
+        }
+
         // if no value is specified for max.poll.records, set to 1
         properties.put("max.poll.records", kafkaConf.getInt("max.poll.records", 1));
 
+        // with pipelined sends, records from multiple calls can be batched by the producer
+        if (pipelineEnabled && !properties.containsKey(ProducerConfig.LINGER_MS_CONFIG)) {
+            properties.put(ProducerConfig.LINGER_MS_CONFIG, AtlasConfiguration.NOTIFICATION_PRODUCER_PIPELINE_LINGER_MS.getString());
+        }
+
+        LOG.info("notification producer: pipelineEnabled={}, maxInFlightMessages={}", pipelineEnabled, inFlightPermits.availablePermits());
+
         LOG.info("<== KafkaNotification()");
     }
 
@@ -157,7 +181,9 @@ public class KafkaNotification extends AbstractNotification implements Service {
         LOG.info("==> KafkaNotification.createConsumers(notificationType={}, numConsumers={}, autoCommitEnabled={})", notificationType, numConsumers, autoCommitEnabled);
 
         Properties         consumerProperties = getConsumerProperties(notificationType);
-        AtlasKafkaConsumer kafkaConsumer      = new AtlasKafkaConsumer(notificationType, getKafkaConsumer(consumerProperties, notificationType, autoCommitEnabled), autoCommitEnabled, pollTimeOutMs);
+        AtlasKafkaConsumer kafkaConsumer      = new AtlasKafkaConsumer(notificationType, getKafkaConsumer(consumerProperties, notificationType, autoCommitEnabled), autoCommitEnabled, pollTimeOutMs,
+                                                                       AtlasConfiguration.NOTIFICATION_CONSUMER_OFFSET_COMMIT_BATCH_SIZE.getInt(),
+                                                                       AtlasConfiguration.NOTIFICATION_CONSUMER_OFFSET_COMMIT_INTERVAL_MS.getLong());
 
         List<NotificationConsumer<T>> consumers = Collections.singletonList(kafkaConsumer);
 
@@ -171,7 +197,7 @@ public class KafkaNotification extends AbstractNotification implements Service {
         LOG.info("==> KafkaNotification.close()");
 
         if (producer != null) {
-            producer.close();
+            producer.close(); // waits for pending sends to complete
 
             producer = null;
         }
@@ -179,6 +205,11 @@ public class KafkaNotification extends AbstractNotification implements Service {
         LOG.info("<== KafkaNotification.close()");
     }
 
+    @Override
+    public void setAsyncSendFailureHandler(AsyncSendFailureHandler handler) {
+        this.asyncSendFailureHandler = handler;
+    }
+
 
     // ----- AbstractNotification --------------------------------------------
     @Override
@@ -190,16 +221,98 @@ public class KafkaNotification extends AbstractNotification implements Service {
         sendInternalToProducer(producer, type, messages);
     }
 
+    @Override
+    public void sendInternalBinary(NotificationType type, List<byte[]> messages) throws NotificationException {
+        if (producer == null) {
+            createProducer();
+        }
+
+        sendInternalToProducer(producer, type, messages);
+    }
+
+    @Override
+    public void sendInternalAndWait(NotificationType type, List<String> messages) throws NotificationException {
+        if (producer == null) {
+            createProducer();
+        }
+
+        sendInternalToProducerAndWait(producer, type, messages);
+    }
+
+    @Override
+    public void sendInternalBinaryAndWait(NotificationType type, List<byte[]> messages) throws NotificationException {
+        if (producer == null) {
+            createProducer();
+        }
+
+        sendInternalToProducerAndWait(producer, type, messages);
+    }
+
+    @VisibleForTesting
+    void sendInternalToProducer(Producer p, NotificationType type, List<?> messages) throws NotificationException {
+        if (pipelineEnabled) {
+            sendInternalToProducerPipelined(p, type, messages);
+        } else {
+            sendInternalToProducerAndWait(p, type, messages);
+        }
+    }
+
+    /**
+     * Send messages without waiting for acknowledgement from the broker, hence records of multiple calls are in flight
+     * at the same time - upto atlas.notification.producer.max.inflight.messages; when this limit is reached, the call
+     * blocks until earlier records are acknowledged. Messages that fail to be sent after this call returns are reported
+     * to the AsyncSendFailureHandler, or logged if none is set - never to later callers, which could be unrelated requests.
+     * Such failures are reported once per call, after all its records complete, with all the messages that failed.
+     */
     @VisibleForTesting
-    void sendInternalToProducer(Producer p, NotificationType type, List<String> messages) throws NotificationException {
+    void sendInternalToProducerPipelined(Producer p, NotificationType type, List<?> messages) throws NotificationException {
+        String             topic                = TOPIC_MAP.get(type);
+        PipelinedSendBatch batch                = new PipelinedSendBatch(type, messages.size());
+        List<String>       failedMessages       = new ArrayList<>();
+        Exception          lastFailureException = null;
+
+        for (Object message : messages) {
+            try {
+                inFlightPermits.acquire();
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+
+                lastFailureException = excp;
+
+                failedMessages.add(toMessageString(message));
+
+                batch.onNotSent();
+
+                continue;
+            }
+
+            try {
+                p.send(new ProducerRecord(topic, message), new PipelinedSendCallback(batch, message));
+            } catch (Exception excp) {
+                inFlightPermits.release();
+
+                lastFailureException = excp;
+
+                failedMessages.add(toMessageString(message));
+
+                batch.onNotSent();
+            }
+        }
+
+        if (lastFailureException != null) {
+            throw new NotificationException(lastFailureException, failedMessages);
+        }
+    }
+
+    private void sendInternalToProducerAndWait(Producer p, NotificationType type, List<?> messages) throws NotificationException {
         String               topic           = TOPIC_MAP.get(type);
         List<MessageContext> messageContexts = new ArrayList<>();
 
-        for (String message : messages) {
+        for (Object message : messages) {
             ProducerRecord record = new ProducerRecord(topic, message);
 
             if (LOG.isDebugEnabled()) {
-                LOG.debug("Sending message for topic {}: {}", topic, message);
+                LOG.debug("Sending message for topic {}: {}", topic, message instanceof byte[] ? BinaryMessageCodec.toJsonString((byte[]) message) : message);
             }
 
             Future future = p.send(record);
@@ -220,7 +333,7 @@ public class KafkaNotification extends AbstractNotification implements Service {
             } catch (Exception e) {
                 lastFailureException = e;
 
-                failedMessages.add(context.getMessage());
+                failedMessages.add(context.getMessageString());
             }
         }
 
@@ -278,11 +391,103 @@ public class KafkaNotification extends AbstractNotification implements Service {
         LOG.info("<== KafkaNotification.createProducer()");
     }
 
+    private void reportAsyncSendFailure(NotificationType type, NotificationException excp) {
+        AsyncSendFailureHandler handler = asyncSendFailureHandler;
+
+        if (handler == null) {
+            LOG.error("failed to send notification messages to topic {}: {}", TOPIC_MAP.get(type), excp.getFailedMessages(), excp);
+
+            return;
+        }
+
+        try {
+            handler.onAsyncSendFailure(type, excp);
+        } catch (Throwable t) {
+            LOG.error("failed to handle send failure of notification messages to topic {}: {}", TOPIC_MAP.get(type), excp.getFailedMessages(), t);
+        }
+    }
+
+    // failed messages are logged as JSON, for existing tools to replay them
+    private static String toMessageString(Object message) {
+        return message instanceof byte[] ? BinaryMessageCodec.toJsonString((byte[]) message) : message.toString();
+    }
+
+    // records sent by one pipelined call; failures are collected until all records complete, then reported together
+    private class PipelinedSendBatch {
+        private final NotificationType type;
+        private final List<String>     failedMessages       = new ArrayList<>();
+        private       Exception        lastFailureException = null;
+        private       int              pendingCount;
+
+        PipelinedSendBatch(NotificationType type, int count) {
+            this.type         = type;
+            this.pendingCount = count;
+        }
+
+        void onCompletion(Object message, Exception excp) {
+            final NotificationException failure;
+
+            synchronized (this) {
+                if (excp != null) {
+                    lastFailureException = excp;
+
+                    failedMessages.add(toMessageString(message));
+                }
+
+                failure = completeOne();
+            }
+
+            if (failure != null) {
+                reportAsyncSendFailure(type, failure);
+            }
+        }
+
+        // the record was not handed to the producer; its failure is thrown to the caller instead
+        void onNotSent() {
+            final NotificationException failure;
+
+            synchronized (this) {
+                failure = completeOne();
+            }
+
+            if (failure != null) {
+                reportAsyncSendFailure(type, failure);
+            }
+        }
+
+        private NotificationException completeOne() {
+            pendingCount--;
+
+            return pendingCount == 0 && lastFailureException != null ? new NotificationException(lastFailureException, failedMessages, true) : null;
+        }
+    }
+
+    private class PipelinedSendCallback implements Callback {
+        private final PipelinedSendBatch batch;
+        private final Object             message;
+
+        PipelinedSendCallback(PipelinedSendBatch batch, Object message) {
+            this.batch   = batch;
+            this.message = message;
+        }
+
+        @Override
+        public void onCompletion(RecordMetadata metadata, Exception excp) {
+            inFlightPermits.release();
+
+            if (excp == null && LOG.isDebugEnabled()) {
+                LOG.debug("Sent message for topic - {}, partition - {}, offset - {}", metadata.topic(), metadata.partition(), metadata.offset());
+            }
+
+            batch.onCompletion(message, excp);
+        }
+    }
+
     private class MessageContext {
         private final Future<RecordMetadata> future;
-        private final String                 message;
+        private final Object                 message;
 
-        public MessageContext(Future<RecordMetadata> future, String message) {
+        public MessageContext(Future<RecordMetadata> future, Object message) {
             this.future  = future;
             this.message = message;
         }
@@ -291,8 +496,8 @@ public class KafkaNotification extends AbstractNotification implements Service {
             return future;
         }
 
-        public String getMessage() {
-            return message;
+        public String getMessageString() {
+            return toMessageString(message);
         }
     }
 
@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.kafka;
+
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Kafka serializer for notification messages: JSON messages are sent as UTF-8 bytes, binary messages are sent as is.
+ */
+public class NotificationMessageSerializer implements Serializer<Object> {
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        final byte[] ret;
+
+        if (data == null) {
+            ret = null;
+        } else if (data instanceof byte[]) {
+            ret = (byte[]) data;
+        } else {
+            ret = AtlasNotificationBaseMessage.getBytesUtf8(data.toString());
+        }
+
+        return ret;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -18,6 +18,7 @@
 package org.apache.atlas.notification;
 
 import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.model.notification.AtlasNotificationBaseMessage;
 import org.apache.atlas.model.notification.AtlasNotificationMessage;
@@ -57,6 +58,8 @@ public abstract class AbstractNotification implements NotificationInterface {
 
     public static final int MAX_BYTES_PER_CHAR = 4;  // each char can encode upto 4 bytes in UTF-8
 
+    public static final boolean MESSAGE_BINARY_ENCODING_ENABLED = AtlasConfiguration.NOTIFICATION_MESSAGE_BINARY_ENCODING_ENABLED.getBoolean();
+
     /**
      * IP address of the host in which this process has started
      */
@@ -80,13 +83,12 @@ public abstract class AbstractNotification implements NotificationInterface {
 
     @Override
     public <T> void send(NotificationType type, List<T> messages) throws NotificationException {
-        List<String> strMessages = new ArrayList<>(messages.size());
-
-        for (int index = 0; index < messages.size(); index++) {
-            createNotificationMessages(messages.get(index), strMessages);
-        }
+        send(type, messages, false);
+    }
 
-        sendInternal(type, strMessages);
+    @Override
+    public <T> void sendAndWait(NotificationType type, List<T> messages) throws NotificationException {
+        send(type, messages, true);
     }
 
     @Override
@@ -99,6 +101,34 @@ public abstract class AbstractNotification implements NotificationInterface {
         currentUser = user;
     }
 
+    private <T> void send(NotificationType type, List<T> messages, boolean waitForAck) throws NotificationException {
+        if (MESSAGE_BINARY_ENCODING_ENABLED) {
+            List<byte[]> binMessages = new ArrayList<>(messages.size());
+
+            for (int index = 0; index < messages.size(); index++) {
+                createBinaryNotificationMessages(messages.get(index), binMessages);
+            }
+
+            if (waitForAck) {
+                sendInternalBinaryAndWait(type, binMessages);
+            } else {
+                sendInternalBinary(type, binMessages);
+            }
+        } else {
+            List<String> strMessages = new ArrayList<>(messages.size());
+
+            for (int index = 0; index < messages.size(); index++) {
+                createNotificationMessages(messages.get(index), strMessages);
+            }
+
+            if (waitForAck) {
+                sendInternalAndWait(type, strMessages);
+            } else {
+                sendInternal(type, strMessages);
+            }
+        }
+    }
+
     // ----- AbstractNotification --------------------------------------------
     /**
      * Send the given messages.
@@ -110,6 +140,41 @@ public abstract class AbstractNotification implements NotificationInterface {
      */
     protected abstract void sendInternal(NotificationType type, List<String> messages) throws NotificationException;
 
+    /**
+     * Send the given binary encoded messages.
+     *
+     * @param type      the message type
+     * @param messages  the messages to send
+     *
+     * @throws NotificationException if an error occurs while sending
+     */
+    protected abstract void sendInternalBinary(NotificationType type, List<byte[]> messages) throws NotificationException;
+
+    /**
+     * Send the given messages and wait for them to be acknowledged; implementations whose sendInternal() returns before
+     * messages are acknowledged must override this.
+     *
+     * @param type      the message type
+     * @param messages  the messages to send
+     *
+     * @throws NotificationException if any of the messages failed to be sent
+     */
+    protected void sendInternalAndWait(NotificationType type, List<String> messages) throws NotificationException {
+        sendInternal(type, messages);
+    }
+
+    /**
+     * Send the given binary encoded messages and wait for them to be acknowledged; implementations whose
+     * sendInternalBinary() returns before messages are acknowledged must override this.
+     *
+     * @param type      the message type
+     * @param messages  the messages to send
+     *
+     * @throws NotificationException if any of the messages failed to be sent
+     */
+    protected void sendInternalBinaryAndWait(NotificationType type, List<byte[]> messages) throws NotificationException {
+        sendInternalBinary(type, messages);
+    }
 
     // ----- utility methods -------------------------------------------------
 
@@ -156,62 +221,86 @@ public abstract class AbstractNotification implements NotificationInterface {
             msgLengthExceedsLimit = msgBytes.length > MESSAGE_MAX_LENGTH_BYTES;
 
             if (msgLengthExceedsLimit) {
-                String          msgId           = getNextMessageId();
-                CompressionKind compressionKind = CompressionKind.NONE;
+                for (AtlasNotificationStringMessage largeMsg : createLargeMessages(msgBytes)) {
+                    msgJsonList.add(AtlasType.toV1Json(largeMsg)); // largeMsg will not have multi-byte characters, due to use of encodeBase64()
+                }
+            }
+        }
 
-                if (MESSAGE_COMPRESSION_ENABLED) {
-                    byte[] encodedBytes = AtlasNotificationBaseMessage.gzipCompressAndEncodeBase64(msgBytes);
+        if (!msgLengthExceedsLimit) {
+            msgJsonList.add(msgJson);
+        }
+    }
 
-                    compressionKind = CompressionKind.GZIP;
+    /**
+     * Get the binary encoded notification messages from the given object. Like JSON messages, large messages are
+     * compressed and split.
+     *
+     * @param message  the message in object form
+     * @param msgList  binary encoded messages are added to this list
+     * @throws NotificationException if the message could not be encoded
+     */
+    public static void createBinaryNotificationMessages(Object message, List<byte[]> msgList) throws NotificationException {
+        AtlasNotificationMessage<?> notificationMsg = new AtlasNotificationMessage<>(CURRENT_MESSAGE_VERSION, message, getHostAddress(), getCurrentUser());
+        byte[]                      msgBytes        = BinaryMessageCodec.toBytes(notificationMsg);
 
-                    LOG.info("Compressed large message: msgID={}, uncompressed={} bytes, compressed={} bytes", msgId, msgBytes.length, encodedBytes.length);
+        if (msgBytes.length > MESSAGE_MAX_LENGTH_BYTES) {
+            for (AtlasNotificationStringMessage largeMsg : createLargeMessages(msgBytes)) {
+                msgList.add(BinaryMessageCodec.toBytes(largeMsg));
+            }
+        } else {
+            msgList.add(msgBytes);
+        }
+    }
 
-                    msgLengthExceedsLimit = encodedBytes.length > MESSAGE_MAX_LENGTH_BYTES;
+    // compresses and/or splits the given message, which is larger than MESSAGE_MAX_LENGTH_BYTES
+    private static List<AtlasNotificationStringMessage> createLargeMessages(byte[] msgBytes) {
+        List<AtlasNotificationStringMessage> ret                   = new ArrayList<>();
+        String                               msgId                 = getNextMessageId();
+        CompressionKind                      compressionKind       = CompressionKind.NONE;
+        boolean                              msgLengthExceedsLimit = true;
 
-                    if (!msgLengthExceedsLimit) { // no need to split
-                        AtlasNotificationStringMessage compressedMsg = new AtlasNotificationStringMessage(encodedBytes, msgId, compressionKind);
+        if (MESSAGE_COMPRESSION_ENABLED) {
+            byte[] encodedBytes = AtlasNotificationBaseMessage.gzipCompressAndEncodeBase64(msgBytes);
 
-                        msgJson  = AtlasType.toV1Json(compressedMsg); // msgJson will not have multi-byte characters here, due to use of encodeBase64() above
-                        msgBytes = null; // not used after this point
-                    } else { // encodedBytes will be split
-                        msgJson  = null; // not used after this point
-                        msgBytes = encodedBytes;
-                    }
-                }
+            compressionKind = CompressionKind.GZIP;
 
-                if (msgLengthExceedsLimit) {
-                    // compressed messages are already base64-encoded
-                    byte[] encodedBytes = MESSAGE_COMPRESSION_ENABLED ? msgBytes : AtlasNotificationBaseMessage.encodeBase64(msgBytes);
-                    int    splitCount   = encodedBytes.length / MESSAGE_MAX_LENGTH_BYTES;
+            LOG.info("Compressed large message: msgID={}, uncompressed={} bytes, compressed={} bytes", msgId, msgBytes.length, encodedBytes.length);
 
-                    if ((encodedBytes.length % MESSAGE_MAX_LENGTH_BYTES) != 0) {
-                        splitCount++;
-                    }
+            msgLengthExceedsLimit = encodedBytes.length > MESSAGE_MAX_LENGTH_BYTES;
 
-                    for (int i = 0, offset = 0; i < splitCount; i++) {
-                        int length = MESSAGE_MAX_LENGTH_BYTES;
+            if (!msgLengthExceedsLimit) { // no need to split
+                ret.add(new AtlasNotificationStringMessage(encodedBytes, msgId, compressionKind));
+            } else { // encodedBytes will be split
+                msgBytes = encodedBytes;
+            }
+        }
 
-                        if ((offset + length) > encodedBytes.length) {
-                            length = encodedBytes.length - offset;
-                        }
+        if (msgLengthExceedsLimit) {
+            // compressed messages are already base64-encoded
+            byte[] encodedBytes = MESSAGE_COMPRESSION_ENABLED ? msgBytes : AtlasNotificationBaseMessage.encodeBase64(msgBytes);
+            int    splitCount   = encodedBytes.length / MESSAGE_MAX_LENGTH_BYTES;
 
-                        AtlasNotificationStringMessage splitMsg = new AtlasNotificationStringMessage(encodedBytes, offset, length, msgId, compressionKind, i, splitCount);
+            if ((encodedBytes.length % MESSAGE_MAX_LENGTH_BYTES) != 0) {
+                splitCount++;
+            }
 
-                        String splitMsgJson = AtlasType.toV1Json(splitMsg);
+            for (int i = 0, offset = 0; i < splitCount; i++) {
+                int length = MESSAGE_MAX_LENGTH_BYTES;
 
-                        msgJsonList.add(splitMsgJson);
+                if ((offset + length) > encodedBytes.length) {
+                    length = encodedBytes.length - offset;
+                }
 
-                        offset += length;
-                    }
+                ret.add(new AtlasNotificationStringMessage(encodedBytes, offset, length, msgId, compressionKind, i, splitCount));
 
-                    LOG.info("Split large message: msgID={}, splitCount={}, length={} bytes", msgId, splitCount, encodedBytes.length);
-                }
+                offset += length;
             }
-        }
 
-        if (!msgLengthExceedsLimit) {
-            msgJsonList.add(msgJson);
+            LOG.info("Split large message: msgID={}, splitCount={}, length={} bytes", msgId, splitCount, encodedBytes.length);
         }
+
+        return ret;
     }
 
     private static String getNextMessageId() {
@@ -18,6 +18,8 @@
 
 package org.apache.atlas.notification;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.atlas.model.notification.AtlasNotificationBaseMessage;
@@ -26,15 +28,21 @@ import org.apache.atlas.model.notification.AtlasNotificationMessage;
 import org.apache.atlas.model.notification.AtlasNotificationStringMessage;
 import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.model.notification.MessageVersion;
+import org.apache.atlas.utils.AtlasJson;
+import org.apache.commons.codec.binary.Base64InputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
 
 import static org.apache.atlas.AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_BUFFER_PURGE_INTERVAL_SECONDS;
 import static org.apache.atlas.AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_SEGMENTS_WAIT_TIME_SECONDS;
@@ -50,6 +58,14 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
     public static final String VERSION_MISMATCH_MSG =
         "Notification message version mismatch. Expected %s but recieved %s. Message %s";
 
+    private static final String FIELD_VERSION              = "version";
+    private static final String FIELD_MSG_ID               = "msgId";
+    private static final String FIELD_MSG_COMPRESSION_KIND = "msgCompressionKind";
+    private static final String FIELD_MSG_SPLIT_IDX        = "msgSplitIdx";
+    private static final String FIELD_MSG_SPLIT_COUNT      = "msgSplitCount";
+    private static final String FIELD_MESSAGE              = "message";
+    private static final int    STREAM_BUFFER_SIZE         = 8192;
+
     private final TypeReference<T> messageType;
     private final TypeReference<AtlasNotificationMessage<T>> notificationMessageType;
     private final MessageVersion                             expectedVersion;
@@ -103,142 +119,141 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
     // ----- MessageDeserializer ---------------------------------------------
     @Override
     public T deserialize(String messageJson) {
-        final T ret;
+        return deserializeMessage(messageJson);
+    }
+
+    /**
+     * Get a message of type T from the given bytes, which can have a JSON or binary encoded message.
+     *
+     * @param message  the message bytes
+     *
+     * @return  the deserialized message
+     */
+    public T deserialize(byte[] message) {
+        return deserializeMessage(message);
+    }
+
+    // message is either a JSON string or bytes of a JSON or binary encoded message. Each message is read once: fields of
+    // the envelope and the payload are read in a single pass, and compressed/split payloads are decoded as they are read
+    private T deserializeMessage(Object message) {
+        T ret;
 
         messageCountTotal.incrementAndGet();
         messageCountSinceLastInterval.incrementAndGet();
 
-        AtlasNotificationBaseMessage msg = AtlasType.fromV1Json(messageJson, AtlasNotificationBaseMessage.class);
+        try {
+            Envelope<T> msg = readEnvelope(message);
 
-        if (msg == null || msg.getVersion() == null) { // older style messages not wrapped with AtlasNotificationMessage
-            ret = AtlasType.fromV1Json(messageJson, messageType);
-        } else  {
-            String msgJson = messageJson;
+            if (msg == null || msg.getVersion() == null) { // older style messages not wrapped with AtlasNotificationMessage
+                ret = readLegacyMessage(message);
+            } else {
+                Object msgContent = message;
 
-            if (msg.getMsgSplitCount() > 1) { // multi-part message
-                AtlasNotificationStringMessage splitMsg = AtlasType.fromV1Json(msgJson, AtlasNotificationStringMessage.class);
+                if (msg.getMsgSplitCount() > 1) { // multi-part message
+                    checkVersion(msg, msgContent);
 
-                checkVersion(splitMsg, msgJson);
+                    msg        = addSplitMessage(msg);
+                    msgContent = msg;
+                } else if (CompressionKind.GZIP.equals(msg.getMsgCompressionKind())) {
+                    LOG.info("Received msgID={}: compressed={} bytes", msg.getMsgId(), msg.encodedMessage.length());
 
-                String msgId = splitMsg.getMsgId();
+                    msg        = readEnvelope(getEncodedMessageStream(msg.encodedMessage), CompressionKind.GZIP);
+                    msgContent = msg;
+                }
 
-                if (StringUtils.isEmpty(msgId)) {
-                    LOG.error("Received multi-part message with no message ID. Ignoring message");
+                if (msg != null) {
+                    checkVersion(msg, msgContent);
 
-                    msg = null;
+                    ret = msg.payload;
                 } else {
-                    final int splitIdx   = splitMsg.getMsgSplitIdx();
-                    final int splitCount = splitMsg.getMsgSplitCount();
-
-                    final SplitMessageAggregator splitMsgs;
-
-                    if (splitIdx == 0) {
-                        splitMsgs = new SplitMessageAggregator(splitMsg);
-
-                        splitMsgBuffer.put(splitMsgs.getMsgId(), splitMsgs);
-                    } else {
-                        splitMsgs = splitMsgBuffer.get(msgId);
-                    }
-
-                    if (splitMsgs == null) {
-                        LOG.error("Received msgID={}: {} of {}, but first message didn't arrive. Ignoring message", msgId, splitIdx + 1, splitCount);
-
-                        msg = null;
-                    } else if (splitMsgs.getTotalSplitCount() <= splitIdx) {
-                        LOG.error("Received msgID={}: {} of {} - out of bounds. Ignoring message", msgId, splitIdx + 1, splitCount);
-
-                        msg = null;
-                    } else {
-                        LOG.info("Received msgID={}: {} of {}", msgId, splitIdx + 1, splitCount);
-
-                        boolean isReady = splitMsgs.add(splitMsg);
-
-                        if (isReady) { // last message
-                            splitMsgBuffer.remove(msgId);
-
-                            boolean isValidMessage = true;
+                    ret = null;
+                }
+            }
+        } catch (IOException excp) {
+            LOG.error("failed to deserialize notification message", excp);
 
-                            StringBuilder sb = new StringBuilder();
+            ret = null;
+        }
 
-                            for (int i = 0; i < splitMsgs.getTotalSplitCount(); i++) {
-                                splitMsg = splitMsgs.get(i);
+        long now                = System.currentTimeMillis();
+        long timeSinceLastPurge = now - splitMessagesLastPurgeTime;
 
-                                if (splitMsg == null) {
-                                    LOG.warn("MsgID={}: message {} of {} is missing. Ignoring message", msgId, i + 1, splitCount);
+        if(timeSinceLastPurge >= splitMessageBufferPurgeIntervalMs) {
+            purgeStaleMessages(splitMsgBuffer, now, splitMessageSegmentsWaitTimeMs);
 
-                                    isValidMessage = false;
+            LOG.info("Notification processing stats: total={}, sinceLastStatsReport={}, splitMessagesBuffered={}, splitMessageStore=[{}]", messageCountTotal.get(), messageCountSinceLastInterval.getAndSet(0), splitMsgBuffer.size(), SplitMessageStore.getInstance());
 
-                                    break;
-                                }
+            splitMessagesLastPurgeTime = now;
+        }
 
-                                sb.append(splitMsg.getMessage());
-                            }
+        return ret;
+    }
 
-                            if (isValidMessage) {
-                                msgJson = sb.toString();
+    /**
+     * Add the given part of a multi-part message to the buffer.
+     *
+     * @return the complete message, once all its parts are received; null otherwise
+     */
+    private Envelope<T> addSplitMessage(Envelope<T> msg) throws IOException {
+        final String msgId = msg.getMsgId();
 
-                                if (CompressionKind.GZIP.equals(splitMsg.getMsgCompressionKind())) {
-                                    byte[] encodedBytes = AtlasNotificationBaseMessage.getBytesUtf8(msgJson);
-                                    byte[] bytes        = AtlasNotificationBaseMessage.decodeBase64AndGzipUncompress(encodedBytes);
+        if (StringUtils.isEmpty(msgId)) {
+            LOG.error("Received multi-part message with no message ID. Ignoring message");
 
-                                    msgJson = AtlasNotificationBaseMessage.getStringUtf8(bytes);
+            return null;
+        }
 
-                                    LOG.info("Received msgID={}: splitCount={}, compressed={} bytes, uncompressed={} bytes", msgId, splitCount, encodedBytes.length, bytes.length);
-                                } else {
-                                    byte[] encodedBytes = AtlasNotificationBaseMessage.getBytesUtf8(msgJson);
-                                    byte[] bytes        = AtlasNotificationBaseMessage.decodeBase64(encodedBytes);
+        final int                            splitIdx   = msg.getMsgSplitIdx();
+        final int                            splitCount = msg.getMsgSplitCount();
+        final AtlasNotificationStringMessage splitMsg   = new AtlasNotificationStringMessage(msg.encodedMessage, msgId, msg.getMsgCompressionKind(), splitIdx, splitCount);
+        final SplitMessageAggregator         splitMsgs;
 
-                                    msgJson = AtlasNotificationBaseMessage.getStringUtf8(bytes);
+        if (splitIdx == 0) {
+            splitMsgs = new SplitMessageAggregator(splitMsg);
 
-                                    LOG.info("Received msgID={}: splitCount={}, length={} bytes", msgId, splitCount, bytes.length);
-                                }
+            SplitMessageAggregator existing = splitMsgBuffer.put(splitMsgs.getMsgId(), splitMsgs);
 
-                                msg = AtlasType.fromV1Json(msgJson, AtlasNotificationBaseMessage.class);
-                            } else {
-                                msg = null;
-                            }
-                        } else { // more messages to arrive
-                            msg = null;
-                        }
-                    }
-                }
+            if (existing != null) { // first part received again; parts received earlier are discarded
+                existing.release();
             }
+        } else {
+            splitMsgs = splitMsgBuffer.get(msgId);
+        }
 
-            if (msg != null) {
-                if (CompressionKind.GZIP.equals(msg.getMsgCompressionKind())) {
-                    AtlasNotificationStringMessage compressedMsg = AtlasType.fromV1Json(msgJson, AtlasNotificationStringMessage.class);
-
-                    byte[] encodedBytes = AtlasNotificationBaseMessage.getBytesUtf8(compressedMsg.getMessage());
-                    byte[] bytes        = AtlasNotificationBaseMessage.decodeBase64AndGzipUncompress(encodedBytes);
-
-                    msgJson = AtlasNotificationBaseMessage.getStringUtf8(bytes);
+        if (splitMsgs == null) {
+            LOG.error("Received msgID={}: {} of {}, but first message didn't arrive. Ignoring message", msgId, splitIdx + 1, splitCount);
 
-                    LOG.info("Received msgID={}: compressed={} bytes, uncompressed={} bytes", compressedMsg.getMsgId(), encodedBytes.length, bytes.length);
-                }
+            return null;
+        } else if (splitMsgs.getTotalSplitCount() <= splitIdx) {
+            LOG.error("Received msgID={}: {} of {} - out of bounds. Ignoring message", msgId, splitIdx + 1, splitCount);
 
-                AtlasNotificationMessage<T> atlasNotificationMessage = AtlasType.fromV1Json(msgJson, notificationMessageType);
+            return null;
+        }
 
-                checkVersion(atlasNotificationMessage, msgJson);
+        LOG.info("Received msgID={}: {} of {}", msgId, splitIdx + 1, splitCount);
 
-                ret = atlasNotificationMessage.getMessage();
-            } else {
-                ret = null;
-            }
+        if (!splitMsgs.add(splitMsg)) { // more messages to arrive
+            return null;
         }
 
+        splitMsgBuffer.remove(msgId);
 
-        long now                = System.currentTimeMillis();
-        long timeSinceLastPurge = now - splitMessagesLastPurgeTime;
+        try {
+            for (int i = 0; i < splitMsgs.getTotalSplitCount(); i++) {
+                if (!splitMsgs.isReceived(i)) {
+                    LOG.warn("MsgID={}: message {} of {} is missing. Ignoring message", msgId, i + 1, splitCount);
 
-        if(timeSinceLastPurge >= splitMessageBufferPurgeIntervalMs) {
-            purgeStaleMessages(splitMsgBuffer, now, splitMessageSegmentsWaitTimeMs);
+                    return null;
+                }
+            }
 
-            LOG.info("Notification processing stats: total={}, sinceLastStatsReport={}", messageCountTotal.get(), messageCountSinceLastInterval.getAndSet(0));
+            LOG.info("Received msgID={}: splitCount={}, compressionKind={}, encoded={} bytes, spilled={} bytes", msgId, splitCount, splitMsgs.getCompressionKind(), splitMsgs.getEncodedLength(), splitMsgs.getSpilledBytes());
 
-            splitMessagesLastPurgeTime = now;
+            // parts are decoded as the parser reads them, without concatenating them first
+            return readEnvelope(new Base64InputStream(splitMsgs.getEncodedMessageStream()), splitMsgs.getCompressionKind());
+        } finally {
+            splitMsgs.release();
         }
-
-        return ret;
     }
 
     @VisibleForTesting
@@ -266,6 +281,8 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
         if(evictionList != null) {
             for (SplitMessageAggregator aggregrator : evictionList) {
                 LOG.error("evicting notification msgID={}, totalSplitCount={}, receivedSplitCount={}", aggregrator.getMsgId(), aggregrator.getTotalSplitCount(), aggregrator.getReceivedSplitCount());
+                aggregrator.release();
+                SplitMessageStore.getInstance().onEviction();
                 splitMsgBuffer.remove(aggregrator.getMsgId());
             }
         }
@@ -302,4 +319,120 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
             notificationLogger.info(String.format(VERSION_MISMATCH_MSG, expectedVersion, notificationMessage.getVersion(), messageJson));
         }
     }
+
+    private void checkVersion(AtlasNotificationBaseMessage notificationMessage, Object message) {
+        if (notificationMessage.compareVersion(expectedVersion) != 0) { // convert to JSON only when the version doesn't match
+            checkVersion(notificationMessage, toJson(message));
+        }
+    }
+
+    private String toJson(Object message) {
+        final String ret;
+
+        if (message instanceof byte[]) {
+            ret = BinaryMessageCodec.toJsonString((byte[]) message);
+        } else if (message instanceof Envelope) {
+            Envelope<?> msg = (Envelope<?>) message;
+
+            ret = AtlasType.toV1Json(new AtlasNotificationMessage<>(msg.getVersion(), msg.payload));
+        } else {
+            ret = (String) message;
+        }
+
+        return ret;
+    }
+
+    private Envelope<T> readEnvelope(Object message) throws IOException {
+        try (JsonParser parser = createParser(message)) {
+            return readEnvelope(parser);
+        }
+    }
+
+    // encodedMessage: base64 decoded stream of the message, which is gzip compressed when compressionKind is GZIP
+    private Envelope<T> readEnvelope(InputStream encodedMessage, CompressionKind compressionKind) throws IOException {
+        InputStream in = CompressionKind.GZIP.equals(compressionKind) ? new GZIPInputStream(encodedMessage, STREAM_BUFFER_SIZE) : encodedMessage;
+
+        try (JsonParser parser = BinaryMessageCodec.createParser(new BufferedInputStream(in, STREAM_BUFFER_SIZE))) {
+            return readEnvelope(parser);
+        }
+    }
+
+    /**
+     * Read fields of the envelope, in any order, in one pass over the message. When the payload is not encoded as a
+     * string - i.e. it is not compressed or split - it is bound to type T as it is read.
+     *
+     * @return the envelope; null if the message is not a JSON object
+     */
+    private Envelope<T> readEnvelope(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+
+        Envelope<T> ret = new Envelope<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String    fieldName = parser.getCurrentName();
+            JsonToken token     = parser.nextToken();
+
+            if (token == JsonToken.VALUE_NULL) {
+                continue;
+            }
+
+            switch (fieldName) {
+                case FIELD_VERSION:
+                    ret.setVersion(parser.readValueAs(MessageVersion.class));
+                break;
+
+                case FIELD_MSG_ID:
+                    ret.setMsgId(parser.getValueAsString());
+                break;
+
+                case FIELD_MSG_COMPRESSION_KIND:
+                    ret.setMsgCompressed(CompressionKind.valueOf(parser.getValueAsString()));
+                break;
+
+                case FIELD_MSG_SPLIT_IDX:
+                    ret.setMsgSplitIdx(parser.getValueAsInt());
+                break;
+
+                case FIELD_MSG_SPLIT_COUNT:
+                    ret.setMsgSplitCount(parser.getValueAsInt());
+                break;
+
+                case FIELD_MESSAGE:
+                    if (token == JsonToken.VALUE_STRING) {
+                        ret.encodedMessage = parser.getText();
+                    } else {
+                        ret.payload = parser.readValueAs(messageType);
+                    }
+                break;
+
+                default:
+                    parser.skipChildren();
+                break;
+            }
+        }
+
+        return ret;
+    }
+
+    private T readLegacyMessage(Object message) throws IOException {
+        try (JsonParser parser = createParser(message)) {
+            return parser.readValueAs(messageType);
+        }
+    }
+
+    private static JsonParser createParser(Object message) throws IOException {
+        return message instanceof byte[] ? BinaryMessageCodec.createParser((byte[]) message) : AtlasJson.createParser((String) message);
+    }
+
+    private static InputStream getEncodedMessageStream(String encodedMessage) {
+        return new Base64InputStream(new StringInputStream(encodedMessage));
+    }
+
+    // envelope of a notification message, with either the payload or its encoded string
+    private static class Envelope<P> extends AtlasNotificationBaseMessage {
+        private String encodedMessage;
+        private P      payload;
+    }
 }
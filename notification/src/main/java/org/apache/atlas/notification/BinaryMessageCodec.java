@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage;
+import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.utils.AtlasJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+
+/**
+ * Binary encoding of notification messages, in Smile format, using the same model and serializers as JSON encoding.
+ *
+ * Every encoded message starts with the 4-byte Smile header - ':', ')', '\n' and a byte having the format version. Consumers
+ * use this header to identify the encoding of each message; hence, JSON and binary messages can be sent to the same topic.
+ */
+public final class BinaryMessageCodec {
+    private static final Logger LOG = LoggerFactory.getLogger(BinaryMessageCodec.class);
+
+    private static final byte HEADER_BYTE_1 = (byte) ':';
+    private static final byte HEADER_BYTE_2 = (byte) ')';
+    private static final byte HEADER_BYTE_3 = (byte) '\n';
+    private static final int  HEADER_LENGTH = 4;
+
+    // Smile classes are loaded only when binary messages are sent or received
+    private static class MapperHolder {
+        static final ObjectMapper MAPPER = AtlasJson.createMapper(new SmileFactory().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES));
+    }
+
+    private BinaryMessageCodec() { }
+
+    public static boolean isBinary(byte[] message) {
+        return message != null && isBinary(message, message.length);
+    }
+
+    /**
+     * @return parser for the given message - binary or JSON, as identified by the header
+     */
+    public static JsonParser createParser(byte[] message) throws IOException {
+        return isBinary(message) ? MapperHolder.MAPPER.getFactory().createParser(message) : AtlasJson.createParser(message);
+    }
+
+    /**
+     * @return parser for the message in the given stream - binary or JSON, as identified by the header. Only the header is
+     *         read from the stream here; rest of the message is read as the parser advances
+     */
+    public static JsonParser createParser(InputStream in) throws IOException {
+        PushbackInputStream stream = new PushbackInputStream(in, HEADER_LENGTH);
+        byte[]              header = new byte[HEADER_LENGTH];
+        int                 length = 0;
+
+        while (length < HEADER_LENGTH) {
+            int count = stream.read(header, length, HEADER_LENGTH - length);
+
+            if (count < 0) {
+                break;
+            }
+
+            length += count;
+        }
+
+        stream.unread(header, 0, length);
+
+        return isBinary(header, length) ? MapperHolder.MAPPER.getFactory().createParser(stream) : AtlasJson.createParser(stream);
+    }
+
+    public static byte[] toBytes(Object obj) throws NotificationException {
+        try {
+            return MapperHolder.MAPPER.writeValueAsBytes(obj);
+        } catch (IOException e) {
+            throw new NotificationException(e);
+        }
+    }
+
+    public static <T> T fromBytes(byte[] bytes, Class<T> type) {
+        T ret;
+
+        try {
+            ret = MapperHolder.MAPPER.readValue(bytes, type);
+        } catch (IOException e) {
+            LOG.error("BinaryMessageCodec.fromBytes()", e);
+
+            ret = null;
+        }
+
+        return ret;
+    }
+
+    public static <T> T fromBytes(byte[] bytes, TypeReference<T> type) {
+        T ret;
+
+        try {
+            ret = MapperHolder.MAPPER.readValue(bytes, type);
+        } catch (IOException e) {
+            LOG.error("BinaryMessageCodec.fromBytes()", e);
+
+            ret = null;
+        }
+
+        return ret;
+    }
+
+    private static boolean isBinary(byte[] message, int length) {
+        return length >= HEADER_LENGTH && message[0] == HEADER_BYTE_1 && message[1] == HEADER_BYTE_2 && message[2] == HEADER_BYTE_3;
+    }
+
+    /**
+     * @return JSON of the given binary message - for logs and failed-message files, which are read by existing tools
+     */
+    public static String toJson(byte[] bytes) {
+        String ret;
+
+        try {
+            JsonNode root = MapperHolder.MAPPER.readTree(bytes);
+
+            ret = AtlasType.toV1Json(root);
+        } catch (IOException e) {
+            LOG.error("BinaryMessageCodec.toJson()", e);
+
+            ret = null;
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return JSON of the given message - binary or JSON, as identified by the header
+     */
+    public static String toJsonString(byte[] message) {
+        return isBinary(message) ? toJson(message) : AtlasNotificationBaseMessage.getStringUtf8(message);
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.model.notification.DeadLetterMessage;
+import org.apache.atlas.notification.NotificationInterface.NotificationType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes hook messages that failed to be processed to the dead-letter topic. When the topic is unavailable, messages
+ * are written to the local store; these can be fed back to the consumer later with {@link DeadLetterReplayTool}.
+ */
+public class DeadLetterPublisher {
+    private static final Logger LOG = LoggerFactory.getLogger(DeadLetterPublisher.class);
+
+    private final NotificationInterface notificationInterface;
+    private final DeadLetterStore       localStore;
+    private final AtomicLong            publishedCount = new AtomicLong(0);
+    private final AtomicLong            lostCount      = new AtomicLong(0);
+
+    public DeadLetterPublisher(NotificationInterface notificationInterface, DeadLetterStore localStore) {
+        this.notificationInterface = notificationInterface;
+        this.localStore            = localStore;
+    }
+
+    /**
+     * @return true if the message was published to the topic or written to the local store
+     */
+    public boolean publish(DeadLetterMessage message) {
+        try {
+            // wait for acknowledgement: with pipelined sends, send() returns before the message is delivered
+            notificationInterface.sendAndWait(NotificationType.HOOK_DEAD_LETTER, Collections.singletonList(message));
+
+            publishedCount.incrementAndGet();
+
+            return true;
+        } catch (Exception excp) {
+            LOG.warn("DeadLetterPublisher: failed to publish to dead-letter topic; writing to local store {}", localStore.getDirectory(), excp);
+        }
+
+        try {
+            localStore.append(Collections.singletonList(message));
+
+            return true;
+        } catch (Exception excp) {
+            LOG.error("DeadLetterPublisher: failed to write to local store {}", localStore.getDirectory(), excp);
+        }
+
+        lostCount.incrementAndGet();
+
+        return false;
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    public long getStoredCount() {
+        return localStore.getStoredCount();
+    }
+
+    public long getLostCount() {
+        return lostCount.get();
+    }
+
+    public void rollIfDue() {
+        localStore.rollIfDue();
+    }
+
+    public void close() {
+        localStore.roll();
+    }
+}
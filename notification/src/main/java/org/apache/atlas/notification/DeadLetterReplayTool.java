@@ -0,0 +1,285 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.kafka.AtlasKafkaMessage;
+import org.apache.atlas.kafka.KafkaNotification;
+import org.apache.atlas.model.notification.DeadLetterMessage;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.notification.NotificationInterface.NotificationType;
+import org.apache.commons.configuration.Configuration;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feeds dead-letter messages back to the hook topic, for the hook consumer to process them again. Messages are read from
+ * the dead-letter topic or from the local store, and sent in batches by multiple threads; hence messages are not
+ * replayed in the order they failed.
+ *
+ * Offsets in the dead-letter topic are committed, and local store files are marked replayed, only after all messages
+ * read are acknowledged by the broker. On failure, messages are replayed again in the next run.
+ */
+public class DeadLetterReplayTool {
+    private static final Logger LOG = LoggerFactory.getLogger(DeadLetterReplayTool.class);
+
+    public static final int  DEFAULT_BATCH_SIZE      = 100;
+    public static final int  DEFAULT_NUM_THREADS     = 4;
+    public static final long DEFAULT_IDLE_TIMEOUT_MS = 10 * 1000;
+
+    private static final String DLQ_TOPIC = AtlasConfiguration.NOTIFICATION_HOOK_DEAD_LETTER_TOPIC_NAME.getString();
+
+    private final NotificationInterface notificationInterface;
+    private final int                   batchSize;
+    private final ExecutorService       executor;
+    private final AtomicLong            replayedCount = new AtomicLong(0);
+    private final AtomicLong            skippedCount  = new AtomicLong(0);
+
+    public DeadLetterReplayTool(NotificationInterface notificationInterface, int batchSize, int numThreads) {
+        this.notificationInterface = notificationInterface;
+        this.batchSize             = Math.max(1, batchSize);
+        this.executor              = Executors.newFixedThreadPool(Math.max(1, numThreads));
+    }
+
+    /**
+     * Replays messages in the dead-letter topic, until no message is received for the given time.
+     *
+     * @return number of messages replayed
+     */
+    public long replayFromTopic(NotificationConsumer<DeadLetterMessage> consumer, long idleTimeoutMs) throws NotificationException {
+        LOG.info("==> DeadLetterReplayTool.replayFromTopic(idleTimeoutMs={})", idleTimeoutMs);
+
+        long startCount      = replayedCount.get();
+        long lastReceiveTime = System.currentTimeMillis();
+
+        while (true) {
+            List<AtlasKafkaMessage<DeadLetterMessage>> kafkaMessages = consumer.receive();
+
+            if (kafkaMessages == null || kafkaMessages.isEmpty()) {
+                if (System.currentTimeMillis() - lastReceiveTime >= idleTimeoutMs) {
+                    break;
+                }
+
+                continue;
+            }
+
+            lastReceiveTime = System.currentTimeMillis();
+
+            List<DeadLetterMessage> messages   = new ArrayList<>(kafkaMessages.size());
+            Map<Integer, Long>      maxOffsets = new HashMap<>();
+
+            for (AtlasKafkaMessage<DeadLetterMessage> kafkaMessage : kafkaMessages) {
+                if (kafkaMessage.getMessage() != null) {
+                    messages.add(kafkaMessage.getMessage());
+                }
+
+                Long maxOffset = maxOffsets.get(kafkaMessage.getPartition());
+
+                if (maxOffset == null || maxOffset < kafkaMessage.getOffset()) {
+                    maxOffsets.put(kafkaMessage.getPartition(), kafkaMessage.getOffset());
+                }
+            }
+
+            replay(messages);
+
+            for (Map.Entry<Integer, Long> entry : maxOffsets.entrySet()) {
+                consumer.commit(new TopicPartition(DLQ_TOPIC, entry.getKey()), entry.getValue() + 1);
+            }
+        }
+
+        long ret = replayedCount.get() - startCount;
+
+        LOG.info("<== DeadLetterReplayTool.replayFromTopic(): replayed {} messages", ret);
+
+        return ret;
+    }
+
+    /**
+     * Replays messages in closed files of the local store; each file is marked replayed once all its messages are sent.
+     *
+     * @return number of messages replayed
+     */
+    public long replayFromLocalStore(DeadLetterStore store) throws NotificationException, IOException {
+        LOG.info("==> DeadLetterReplayTool.replayFromLocalStore(directory={})", store.getDirectory());
+
+        long startCount = replayedCount.get();
+
+        for (File file : store.getReplayableFiles()) {
+            List<DeadLetterMessage> messages = DeadLetterStore.read(file);
+
+            LOG.info("replaying {} messages from {}", messages.size(), file);
+
+            replay(messages);
+
+            DeadLetterStore.markReplayed(file);
+        }
+
+        long ret = replayedCount.get() - startCount;
+
+        LOG.info("<== DeadLetterReplayTool.replayFromLocalStore(): replayed {} messages", ret);
+
+        return ret;
+    }
+
+    public long getReplayedCount() {
+        return replayedCount.get();
+    }
+
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // sends the messages in batches, in parallel; fails if any of the batches fails to be sent
+    void replay(List<DeadLetterMessage> messages) throws NotificationException {
+        List<HookNotification> hookMessages = new ArrayList<>(messages.size());
+
+        for (DeadLetterMessage message : messages) {
+            if (message.getMessage() != null) {
+                hookMessages.add(message.getMessage());
+            } else {
+                LOG.warn("dead-letter message has no hook message; skipped: {}", message);
+
+                skippedCount.incrementAndGet();
+            }
+        }
+
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int fromIdx = 0; fromIdx < hookMessages.size(); fromIdx += batchSize) {
+            final List<HookNotification> batch = hookMessages.subList(fromIdx, Math.min(fromIdx + batchSize, hookMessages.size()));
+
+            futures.add(executor.submit(() -> {
+                // wait for acknowledgement, as offsets/files are committed once replay() returns
+                notificationInterface.sendAndWait(NotificationType.HOOK, batch);
+
+                replayedCount.addAndGet(batch.size());
+
+                return null;
+            }));
+        }
+
+        NotificationException failure = null;
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException excp) {
+                if (failure == null) {
+                    failure = excp.getCause() instanceof NotificationException ? (NotificationException) excp.getCause() : new NotificationException((Exception) excp.getCause());
+                }
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+
+                throw new NotificationException(excp);
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String source        = "topic";
+        String directory     = AtlasConfiguration.NOTIFICATION_HOOK_DEAD_LETTER_LOCAL_DIRECTORY.getString();
+        int    batchSize     = DEFAULT_BATCH_SIZE;
+        int    numThreads    = DEFAULT_NUM_THREADS;
+        long   idleTimeoutMs = DEFAULT_IDLE_TIMEOUT_MS;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+
+            if (i + 1 >= args.length) {
+                printUsage();
+
+                return;
+            }
+
+            String value = args[++i];
+
+            switch (arg) {
+                case "-source":        source        = value;                   break;
+                case "-dir":           directory     = value;                   break;
+                case "-batchSize":     batchSize     = Integer.parseInt(value); break;
+                case "-threads":       numThreads    = Integer.parseInt(value); break;
+                case "-idleTimeoutMs": idleTimeoutMs = Long.parseLong(value);   break;
+                default:
+                    printUsage();
+
+                    return;
+            }
+        }
+
+        if (!"topic".equals(source) && !"local".equals(source)) {
+            printUsage();
+
+            return;
+        }
+
+        Configuration configuration = ApplicationProperties.get();
+
+        // read as many messages per poll as are sent in parallel
+        if (!configuration.containsKey(KafkaNotification.PROPERTY_PREFIX + ".max.poll.records")) {
+            configuration.setProperty(KafkaNotification.PROPERTY_PREFIX + ".max.poll.records", batchSize * numThreads);
+        }
+
+        KafkaNotification    notification = new KafkaNotification(configuration);
+        DeadLetterReplayTool tool         = new DeadLetterReplayTool(notification, batchSize, numThreads);
+
+        try {
+            if ("topic".equals(source)) {
+                List<NotificationConsumer<DeadLetterMessage>> consumers = notification.createConsumers(NotificationType.HOOK_DEAD_LETTER, 1);
+
+                try {
+                    tool.replayFromTopic(consumers.get(0), idleTimeoutMs);
+                } finally {
+                    consumers.get(0).close();
+                }
+            } else {
+                tool.replayFromLocalStore(new DeadLetterStore(new File(directory), AtlasConfiguration.NOTIFICATION_HOOK_DEAD_LETTER_LOCAL_ROLL_INTERVAL_MS.getLong()));
+            }
+        } finally {
+            tool.close();
+            notification.close();
+
+            System.out.println("replayed " + tool.getReplayedCount() + " messages; skipped " + tool.getSkippedCount() + " messages");
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: DeadLetterReplayTool [-source topic|local] [-dir <local store directory>] [-batchSize <n>] [-threads <n>] [-idleTimeoutMs <n>]");
+    }
+}
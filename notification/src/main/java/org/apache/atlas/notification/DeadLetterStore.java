@@ -0,0 +1,215 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.model.notification.DeadLetterMessage;
+import org.apache.atlas.type.AtlasType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local store of dead-letter messages, used when the dead-letter topic is unavailable. Messages are appended, one JSON
+ * per line, to an in-progress file that is closed after the roll interval; only closed files are read for replay, and
+ * are renamed once replayed. The store directory must be written by only one process at a time.
+ */
+public class DeadLetterStore {
+    private static final Logger LOG = LoggerFactory.getLogger(DeadLetterStore.class);
+
+    private static final String FILE_PREFIX        = "dlq-";
+    private static final String FILE_SUFFIX        = ".log";
+    private static final String IN_PROGRESS_SUFFIX = ".inprogress";
+    private static final String REPLAYED_SUFFIX    = ".replayed";
+
+    private final File       directory;
+    private final long       rollIntervalMs;
+    private final AtomicLong storedCount = new AtomicLong(0);
+    private       File       currentFile;
+    private       long       currentFileStartTime;
+    private       long       fileSeq;
+
+    public DeadLetterStore(File directory, long rollIntervalMs) {
+        this.directory      = directory;
+        this.rollIntervalMs = rollIntervalMs;
+    }
+
+    /**
+     * Closes files left in-progress by an earlier process. To be called by the process that writes to the store, before
+     * writing the first message.
+     */
+    public synchronized void closeInProgressFiles() {
+        File[] inProgressFiles = directory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX + IN_PROGRESS_SUFFIX));
+
+        if (inProgressFiles != null) {
+            for (File file : inProgressFiles) {
+                if (!file.equals(currentFile)) {
+                    closeFile(file);
+                }
+            }
+        }
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public long getStoredCount() {
+        return storedCount.get();
+    }
+
+    public synchronized void append(List<DeadLetterMessage> messages) throws IOException {
+        if (messages == null || messages.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        rollIfDue(now);
+
+        if (currentFile == null) {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("failed to create directory " + directory);
+            }
+
+            currentFile          = new File(directory, FILE_PREFIX + now + "-" + (fileSeq++) + FILE_SUFFIX + IN_PROGRESS_SUFFIX);
+            currentFileStartTime = now;
+
+            LOG.info("DeadLetterStore: writing to {}", currentFile);
+        }
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(currentFile, true), StandardCharsets.UTF_8)) {
+            for (DeadLetterMessage message : messages) {
+                writer.write(AtlasType.toV1Json(message));
+                writer.write('\n');
+            }
+        }
+
+        storedCount.addAndGet(messages.size());
+    }
+
+    /**
+     * Closes the in-progress file if it was created before the roll interval; to be called periodically by the writer,
+     * so that messages are available for replay even when no more messages are written.
+     */
+    public synchronized void rollIfDue() {
+        rollIfDue(System.currentTimeMillis());
+    }
+
+    /**
+     * Closes the in-progress file, if any, so that its messages are available for replay.
+     */
+    public synchronized void roll() {
+        if (currentFile != null) {
+            closeFile(currentFile);
+
+            currentFile = null;
+        }
+    }
+
+    /**
+     * @return closed files that are yet to be replayed, oldest first
+     */
+    public List<File> getReplayableFiles() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+
+        if (files == null || files.length == 0) {
+            return Collections.emptyList();
+        }
+
+        Arrays.sort(files, Comparator.comparingLong(DeadLetterStore::getFileTime).thenComparing(File::getName));
+
+        return Arrays.asList(files);
+    }
+
+    public static List<DeadLetterMessage> read(File file) throws IOException {
+        List<DeadLetterMessage> ret = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            int lineNum = 0;
+
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNum++;
+
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                DeadLetterMessage message = AtlasType.fromV1Json(line, DeadLetterMessage.class);
+
+                if (message == null) {
+                    LOG.warn("DeadLetterStore: {}:{}: failed to parse message; ignored", file, lineNum);
+                } else {
+                    ret.add(message);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    public static void markReplayed(File file) {
+        File replayedFile = new File(file.getParentFile(), file.getName() + REPLAYED_SUFFIX);
+
+        if (!file.renameTo(replayedFile)) {
+            LOG.warn("DeadLetterStore: failed to rename {} to {}", file, replayedFile);
+        }
+    }
+
+    private void rollIfDue(long now) {
+        if (currentFile != null && (now - currentFileStartTime) >= rollIntervalMs) {
+            roll();
+        }
+    }
+
+    private static void closeFile(File file) {
+        String name       = file.getName();
+        File   closedFile = new File(file.getParentFile(), name.substring(0, name.length() - IN_PROGRESS_SUFFIX.length()));
+
+        if (file.renameTo(closedFile)) {
+            LOG.info("DeadLetterStore: closed {}", closedFile);
+        } else {
+            LOG.warn("DeadLetterStore: failed to rename {} to {}", file, closedFile);
+        }
+    }
+
+    // file name: dlq-<creation time in ms>-<seq>.log
+    private static long getFileTime(File file) {
+        String name = file.getName();
+
+        try {
+            return Long.parseLong(name.substring(FILE_PREFIX.length(), name.indexOf('-', FILE_PREFIX.length())));
+        } catch (RuntimeException excp) {
+            return 0;
+        }
+    }
+}
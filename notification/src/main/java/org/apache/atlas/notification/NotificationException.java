@@ -26,6 +26,7 @@ import java.util.List;
  */
 public class NotificationException extends AtlasException {
     private List<String> failedMessages;
+    private boolean      isAsyncSendFailure;
 
     public NotificationException(Exception e) {
         super(e);
@@ -36,7 +37,22 @@ public class NotificationException extends AtlasException {
         this.failedMessages = failedMessages;
     }
 
+    /**
+     * @param isAsyncSendFailure true if failedMessages were sent by earlier calls, without waiting for acknowledgement
+     */
+    public NotificationException(Exception e, List<String> failedMessages, boolean isAsyncSendFailure) {
+        this(e, failedMessages);
+        this.isAsyncSendFailure = isAsyncSendFailure;
+    }
+
     public List<String> getFailedMessages() {
         return failedMessages;
     }
+
+    /**
+     * @return true if the failed messages were sent by earlier calls; messages of the call that threw this exception were sent
+     */
+    public boolean isAsyncSendFailure() {
+        return isAsyncSendFailure;
+    }
 }
@@ -18,6 +18,7 @@
 package org.apache.atlas.notification;
 
 import org.apache.atlas.notification.entity.EntityMessageDeserializer;
+import org.apache.atlas.notification.hook.DeadLetterMessageDeserializer;
 import org.apache.atlas.notification.hook.HookMessageDeserializer;
 
 import java.util.List;
@@ -46,7 +47,10 @@ public interface NotificationInterface {
         HOOK(new HookMessageDeserializer()),
 
         // Notifications to entity change consumers.
-        ENTITIES(new EntityMessageDeserializer());
+        ENTITIES(new EntityMessageDeserializer()),
+
+        // Hook notifications that failed to be processed.
+        HOOK_DEAD_LETTER(new DeadLetterMessageDeserializer());
 
         private final AtlasNotificationMessageDeserializer deserializer;
 
@@ -59,12 +63,35 @@ public interface NotificationInterface {
         }
     }
 
+    /**
+     * Handler of failures to send messages that were sent without waiting for acknowledgement. Such failures are
+     * detected after the send call returned, hence can't be reported to its caller.
+     */
+    interface AsyncSendFailureHandler {
+        /**
+         * Called from the thread that detected the failure; should not block.
+         *
+         * @param type  the message type
+         * @param excp  the failure, with the messages that failed to be sent
+         */
+        void onAsyncSendFailure(NotificationType type, NotificationException excp);
+    }
+
     /**
      *
      * @param user Name of the user under which the processes is running
      */
     void setCurrentUser(String user);
 
+    /**
+     * Set the handler of failures of messages sent without waiting for acknowledgement. Without a handler, these
+     * failures are logged.
+     *
+     * @param handler the handler
+     */
+    default void setAsyncSendFailureHandler(AsyncSendFailureHandler handler) {
+    }
+
     /**
      * Create notification consumers for the given notification type.
      *
@@ -98,6 +125,21 @@ public interface NotificationInterface {
      */
     <T> void send(NotificationType type, List<T> messages) throws NotificationException;
 
+    /**
+     * Send the given messages and wait for them to be acknowledged, even if send() would return earlier - as with
+     * pipelined sends. To be used by callers that act on the messages being delivered, like committing offsets of the
+     * source of the messages.
+     *
+     * @param type      the message type
+     * @param messages  the list of messages to send
+     * @param <T>       the message type
+     *
+     * @throws NotificationException if any of the messages failed to be sent
+     */
+    default <T> void sendAndWait(NotificationType type, List<T> messages) throws NotificationException {
+        send(type, messages);
+    }
+
     /**
      * Shutdown any notification producers and consumers associated with this interface instance.
      */
@@ -18,17 +18,55 @@
 package org.apache.atlas.notification;
 
 
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage;
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.CompressionKind;
 import org.apache.atlas.model.notification.AtlasNotificationStringMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.util.Enumeration;
+import java.util.NoSuchElementException;
+
+/**
+ * Parts of a split message received so far. Parts are held in memory within the limit of SplitMessageStore; beyond
+ * that limit, parts are appended to a spill file. release() must be called once the message is reassembled or evicted.
+ */
 public class SplitMessageAggregator {
-    private final String                           msgId;
-    private final AtlasNotificationStringMessage[] splitMessagesBuffer;
-    private final long                             firstSplitTimestamp;
+    private static final Logger LOG = LoggerFactory.getLogger(SplitMessageAggregator.class);
+
+    private final String            msgId;
+    private final CompressionKind   compressionKind;
+    private final String[]          memoryParts;   // parts held in memory
+    private final long[]            spillOffsets;  // offset of parts in spill file; -1 for parts not spilled
+    private final int[]             spillLengths;
+    private final long              firstSplitTimestamp;
+    private final SplitMessageStore store;
+    private File                    spillFile;
+    private RandomAccessFile        spillFileRaf;
+    private long                    memoryBytes  = 0;
+    private long                    spilledBytes = 0;
 
     public SplitMessageAggregator(AtlasNotificationStringMessage message) {
-        msgId               = message.getMsgId();
-        splitMessagesBuffer = new AtlasNotificationStringMessage[message.getMsgSplitCount()];
-        firstSplitTimestamp = System.currentTimeMillis();
+        this(message, SplitMessageStore.getInstance());
+    }
+
+    SplitMessageAggregator(AtlasNotificationStringMessage message, SplitMessageStore store) {
+        this.msgId               = message.getMsgId();
+        this.compressionKind     = message.getMsgCompressionKind();
+        this.memoryParts         = new String[message.getMsgSplitCount()];
+        this.spillOffsets        = new long[message.getMsgSplitCount()];
+        this.spillLengths        = new int[message.getMsgSplitCount()];
+        this.firstSplitTimestamp = System.currentTimeMillis();
+        this.store               = store;
+
+        for (int i = 0; i < spillOffsets.length; i++) {
+            spillOffsets[i] = -1;
+        }
 
         add(message);
     }
@@ -37,15 +75,19 @@ public class SplitMessageAggregator {
         return msgId;
     }
 
+    public CompressionKind getCompressionKind() {
+        return compressionKind;
+    }
+
     public long getTotalSplitCount() {
-        return splitMessagesBuffer.length;
+        return memoryParts.length;
     }
 
     public long getReceivedSplitCount() {
         long ret = 0;
 
-        for (AtlasNotificationStringMessage split : splitMessagesBuffer) {
-            if (split != null) {
+        for (int i = 0; i < memoryParts.length; i++) {
+            if (isReceived(i)) {
                 ret++;
             }
         }
@@ -57,15 +99,156 @@ public class SplitMessageAggregator {
         return firstSplitTimestamp;
     }
 
+    public long getEncodedLength() {
+        return memoryBytes + spilledBytes;
+    }
+
+    public long getSpilledBytes() {
+        return spilledBytes;
+    }
+
     public boolean add(AtlasNotificationStringMessage message) {
-        if (message.getMsgSplitIdx() < splitMessagesBuffer.length) {
-            splitMessagesBuffer[message.getMsgSplitIdx()] = message;
+        int idx = message.getMsgSplitIdx();
+
+        if (idx < memoryParts.length && !isReceived(idx)) { // duplicate parts are ignored
+            String part   = message.getMessage();
+            long   length = part.length(); // base64 text: 1 byte per char
+
+            if (store.reserveMemory(length)) {
+                memoryParts[idx] = part;
+                memoryBytes     += length;
+            } else {
+                spill(idx, part);
+            }
+        }
+
+        return idx == (message.getMsgSplitCount() - 1);
+    }
+
+    public boolean isReceived(int i) {
+        return memoryParts[i] != null || spillOffsets[i] != -1;
+    }
+
+    /**
+     * @return stream of the encoded message i.e. parts in order; parts spilled to file are read as the stream is consumed
+     */
+    public InputStream getEncodedMessageStream() {
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            private int idx = 0;
+
+            @Override
+            public boolean hasMoreElements() {
+                return idx < memoryParts.length;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                if (idx >= memoryParts.length) {
+                    throw new NoSuchElementException();
+                }
+
+                int i = idx++;
+
+                return memoryParts[i] != null ? new StringInputStream(memoryParts[i]) : new SpilledPartInputStream(spillOffsets[i], spillLengths[i]);
+            }
+        });
+    }
+
+    /**
+     * Release the memory held by the parts and delete the spill file.
+     */
+    public void release() {
+        for (int i = 0; i < memoryParts.length; i++) {
+            memoryParts[i] = null;
+        }
+
+        store.releaseMemory(memoryBytes);
+
+        memoryBytes = 0;
+
+        if (spillFileRaf != null) {
+            try {
+                spillFileRaf.close();
+            } catch (IOException excp) {
+                LOG.warn("msgID={}: failed to close spill file {}", msgId, spillFile, excp);
+            }
+
+            if (!spillFile.delete()) {
+                LOG.warn("msgID={}: failed to delete spill file {}", msgId, spillFile);
+            }
+
+            store.onSpillRelease(spilledBytes);
+
+            spillFileRaf = null;
+            spilledBytes = 0;
         }
+    }
+
+    private void spill(int idx, String part) {
+        try {
+            if (spillFileRaf == null) {
+                spillFile    = store.createSpillFile(msgId);
+                spillFileRaf = new RandomAccessFile(spillFile, "rw");
+            }
+
+            byte[] bytes  = AtlasNotificationBaseMessage.getBytesUtf8(part);
+            long   offset = spillFileRaf.length();
+
+            spillFileRaf.seek(offset);
+            spillFileRaf.write(bytes);
+
+            spillOffsets[idx] = offset;
+            spillLengths[idx] = bytes.length;
+            spilledBytes     += bytes.length;
+
+            store.onSpill(bytes.length);
+        } catch (IOException excp) {
+            LOG.error("msgID={}: failed to spill part {} of {} to file {}; holding it in memory", msgId, idx + 1, memoryParts.length, spillFile, excp);
+
+            memoryParts[idx] = part;
+            memoryBytes     += part.length();
 
-        return message.getMsgSplitIdx() == (message.getMsgSplitCount() - 1);
+            store.forceReserveMemory(part.length());
+        }
     }
 
-    public AtlasNotificationStringMessage get(int i) {
-        return splitMessagesBuffer[i];
+    // reads a spilled part from the spill file; parts are read one after another, hence the file is shared
+    private class SpilledPartInputStream extends InputStream {
+        private long position;
+        private long remaining;
+
+        SpilledPartInputStream(long offset, int length) {
+            this.position  = offset;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+
+            return read(b, 0, 1) == -1 ? -1 : (b[0] & 0xFF);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            spillFileRaf.seek(position);
+
+            int count = spillFileRaf.read(b, off, (int) Math.min(len, remaining));
+
+            if (count > 0) {
+                position  += count;
+                remaining -= count;
+            }
+
+            return count;
+        }
     }
 }
@@ -0,0 +1,183 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.AtlasConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accounting of parts of split messages buffered for reassembly, across all messages in the process. Parts are kept in
+ * memory up to the configured limit; parts received after the limit is reached are spilled to files, which are deleted
+ * once the message is reassembled or evicted. Spill files left behind by an earlier process, like one that was killed, are
+ * deleted when the store is initialized.
+ */
+public class SplitMessageStore {
+    private static final Logger LOG = LoggerFactory.getLogger(SplitMessageStore.class);
+
+    private static final String SPILL_FILE_PREFIX = "atlas-split-msg-";
+    private static final String SPILL_FILE_SUFFIX = ".tmp";
+
+    private static final SplitMessageStore INSTANCE = createInstance();
+
+    private final long       maxMemoryBytes;
+    private final File       spillDirectory;
+    private final AtomicLong memoryBytes      = new AtomicLong(0);
+    private final AtomicLong spilledBytes     = new AtomicLong(0);
+    private final AtomicLong spilledPartCount = new AtomicLong(0);
+    private final AtomicLong evictedMsgCount  = new AtomicLong(0);
+
+    SplitMessageStore(long maxMemoryBytes, File spillDirectory) {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.spillDirectory = spillDirectory;
+    }
+
+    public static SplitMessageStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return true if the given bytes can be held in memory; false if the memory limit would be exceeded
+     */
+    boolean reserveMemory(long bytes) {
+        while (true) {
+            long current = memoryBytes.get();
+
+            if (current + bytes > maxMemoryBytes) {
+                return false;
+            }
+
+            if (memoryBytes.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    // for parts that must be held in memory even after the limit is reached, like when spilling fails
+    void forceReserveMemory(long bytes) {
+        memoryBytes.addAndGet(bytes);
+    }
+
+    void releaseMemory(long bytes) {
+        memoryBytes.addAndGet(-bytes);
+    }
+
+    File createSpillFile(String msgId) throws IOException {
+        if (!spillDirectory.exists() && !spillDirectory.mkdirs()) {
+            throw new IOException("failed to create directory " + spillDirectory);
+        }
+
+        File ret = File.createTempFile(SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX, spillDirectory);
+
+        LOG.info("msgID={}: memory limit of {} bytes for split messages reached; spilling parts to {}", msgId, maxMemoryBytes, ret);
+
+        return ret;
+    }
+
+    void onSpill(long bytes) {
+        spilledBytes.addAndGet(bytes);
+        spilledPartCount.incrementAndGet();
+    }
+
+    void onSpillRelease(long bytes) {
+        spilledBytes.addAndGet(-bytes);
+    }
+
+    void onEviction() {
+        evictedMsgCount.incrementAndGet();
+    }
+
+    /**
+     * @return bytes of split message parts currently held in memory
+     */
+    public long getMemoryBytes() {
+        return memoryBytes.get();
+    }
+
+    /**
+     * @return bytes of split message parts currently spilled to files
+     */
+    public long getSpilledBytes() {
+        return spilledBytes.get();
+    }
+
+    /**
+     * @return number of split message parts spilled to files since the process started
+     */
+    public long getSpilledPartCount() {
+        return spilledPartCount.get();
+    }
+
+    /**
+     * @return number of split messages evicted before all their parts were received, since the process started
+     */
+    public long getEvictedMsgCount() {
+        return evictedMsgCount.get();
+    }
+
+    /**
+     * Deletes spill files last modified before the given time. Spill files of a message are written as its parts arrive, so
+     * a file not modified for longer than the wait time for parts belongs to a message already evicted - by this or by
+     * another process sharing the directory.
+     *
+     * @return number of files deleted
+     */
+    @VisibleForTesting
+    int deleteStaleSpillFiles(long modifiedBefore) {
+        File[] files = spillDirectory.listFiles((dir, name) -> name.startsWith(SPILL_FILE_PREFIX) && name.endsWith(SPILL_FILE_SUFFIX));
+        int    ret   = 0;
+
+        if (files != null) {
+            for (File file : files) {
+                if (file.isFile() && file.lastModified() < modifiedBefore) {
+                    if (file.delete()) {
+                        ret++;
+                    } else {
+                        LOG.warn("failed to delete stale split message spill file {}", file);
+                    }
+                }
+            }
+        }
+
+        if (ret > 0) {
+            LOG.info("deleted {} stale split message spill files in {}", ret, spillDirectory);
+        }
+
+        return ret;
+    }
+
+    private static SplitMessageStore createInstance() {
+        SplitMessageStore ret           = new SplitMessageStore(AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_BUFFER_MAX_MEMORY_MB.getLong() * 1024 * 1024,
+                                                                new File(AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_BUFFER_SPILL_DIRECTORY.getString()));
+        long              maxFileAgeSec = AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_SEGMENTS_WAIT_TIME_SECONDS.getLong() + AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_BUFFER_PURGE_INTERVAL_SECONDS.getLong();
+
+        ret.deleteStaleSpillFiles(System.currentTimeMillis() - maxFileAgeSec * 1000);
+
+        return ret;
+    }
+
+    @Override
+    public String toString() {
+        return "memory=" + memoryBytes.get() + " bytes, spilled=" + spilledBytes.get() + " bytes, spilledPartsTotal=" + spilledPartCount.get() + ", evictedMessagesTotal=" + evictedMsgCount.get();
+    }
+}
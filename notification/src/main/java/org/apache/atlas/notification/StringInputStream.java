@@ -0,0 +1,61 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import java.io.InputStream;
+
+/**
+ * Bytes of a base64 encoded message, which has only ASCII characters - read without copying the string.
+ */
+class StringInputStream extends InputStream {
+    private final String str;
+    private int          pos = 0;
+
+    StringInputStream(String str) {
+        this.str = str;
+    }
+
+    @Override
+    public int read() {
+        return pos < str.length() ? (str.charAt(pos++) & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+
+        int count = Math.min(len, str.length() - pos);
+
+        if (count <= 0) {
+            return -1;
+        }
+
+        for (int i = 0; i < count; i++) {
+            b[off + i] = (byte) str.charAt(pos++);
+        }
+
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return str.length() - pos;
+    }
+}
@@ -131,4 +131,18 @@ public class AtlasHookTest {
 
         verifyZeroInteractions(failedMessagesLogger);
     }
+
+    @Test
+    public void testAsyncSendFailureIsLogged() {
+        AtlasHook.handleAsyncSendFailure(new NotificationException(new Exception(), Arrays.asList("earlier message"), true), true, failedMessagesLogger, null);
+
+        verify(failedMessagesLogger, times(1)).log("earlier message");
+    }
+
+    @Test
+    public void testAsyncSendFailureIsNotLoggedIfDisabled() {
+        AtlasHook.handleAsyncSendFailure(new NotificationException(new Exception(), Arrays.asList("earlier message"), true), false, failedMessagesLogger, null);
+
+        verifyZeroInteractions(failedMessagesLogger);
+    }
 }
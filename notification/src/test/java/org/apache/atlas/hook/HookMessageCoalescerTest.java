@@ -0,0 +1,237 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.hook;
+
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.model.notification.HookNotification.EntityCreateRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityUpdateRequestV2;
+import org.apache.atlas.v1.model.instance.Id;
+import org.apache.atlas.v1.model.instance.Referenceable;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityCreateRequest;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityDeleteRequest;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityUpdateRequest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class HookMessageCoalescerTest {
+    private final List<HookNotification> sentMessages = new ArrayList<>();
+    private       HookMessageCoalescer   coalescer;
+
+    @BeforeMethod
+    public void setup() {
+        sentMessages.clear();
+
+        coalescer = new HookMessageCoalescer(60 * 1000, 1000, (messages, ugi, maxRetries) -> sentMessages.addAll(messages));
+    }
+
+    @Test
+    public void testFullUpdateReplacesEarlierCreate() {
+        HookNotification create = new EntityCreateRequest("user1", createTable("db.t1", "col1", "col2"));
+        HookNotification update = new EntityUpdateRequest("user1", createTable("db.t1", "col1", "col2"));
+        HookNotification other  = new EntityCreateRequest("user1", createTable("db.t2", "col1"));
+
+        coalescer.add(Arrays.asList(create, other), null, 3);
+        coalescer.add(Collections.singletonList(update), null, 3);
+        coalescer.flush();
+
+        // update is sent in place of the create
+        assertEquals(sentMessages.size(), 2);
+        assertSame(sentMessages.get(0), update);
+        assertSame(sentMessages.get(1), other);
+        assertEquals(coalescer.getCoalescedCount(), 1);
+    }
+
+    @Test
+    public void testPartialReplacementIsNotCoalesced() {
+        // later notification doesn't have col2, nor the description attribute
+        HookNotification create = new EntityCreateRequest("user1", createTable("db.t1", "col1", "col2"));
+        HookNotification update = new EntityUpdateRequest("user1", createTable("db.t1", "col1"));
+
+        ((EntityCreateRequest) create).getEntities().get(0).set("description", "test table");
+
+        coalescer.add(Arrays.asList(create, update), null, 3);
+        coalescer.flush();
+
+        assertEquals(sentMessages, Arrays.asList(create, update));
+    }
+
+    @Test
+    public void testNotCoalescedAcrossUsersOrOtherNotifications() {
+        HookNotification create1 = new EntityCreateRequest("user1", createTable("db.t1", "col1"));
+        HookNotification create2 = new EntityCreateRequest("user2", createTable("db.t1", "col1"));
+        HookNotification delete  = new EntityDeleteRequest("user2", "hive_table", "qualifiedName", "db.t1");
+        HookNotification create3 = new EntityCreateRequest("user2", createTable("db.t1", "col1"));
+
+        coalescer.add(Arrays.asList(create1, create2, delete, create3), null, 3);
+        coalescer.flush();
+
+        assertEquals(sentMessages, Arrays.asList(create1, create2, delete, create3));
+        assertEquals(coalescer.getCoalescedCount(), 0);
+    }
+
+    @Test
+    public void testV2Notifications() {
+        HookNotification create = new EntityCreateRequestV2("user1", createTableV2("db.t1"));
+        HookNotification update = new EntityUpdateRequestV2("user1", createTableV2("db.t1"));
+        HookNotification again  = new EntityUpdateRequestV2("user1", createTableV2("db.t1"));
+
+        coalescer.add(Arrays.asList(create, update), null, 3);
+        coalescer.add(Collections.singletonList(again), null, 3);
+        coalescer.flush();
+
+        assertEquals(sentMessages, Collections.singletonList(again));
+        assertEquals(coalescer.getReceivedCount(), 3);
+        assertEquals(coalescer.getCoalescedCount(), 2);
+    }
+
+    @Test
+    public void testNotMovedAheadOfReferredEntities() {
+        // table update refers to a database created after the earlier create of the table
+        HookNotification create   = new EntityCreateRequestV2("user1", createTableV2("db.t1"));
+        HookNotification createDb = new EntityCreateRequestV2("user1", createDbV2("db"));
+        HookNotification update   = new EntityUpdateRequestV2("user1", createTableV2("db.t1"));
+
+        ((EntityUpdateRequestV2) update).getEntities().getEntities().get(0).setAttribute("db", new AtlasObjectId("hive_db", "qualifiedName", "db"));
+
+        coalescer.add(Arrays.asList(create, createDb, update), null, 3);
+        coalescer.flush();
+
+        assertEquals(sentMessages, Arrays.asList(create, createDb, update));
+        assertEquals(coalescer.getCoalescedCount(), 0);
+
+        // same, with the reference in relationshipAttributes
+        sentMessages.clear();
+
+        update = new EntityUpdateRequestV2("user1", createTableV2("db.t1"));
+
+        ((EntityUpdateRequestV2) update).getEntities().getEntities().get(0).setRelationshipAttribute("db", new AtlasObjectId("hive_db", "qualifiedName", "db"));
+
+        coalescer.add(Arrays.asList(create, createDb, update), null, 3);
+        coalescer.flush();
+
+        assertEquals(sentMessages, Arrays.asList(create, createDb, update));
+
+        // reference to an unrelated database doesn't prevent coalescing
+        sentMessages.clear();
+
+        update = new EntityUpdateRequestV2("user1", createTableV2("db.t1"));
+
+        ((EntityUpdateRequestV2) update).getEntities().getEntities().get(0).setAttribute("db", new AtlasObjectId("hive_db", "qualifiedName", "db2"));
+
+        coalescer.add(Arrays.asList(create, createDb, update), null, 3);
+        coalescer.flush();
+
+        assertEquals(sentMessages, Arrays.asList(update, createDb));
+    }
+
+    @Test
+    public void testNotMovedWithUnidentifiedReferences() {
+        HookNotification create   = new EntityCreateRequest("user1", createTable("db.t1", "col1"));
+        HookNotification createDb = new EntityCreateRequest("user1", createDb("db"));
+        HookNotification update   = new EntityUpdateRequest("user1", createTable("db.t1", "col1"));
+
+        // V1 reference by guid, to the database created in between
+        ((EntityUpdateRequest) update).getEntities().get(0).set("db", new Id("-1", 0, "hive_db"));
+
+        coalescer.add(Arrays.asList(create, createDb, update), null, 3);
+        coalescer.flush();
+
+        assertEquals(sentMessages, Arrays.asList(create, createDb, update));
+
+        // V2 reference by guid to an entity not in the notification
+        sentMessages.clear();
+
+        HookNotification createV2   = new EntityCreateRequestV2("user1", createTableV2("db.t1"));
+        HookNotification createDbV2 = new EntityCreateRequestV2("user1", createDbV2("db"));
+        HookNotification updateV2   = new EntityUpdateRequestV2("user1", createTableV2("db.t1"));
+
+        ((EntityUpdateRequestV2) updateV2).getEntities().getEntities().get(0).setAttribute("db", new AtlasObjectId(UUID.randomUUID().toString(), "hive_db"));
+
+        coalescer.add(Arrays.asList(createV2, createDbV2, updateV2), null, 3);
+        coalescer.flush();
+
+        assertEquals(sentMessages, Arrays.asList(createV2, createDbV2, updateV2));
+
+        // unidentified references don't prevent replacing the immediately preceding notification
+        sentMessages.clear();
+
+        coalescer.add(Arrays.asList(createV2, updateV2), null, 3);
+        coalescer.flush();
+
+        assertEquals(sentMessages, Collections.singletonList(updateV2));
+    }
+
+    private static Referenceable createDb(String qualifiedName) {
+        Referenceable db = new Referenceable("hive_db");
+
+        db.set("qualifiedName", qualifiedName);
+        db.set("name", qualifiedName);
+
+        return db;
+    }
+
+    private static AtlasEntitiesWithExtInfo createDbV2(String qualifiedName) {
+        AtlasEntity db = new AtlasEntity("hive_db");
+
+        db.setAttribute("qualifiedName", qualifiedName);
+        db.setAttribute("name", qualifiedName);
+
+        return new AtlasEntitiesWithExtInfo(db);
+    }
+
+    private static Referenceable createTable(String qualifiedName, String... columnNames) {
+        Referenceable       table   = new Referenceable("hive_table");
+        List<Referenceable> columns = new ArrayList<>();
+
+        for (String columnName : columnNames) {
+            Referenceable column = new Referenceable("hive_column");
+
+            column.set("qualifiedName", qualifiedName + "." + columnName);
+            column.set("name", columnName);
+
+            columns.add(column);
+        }
+
+        table.set("qualifiedName", qualifiedName);
+        table.set("name", qualifiedName);
+        table.set("columns", columns);
+
+        return table;
+    }
+
+    private static AtlasEntitiesWithExtInfo createTableV2(String qualifiedName) {
+        AtlasEntity table = new AtlasEntity("hive_table");
+
+        table.setAttribute("qualifiedName", qualifiedName);
+        table.setAttribute("name", qualifiedName);
+
+        return new AtlasEntitiesWithExtInfo(table);
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.hook;
+
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.notification.AbstractNotification;
+import org.apache.atlas.notification.NotificationException;
+import org.apache.atlas.notification.NotificationInterface;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityCreateRequest;
+import org.apache.commons.io.FileUtils;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class HookMessageSpoolTest {
+    @Mock
+    private NotificationInterface notificationInterface;
+
+    @Mock
+    private FailedMessagesLogger failedMessagesLogger;
+
+    private File spoolDir;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        MockitoAnnotations.initMocks(this);
+
+        spoolDir = Files.createTempDirectory("atlas-hook-spool").toFile();
+    }
+
+    @AfterMethod
+    public void cleanup() {
+        FileUtils.deleteQuietly(spoolDir);
+    }
+
+    @Test
+    public void testReplayInOrderAfterRecovery() throws Exception {
+        HookMessageSpool spool = new HookMessageSpool(notificationInterface, spoolDir, 1024 * 1024, 1000);
+
+        assertTrue(spool.init());
+
+        assertTrue(spool.append(createMessages("user1", "user2")));
+        assertTrue(spool.append(createMessages("user3")));
+        assertTrue(spool.isPending());
+        assertTrue(spool.getSpoolSizeBytes() > 0);
+
+        // broker is down: messages stay in the spool
+        doThrow(new NotificationException(new Exception())).when(notificationInterface).send(eq(NotificationInterface.NotificationType.HOOK), any(List.class));
+
+        spool.replay();
+
+        assertTrue(spool.isPending());
+
+        // broker recovers: messages are sent in the order they were spooled
+        doNothing().when(notificationInterface).send(eq(NotificationInterface.NotificationType.HOOK), any(List.class));
+
+        spool.replay();
+
+        ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+
+        verify(notificationInterface, times(2)).send(eq(NotificationInterface.NotificationType.HOOK), captor.capture());
+
+        assertEquals(getUsers(captor.getValue()), Arrays.asList("user1", "user2", "user3"));
+        assertFalse(spool.isPending());
+        assertEquals(spool.getSpoolSizeBytes(), 0);
+        assertEquals(spool.getOldestMessageAgeMs(), 0);
+
+        spool.stop();
+    }
+
+    @Test
+    public void testSpooledMessagesSurviveRestart() throws Exception {
+        HookMessageSpool spool = new HookMessageSpool(notificationInterface, spoolDir, 1024 * 1024, 1000);
+
+        assertTrue(spool.init());
+        assertTrue(spool.append(createMessages("user1")));
+
+        // directory is locked by the spool
+        assertFalse(new HookMessageSpool(notificationInterface, spoolDir, 1024 * 1024, 1000).init());
+
+        spool.stop();
+
+        HookMessageSpool restarted = new HookMessageSpool(notificationInterface, spoolDir, 1024 * 1024, 1000);
+
+        assertTrue(restarted.init());
+        assertTrue(restarted.isPending());
+
+        restarted.replay();
+
+        ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+
+        verify(notificationInterface).send(eq(NotificationInterface.NotificationType.HOOK), captor.capture());
+
+        assertEquals(getUsers(captor.getValue()), Arrays.asList("user1"));
+        assertFalse(restarted.isPending());
+
+        restarted.stop();
+    }
+
+    @Test
+    public void testAsyncSendFailureIsSpooled() throws Exception {
+        HookMessageSpool spool  = new HookMessageSpool(notificationInterface, spoolDir, 1024 * 1024, 1000);
+        List<String>     failed = Arrays.asList(AbstractNotification.getMessageJson(new EntityCreateRequest("user1")),
+                                                AbstractNotification.getMessageJson(new EntityCreateRequest("user2")));
+
+        assertTrue(spool.init());
+
+        AtlasHook.handleAsyncSendFailure(new NotificationException(new Exception(), failed, true), true, failedMessagesLogger, spool);
+
+        // spooled messages are not logged as failed
+        verifyZeroInteractions(failedMessagesLogger);
+        assertTrue(spool.isPending());
+
+        spool.replay();
+
+        ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+
+        verify(notificationInterface).send(eq(NotificationInterface.NotificationType.HOOK), captor.capture());
+
+        assertEquals(getUsers(captor.getValue()), Arrays.asList("user1", "user2"));
+
+        spool.stop();
+    }
+
+    @Test
+    public void testAsyncSendFailureIsLoggedWhenSpoolIsFull() throws Exception {
+        HookMessageSpool spool  = new HookMessageSpool(notificationInterface, spoolDir, 10, 1000);
+        String           failed = AbstractNotification.getMessageJson(new EntityCreateRequest("user1"));
+
+        assertTrue(spool.init());
+
+        AtlasHook.handleAsyncSendFailure(new NotificationException(new Exception(), Arrays.asList(failed), true), true, failedMessagesLogger, spool);
+
+        verify(failedMessagesLogger).log(failed);
+        assertFalse(spool.isPending());
+
+        spool.stop();
+    }
+
+    @Test
+    public void testAppendFailsWhenSpoolIsFull() throws Exception {
+        HookMessageSpool spool = new HookMessageSpool(notificationInterface, spoolDir, 100, 1000);
+
+        assertTrue(spool.init());
+        assertFalse(spool.append(createMessages("user1", "user2", "user3")));
+        assertFalse(spool.isPending());
+
+        spool.stop();
+    }
+
+    @Test
+    public void testHookSpoolsFailedMessages() throws Exception {
+        HookMessageSpool       spool     = new HookMessageSpool(notificationInterface, spoolDir, 1024 * 1024, 1000);
+        List<HookNotification> messages1 = createMessages("user1");
+        List<HookNotification> messages2 = createMessages("user2");
+
+        assertTrue(spool.init());
+
+        doThrow(new NotificationException(new Exception(), Arrays.asList("test message"))).when(notificationInterface).send(NotificationInterface.NotificationType.HOOK, messages1);
+
+        // failed messages are spooled without retries, and not logged as failed
+        AtlasHook.notifyEntitiesInternal(messages1, 3, null, notificationInterface, true, failedMessagesLogger, spool);
+
+        verify(notificationInterface, times(1)).send(NotificationInterface.NotificationType.HOOK, messages1);
+        verifyZeroInteractions(failedMessagesLogger);
+        assertTrue(spool.isPending());
+
+        // while the spool has messages, new messages are spooled, to be sent after the earlier messages
+        AtlasHook.notifyEntitiesInternal(messages2, 3, null, notificationInterface, true, failedMessagesLogger, spool);
+
+        verify(notificationInterface, times(0)).send(NotificationInterface.NotificationType.HOOK, messages2);
+
+        spool.stop();
+    }
+
+    private static List<HookNotification> createMessages(String... users) {
+        List<HookNotification> ret = new ArrayList<>();
+
+        for (String user : users) {
+            ret.add(new EntityCreateRequest(user));
+        }
+
+        return ret;
+    }
+
+    private static List<String> getUsers(List<?> messages) {
+        List<String> ret = new ArrayList<>();
+
+        for (Object message : messages) {
+            ret.add(((HookNotification) message).getUser());
+        }
+
+        return ret;
+    }
+}
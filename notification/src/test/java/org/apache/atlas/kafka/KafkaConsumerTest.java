@@ -33,16 +33,20 @@ import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
 import org.apache.kafka.common.TopicPartition;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -139,6 +143,61 @@ public class KafkaConsumerTest {
         verify(kafkaConsumer, never()).commitSync(Collections.singletonMap(tp, new OffsetAndMetadata(1)));
     }
 
+    @Test
+    public void testBatchCommit() {
+        TopicPartition     tp       = new TopicPartition(ATLAS_HOOK_TOPIC, 0);
+        AtlasKafkaConsumer consumer = new AtlasKafkaConsumer(NotificationType.HOOK, kafkaConsumer, false, 100L, 3, Long.MAX_VALUE);
+
+        when(kafkaConsumer.poll(100L)).thenReturn(getRecords(tp, 3));
+
+        assertEquals(consumer.receive().size(), 3);
+
+        // messages completed out of order: offsets are committed only after the batch is complete
+        consumer.commit(tp, 2);
+        consumer.commit(tp, 1);
+
+        verify(kafkaConsumer, never()).commitAsync(any(Map.class), any(OffsetCommitCallback.class));
+
+        consumer.commit(tp, 3);
+
+        verify(kafkaConsumer).commitAsync(eq(Collections.singletonMap(tp, new OffsetAndMetadata(3))), any(OffsetCommitCallback.class));
+        verify(kafkaConsumer, never()).commitSync(any(Map.class));
+    }
+
+    @Test
+    public void testBatchCommitStopsAtIncompleteMessage() {
+        TopicPartition     tp       = new TopicPartition(ATLAS_HOOK_TOPIC, 0);
+        AtlasKafkaConsumer consumer = new AtlasKafkaConsumer(NotificationType.HOOK, kafkaConsumer, false, 100L, 2, Long.MAX_VALUE);
+
+        when(kafkaConsumer.poll(100L)).thenReturn(getRecords(tp, 4));
+
+        assertEquals(consumer.receive().size(), 4);
+
+        // message at offset 1 is not complete yet; hence offset 1 is committed, though later messages are complete
+        consumer.commit(tp, 1);
+        consumer.commit(tp, 3);
+
+        verify(kafkaConsumer).commitAsync(eq(Collections.singletonMap(tp, new OffsetAndMetadata(1))), any(OffsetCommitCallback.class));
+
+        consumer.commit(tp, 4);
+
+        // pending offsets are committed synchronously on close
+        consumer.close();
+
+        verify(kafkaConsumer).commitSync(Collections.singletonMap(tp, new OffsetAndMetadata(1)));
+    }
+
+    private ConsumerRecords getRecords(TopicPartition tp, int count) {
+        String                               json    = AtlasType.toV1Json(new AtlasNotificationMessage<>(new MessageVersion("1.0.0"), new EntityUpdateRequest("user1", getEntity(TRAIT_NAME))));
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            records.add(new ConsumerRecord<>(tp.topic(), tp.partition(), i, "mykey", json));
+        }
+
+        return new ConsumerRecords(Collections.singletonMap(tp, records));
+    }
+
     private Referenceable getEntity(String traitName) {
         return EntityNotificationTest.getEntity("id", new Struct(traitName, Collections.<String, Object>emptyMap()));
     }
@@ -20,10 +20,12 @@ package org.apache.atlas.kafka;
 import org.apache.atlas.notification.NotificationConsumer;
 import org.apache.atlas.notification.NotificationException;
 import org.apache.atlas.notification.NotificationInterface;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.TopicPartition;
+import org.mockito.ArgumentCaptor;
 import org.testng.annotations.Test;
 import java.util.Arrays;
 import java.util.ArrayList;
@@ -34,7 +36,10 @@ import java.util.Properties;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
@@ -144,6 +149,79 @@ public class KafkaNotificationMockTest {
         }
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldReportPipelinedSendFailuresToHandler() throws NotificationException {
+        Properties                  configProperties  = mock(Properties.class);
+        KafkaNotification           kafkaNotification = new KafkaNotification(configProperties);
+        Producer                    producer          = mock(Producer.class);
+        String                      topicName         = kafkaNotification.getTopicName(NotificationInterface.NotificationType.HOOK);
+        String                      message1          = "This is a test message1";
+        String                      message2          = "This is a test message2";
+        List<NotificationException> failures          = new ArrayList<>();
+
+        // without a handler, failures are only logged
+        kafkaNotification.sendInternalToProducerPipelined(producer, NotificationInterface.NotificationType.HOOK, Arrays.asList(message1));
+
+        ArgumentCaptor<Callback> callback = ArgumentCaptor.forClass(Callback.class);
+
+        // send doesn't wait for acknowledgement
+        verify(producer).send(eq(new ProducerRecord(topicName, message1)), callback.capture());
+
+        callback.getValue().onCompletion(null, new RuntimeException("Simulating exception"));
+
+        kafkaNotification.setAsyncSendFailureHandler((type, excp) -> failures.add(excp));
+
+        kafkaNotification.sendInternalToProducerPipelined(producer, NotificationInterface.NotificationType.HOOK, Arrays.asList(message2));
+
+        callback = ArgumentCaptor.forClass(Callback.class);
+
+        verify(producer).send(eq(new ProducerRecord(topicName, message2)), callback.capture());
+
+        callback.getValue().onCompletion(null, new RuntimeException("Simulating exception"));
+
+        assertEquals(failures.size(), 1);
+        assertTrue(failures.get(0).isAsyncSendFailure());
+        assertEquals(failures.get(0).getFailedMessages(), Arrays.asList(message2));
+
+        // failures are not thrown to later calls
+        kafkaNotification.sendInternalToProducerPipelined(producer, NotificationInterface.NotificationType.HOOK, Arrays.asList(message1));
+
+        assertEquals(failures.size(), 1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldReportPipelinedSendFailuresOncePerCall() throws NotificationException {
+        Properties                  configProperties  = mock(Properties.class);
+        KafkaNotification           kafkaNotification = new KafkaNotification(configProperties);
+        Producer                    producer          = mock(Producer.class);
+        String                      message1          = "This is a test message1";
+        String                      message2          = "This is a test message2";
+        String                      message3          = "This is a test message3";
+        List<NotificationException> failures          = new ArrayList<>();
+
+        kafkaNotification.setAsyncSendFailureHandler((type, excp) -> failures.add(excp));
+
+        kafkaNotification.sendInternalToProducerPipelined(producer, NotificationInterface.NotificationType.HOOK, Arrays.asList(message1, message2, message3));
+
+        ArgumentCaptor<Callback> callback = ArgumentCaptor.forClass(Callback.class);
+
+        verify(producer, times(3)).send(any(ProducerRecord.class), callback.capture());
+
+        callback.getAllValues().get(0).onCompletion(null, new RuntimeException("Simulating exception"));
+        callback.getAllValues().get(2).onCompletion(null, new RuntimeException("Simulating exception"));
+
+        // reported only after all records of the call complete
+        assertTrue(failures.isEmpty());
+
+        callback.getAllValues().get(1).onCompletion(new RecordMetadata(new TopicPartition("ATLAS_HOOK", 0), 0, 1, 0, 0L, 0, 0), null);
+
+        assertEquals(failures.size(), 1);
+        assertTrue(failures.get(0).isAsyncSendFailure());
+        assertEquals(failures.get(0).getFailedMessages(), Arrays.asList(message1, message3));
+    }
+
     class TestKafkaNotification extends KafkaNotification {
 
         private final AtlasKafkaConsumer consumer1;
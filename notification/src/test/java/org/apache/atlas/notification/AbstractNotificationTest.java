@@ -85,6 +85,34 @@ public class AbstractNotificationTest {
         }
     }
 
+    @org.testng.annotations.Test
+    public void testCreateBinaryNotificationMessagesFailure() {
+        List<byte[]> messages = new ArrayList<>();
+
+        try {
+            AbstractNotification.createBinaryNotificationMessages(new UnserializableTest(HookNotificationType.ENTITY_CREATE, "user1"), messages);
+
+            fail("NotificationException expected");
+        } catch (NotificationException excp) {
+            // expected
+        }
+
+        assertTrue(messages.isEmpty());
+    }
+
+    @org.testng.annotations.Test
+    public void testBinaryMessageToJsonString() throws Exception {
+        Test         message   = new Test(HookNotificationType.ENTITY_CREATE, "user1");
+        List<byte[]> binMsgs   = new ArrayList<>();
+        List<String> jsonMsgs  = new ArrayList<>();
+
+        AbstractNotification.createBinaryNotificationMessages(message, binMsgs);
+        AbstractNotification.createNotificationMessages(message, jsonMsgs);
+
+        assertEqualsMessageJson(BinaryMessageCodec.toJsonString(binMsgs.get(0)), jsonMsgs.get(0));
+        assertEquals(BinaryMessageCodec.toJsonString(jsonMsgs.get(0).getBytes("UTF-8")), jsonMsgs.get(0));
+    }
+
     public static class Test extends HookNotification {
 
         public Test(HookNotificationType type, String user) {
@@ -92,6 +120,17 @@ public class AbstractNotificationTest {
         }
     }
 
+    public static class UnserializableTest extends Test {
+
+        public UnserializableTest(HookNotificationType type, String user) {
+            super(type, user);
+        }
+
+        public String getValue() {
+            throw new IllegalStateException("not serializable");
+        }
+    }
+
     // ignore msgCreationTime in Json
     private void assertEqualsMessageJson(String msgJsonActual, String msgJsonExpected) {
         Map<Object, Object> msgActual   = AtlasType.fromV1Json(msgJsonActual, Map.class);
@@ -119,6 +158,18 @@ public class AbstractNotificationTest {
             messages = notificationMessages;
         }
 
+        @Override
+        protected void sendInternalBinary(NotificationType notificationType, List<byte[]> notificationMessages)
+            throws NotificationException {
+
+            type     = notificationType;
+            messages = new ArrayList<>(notificationMessages.size());
+
+            for (byte[] notificationMessage : notificationMessages) {
+                messages.add(BinaryMessageCodec.toJsonString(notificationMessage));
+            }
+        }
+
         @Override
         public <T> List<NotificationConsumer<T>> createConsumers(NotificationType notificationType, int numConsumers) {
             return null;
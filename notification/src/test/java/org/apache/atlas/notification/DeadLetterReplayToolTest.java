@@ -0,0 +1,227 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.kafka.AtlasKafkaMessage;
+import org.apache.atlas.kafka.KafkaNotification;
+import org.apache.atlas.model.notification.DeadLetterMessage;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.notification.NotificationInterface.NotificationType;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityCreateRequest;
+import org.apache.commons.io.FileUtils;
+import org.apache.kafka.common.TopicPartition;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class DeadLetterReplayToolTest {
+    @Mock
+    private NotificationInterface notificationInterface;
+
+    private File storeDir;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        MockitoAnnotations.initMocks(this);
+
+        storeDir = Files.createTempDirectory("atlas-hook-dlq").toFile();
+    }
+
+    @AfterMethod
+    public void cleanup() {
+        FileUtils.deleteQuietly(storeDir);
+    }
+
+    @Test
+    public void testPublishFallsBackToLocalStore() throws Exception {
+        DeadLetterStore     store     = new DeadLetterStore(storeDir, 60 * 1000);
+        DeadLetterPublisher publisher = new DeadLetterPublisher(notificationInterface, store);
+
+        doThrow(new NotificationException(new Exception("broker unavailable"))).when(notificationInterface).sendAndWait(eq(NotificationType.HOOK_DEAD_LETTER), any(List.class));
+
+        assertTrue(publisher.publish(createMessage("user1", 10)));
+        assertTrue(publisher.publish(createMessage("user2", 11)));
+
+        assertEquals(publisher.getPublishedCount(), 0);
+        assertEquals(publisher.getStoredCount(), 2);
+
+        // messages are available for replay only after the file is closed
+        assertEquals(store.getReplayableFiles().size(), 0);
+
+        publisher.close();
+
+        List<File> files = store.getReplayableFiles();
+
+        assertEquals(files.size(), 1);
+
+        List<DeadLetterMessage> messages = DeadLetterStore.read(files.get(0));
+
+        assertEquals(messages.size(), 2);
+        assertEquals(messages.get(0).getMessage().getUser(), "user1");
+        assertEquals(messages.get(0).getSourceOffset(), 10);
+        assertEquals(messages.get(0).getFailureCause(), "java.lang.IllegalStateException: failed");
+        assertEquals(messages.get(1).getMessage().getUser(), "user2");
+    }
+
+    @Test
+    public void testDeserializeFromTopic() {
+        String            json    = AbstractNotification.getMessageJson(createMessage("user1", 5));
+        DeadLetterMessage message = (DeadLetterMessage) NotificationType.HOOK_DEAD_LETTER.getDeserializer().deserialize(json);
+
+        assertEquals(message.getSourceOffset(), 5);
+        assertTrue(message.getMessage() instanceof EntityCreateRequest);
+        assertEquals(message.getMessage().getUser(), "user1");
+    }
+
+    @Test
+    public void testReplayFromLocalStoreInParallelBatches() throws Exception {
+        DeadLetterStore         store    = new DeadLetterStore(storeDir, 60 * 1000);
+        List<DeadLetterMessage> messages = new ArrayList<>();
+
+        for (int i = 0; i < 25; i++) {
+            messages.add(createMessage("user" + i, i));
+        }
+
+        store.append(messages);
+        store.roll();
+
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        final Set<String>   users      = Collections.synchronizedSet(new HashSet<>());
+
+        doAnswer(invocation -> {
+            List<HookNotification> batch = (List<HookNotification>) invocation.getArguments()[1];
+
+            batchSizes.add(batch.size());
+
+            for (HookNotification message : batch) {
+                users.add(message.getUser());
+            }
+
+            return null;
+        }).when(notificationInterface).sendAndWait(eq(NotificationType.HOOK), any(List.class));
+
+        DeadLetterReplayTool tool = new DeadLetterReplayTool(notificationInterface, 10, 3);
+
+        try {
+            assertEquals(tool.replayFromLocalStore(store), 25);
+        } finally {
+            tool.close();
+        }
+
+        Collections.sort(batchSizes);
+
+        assertEquals(batchSizes.toString(), "[5, 10, 10]");
+        assertEquals(users.size(), 25);
+
+        // replayed files are not replayed again
+        assertEquals(store.getReplayableFiles().size(), 0);
+    }
+
+    @Test
+    public void testFailedReplayIsRetained() throws Exception {
+        DeadLetterStore store = new DeadLetterStore(storeDir, 60 * 1000);
+
+        store.append(Collections.singletonList(createMessage("user1", 1)));
+        store.roll();
+
+        doThrow(new NotificationException(new Exception("broker unavailable"))).when(notificationInterface).sendAndWait(eq(NotificationType.HOOK), any(List.class));
+
+        DeadLetterReplayTool tool = new DeadLetterReplayTool(notificationInterface, 10, 2);
+
+        try {
+            tool.replayFromLocalStore(store);
+
+            fail("expected replay to fail");
+        } catch (NotificationException excp) {
+            // expected
+        } finally {
+            tool.close();
+        }
+
+        assertEquals(store.getReplayableFiles().size(), 1);
+    }
+
+    @Test
+    public void testReplayFromTopicCommitsOnlyAfterAcknowledgement() throws Exception {
+        NotificationConsumer<DeadLetterMessage> consumer = mock(NotificationConsumer.class);
+
+        when(consumer.receive()).thenReturn(Arrays.asList(new AtlasKafkaMessage<>(createMessage("user1", 1), 7, 0),
+                                                          new AtlasKafkaMessage<>(createMessage("user2", 2), 8, 0)))
+                                .thenReturn(Collections.emptyList());
+
+        doThrow(new NotificationException(new Exception("broker unavailable"))).when(notificationInterface).sendAndWait(eq(NotificationType.HOOK), any(List.class));
+
+        DeadLetterReplayTool tool = new DeadLetterReplayTool(notificationInterface, 10, 2);
+
+        try {
+            tool.replayFromTopic(consumer, 0);
+
+            fail("expected replay to fail");
+        } catch (NotificationException excp) {
+            // expected
+        } finally {
+            tool.close();
+        }
+
+        // offsets are not committed for messages that were not acknowledged
+        verify(consumer, never()).commit(any(TopicPartition.class), anyLong());
+
+        when(consumer.receive()).thenReturn(Collections.singletonList(new AtlasKafkaMessage<>(createMessage("user1", 1), 7, 0)))
+                                .thenReturn(Collections.emptyList());
+
+        doAnswer(invocation -> null).when(notificationInterface).sendAndWait(eq(NotificationType.HOOK), any(List.class));
+
+        tool = new DeadLetterReplayTool(notificationInterface, 10, 2);
+
+        try {
+            assertEquals(tool.replayFromTopic(consumer, 0), 1);
+        } finally {
+            tool.close();
+        }
+
+        verify(consumer).commit(new TopicPartition(KafkaNotification.ATLAS_HOOK_DLQ_TOPIC, 0), 8);
+    }
+
+    private static DeadLetterMessage createMessage(String user, long offset) {
+        return new DeadLetterMessage(new EntityCreateRequest(user), "ATLAS_HOOK", 0, offset, System.currentTimeMillis(), 3, "java.lang.IllegalStateException: failed");
+    }
+}
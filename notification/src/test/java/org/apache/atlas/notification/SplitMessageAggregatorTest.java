@@ -20,8 +20,11 @@ package org.apache.atlas.notification;
 import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.CompressionKind;
 import org.apache.atlas.model.notification.AtlasNotificationStringMessage;
 import org.testng.Assert;
+import org.apache.commons.io.IOUtils;
 import org.testng.annotations.Test;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -51,6 +54,69 @@ public class SplitMessageAggregatorTest {
         Assert.assertEquals(map.size(), expectedSize);
     }
 
+    @Test
+    public void verifySpillBeyondMemoryLimit() throws Exception {
+        File              spillDir = Files.createTempDirectory("atlas-split-msg-test").toFile();
+        SplitMessageStore store    = new SplitMessageStore(12, spillDir);
+        String[]          parts    = { "aaaaa", "bbbbb", "ccccc", "ddddd" };
+
+        SplitMessageAggregator sma = null;
+
+        // receive parts out of order: 0, 2, 1, 3
+        for (int i : new int[] { 0, 2, 1, 3 }) {
+            AtlasNotificationStringMessage sm = new AtlasNotificationStringMessage(parts[i], "1", CompressionKind.NONE, i, parts.length);
+
+            if (sma == null) {
+                sma = new SplitMessageAggregator(sm, store);
+            } else {
+                sma.add(sm);
+            }
+        }
+
+        // 2 parts fit in memory limit of 12 bytes; remaining 2 are spilled
+        Assert.assertEquals(store.getMemoryBytes(), 10);
+        Assert.assertEquals(store.getSpilledBytes(), 10);
+        Assert.assertEquals(store.getSpilledPartCount(), 2);
+        Assert.assertEquals(sma.getReceivedSplitCount(), 4);
+        Assert.assertEquals(spillDir.listFiles().length, 1);
+
+        Assert.assertEquals(IOUtils.toString(sma.getEncodedMessageStream(), "UTF-8"), "aaaaabbbbbcccccddddd");
+
+        sma.release();
+
+        Assert.assertEquals(store.getMemoryBytes(), 0);
+        Assert.assertEquals(store.getSpilledBytes(), 0);
+        Assert.assertEquals(spillDir.listFiles().length, 0);
+
+        spillDir.delete();
+    }
+
+    @Test
+    public void verifyStaleSpillFilesAreDeleted() throws Exception {
+        File              spillDir  = Files.createTempDirectory("atlas-split-msg-test").toFile();
+        SplitMessageStore store     = new SplitMessageStore(12, spillDir);
+        File              staleFile = new File(spillDir, "atlas-split-msg-1.tmp");
+        File              liveFile  = new File(spillDir, "atlas-split-msg-2.tmp");
+        File              otherFile = new File(spillDir, "other-1.tmp");
+        long              now       = System.currentTimeMillis();
+
+        for (File file : new File[] { staleFile, liveFile, otherFile }) {
+            Assert.assertTrue(file.createNewFile());
+        }
+
+        staleFile.setLastModified(now - 60 * 60 * 1000);
+        otherFile.setLastModified(now - 60 * 60 * 1000);
+
+        Assert.assertEquals(store.deleteStaleSpillFiles(now - 30 * 60 * 1000), 1);
+        Assert.assertFalse(staleFile.exists());
+        Assert.assertTrue(liveFile.exists());
+        Assert.assertTrue(otherFile.exists());
+
+        liveFile.delete();
+        otherFile.delete();
+        spillDir.delete();
+    }
+
     private Map<String, SplitMessageAggregator> getStringSplitMessageAggregatorMap() {
         Map<String, SplitMessageAggregator> map = new HashMap<>();
 
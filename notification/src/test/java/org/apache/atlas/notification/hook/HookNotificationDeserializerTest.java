@@ -23,6 +23,8 @@ import org.apache.atlas.notification.entity.EntityNotificationTest;
 import org.apache.atlas.v1.model.instance.Referenceable;
 import org.apache.atlas.v1.model.instance.Struct;
 import org.apache.atlas.notification.AbstractNotification;
+import org.apache.atlas.notification.BinaryMessageCodec;
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage;
 import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityUpdateRequest;
 import org.apache.atlas.type.AtlasType;
 import org.apache.commons.lang3.RandomStringUtils;
@@ -101,6 +103,53 @@ public class HookNotificationDeserializerTest {
         assertEqualMessage(deserializedMessage, message);
     }
 
+    @Test
+    public void testDeserializeBinaryMessage() throws Exception {
+        Referenceable       entity     = generateEntityWithTrait();
+        EntityUpdateRequest message    = new EntityUpdateRequest("user1", entity);
+        List<byte[]>        binMsgList = new ArrayList<>();
+
+        AbstractNotification.createBinaryNotificationMessages(message, binMsgList);
+
+        assertEquals(binMsgList.size(), 1);
+        assertTrue(BinaryMessageCodec.isBinary(binMsgList.get(0)));
+
+        assertEqualMessage(deserializeBinary(binMsgList), message);
+
+        // JSON messages received as bytes
+        List<String> jsonMsgList = new ArrayList<>();
+
+        AbstractNotification.createNotificationMessages(message, jsonMsgList);
+
+        assertEqualMessage(deserializer.deserialize(AtlasNotificationBaseMessage.getBytesUtf8(jsonMsgList.get(0))), message);
+    }
+
+    @Test
+    public void testDeserializeBinarySplitMessage() throws Exception {
+        Referenceable       entity     = generateVeryLargeEntityWithTrait();
+        EntityUpdateRequest message    = new EntityUpdateRequest("user1", entity);
+        List<byte[]>        binMsgList = new ArrayList<>();
+
+        AbstractNotification.createBinaryNotificationMessages(message, binMsgList);
+
+        assertTrue(binMsgList.size() > 1);
+
+        assertEqualMessage(deserializeBinary(binMsgList), message);
+    }
+
+    // envelope is read in a single pass: fields can be in any order, and unknown fields are skipped
+    @Test
+    public void testDeserializeMessageWithPayloadBeforeVersion() throws Exception {
+        Referenceable       entity  = generateEntityWithTrait();
+        EntityUpdateRequest message = new EntityUpdateRequest("user1", entity);
+        String              jsonMsg = "{\"message\":" + AtlasType.toV1Json(message) +
+                                      ",\"unknownField\":{\"values\":[1,2,{\"version\":\"9.0.0\"}]}" +
+                                      ",\"msgCreatedBy\":\"user1\"" +
+                                      ",\"version\":" + AtlasType.toV1Json(AbstractNotification.CURRENT_MESSAGE_VERSION) + "}";
+
+        assertEqualMessage(deserialize(Collections.singletonList(jsonMsg)), message);
+    }
+
     private Referenceable generateEntityWithTrait() {
         Referenceable ret = EntityNotificationTest.getEntity("id", new Struct("MyTrait", Collections.<String, Object>emptyMap()));
 
@@ -121,6 +170,20 @@ public class HookNotificationDeserializerTest {
         return deserializedMessage;
     }
 
+    private HookNotification deserializeBinary(List<byte[]> binMsgList) {
+        HookNotification deserializedMessage = null;
+
+        for (byte[] binMsg : binMsgList) {
+            deserializedMessage = deserializer.deserialize(binMsg);
+
+            if (deserializedMessage != null) {
+                break;
+            }
+        }
+
+        return deserializedMessage;
+    }
+
     private void assertEqualMessage(HookNotification deserializedMessage, EntityUpdateRequest message) throws Exception {
         assertNotNull(deserializedMessage);
         assertEquals(deserializedMessage.getType(), message.getType());
@@ -37,6 +37,16 @@ public interface AtlasDiscoveryService {
      */
     AtlasSearchResult searchUsingDslQuery(String query, int limit, int offset) throws AtlasBaseException;
 
+    /**
+     *
+     * @param query search query in DSL format.
+     * @param limit number of resultant rows (for pagination). [ limit > 0 ] and [ limit < maxlimit ]. -1 maps to atlas.search.defaultlimit property.
+     * @param offset offset to the results returned (for pagination). [ offset >= 0 ]. -1 maps to offset 0.
+     * @param profile include the translated Gremlin query and the time taken by each stage in the result
+     * @return AtlasSearchResult
+     */
+    AtlasSearchResult searchUsingDslQuery(String query, int limit, int offset, boolean profile) throws AtlasBaseException;
+
     /**
      *
      * @param query query
@@ -27,10 +27,12 @@ import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
 import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.patches.TypeHierarchyPatch;
 import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
 import org.apache.atlas.type.AtlasClassificationType;
 import org.apache.atlas.util.AtlasGremlinQueryProvider;
 import org.apache.atlas.util.SearchPredicateUtil;
+import org.apache.atlas.utils.AtlasPerfMetrics.MetricRecorder;
 import org.apache.atlas.utils.AtlasPerfTracer;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.Predicate;
@@ -95,11 +97,14 @@ public class ClassificationSearchProcessor extends SearchProcessor {
 
         processSearchAttributes(classificationType, filterCriteria, indexAttributes, graphAttributes, allAttributes);
 
+        // when there are too many sub-types to list in the index query, filter on the type-hierarchy property instead - once it is up-to-date
+        boolean typeSearchByHierarchy = context.getSearchParameters().getIncludeSubClassifications() && typeAndSubTypesQryStr.length() > MAX_QUERY_STR_LENGTH_TAGS && TypeHierarchyPatch.isTypeHierarchyComplete();
+
         // for classification search, if any attribute can't be handled by index query - switch to all filter by Graph query
         boolean useIndexSearch = classificationType != MATCH_ALL_WILDCARD_CLASSIFICATION &&
                                  classificationType != MATCH_ALL_CLASSIFIED &&
                                  classificationType != MATCH_ALL_NOT_CLASSIFIED &&
-                                 typeAndSubTypesQryStr.length() <= MAX_QUERY_STR_LENGTH_TAGS &&
+                                 (typeSearchByHierarchy || typeAndSubTypesQryStr.length() <= MAX_QUERY_STR_LENGTH_TAGS) &&
                                  CollectionUtils.isEmpty(graphAttributes) &&
                                  canApplyIndexFilter(classificationType, filterCriteria, false);
 
@@ -108,7 +113,12 @@ public class ClassificationSearchProcessor extends SearchProcessor {
         if (useIndexSearch) {
             StringBuilder indexQuery = new StringBuilder();
 
-            constructTypeTestQuery(indexQuery, typeAndSubTypesQryStr);
+            if (typeSearchByHierarchy) {
+                constructTypeHierarchyTestQuery(indexQuery, classificationType.getTypeQryStr());
+            } else {
+                constructTypeTestQuery(indexQuery, typeAndSubTypesQryStr);
+            }
+
             constructFilterQuery(indexQuery, classificationType, filterCriteria, indexAttributes);
 
             String indexQueryString = STRAY_AND_PATTERN.matcher(indexQuery).replaceAll(")");
@@ -118,6 +128,10 @@ public class ClassificationSearchProcessor extends SearchProcessor {
 
             this.indexQuery = graph.indexQuery(Constants.VERTEX_INDEX, indexQueryString);
 
+            if (profile != null) {
+                profile.setIndexQuery(indexQueryString);
+            }
+
             Predicate typeNamePredicate  = SearchPredicateUtil.getINPredicateGenerator()
                                                               .generatePredicate(Constants.TYPE_NAME_PROPERTY_KEY, typeAndSubTypes, String.class);
             Predicate attributePredicate = constructInMemoryPredicate(classificationType, filterCriteria, indexAttributes);
@@ -199,6 +213,13 @@ public class ClassificationSearchProcessor extends SearchProcessor {
             gremlinTagFilterQuery = null;
             gremlinQueryBindings  = null;
         }
+
+        if (profile != null) {
+            AtlasGraphQuery graphQuery = tagGraphQueryWithAttributes != null ? tagGraphQueryWithAttributes : entityGraphQueryTraitNames;
+
+            profile.setGraphQuery(indexQuery == null && graphQuery != null ? graphQuery.toString() : null);
+            profile.setGremlinQuery(gremlinTagFilterQuery);
+        }
     }
 
     @Override
@@ -242,30 +263,39 @@ public class ClassificationSearchProcessor extends SearchProcessor {
                     break;
                 }
 
-                final boolean isLastResultPage;
+                final boolean        isLastResultPage;
+                final int            candidateCount;
+                final MetricRecorder metric;
 
                 if (indexQuery != null) {
+                    metric = startMetricRecord("indexQuery");
+
                     Iterator<AtlasIndexQuery.Result> queryResult = indexQuery.vertices(qryOffset, limit);
 
                     getVerticesFromIndexQueryResult(queryResult, classificationVertices);
 
+                    candidateCount   = classificationVertices.size();
                     isLastResultPage = classificationVertices.size() < limit;
 
                     // Do in-memory filtering before the graph query
                     CollectionUtils.filter(classificationVertices, inMemoryPredicate);
                 } else {
+                    metric = startMetricRecord("graphQuery");
+
                     if (context.getSearchParameters().getTagFilters() == null) {
                         // We can use single graph query to determine in this case
                         Iterator<AtlasVertex> queryResult = entityGraphQueryTraitNames.vertices(qryOffset, limit).iterator();
 
                         getVertices(queryResult, entityVertices);
 
+                        candidateCount   = entityVertices.size();
                         isLastResultPage = entityVertices.size() < limit;
                     } else {
                         Iterator<AtlasVertex> queryResult = tagGraphQueryWithAttributes.vertices(qryOffset, limit).iterator();
 
                         getVertices(queryResult, classificationVertices);
 
+                        candidateCount   = classificationVertices.size();
                         isLastResultPage = classificationVertices.size() < limit;
 
                         // Do in-memory filtering before the graph query
@@ -299,6 +329,10 @@ public class ClassificationSearchProcessor extends SearchProcessor {
                     }
                 }
 
+                endMetricRecord(metric);
+
+                recordProfileCounts(candidateCount, entityVertices.size());
+
                 super.filter(entityVertices);
 
                 resultIdx = collectResultVertices(ret, startIdx, limit, resultIdx, entityVertices);
@@ -324,6 +358,9 @@ public class ClassificationSearchProcessor extends SearchProcessor {
             LOG.debug("==> ClassificationSearchProcessor.filter({})", entityVertices.size());
         }
 
+        MetricRecorder metric         = startMetricRecord("filter");
+        int            candidateCount = entityVertices.size();
+
         if (gremlinTagFilterQuery != null && gremlinQueryBindings != null) {
             // Now filter on the tag attributes
             Set<String> guids = getGuids(entityVertices);
@@ -350,6 +387,10 @@ public class ClassificationSearchProcessor extends SearchProcessor {
             CollectionUtils.filter(entityVertices, entityPredicateTraitNames);
         }
 
+        endMetricRecord(metric);
+
+        recordProfileCounts(candidateCount, entityVertices.size());
+
         super.filter(entityVertices);
 
         if (LOG.isDebugEnabled()) {
@@ -21,11 +21,15 @@ import com.google.common.annotations.VisibleForTesting;
 import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.AtlasException;
+import org.apache.atlas.RequestContext;
 import org.apache.atlas.SortOrder;
 import org.apache.atlas.annotation.GraphTransaction;
 import org.apache.atlas.authorize.AtlasAuthorizationUtils;
+import org.apache.atlas.authorize.AtlasEntityAccessRequest;
+import org.apache.atlas.authorize.AtlasPrivilege;
 import org.apache.atlas.authorize.AtlasSearchResultScrubRequest;
 import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.discovery.AtlasSearchProfile;
 import org.apache.atlas.model.discovery.AtlasSearchResult;
 import org.apache.atlas.model.discovery.AtlasSearchResult.AtlasFullTextResult;
 import org.apache.atlas.model.discovery.AtlasSearchResult.AtlasQueryType;
@@ -58,6 +62,8 @@ import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.util.AtlasGremlinQueryProvider;
 import org.apache.atlas.util.AtlasGremlinQueryProvider.AtlasGremlinQuery;
 import org.apache.atlas.util.SearchTracker;
+import org.apache.atlas.utils.AtlasPerfMetrics;
+import org.apache.atlas.utils.AtlasPerfMetrics.MetricRecorder;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang.StringUtils;
@@ -99,11 +105,12 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
     private final int                             maxTagsLengthInIdxQuery;
     private final String                          indexSearchPrefix;
     private final UserProfileService              userProfileService;
+    private final SearchResultCache               searchResultCache;
 
     @Inject
     EntityDiscoveryService(AtlasTypeRegistry typeRegistry,
                            AtlasGraph graph, GraphBackedSearchIndexer indexer, SearchTracker searchTracker,
-                           UserProfileService userProfileService) throws AtlasException {
+                           UserProfileService userProfileService, SearchResultCache searchResultCache) throws AtlasException {
         this.graph                    = graph;
         this.entityRetriever          = new EntityGraphRetriever(typeRegistry);
         this.indexer                  = indexer;
@@ -115,21 +122,52 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         this.maxTagsLengthInIdxQuery  = ApplicationProperties.get().getInt(Constants.INDEX_SEARCH_TAGS_MAX_QUERY_STR_LENGTH, 512);
         this.indexSearchPrefix        = AtlasGraphUtilsV2.getIndexSearchPrefix();
         this.userProfileService       = userProfileService;
+        this.searchResultCache        = searchResultCache;
     }
 
     @Override
     @GraphTransaction
     public AtlasSearchResult searchUsingDslQuery(String dslQuery, int limit, int offset) throws AtlasBaseException {
+        return searchUsingDslQuery(dslQuery, limit, offset, false);
+    }
+
+    @Override
+    @GraphTransaction
+    public AtlasSearchResult searchUsingDslQuery(String dslQuery, int limit, int offset, boolean profile) throws AtlasBaseException {
+        final long startTime = System.currentTimeMillis();
+
+        // profiled searches are always executed, so that the profile reflects the work done for the query
+        String            cacheKey   = searchResultCache.getKey(AtlasQueryType.DSL, dslQuery + "|limit=" + limit + "|offset=" + offset);
+        long              generation = searchResultCache.getGeneration();
+        AtlasSearchResult cached     = profile ? null : searchResultCache.get(cacheKey);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        if (profile) {
+            RequestContext.get().enableMetrics();
+        }
+
+        MetricRecorder    metric       = RequestContext.get().startMetricRecord("EntityDiscoveryService.dslTranslate");
         AtlasSearchResult ret          = new AtlasSearchResult(dslQuery, AtlasQueryType.DSL);
         GremlinQuery      gremlinQuery = toGremlinQuery(dslQuery, limit, offset);
         String            queryStr     = gremlinQuery.queryStr();
 
+        RequestContext.get().endMetricRecord(metric);
+
         if (LOG.isDebugEnabled()) {
             LOG.debug("Executing DSL: query={}, gremlinQuery={}", dslQuery, queryStr);
         }
 
+        metric = RequestContext.get().startMetricRecord("EntityDiscoveryService.gremlinQuery");
+
         Object result = graph.executeGremlinScript(queryStr, false);
 
+        RequestContext.get().endMetricRecord(metric);
+
+        metric = RequestContext.get().startMetricRecord("EntityDiscoveryService.entityHeaders");
+
         if (result instanceof List && CollectionUtils.isNotEmpty((List)result)) {
             List   queryResult  = (List) result;
             Object firstElement = queryResult.get(0);
@@ -168,8 +206,20 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
             }
         }
 
+        RequestContext.get().endMetricRecord(metric);
+
         scrubSearchResults(ret);
 
+        if (profile) {
+            AtlasSearchProfile searchProfile = new AtlasSearchProfile();
+
+            searchProfile.setGremlinQuery(queryStr);
+
+            ret.setProfile(completeProfile(searchProfile, startTime));
+        } else {
+            searchResultCache.put(cacheKey, generation, ret);
+        }
+
         return ret;
     }
 
@@ -421,11 +471,26 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
     @Override
     @GraphTransaction
     public AtlasSearchResult searchWithParameters(SearchParameters searchParameters) throws AtlasBaseException {
+        final long startTime = System.currentTimeMillis();
+
         AtlasSearchResult ret = new AtlasSearchResult(searchParameters);
         final   QueryParams   params =  QueryParams.getNormalizedParams(searchParameters.getLimit(),searchParameters.getOffset());
         searchParameters.setLimit(params.limit());
         searchParameters.setOffset(params.offset());
 
+        // profiled searches are always executed, so that the profile reflects the work done for the query
+        String            cacheKey   = searchResultCache.getKey(AtlasQueryType.BASIC, AtlasType.toJson(searchParameters));
+        long              generation = searchResultCache.getGeneration();
+        AtlasSearchResult cached     = searchParameters.getProfile() ? null : searchResultCache.get(cacheKey);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        if (searchParameters.getProfile()) {
+            RequestContext.get().enableMetrics();
+        }
+
         SearchContext context  = new SearchContext(searchParameters, typeRegistry, graph, indexer.getVertexIndexKeys());
         String        searchID = searchTracker.add(context); // For future cancellations
 
@@ -437,6 +502,7 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
             // and the explicitly requested attribute(s)
             Set<String> resultAttributes = new HashSet<>();
             Set<String> entityAttributes = new HashSet<>();
+            Set<String> edgeLabels       = new HashSet<>(); // edges read in mapping vertices to headers
 
             if (CollectionUtils.isNotEmpty(searchParameters.getAttributes())) {
                 resultAttributes.addAll(searchParameters.getAttributes());
@@ -464,11 +530,25 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
 
                         if (attributeType instanceof AtlasEntityType || attributeType instanceof AtlasObjectIdType) {
                             entityAttributes.add(resultAttribute);
+                            edgeLabels.add(attribute.getRelationshipEdgeLabel());
                         }
                     }
                 }
             }
 
+            MetricRecorder metric = RequestContext.get().startMetricRecord("EntityDiscoveryService.entityHeaders");
+
+            edgeLabels.add(Constants.TERM_ASSIGNMENT_LABEL);
+
+            if (searchParameters.getIncludeClassificationAttributes()) {
+                edgeLabels.add(Constants.CLASSIFICATION_LABEL);
+            }
+
+            // properties and needed edges of all result vertices are read in bulk, instead of one vertex at a time
+            graph.prefetchVertices(resultList, edgeLabels);
+
+            Set<String> referredGuids = new LinkedHashSet<>();
+
             for (AtlasVertex atlasVertex : resultList) {
                 AtlasEntityHeader entity = entityRetriever.toAtlasEntityHeader(atlasVertex, resultAttributes);
 
@@ -478,36 +558,57 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
 
                 ret.addEntity(entity);
 
-                // populate ret.referredEntities
+                // collect guids for ret.referredEntities
                 for (String entityAttribute : entityAttributes) {
                     Object attrValue = entity.getAttribute(entityAttribute);
 
                     if (attrValue instanceof AtlasObjectId) {
-                        AtlasObjectId objId = (AtlasObjectId) attrValue;
-
-                        if (ret.getReferredEntities() == null) {
-                            ret.setReferredEntities(new HashMap<>());
+                        referredGuids.add(((AtlasObjectId) attrValue).getGuid());
+                    } else if (attrValue instanceof Collection) {
+                        for (Object obj : (Collection) attrValue) {
+                            if (obj instanceof AtlasObjectId) {
+                                referredGuids.add(((AtlasObjectId) obj).getGuid());
+                            }
                         }
+                    }
+                }
+            }
 
-                        if (!ret.getReferredEntities().containsKey(objId.getGuid())) {
-                            ret.getReferredEntities().put(objId.getGuid(), entityRetriever.toAtlasEntityHeader(objId.getGuid()));
-                        }
-                    } else if (attrValue instanceof Collection) {
-                        Collection objIds = (Collection) attrValue;
+            RequestContext.get().endMetricRecord(metric);
 
-                        for (Object obj : objIds) {
-                            if (obj instanceof AtlasObjectId) {
-                                AtlasObjectId objId = (AtlasObjectId) obj;
+            // populate ret.referredEntities
+            if (!referredGuids.isEmpty()) {
+                metric = RequestContext.get().startMetricRecord("EntityDiscoveryService.referredEntities");
 
-                                if (ret.getReferredEntities() == null) {
-                                    ret.setReferredEntities(new HashMap<>());
-                                }
+                ret.setReferredEntities(entityRetriever.toAtlasEntityHeaders(referredGuids));
 
-                                if (!ret.getReferredEntities().containsKey(objId.getGuid())) {
-                                    ret.getReferredEntities().put(objId.getGuid(), entityRetriever.toAtlasEntityHeader(objId.getGuid()));
-                                }
-                            }
-                        }
+                RequestContext.get().endMetricRecord(metric);
+            }
+
+            ret.setContinuationToken(context.getNextContinuationToken());
+
+            if (CollectionUtils.isNotEmpty(searchParameters.getFacets())) {
+                // facets count entities that aren't in the results, hence can't be scrubbed; these are returned only to
+                // users who can read all entities of the searched types
+                if (isReadAllowedOnAllEntities(context)) {
+                    FacetSearchProcessor facetProcessor = new FacetSearchProcessor(context);
+
+                    ret.setFacets(facetProcessor.getFacets());
+
+                    if (!facetProcessor.getWithheldFacets().isEmpty()) {
+                        ret.setWithheldFacets(facetProcessor.getWithheldFacets());
+                    }
+                } else {
+                    Map<String, String> withheldFacets = new LinkedHashMap<>();
+
+                    for (String facet : searchParameters.getFacets()) {
+                        withheldFacets.put(facet, "user is not authorized to read all entities of type " + searchParameters.getTypeName());
+                    }
+
+                    ret.setWithheldFacets(withheldFacets);
+
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("facets not returned: user is not authorized to read all entities of type {}", searchParameters.getTypeName());
                     }
                 }
             }
@@ -517,6 +618,12 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
 
         scrubSearchResults(ret);
 
+        if (context.getProfile() != null) {
+            ret.setProfile(completeProfile(context.getProfile(), startTime));
+        } else {
+            searchResultCache.put(cacheKey, generation, ret);
+        }
+
         return ret;
     }
 
@@ -691,6 +798,22 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         return ret;
     }
 
+    private AtlasSearchProfile completeProfile(AtlasSearchProfile profile, long startTime) {
+        AtlasPerfMetrics metrics = RequestContext.get().getMetrics();
+
+        if (metrics != null) {
+            for (String name : metrics.getMetricsNames()) {
+                AtlasPerfMetrics.Metric metric = metrics.getMetric(name);
+
+                profile.addStage(name, metric.getInvocations(), metric.getTotalTimeMSecs());
+            }
+        }
+
+        profile.setTotalTimeMSecs(System.currentTimeMillis() - startTime);
+
+        return profile;
+    }
+
     private GremlinQuery toGremlinQuery(String query, int limit, int offset) throws AtlasBaseException {
         QueryParams                 params       = QueryParams.getNormalizedParams(limit, offset);
         GremlinQuery                gremlinQuery = new AtlasDSL.Translator(query, typeRegistry, params.offset(), params.limit()).translate();
@@ -932,6 +1055,24 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         }
     }
 
+    private boolean isReadAllowedOnAllEntities(SearchContext context) {
+        AtlasEntityType entityType = context.getEntityType();
+
+        if (entityType == null) {
+            return false;
+        }
+
+        Collection<String> typeNames = context.getSearchParameters().getIncludeSubTypes() ? entityType.getTypeAndAllSubTypes() : Collections.singleton(entityType.getTypeName());
+
+        for (String typeName : typeNames) {
+            if (!AtlasAuthorizationUtils.isAccessAllowedOnAllEntities(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, new AtlasEntityHeader(typeName)))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     private void scrubSearchResults(AtlasSearchResult result) throws AtlasBaseException {
         AtlasAuthorizationUtils.scrubSearchResults(new AtlasSearchResultScrubRequest(typeRegistry, result));
     }
@@ -22,9 +22,11 @@ import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
 import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.patches.TypeHierarchyPatch;
 import org.apache.atlas.type.AtlasClassificationType;
 import org.apache.atlas.type.AtlasEntityType;
 import org.apache.atlas.util.SearchPredicateUtil;
+import org.apache.atlas.utils.AtlasPerfMetrics.MetricRecorder;
 import org.apache.atlas.utils.AtlasPerfTracer;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.Predicate;
@@ -112,13 +114,19 @@ public class EntitySearchProcessor extends SearchProcessor {
 
         processSearchAttributes(entityType, filterCriteria, indexAttributes, graphAttributes, allAttributes);
 
-        final boolean typeSearchByIndex = !filterClassification && typeAndSubTypesQryStr.length() <= MAX_QUERY_STR_LENGTH_TYPES;
+        // when there are too many sub-types to list in the index query, filter on the type-hierarchy property instead - once it is up-to-date
+        final boolean typeSearchByHierarchy = context.getSearchParameters().getIncludeSubTypes() && typeAndSubTypesQryStr.length() > MAX_QUERY_STR_LENGTH_TYPES && TypeHierarchyPatch.isTypeHierarchyComplete();
+        final boolean typeSearchByIndex     = !filterClassification && (typeSearchByHierarchy || typeAndSubTypesQryStr.length() <= MAX_QUERY_STR_LENGTH_TYPES);
         final boolean attrSearchByIndex = !filterClassification && CollectionUtils.isNotEmpty(indexAttributes) && canApplyIndexFilter(entityType, filterCriteria, false);
 
         StringBuilder indexQuery = new StringBuilder();
 
         if (typeSearchByIndex) {
-            constructTypeTestQuery(indexQuery, typeAndSubTypesQryStr);
+            if (typeSearchByHierarchy) {
+                constructTypeHierarchyTestQuery(indexQuery, entityType.getTypeQryStr());
+            } else {
+                constructTypeTestQuery(indexQuery, typeAndSubTypesQryStr);
+            }
 
             // TypeName check to be done in-memory as well to address ATLAS-2121 (case sensitivity)
             inMemoryPredicate = typeNamePredicate;
@@ -148,6 +156,10 @@ public class EntitySearchProcessor extends SearchProcessor {
             indexQueryString = STRAY_ELIPSIS_PATTERN.matcher(indexQueryString).replaceAll("");
 
             this.indexQuery = context.getGraph().indexQuery(Constants.VERTEX_INDEX, indexQueryString);
+
+            if (profile != null) {
+                profile.setIndexQuery(indexQueryString);
+            }
         } else {
             this.indexQuery = null;
         }
@@ -229,6 +241,10 @@ public class EntitySearchProcessor extends SearchProcessor {
         if (context.getSearchParameters().getExcludeDeletedEntities()) {
             filterGraphQueryPredicate = PredicateUtils.andPredicate(filterGraphQueryPredicate, activePredicate);
         }
+
+        if (profile != null && graphQuery != null) {
+            profile.setGraphQuery(graphQuery.toString());
+        }
     }
 
     @Override
@@ -246,16 +262,21 @@ public class EntitySearchProcessor extends SearchProcessor {
         }
 
         try {
-            final int startIdx = context.getSearchParameters().getOffset();
-            final int limit    = context.getSearchParameters().getLimit();
+            final int     continuationOffset = context.getContinuationOffset();
+            final boolean isContinuation     = continuationOffset != -1;
+            final int     startIdx           = isContinuation ? 0 : context.getSearchParameters().getOffset();
+            final int     limit              = context.getSearchParameters().getLimit();
 
             // when subsequent filtering stages are involved, query should start at 0 even though startIdx can be higher
             //
             // first 'startIdx' number of entries will be ignored
-            int qryOffset = (nextProcessor != null || (graphQuery != null && indexQuery != null)) ? 0 : startIdx;
-            int resultIdx = qryOffset;
+            //
+            // with a continuation token, query starts right after the query result of the last entry returned earlier
+            int qryOffset = isContinuation ? continuationOffset : (nextProcessor != null || (graphQuery != null && indexQuery != null)) ? 0 : startIdx;
+            int resultIdx = isContinuation ? 0 : qryOffset;
 
             final List<AtlasVertex> entityVertices = new ArrayList<>();
+            final List<AtlasVertex> queryVertices  = new ArrayList<>();
 
             for (; ret.size() < limit; qryOffset += limit) {
                 entityVertices.clear();
@@ -269,30 +290,59 @@ public class EntitySearchProcessor extends SearchProcessor {
                 final boolean isLastResultPage;
 
                 if (indexQuery != null) {
+                    MetricRecorder metric = startMetricRecord("indexQuery");
+
                     Iterator<AtlasIndexQuery.Result> idxQueryResult = indexQuery.vertices(qryOffset, limit);
 
                     getVerticesFromIndexQueryResult(idxQueryResult, entityVertices);
 
+                    endMetricRecord(metric);
+
                     isLastResultPage = entityVertices.size() < limit;
 
+                    queryVertices.clear();
+                    queryVertices.addAll(entityVertices);
+
+                    metric = startMetricRecord("filter");
+
                     // Do in-memory filtering before the graph query
                     CollectionUtils.filter(entityVertices, inMemoryPredicate);
 
                     if (graphQueryPredicate != null) {
                         CollectionUtils.filter(entityVertices, graphQueryPredicate);
                     }
+
+                    endMetricRecord(metric);
                 } else {
+                    MetricRecorder metric = startMetricRecord("graphQuery");
+
                     Iterator<AtlasVertex> queryResult = graphQuery.vertices(qryOffset, limit).iterator();
 
                     getVertices(queryResult, entityVertices);
 
+                    endMetricRecord(metric);
+
                     isLastResultPage = entityVertices.size() < limit;
+
+                    queryVertices.clear();
+                    queryVertices.addAll(entityVertices);
                 }
 
+                recordProfileCounts(queryVertices.size(), entityVertices.size());
+
                 super.filter(entityVertices);
 
                 resultIdx = collectResultVertices(ret, startIdx, limit, resultIdx, entityVertices);
 
+                if (ret.size() == limit) {
+                    // position of the last entry returned in query results; the next page continues after this
+                    int lastIdx = queryVertices.lastIndexOf(ret.get(ret.size() - 1));
+
+                    if (lastIdx != -1 && (!isLastResultPage || lastIdx < queryVertices.size() - 1)) {
+                        context.setNextContinuationOffset(qryOffset + lastIdx + 1);
+                    }
+                }
+
                 if (isLastResultPage) {
                     break;
                 }
@@ -314,6 +364,9 @@ public class EntitySearchProcessor extends SearchProcessor {
             LOG.debug("==> EntitySearchProcessor.filter({})", entityVertices.size());
         }
 
+        MetricRecorder metric         = startMetricRecord("filter");
+        int            candidateCount = entityVertices.size();
+
         // Since we already have the entity vertices, a in-memory filter will be faster than fetching the same
         // vertices again with the required filtering
         if (filterGraphQueryPredicate != null) {
@@ -321,6 +374,10 @@ public class EntitySearchProcessor extends SearchProcessor {
             CollectionUtils.filter(entityVertices, filterGraphQueryPredicate);
         }
 
+        endMetricRecord(metric);
+
+        recordProfileCounts(candidateCount, entityVertices.size());
+
         super.filter(entityVertices);
 
         if (LOG.isDebugEnabled()) {
@@ -0,0 +1,319 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.apache.atlas.model.discovery.SearchParameters.FilterCriteria;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.patches.TypeHierarchyPatch;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
+import org.apache.atlas.utils.AtlasPerfMetrics.MetricRecorder;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.atlas.model.discovery.SearchParameters.FACET_CLASSIFICATION;
+import static org.apache.atlas.model.discovery.SearchParameters.FACET_TYPE_NAME;
+
+/**
+ * Counts values of facets requested in the search parameters. Facets are computed only when the search can be evaluated
+ * entirely by the index: typeName given; no query text, term or classification; only indexed attributes in entity filters.
+ *  - typeName and attribute facets are counted by faceting in the index backend, without reading the matching vertices.
+ *    Attributes tokenized by the index, like string attributes, are not faceted as their tokens are not their values
+ *  - classification facet is counted from __traitNames and __propagatedTraitNames of the matching entity vertices, for
+ *    searches matching at most atlas.search.facets.max.entities entities
+ * Facets that are not computed are reported, with the reason, in getWithheldFacets().
+ */
+public class FacetSearchProcessor extends SearchProcessor {
+    private static final Logger LOG = LoggerFactory.getLogger(FacetSearchProcessor.class);
+
+    private static final int MAX_FACET_VALUES   = AtlasConfiguration.SEARCH_FACETS_MAX_VALUES.getInt();
+    private static final int MAX_FACET_ENTITIES = AtlasConfiguration.SEARCH_FACETS_MAX_ENTITIES.getInt();
+
+    private final boolean             typeNameFacet;
+    private final boolean             classificationFacet;
+    private final Map<String, String> attributeFacetKeys = new LinkedHashMap<>(); // facet name -> vertex property name
+    private final Map<String, String> withheldFacets     = new LinkedHashMap<>(); // facet name -> reason
+    private final String              entityIndexQuery;
+
+    public FacetSearchProcessor(SearchContext context) {
+        super(context);
+
+        final SearchParameters searchParameters = context.getSearchParameters();
+        final Set<String>      facets           = searchParameters.getFacets();
+
+        if (isIndexOnlySearch()) {
+            final AtlasEntityType entityType = context.getEntityType();
+
+            for (String facet : facets) {
+                if (FACET_TYPE_NAME.equals(facet) || FACET_CLASSIFICATION.equals(facet)) {
+                    continue;
+                }
+
+                AtlasAttribute attribute = entityType.getAttribute(facet);
+
+                if (attribute != null && context.getIndexedKeys() != null && context.getIndexedKeys().contains(attribute.getVertexPropertyName())) {
+                    attributeFacetKeys.put(facet, attribute.getVertexPropertyName());
+                } else {
+                    withheldFacets.put(facet, "not an indexed attribute of type " + entityType.getTypeName());
+                }
+            }
+
+            typeNameFacet       = facets.contains(FACET_TYPE_NAME);
+            classificationFacet = facets.contains(FACET_CLASSIFICATION);
+        } else {
+            typeNameFacet       = false;
+            classificationFacet = false;
+
+            for (String facet : facets) {
+                withheldFacets.put(facet, "search can't be evaluated by the index alone");
+            }
+        }
+
+        entityIndexQuery = (typeNameFacet || classificationFacet || !attributeFacetKeys.isEmpty()) ? getEntityIndexQuery() : null;
+
+        if (profile != null) {
+            profile.setIndexQuery(entityIndexQuery);
+        }
+    }
+
+    @Override
+    public List<AtlasVertex> execute() {
+        // facets are counted by the index, or from the vertices matching the index query
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return for each facet that could be computed, count of entities by facet value; facets that couldn't be computed are not included
+     */
+    public Map<String, Map<String, Long>> getFacets() {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> FacetSearchProcessor.getFacets({})", context);
+        }
+
+        Map<String, Map<String, Long>> ret    = new LinkedHashMap<>();
+        MetricRecorder                 metric = startMetricRecord("indexQuery");
+
+        if (typeNameFacet) {
+            // type-names are tokenized by the index; each type-name is a single token, which is mapped back to the name
+            Map<String, Map<String, Long>> facets = getVertexFacets(Collections.singleton(Constants.TYPE_NAME_PROPERTY_KEY), true);
+            Map<String, Long>              counts = facets != null ? facets.get(Constants.TYPE_NAME_PROPERTY_KEY) : null;
+
+            if (counts != null) {
+                Collection<String> typeNames = context.getSearchParameters().getIncludeSubTypes() ? context.getEntityType().getTypeAndAllSubTypes() : Collections.singleton(context.getEntityType().getTypeName());
+
+                ret.put(FACET_TYPE_NAME, toTypeNameCounts(counts, typeNames));
+            } else {
+                withheldFacets.put(FACET_TYPE_NAME, "index backend does not support facets");
+            }
+        }
+
+        if (!attributeFacetKeys.isEmpty()) {
+            Map<String, Map<String, Long>> facets = getVertexFacets(attributeFacetKeys.values(), false);
+
+            for (Map.Entry<String, String> entry : attributeFacetKeys.entrySet()) {
+                Map<String, Long> counts = facets != null ? facets.get(entry.getValue()) : null;
+
+                if (counts != null) {
+                    ret.put(entry.getKey(), counts);
+                } else {
+                    withheldFacets.put(entry.getKey(), facets == null ? "index backend does not support facets" : "attribute is tokenized by the index");
+                }
+            }
+        }
+
+        endMetricRecord(metric);
+
+        if (classificationFacet) {
+            metric = startMetricRecord("classificationFacet");
+
+            Map<String, Long> counts = getClassificationCounts();
+
+            if (counts != null) {
+                ret.put(FACET_CLASSIFICATION, counts);
+            } else {
+                withheldFacets.put(FACET_CLASSIFICATION, "search matches more than " + MAX_FACET_ENTITIES + " entities");
+            }
+
+            endMetricRecord(metric);
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== FacetSearchProcessor.getFacets(): ret.size()={}, withheldFacets={}", ret.size(), withheldFacets);
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return requested facets that are not computed, with the reason for each; complete only after getFacets()
+     */
+    public Map<String, String> getWithheldFacets() {
+        return withheldFacets;
+    }
+
+    // index tokenizes and lower-cases values of type-name; map these back to names of the types
+    static Map<String, Long> toTypeNameCounts(Map<String, Long> counts, Collection<String> typeNames) {
+        Map<String, String> lowerCaseNames = new HashMap<>();
+
+        for (String typeName : typeNames) {
+            lowerCaseNames.put(typeName.toLowerCase(), typeName);
+        }
+
+        Map<String, Long> ret = new LinkedHashMap<>();
+
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            String typeName = lowerCaseNames.get(entry.getKey().toLowerCase());
+
+            if (typeName != null) {
+                ret.put(typeName, entry.getValue());
+            }
+        }
+
+        return ret;
+    }
+
+    // counts, by classification name, entities having the classification - directly or by propagation; at most limit names, with the highest counts
+    static Map<String, Long> toClassificationCounts(Collection<AtlasVertex> vertices, int limit) {
+        Map<String, Long> counts = new HashMap<>();
+
+        for (AtlasVertex vertex : vertices) {
+            Set<String>        classificationNames  = new HashSet<>();
+            Collection<String> traitNames           = vertex.getPropertyValues(Constants.TRAIT_NAMES_PROPERTY_KEY, String.class);
+            Collection<String> propagatedTraitNames = vertex.getPropertyValues(Constants.PROPAGATED_TRAIT_NAMES_PROPERTY_KEY, String.class);
+
+            if (traitNames != null) {
+                classificationNames.addAll(traitNames);
+            }
+
+            if (propagatedTraitNames != null) {
+                classificationNames.addAll(propagatedTraitNames);
+            }
+
+            for (String classificationName : classificationNames) {
+                counts.merge(classificationName, 1L, Long::sum);
+            }
+        }
+
+        Map<String, Long> ret = new LinkedHashMap<>();
+
+        counts.entrySet().stream()
+              .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+              .limit(limit)
+              .forEach(e -> ret.put(e.getKey(), e.getValue()));
+
+        return ret;
+    }
+
+    // classification names of entities are not in the index; these are read from vertices matching the index query
+    private Map<String, Long> getClassificationCounts() {
+        AtlasIndexQuery                  indexQuery = context.getGraph().indexQuery(Constants.VERTEX_INDEX, entityIndexQuery);
+        Iterator<AtlasIndexQuery.Result> results    = indexQuery.vertices(0, MAX_FACET_ENTITIES + 1);
+        List<AtlasVertex>                vertices   = new ArrayList<>();
+
+        while (results.hasNext()) {
+            vertices.add(results.next().getVertex());
+        }
+
+        if (vertices.size() > MAX_FACET_ENTITIES) {
+            LOG.warn("classification facet not computed: search matches more than {} entities; query {}", MAX_FACET_ENTITIES, entityIndexQuery);
+
+            return null;
+        }
+
+        return toClassificationCounts(vertices, MAX_FACET_VALUES);
+    }
+
+    private Map<String, Map<String, Long>> getVertexFacets(Collection<String> propertyKeys, boolean includeTokenized) {
+        AtlasIndexQuery                indexQuery = context.getGraph().indexQuery(Constants.VERTEX_INDEX, entityIndexQuery);
+        Map<String, Map<String, Long>> ret        = indexQuery.vertexFacets(propertyKeys, includeTokenized, MAX_FACET_VALUES);
+
+        if (ret == null) {
+            LOG.warn("index backend did not return facets for query {}", entityIndexQuery);
+        }
+
+        return ret;
+    }
+
+    private boolean isIndexOnlySearch() {
+        final SearchParameters searchParameters = context.getSearchParameters();
+        final AtlasEntityType  entityType       = context.getEntityType();
+
+        if (entityType == null || context.getClassificationType() != null || StringUtils.isNotEmpty(searchParameters.getQuery()) || StringUtils.isNotEmpty(searchParameters.getTermName())) {
+            return false;
+        }
+
+        final FilterCriteria filterCriteria  = searchParameters.getEntityFilters();
+        final Set<String>    indexAttributes = new HashSet<>();
+        final Set<String>    graphAttributes = new HashSet<>();
+        final Set<String>    allAttributes   = new HashSet<>();
+
+        processSearchAttributes(entityType, filterCriteria, indexAttributes, graphAttributes, allAttributes);
+
+        return CollectionUtils.isEmpty(graphAttributes) && canApplyIndexFilter(entityType, filterCriteria, false);
+    }
+
+    private String getEntityIndexQuery() {
+        final SearchParameters searchParameters      = context.getSearchParameters();
+        final AtlasEntityType  entityType            = context.getEntityType();
+        final FilterCriteria   filterCriteria        = searchParameters.getEntityFilters();
+        final String           typeAndSubTypesQryStr = searchParameters.getIncludeSubTypes() ? entityType.getTypeAndAllSubTypesQryStr() : entityType.getTypeQryStr();
+        final StringBuilder    indexQuery            = new StringBuilder();
+
+        if (searchParameters.getIncludeSubTypes() && typeAndSubTypesQryStr.length() > MAX_QUERY_STR_LENGTH_TYPES && TypeHierarchyPatch.isTypeHierarchyComplete()) {
+            constructTypeHierarchyTestQuery(indexQuery, entityType.getTypeQryStr());
+        } else {
+            constructTypeTestQuery(indexQuery, typeAndSubTypesQryStr);
+        }
+
+        if (filterCriteria != null) {
+            Set<String> indexAttributes = new HashSet<>();
+
+            processSearchAttributes(entityType, filterCriteria, indexAttributes, new HashSet<>(), new HashSet<>());
+
+            constructFilterQuery(indexQuery, entityType, filterCriteria, indexAttributes);
+        }
+
+        if (searchParameters.getExcludeDeletedEntities()) {
+            constructStateTestQuery(indexQuery);
+        }
+
+        String ret = STRAY_AND_PATTERN.matcher(indexQuery).replaceAll(")");
+
+        ret = STRAY_OR_PATTERN.matcher(ret).replaceAll(")");
+        ret = STRAY_ELIPSIS_PATTERN.matcher(ret).replaceAll("");
+
+        return ret;
+    }
+}
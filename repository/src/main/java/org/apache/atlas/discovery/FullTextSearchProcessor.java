@@ -23,6 +23,7 @@ import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.utils.AtlasPerfMetrics.MetricRecorder;
 import org.apache.atlas.utils.AtlasPerfTracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -81,6 +82,10 @@ public class FullTextSearchProcessor extends SearchProcessor {
         queryString.append(")");
 
         indexQuery = context.getGraph().indexQuery(Constants.FULLTEXT_INDEX, queryString.toString());
+
+        if (profile != null) {
+            profile.setIndexQuery(queryString.toString());
+        }
     }
 
     @Override
@@ -120,6 +125,7 @@ public class FullTextSearchProcessor extends SearchProcessor {
                     break;
                 }
 
+                MetricRecorder                   metric         = startMetricRecord("indexQuery");
                 Iterator<AtlasIndexQuery.Result> idxQueryResult = indexQuery.vertices(qryOffset, limit);
 
                 final boolean isLastResultPage;
@@ -146,8 +152,12 @@ public class FullTextSearchProcessor extends SearchProcessor {
                     entityVertices.add(vertex);
                 }
 
+                endMetricRecord(metric);
+
                 isLastResultPage = resultCount < limit;
 
+                recordProfileCounts(resultCount, entityVertices.size());
+
                 super.filter(entityVertices);
 
                 resultIdx = collectResultVertices(ret, startIdx, limit, resultIdx, entityVertices);
@@ -20,6 +20,7 @@ package org.apache.atlas.discovery;
 
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.discovery.AtlasSearchProfile;
 import org.apache.atlas.model.discovery.SearchParameters;
 import org.apache.atlas.model.discovery.SearchParameters.FilterCriteria;
 import org.apache.atlas.model.instance.AtlasEntity;
@@ -36,11 +37,14 @@ import org.apache.atlas.type.AtlasClassificationType;
 import org.apache.atlas.type.AtlasEntityType;
 import org.apache.atlas.type.AtlasStructType;
 import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
+import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -63,13 +67,18 @@ public class SearchContext {
     private final Set<String>             entityAttributes;
     private final AtlasEntityType         entityType;
     private final AtlasClassificationType classificationType;
+    private final int                     continuationOffset;
+    private final AtlasSearchProfile      profile;
     private       SearchProcessor         searchProcessor;
     private       boolean                 terminateSearch = false;
+    private       int                     nextContinuationOffset = -1;
 
     public final static AtlasClassificationType MATCH_ALL_WILDCARD_CLASSIFICATION = new AtlasClassificationType(new AtlasClassificationDef(WILDCARD_CLASSIFICATIONS));
     public final static AtlasClassificationType MATCH_ALL_CLASSIFIED              = new AtlasClassificationType(new AtlasClassificationDef(ALL_CLASSIFICATIONS));
     public final static AtlasClassificationType MATCH_ALL_NOT_CLASSIFIED          = new AtlasClassificationType(new AtlasClassificationDef(NO_CLASSIFICATIONS));
 
+    private static final String CONTINUATION_TOKEN_VERSION = "1";
+
     public SearchContext(SearchParameters searchParameters, AtlasTypeRegistry typeRegistry, AtlasGraph graph, Set<String> indexedKeys) throws AtlasBaseException {
         String classificationName = searchParameters.getClassification();
 
@@ -80,6 +89,8 @@ public class SearchContext {
         this.entityAttributes   = new HashSet<>();
         this.entityType         = typeRegistry.getEntityTypeByName(searchParameters.getTypeName());
         this.classificationType = getClassificationType(classificationName);
+        this.continuationOffset = parseContinuationToken(searchParameters);
+        this.profile            = searchParameters.getProfile() ? new AtlasSearchProfile() : null;
 
         // Validate if the type name exists
         if (StringUtils.isNotEmpty(searchParameters.getTypeName()) && entityType == null) {
@@ -119,6 +130,11 @@ public class SearchContext {
         if (needEntityProcessor()) {
             addProcessor(new EntitySearchProcessor(this));
         }
+
+        // continuation tokens are issued only by EntitySearchProcessor, when it runs the query
+        if (continuationOffset != -1 && !(searchProcessor instanceof EntitySearchProcessor)) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "continuationToken is not valid for this search");
+        }
     }
 
     public SearchParameters getSearchParameters() { return searchParameters; }
@@ -137,10 +153,26 @@ public class SearchContext {
 
     public SearchProcessor getSearchProcessor() { return searchProcessor; }
 
+    public AtlasSearchProfile getProfile() { return profile; }
+
     public boolean terminateSearch() { return terminateSearch; }
 
     public void terminateSearch(boolean terminateSearch) { this.terminateSearch = terminateSearch; }
 
+    /**
+     * @return position in the query results to continue the search from, as given in continuationToken; -1 if no token
+     */
+    public int getContinuationOffset() { return continuationOffset; }
+
+    public void setNextContinuationOffset(int nextContinuationOffset) { this.nextContinuationOffset = nextContinuationOffset; }
+
+    /**
+     * @return token to continue the search after the results returned; null if there are no more results
+     */
+    public String getNextContinuationToken() {
+        return nextContinuationOffset != -1 ? toContinuationToken(searchParameters, nextContinuationOffset) : null;
+    }
+
     public StringBuilder toString(StringBuilder sb) {
         if (sb == null) {
             sb = new StringBuilder();
@@ -172,6 +204,54 @@ public class SearchContext {
         return entityType != null;
     }
 
+    /**
+     * Token format: base64(version:offset:hash-of-search-parameters). The hash ensures that the token is used only with
+     * the search it was issued for; offset and limit are excluded from the hash, so that page size can change.
+     */
+    static String toContinuationToken(SearchParameters searchParameters, int offset) {
+        String token = CONTINUATION_TOKEN_VERSION + ":" + offset + ":" + getContinuationHash(searchParameters);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static int parseContinuationToken(SearchParameters searchParameters) throws AtlasBaseException {
+        String token = searchParameters.getContinuationToken();
+
+        if (StringUtils.isEmpty(token)) {
+            return -1;
+        }
+
+        int ret = -1;
+
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+
+            if (parts.length == 3 && CONTINUATION_TOKEN_VERSION.equals(parts[0]) && parts[2].equals(getContinuationHash(searchParameters))) {
+                ret = Integer.parseInt(parts[1]);
+            }
+        } catch (IllegalArgumentException excp) { // includes NumberFormatException
+            ret = -1;
+        }
+
+        if (ret < 0) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "continuationToken is not valid for this search");
+        }
+
+        return ret;
+    }
+
+    private static String getContinuationHash(SearchParameters searchParameters) {
+        SearchParameters params = AtlasType.fromJson(AtlasType.toJson(searchParameters), SearchParameters.class);
+
+        params.setOffset(0);
+        params.setLimit(0);
+        params.setContinuationToken(null);
+        params.setProfile(false);
+        params.setFacets(null);
+
+        return Integer.toHexString(AtlasType.toJson(params).hashCode());
+    }
+
     private void validateAttributes(final AtlasStructType structType, final FilterCriteria filterCriteria) throws AtlasBaseException {
         if (filterCriteria != null) {
             FilterCriteria.Condition condition = filterCriteria.getCondition();
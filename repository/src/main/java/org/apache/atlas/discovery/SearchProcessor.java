@@ -19,7 +19,9 @@ package org.apache.atlas.discovery;
 
 import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasException;
+import org.apache.atlas.RequestContext;
 import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.discovery.AtlasSearchProfile.ProcessorProfile;
 import org.apache.atlas.model.discovery.SearchParameters;
 import org.apache.atlas.model.discovery.SearchParameters.FilterCriteria;
 import org.apache.atlas.model.discovery.SearchParameters.FilterCriteria.Condition;
@@ -37,6 +39,7 @@ import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
 import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.util.AtlasGremlinQueryProvider;
 import org.apache.atlas.util.SearchPredicateUtil.*;
+import org.apache.atlas.utils.AtlasPerfMetrics.MetricRecorder;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.Predicate;
 import org.apache.commons.collections.PredicateUtils;
@@ -122,13 +125,15 @@ public abstract class SearchProcessor {
         OPERATOR_PREDICATE_MAP.put(SearchParameters.Operator.NOT_NULL, getNotNullPredicateGenerator());
     }
 
-    protected final SearchContext   context;
-    protected       SearchProcessor nextProcessor;
-    protected       Predicate       inMemoryPredicate;
+    protected final SearchContext    context;
+    protected final ProcessorProfile profile;
+    protected       SearchProcessor  nextProcessor;
+    protected       Predicate        inMemoryPredicate;
 
 
     protected SearchProcessor(SearchContext context) {
         this.context = context;
+        this.profile = context.getProfile() != null ? context.getProfile().addProcessor(getClass().getSimpleName()) : null;
     }
 
     public void addProcessor(SearchProcessor processor) {
@@ -166,6 +171,21 @@ public abstract class SearchProcessor {
     }
 
 
+    protected MetricRecorder startMetricRecord(String stage) {
+        return RequestContext.get().startMetricRecord(getClass().getSimpleName() + "." + stage);
+    }
+
+    protected void endMetricRecord(MetricRecorder recorder) {
+        RequestContext.get().endMetricRecord(recorder);
+    }
+
+    protected void recordProfileCounts(int candidateCount, int resultCount) {
+        if (profile != null) {
+            profile.addCandidates(candidateCount);
+            profile.addResults(resultCount);
+        }
+    }
+
     protected void processSearchAttributes(AtlasStructType structType, FilterCriteria filterCriteria, Set<String> indexFiltered, Set<String> graphFiltered, Set<String> allAttributes) {
         if (structType == null || filterCriteria == null) {
             return;
@@ -260,6 +280,17 @@ public abstract class SearchProcessor {
         }
     }
 
+    // matches instances of the type and all its sub-types, with a query whose length doesn't depend on the number of sub-types
+    protected void constructTypeHierarchyTestQuery(StringBuilder indexQuery, String typeQryStr) {
+        if (StringUtils.isNotEmpty(typeQryStr)) {
+            if (indexQuery.length() > 0) {
+                indexQuery.append(AND_STR);
+            }
+
+            indexQuery.append(INDEX_SEARCH_PREFIX + "\"").append(Constants.TYPE_HIERARCHY_PROPERTY_KEY).append("\":").append(typeQryStr);
+        }
+    }
+
     protected void constructFilterQuery(StringBuilder indexQuery, AtlasStructType type, FilterCriteria filterCriteria, Set<String> indexAttributes) {
         if (filterCriteria != null) {
             if (LOG.isDebugEnabled()) {
@@ -0,0 +1,187 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.authorize.AtlasAuthorizationUtils;
+import org.apache.atlas.listener.ChangedTypeDefs;
+import org.apache.atlas.listener.TypeDefChangeListener;
+import org.apache.atlas.model.discovery.AtlasSearchResult;
+import org.apache.atlas.model.discovery.AtlasSearchResult.AtlasQueryType;
+import org.apache.atlas.utils.AtlasCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of basic/DSL search results. Results are scrubbed by the authorizer for the requesting user, hence the
+ * cache key includes the user, groups and client IP address along with the normalized query.
+ *
+ * Any entity, classification or type change invalidates all entries: the cache keeps a generation number, which is
+ * incremented on every change and again after the changing transaction completes; entries computed in an earlier
+ * generation are never returned. This ensures that a search running concurrently with a change doesn't leave behind
+ * an entry with stale results.
+ */
+@Component
+public class SearchResultCache implements TypeDefChangeListener {
+    private static final Logger LOG = LoggerFactory.getLogger(SearchResultCache.class);
+
+    private static final ThreadLocal<Boolean> invalidationPending = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final boolean                        isEnabled;
+    private final AtlasCache<String, CacheEntry> cache;
+    private final AtomicLong                     generation = new AtomicLong();
+
+    @Inject
+    public SearchResultCache() {
+        this(AtlasConfiguration.SEARCH_RESULT_CACHE_ENABLED.getBoolean(),
+             AtlasConfiguration.SEARCH_RESULT_CACHE_MAX_SIZE.getInt(),
+             AtlasConfiguration.SEARCH_RESULT_CACHE_TTL_SECONDS.getLong());
+    }
+
+    public SearchResultCache(boolean isEnabled, int maxSize, long ttlSeconds) {
+        this.isEnabled = isEnabled && maxSize > 0 && ttlSeconds > 0;
+        this.cache     = this.isEnabled ? AtlasCache.<String, CacheEntry>newBuilder().name("SearchResultCache")
+                                                                                     .maximumSize(maxSize)
+                                                                                     .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                                                                                     .build()
+                                        : null;
+
+        LOG.info("SearchResultCache: enabled={}, maxSize={}, ttlSeconds={}", this.isEnabled, maxSize, ttlSeconds);
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * @return key for the given query and the authorization context of the current user; null if cache is disabled
+     */
+    public String getKey(AtlasQueryType queryType, String normalizedQuery) {
+        if (!isEnabled) {
+            return null;
+        }
+
+        return getKey(queryType, normalizedQuery, AtlasAuthorizationUtils.getCurrentUserName(),
+                      AtlasAuthorizationUtils.getCurrentUserGroups(), RequestContext.get().getClientIPAddress());
+    }
+
+    public String getKey(AtlasQueryType queryType, String normalizedQuery, String userName, Set<String> userGroups, String clientIPAddress) {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(queryType).append('\u0000')
+          .append(userName).append('\u0000')
+          .append(userGroups == null ? null : new TreeSet<>(userGroups)).append('\u0000')
+          .append(clientIPAddress).append('\u0000')
+          .append(normalizedQuery);
+
+        return sb.toString();
+    }
+
+    /**
+     * @return generation to be passed to put() for a result computed after this call
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public AtlasSearchResult get(String key) {
+        AtlasSearchResult ret = null;
+
+        if (isEnabled && key != null) {
+            CacheEntry entry = cache.get(key);
+
+            if (entry != null && entry.generation == generation.get()) {
+                ret = entry.result;
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("SearchResultCache.get({}): hit={}", key, ret != null);
+        }
+
+        return ret;
+    }
+
+    public void put(String key, long generation, AtlasSearchResult result) {
+        if (isEnabled && key != null && result != null && generation == this.generation.get()) {
+            cache.put(key, new CacheEntry(generation, result));
+        }
+    }
+
+    /**
+     * Called on entity/classification changes, from within the transaction making the change. Entries are invalidated
+     * immediately and again once the transaction completes, so that results computed from the pre-commit state are
+     * discarded as well.
+     */
+    public void onChange() {
+        if (!isEnabled) {
+            return;
+        }
+
+        invalidateAll();
+
+        if (!invalidationPending.get()) {
+            invalidationPending.set(Boolean.TRUE);
+
+            new GraphTransactionInterceptor.PostTransactionHook() {
+                @Override
+                public void onComplete(boolean isSuccess) {
+                    invalidationPending.remove();
+
+                    invalidateAll();
+                }
+            };
+        }
+    }
+
+    @Override
+    public void onChange(ChangedTypeDefs changedTypeDefs) {
+        invalidateAll();
+    }
+
+    public void invalidateAll() {
+        if (isEnabled) {
+            generation.incrementAndGet();
+
+            cache.invalidateAll();
+        }
+    }
+
+    public AtlasCache.CacheStats getStats() {
+        return isEnabled ? cache.getStats() : null;
+    }
+
+    private static class CacheEntry {
+        final long              generation;
+        final AtlasSearchResult result;
+
+        CacheEntry(long generation, AtlasSearchResult result) {
+            this.generation = generation;
+            this.result     = result;
+        }
+    }
+}
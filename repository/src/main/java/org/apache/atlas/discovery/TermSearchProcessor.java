@@ -18,6 +18,7 @@
 package org.apache.atlas.discovery;
 
 import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.utils.AtlasPerfMetrics.MetricRecorder;
 import org.apache.atlas.utils.AtlasPerfTracer;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
@@ -63,6 +64,8 @@ public class TermSearchProcessor extends SearchProcessor {
                 final int               limit    = context.getSearchParameters().getLimit();
                 final List<AtlasVertex> tmpList  = new ArrayList<>(assignedEntities);
 
+                recordProfileCounts(assignedEntities.size(), tmpList.size());
+
                 super.filter(tmpList);
 
                 collectResultVertices(ret, startIdx, limit, 0, tmpList);
@@ -84,6 +87,9 @@ public class TermSearchProcessor extends SearchProcessor {
             LOG.debug("==> TermSearchProcessor.filter({})", entityVertices.size());
         }
 
+        MetricRecorder metric         = startMetricRecord("filter");
+        int            candidateCount = entityVertices.size();
+
         if (CollectionUtils.isNotEmpty(entityVertices)) {
             if (CollectionUtils.isEmpty(assignedEntities)) {
                 entityVertices.clear();
@@ -104,6 +110,10 @@ public class TermSearchProcessor extends SearchProcessor {
             }
         }
 
+        endMetricRecord(metric);
+
+        recordProfileCounts(candidateCount, entityVertices.size());
+
         super.filter(entityVertices);
 
         if (LOG.isDebugEnabled()) {
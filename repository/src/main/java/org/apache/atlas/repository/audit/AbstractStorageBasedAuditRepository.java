@@ -48,6 +48,7 @@ public abstract class AbstractStorageBasedAuditRepository implements Service, En
   public    static final String CONFIG_PREFIX                      = "atlas.audit";
   public    static final String CONFIG_PERSIST_ENTITY_DEFINITION   = CONFIG_PREFIX + ".persistEntityDefinition";
   protected static final String FIELD_SEPARATOR                    = ":";
+  protected static final String TAG_CHANGE_ACTION_PREFIX           = "CLASSIFICATION_";
 
   protected static Configuration      APPLICATION_PROPERTIES       = null;
   protected Map<String, List<String>> auditExcludedAttributesCache = new HashMap<>();
@@ -155,6 +156,13 @@ public abstract class AbstractStorageBasedAuditRepository implements Service, En
     APPLICATION_PROPERTIES = config;
   }
 
+  /**
+   * @return true if the event adds/updates/deletes a classification directly attached to the entity
+   */
+  protected static boolean isTagChangeEvent(EntityAuditEventV2 event) {
+    return event.getAction() != null && event.getAction().name().startsWith(TAG_CHANGE_ACTION_PREFIX);
+  }
+
   protected byte[] getKey(String id, Long ts, int index) {
     assert id != null  : "entity id can't be null";
     assert ts != null  : "timestamp can't be null";
@@ -30,7 +30,6 @@ import org.apache.atlas.EntityAuditEvent;
 import org.apache.atlas.annotation.ConditionalOnAtlasProperty;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.audit.EntityAuditEventV2;
-import org.apache.commons.lang.NotImplementedException;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,6 +37,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -80,6 +80,23 @@ public class CassandraBasedAuditRepository extends AbstractStorageBasedAuditRepo
           + "PRIMARY KEY (entityid, created)"
           + ") WITH CLUSTERING ORDER BY (created DESC);";
 
+  // time-ordered index of classification changes, partitioned by day of the change
+  private static final String TAG_CHANGES_TABLE_SCHEMA =
+      "CREATE TABLE IF NOT EXISTS tag_changes(day bigint, "
+          + "created bigint, "
+          + "entityid text, "
+          + "PRIMARY KEY ((day), created, entityid)"
+          + ");";
+
+  // time from which tag_changes is populated; recorded once, when the table is first used
+  private static final String TAG_CHANGES_START_TABLE_SCHEMA =
+      "CREATE TABLE IF NOT EXISTS tag_changes_start(id int, "
+          + "created bigint, "
+          + "PRIMARY KEY (id)"
+          + ");";
+
+  private static final long TAG_CHANGES_BUCKET_MS = 24L * 60 * 60 * 1000;
+
   private static final String ENTITYID = "entityid";
   private static final String CREATED = "created";
   private static final String ACTION = "action";
@@ -90,6 +107,10 @@ public class CassandraBasedAuditRepository extends AbstractStorageBasedAuditRepo
   private static final String INSERT_STATEMENT_TEMPLATE = "INSERT INTO audit (entityid,created,action,user,detail,entity) VALUES (?,?,?,?,?,?)";
   private static final String SELECT_STATEMENT_TEMPLATE = "select * from audit where entityid=? order by created desc limit 10;";
   private static final String SELECT_DATE_STATEMENT_TEMPLATE = "select * from audit where entityid=? and created<=? order by created desc limit 10;";
+  private static final String INSERT_TAG_CHANGE_STATEMENT_TEMPLATE = "INSERT INTO tag_changes (day,created,entityid) VALUES (?,?,?)";
+  private static final String SELECT_TAG_CHANGES_STATEMENT_TEMPLATE = "select entityid from tag_changes where day=? and created>=? and created<?;";
+  private static final String INSERT_TAG_CHANGES_START_STATEMENT_TEMPLATE = "INSERT INTO tag_changes_start (id,created) VALUES (0,?) IF NOT EXISTS";
+  private static final String SELECT_TAG_CHANGES_START_STATEMENT_TEMPLATE = "select created from tag_changes_start where id=0;";
 
 
   private String keyspace;
@@ -102,6 +123,9 @@ public class CassandraBasedAuditRepository extends AbstractStorageBasedAuditRepo
   private PreparedStatement insertStatement;
   private PreparedStatement selectStatement;
   private PreparedStatement selectDateStatement;
+  private PreparedStatement insertTagChangeStatement;
+  private PreparedStatement selectTagChangesStatement;
+  private long tagChangesStartTime;
 
   @Override
   public void putEventsV1(List<EntityAuditEvent> events) throws AtlasException {
@@ -120,6 +144,9 @@ public class CassandraBasedAuditRepository extends AbstractStorageBasedAuditRepo
     events.forEach(event -> batch.add(stmt.bind(event.getEntityId(), event.getTimestamp(),
         event.getAction().toString(), event.getUser(), event.getDetails(),
         (persistEntityDefinition ? event.getEntityDefinitionString() : null))));
+    events.stream().filter(AbstractStorageBasedAuditRepository::isTagChangeEvent)
+        .forEach(event -> batch.add(new BoundStatement(insertTagChangeStatement).bind(
+            getTagChangesBucket(event.getTimestamp()), event.getTimestamp(), event.getEntityId())));
     cassSession.execute(batch);
   }
 
@@ -189,9 +216,50 @@ public class CassandraBasedAuditRepository extends AbstractStorageBasedAuditRepo
     return entityResults;
   }
 
+  /**
+   * Entities with classification add/update/delete events in [fromTimestamp, toTimestamp), read from the tag_changes
+   * table: each day partition that overlaps the given range is queried directly, so no partition-key scan is needed.
+   * Only days from the one before tag_changes started to be populated, to the one after today, can have changes -
+   * hence other days are not queried.
+   */
   @Override
   public Set<String> getEntitiesWithTagChanges(long fromTimestamp, long toTimestamp) throws AtlasBaseException {
-    throw new NotImplementedException();
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Listing tag changes for fromTimestamp {}, toTimestamp {}", fromTimestamp, toTimestamp);
+    }
+
+    Set<String> ret = new HashSet<>();
+
+    if (fromTimestamp >= toTimestamp) {
+      return ret;
+    }
+
+    long[] days = getTagChangesBuckets(fromTimestamp, toTimestamp, tagChangesStartTime, System.currentTimeMillis());
+
+    for (long day = days[0]; day <= days[1]; day++) {
+      for (Row row : cassSession.execute(new BoundStatement(selectTagChangesStatement).bind(day, fromTimestamp, toTimestamp))) {
+        ret.add(row.getString(ENTITYID));
+      }
+    }
+
+    return ret;
+  }
+
+  @VisibleForTesting
+  static long getTagChangesBucket(long timestamp) {
+    return Math.floorDiv(timestamp, TAG_CHANGES_BUCKET_MS);
+  }
+
+  /**
+   * @return first and last day partitions of tag_changes to query for changes in [fromTimestamp, toTimestamp); a day of
+   *         margin on either end allows for clock skew between servers
+   */
+  @VisibleForTesting
+  static long[] getTagChangesBuckets(long fromTimestamp, long toTimestamp, long startTime, long now) {
+    long fromDay = Math.max(getTagChangesBucket(fromTimestamp), getTagChangesBucket(startTime) - 1);
+    long toDay = Math.min(getTagChangesBucket(toTimestamp - 1), getTagChangesBucket(now) + 1);
+
+    return new long[] { fromDay, toDay };
   }
 
   @Override
@@ -233,9 +301,22 @@ public class CassandraBasedAuditRepository extends AbstractStorageBasedAuditRepo
         cassSession = cluster.connect(keyspace);
       }
 
+      // created separately, to add the table to existing keyspaces as well
+      cassSession.execute(TAG_CHANGES_TABLE_SCHEMA);
+      cassSession.execute(TAG_CHANGES_START_TABLE_SCHEMA);
+      cassSession.execute(cassSession.prepare(INSERT_TAG_CHANGES_START_STATEMENT_TEMPLATE).bind(System.currentTimeMillis()));
+
+      Row startRow = cassSession.execute(SELECT_TAG_CHANGES_START_STATEMENT_TEMPLATE).one();
+
+      tagChangesStartTime = startRow != null ? startRow.getLong(CREATED) : 0;
+
+      LOG.info("tag_changes is populated from {}", tagChangesStartTime);
+
       insertStatement = cassSession.prepare(INSERT_STATEMENT_TEMPLATE.replace("KEYSPACE", keyspace));
       selectStatement = cassSession.prepare(SELECT_STATEMENT_TEMPLATE.replace("KEYSPACE", keyspace));
       selectDateStatement = cassSession.prepare(SELECT_DATE_STATEMENT_TEMPLATE.replace("KEYSPACE", keyspace));
+      insertTagChangeStatement = cassSession.prepare(INSERT_TAG_CHANGE_STATEMENT_TEMPLATE);
+      selectTagChangesStatement = cassSession.prepare(SELECT_TAG_CHANGES_STATEMENT_TEMPLATE);
     } catch (Exception e) {
       throw new AtlasException(e);
     }
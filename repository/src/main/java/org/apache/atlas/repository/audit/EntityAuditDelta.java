@@ -0,0 +1,328 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.model.audit.EntityAuditEventV2.EntityAuditActionV2;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.type.AtlasType;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_ONLY;
+
+/**
+ * Details of an entity-update audit event, stored as changes from the entity in the previous create/update audit event
+ * of the entity: header fields, attributes and relationship-attributes that changed, and classifications/meanings
+ * when these changed.
+ *
+ * Details of such events are of the form: action-prefix + DELTA_MARKER + delta-json. resolve() replaces these with the
+ * full entity, reconstructed from the nearest earlier event having the full entity.
+ */
+@JsonAutoDetect(getterVisibility=PUBLIC_ONLY, setterVisibility=PUBLIC_ONLY, fieldVisibility=NONE)
+@JsonSerialize(include=JsonSerialize.Inclusion.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown=true)
+public class EntityAuditDelta {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityAuditDelta.class);
+
+    public static final String DELTA_MARKER = "delta:";
+
+    private static final short RESOLVE_BATCH_SIZE = 25;
+
+    private AtlasEntity  entity;
+    private List<String> removedAttributes;
+    private List<String> removedRelationshipAttributes;
+    private boolean      classificationsChanged;
+    private boolean      meaningsChanged;
+
+    public EntityAuditDelta() { }
+
+    public AtlasEntity getEntity() { return entity; }
+
+    public void setEntity(AtlasEntity entity) { this.entity = entity; }
+
+    public List<String> getRemovedAttributes() { return removedAttributes; }
+
+    public void setRemovedAttributes(List<String> removedAttributes) { this.removedAttributes = removedAttributes; }
+
+    public List<String> getRemovedRelationshipAttributes() { return removedRelationshipAttributes; }
+
+    public void setRemovedRelationshipAttributes(List<String> removedRelationshipAttributes) { this.removedRelationshipAttributes = removedRelationshipAttributes; }
+
+    public boolean isClassificationsChanged() { return classificationsChanged; }
+
+    public void setClassificationsChanged(boolean classificationsChanged) { this.classificationsChanged = classificationsChanged; }
+
+    public boolean isMeaningsChanged() { return meaningsChanged; }
+
+    public void setMeaningsChanged(boolean meaningsChanged) { this.meaningsChanged = meaningsChanged; }
+
+    /**
+     * @return changes in current from previous
+     */
+    public static EntityAuditDelta create(AtlasEntity previous, AtlasEntity current) {
+        EntityAuditDelta ret   = new EntityAuditDelta();
+        AtlasEntity      delta = copyHeader(current);
+
+        List<String> removedAttributes    = new ArrayList<>();
+        List<String> removedRelAttributes = new ArrayList<>();
+
+        delta.setAttributes(getChangedValues(previous.getAttributes(), current.getAttributes(), removedAttributes));
+        delta.setRelationshipAttributes(getChangedValues(previous.getRelationshipAttributes(), current.getRelationshipAttributes(), removedRelAttributes));
+
+        ret.setEntity(delta);
+        ret.setRemovedAttributes(removedAttributes.isEmpty() ? null : removedAttributes);
+        ret.setRemovedRelationshipAttributes(removedRelAttributes.isEmpty() ? null : removedRelAttributes);
+
+        if (!Objects.equals(previous.getClassifications(), current.getClassifications())) {
+            delta.setClassifications(current.getClassifications());
+
+            ret.setClassificationsChanged(true);
+        }
+
+        if (!Objects.equals(previous.getMeanings(), current.getMeanings())) {
+            delta.setMeanings(current.getMeanings());
+
+            ret.setMeaningsChanged(true);
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return new entity with this delta applied on previous; previous is not updated
+     */
+    public AtlasEntity applyTo(AtlasEntity previous) {
+        AtlasEntity ret = copyHeader(entity);
+
+        ret.setAttributes(applyChanges(previous.getAttributes(), entity.getAttributes(), removedAttributes));
+        ret.setRelationshipAttributes(applyChanges(previous.getRelationshipAttributes(), entity.getRelationshipAttributes(), removedRelationshipAttributes));
+        ret.setClassifications(classificationsChanged ? entity.getClassifications() : previous.getClassifications());
+        ret.setMeanings(meaningsChanged ? entity.getMeanings() : previous.getMeanings());
+
+        return ret;
+    }
+
+    /**
+     * @return copy of the given entity; attributes, relationship-attributes, classifications and meanings are copied
+     * to new collections, while the values in these are shared
+     */
+    public static AtlasEntity copyOf(AtlasEntity entity) {
+        AtlasEntity ret = copyHeader(entity);
+
+        ret.setAttributes(entity.getAttributes() != null ? new HashMap<>(entity.getAttributes()) : null);
+        ret.setRelationshipAttributes(entity.getRelationshipAttributes() != null ? new HashMap<>(entity.getRelationshipAttributes()) : null);
+        ret.setClassifications(entity.getClassifications() != null ? new ArrayList<>(entity.getClassifications()) : null);
+        ret.setMeanings(entity.getMeanings() != null ? new ArrayList<>(entity.getMeanings()) : null);
+
+        return ret;
+    }
+
+    public static boolean isEntityStateAction(EntityAuditActionV2 action) {
+        return action == EntityAuditActionV2.ENTITY_CREATE || action == EntityAuditActionV2.ENTITY_UPDATE ||
+               action == EntityAuditActionV2.ENTITY_IMPORT_CREATE || action == EntityAuditActionV2.ENTITY_IMPORT_UPDATE;
+    }
+
+    public static boolean isDelta(EntityAuditEventV2 event) {
+        int jsonStart = getJsonStart(event);
+
+        return jsonStart >= DELTA_MARKER.length() && event.getDetails().startsWith(DELTA_MARKER, jsonStart - DELTA_MARKER.length());
+    }
+
+    /**
+     * Replaces details of delta events in the given list with the full entity. Events in the list must be of a single
+     * entity, in the order returned by the audit repository (latest first); earlier events are read from the repository
+     * when the list doesn't include the full entity a delta applies to.
+     */
+    public static void resolve(EntityAuditRepository repository, List<EntityAuditEventV2> events) throws AtlasBaseException {
+        if (!hasDelta(events)) {
+            return;
+        }
+
+        boolean isOldestDelta = false;
+
+        for (EntityAuditEventV2 event : events) {
+            if (isEntityStateAction(event.getAction())) {
+                isOldestDelta = isDelta(event);
+            }
+        }
+
+        // state of the entity prior to the oldest event in the list, if the oldest entity-state event is a delta
+        AtlasEntity state = isOldestDelta ? getStateBefore(repository, events.get(events.size() - 1)) : null;
+
+        for (int i = events.size() - 1; i >= 0; i--) {
+            EntityAuditEventV2 event = events.get(i);
+
+            if (!isEntityStateAction(event.getAction())) {
+                continue;
+            }
+
+            int    jsonStart = getJsonStart(event);
+            String json      = jsonStart >= 0 ? event.getDetails().substring(jsonStart) : null;
+
+            if (json == null) {
+                state = null;
+            } else if (isDelta(event)) {
+                String prefix = event.getDetails().substring(0, jsonStart - DELTA_MARKER.length());
+
+                if (state != null) {
+                    state = AtlasType.fromJson(json, EntityAuditDelta.class).applyTo(state);
+
+                    event.setDetails(prefix + AtlasType.toJson(state));
+                } else {
+                    LOG.warn("audit event {}: full entity not found in earlier events; details will have only the changes", event.getEventKey());
+
+                    event.setDetails(prefix + AtlasType.toJson(AtlasType.fromJson(json, EntityAuditDelta.class).getEntity()));
+                }
+            } else {
+                state = AtlasType.fromJson(json, AtlasEntity.class);
+            }
+        }
+    }
+
+    private static boolean hasDelta(List<EntityAuditEventV2> events) {
+        for (EntityAuditEventV2 event : events) {
+            if (isEntityStateAction(event.getAction()) && isDelta(event)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // reads events earlier than the given event, until the one having full entity
+    private static AtlasEntity getStateBefore(EntityAuditRepository repository, EntityAuditEventV2 event) throws AtlasBaseException {
+        List<EntityAuditEventV2> earlierEvents = new ArrayList<>();
+        Set<String>              eventKeys     = new HashSet<>();
+        String                   startKey      = event.getEventKey();
+        boolean                  isFullFound   = false;
+
+        while (!isFullFound && startKey != null) {
+            List<EntityAuditEventV2> batch = repository.listEventsV2(event.getEntityId(), startKey, RESOLVE_BATCH_SIZE);
+
+            startKey = null;
+
+            for (EntityAuditEventV2 earlierEvent : batch) {
+                if (StringUtils.equals(earlierEvent.getEventKey(), event.getEventKey()) || !eventKeys.add(earlierEvent.getEventKey())) {
+                    continue;
+                }
+
+                earlierEvents.add(earlierEvent);
+
+                startKey = earlierEvent.getEventKey();
+
+                if (isEntityStateAction(earlierEvent.getAction()) && !isDelta(earlierEvent)) {
+                    isFullFound = true;
+
+                    break;
+                }
+            }
+        }
+
+        if (!isFullFound) {
+            return null;
+        }
+
+        resolve(repository, earlierEvents);
+
+        for (EntityAuditEventV2 earlierEvent : earlierEvents) {
+            if (isEntityStateAction(earlierEvent.getAction())) {
+                int jsonStart = getJsonStart(earlierEvent);
+
+                return jsonStart >= 0 ? AtlasType.fromJson(earlierEvent.getDetails().substring(jsonStart), AtlasEntity.class) : null;
+            }
+        }
+
+        return null;
+    }
+
+    private static int getJsonStart(EntityAuditEventV2 event) {
+        return event.getDetails() != null ? event.getDetails().indexOf('{') : -1;
+    }
+
+    private static AtlasEntity copyHeader(AtlasEntity entity) {
+        AtlasEntity ret = new AtlasEntity(entity.getTypeName());
+
+        ret.setGuid(entity.getGuid());
+        ret.setHomeId(entity.getHomeId());
+        ret.setIsProxy(entity.isProxy());
+        ret.setProvenanceType(entity.getProvenanceType());
+        ret.setStatus(entity.getStatus());
+        ret.setCreatedBy(entity.getCreatedBy());
+        ret.setUpdatedBy(entity.getUpdatedBy());
+        ret.setCreateTime(entity.getCreateTime());
+        ret.setUpdateTime(entity.getUpdateTime());
+        ret.setVersion(entity.getVersion());
+
+        return ret;
+    }
+
+    private static Map<String, Object> getChangedValues(Map<String, Object> previous, Map<String, Object> current, List<String> removed) {
+        Map<String, Object> ret = new HashMap<>();
+
+        if (MapUtils.isNotEmpty(current)) {
+            for (Map.Entry<String, Object> entry : current.entrySet()) {
+                if (previous == null || !previous.containsKey(entry.getKey()) || !Objects.equals(previous.get(entry.getKey()), entry.getValue())) {
+                    ret.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        if (MapUtils.isNotEmpty(previous)) {
+            for (String name : previous.keySet()) {
+                if (current == null || !current.containsKey(name)) {
+                    removed.add(name);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private static Map<String, Object> applyChanges(Map<String, Object> previous, Map<String, Object> changes, List<String> removed) {
+        Map<String, Object> ret = previous != null ? new HashMap<>(previous) : new HashMap<>();
+
+        if (changes != null) {
+            ret.putAll(changes);
+        }
+
+        if (CollectionUtils.isNotEmpty(removed)) {
+            for (String name : removed) {
+                ret.remove(name);
+            }
+        }
+
+        return ret;
+    }
+}
@@ -17,6 +17,7 @@
  */
 package org.apache.atlas.repository.audit;
 
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.EntityAuditEvent.EntityAuditAction;
 import org.apache.atlas.RequestContext;
 import org.apache.atlas.model.audit.EntityAuditEventV2;
@@ -33,6 +34,7 @@ import org.apache.atlas.type.AtlasEntityType;
 import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
 import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.utils.AtlasCache;
 import org.apache.atlas.utils.AtlasPerfMetrics.MetricRecorder;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
@@ -67,15 +69,41 @@ import static org.apache.atlas.model.audit.EntityAuditEventV2.EntityAuditActionV
 public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
     private static final Logger LOG = LoggerFactory.getLogger(EntityAuditListenerV2.class);
 
-    private final EntityAuditRepository  auditRepository;
-    private final AtlasTypeRegistry      typeRegistry;
-    private final AtlasInstanceConverter instanceConverter;
+    private static final int LOCK_STRIPES = 64;
+
+    private final EntityAuditRepository                  auditRepository;
+    private final AtlasTypeRegistry                      typeRegistry;
+    private final AtlasInstanceConverter                 instanceConverter;
+    private final int                                    deltaSnapshotInterval;
+    private final AtlasCache<String, AuditedEntityState> auditedEntities;
+    private final Object[]                               auditedEntityLocks;
 
     @Inject
     public EntityAuditListenerV2(EntityAuditRepository auditRepository, AtlasTypeRegistry typeRegistry, AtlasInstanceConverter instanceConverter) {
-        this.auditRepository   = auditRepository;
-        this.typeRegistry      = typeRegistry;
-        this.instanceConverter = instanceConverter;
+        this(auditRepository, typeRegistry, instanceConverter, AtlasConfiguration.ENTITY_AUDIT_DELTA_ENABLED.getBoolean(),
+             AtlasConfiguration.ENTITY_AUDIT_DELTA_SNAPSHOT_INTERVAL.getInt(), AtlasConfiguration.ENTITY_AUDIT_DELTA_CACHE_SIZE.getInt());
+    }
+
+    public EntityAuditListenerV2(EntityAuditRepository auditRepository, AtlasTypeRegistry typeRegistry, AtlasInstanceConverter instanceConverter,
+                                 boolean isDeltaEnabled, int deltaSnapshotInterval, int deltaCacheSize) {
+        this.auditRepository       = auditRepository;
+        this.typeRegistry          = typeRegistry;
+        this.instanceConverter     = instanceConverter;
+        this.deltaSnapshotInterval = deltaSnapshotInterval;
+
+        if (isDeltaEnabled && deltaSnapshotInterval > 1 && deltaCacheSize > 0) {
+            this.auditedEntities    = AtlasCache.<String, AuditedEntityState>newBuilder().name("EntityAuditDeltaCache").maximumSize(deltaCacheSize).build();
+            this.auditedEntityLocks = new Object[LOCK_STRIPES];
+
+            for (int i = 0; i < auditedEntityLocks.length; i++) {
+                auditedEntityLocks[i] = new Object();
+            }
+
+            LOG.info("EntityAuditListenerV2: entity-update audits will store changes; snapshotInterval={}, cacheSize={}", deltaSnapshotInterval, deltaCacheSize);
+        } else {
+            this.auditedEntities    = null;
+            this.auditedEntityLocks = null;
+        }
     }
 
     @Override
@@ -90,7 +118,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
             events.add(event);
         }
 
-        auditRepository.putEventsV2(events);
+        putEvents(events);
 
         RequestContext.get().endMetricRecord(metric);
     }
@@ -107,7 +135,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
             events.add(event);
         }
 
-        auditRepository.putEventsV2(events);
+        putEvents(events);
 
         RequestContext.get().endMetricRecord(metric);
     }
@@ -122,6 +150,10 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
             EntityAuditEventV2 event = createEvent(entity, isImport ? ENTITY_IMPORT_DELETE : ENTITY_DELETE, "Deleted entity");
 
             events.add(event);
+
+            if (auditedEntities != null) {
+                auditedEntities.remove(entity.getGuid());
+            }
         }
 
         auditRepository.putEventsV2(events);
@@ -255,6 +287,119 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
     private String getAuditEventDetail(AtlasEntity entity, EntityAuditActionV2 action) {
         Map<String, Object> prunedAttributes = pruneEntityAttributesForAudit(entity);
 
+        try {
+            if (auditedEntities == null || entity.getGuid() == null) {
+                return getFullAuditEventDetail(entity, action);
+            }
+
+            synchronized (getAuditedEntityLock(entity.getGuid())) {
+                return getDeltaAuditEventDetail(entity, action);
+            }
+        } finally {
+            restoreEntityAttributes(entity, prunedAttributes);
+        }
+    }
+
+    /**
+     * Details of update events have only the changes from the entity in the previous create/update event, when that
+     * entity is available in auditedEntities. Full entity is stored for create events, for every deltaSnapshotInterval'th
+     * update and when events are not generated in timestamp order; EntityAuditDelta.resolve() depends on this.
+     *
+     * State recorded here is pending until putEvents() stores the event; an update whose previous event is not yet
+     * stored gets the full entity, as the previous event may fail to be stored.
+     */
+    private String getDeltaAuditEventDetail(AtlasEntity entity, EntityAuditActionV2 action) {
+        String             guid          = entity.getGuid();
+        long               timestamp     = RequestContext.get().getRequestTime();
+        AuditedEntityState previousState = auditedEntities.get(guid);
+        AuditedEntityState storedState   = previousState != null && !previousState.isPending ? previousState : null;
+        AtlasEntity        currentState  = EntityAuditDelta.copyOf(entity);
+        long               auditMaxSize  = auditRepository.repositoryMaxSize();
+        String             ret;
+
+        if (previousState != null && timestamp <= previousState.timestamp) { // out of order with the previous event
+            if (timestamp == previousState.timestamp) {
+                auditedEntities.remove(guid);
+            }
+
+            return getFullAuditEventDetail(entity, action);
+        }
+
+        boolean isUpdate = action == ENTITY_UPDATE || action == ENTITY_IMPORT_UPDATE;
+
+        if (isUpdate && storedState != null && storedState.deltaCount + 1 < deltaSnapshotInterval) {
+            ret = getV2AuditPrefix(action) + EntityAuditDelta.DELTA_MARKER + AtlasType.toJson(EntityAuditDelta.create(storedState.entity, currentState));
+
+            if (auditMaxSize < 0 || ret.getBytes(StandardCharsets.UTF_8).length <= auditMaxSize) {
+                auditedEntities.put(guid, new AuditedEntityState(currentState, timestamp, storedState.deltaCount + 1, storedState));
+
+                return ret;
+            }
+        }
+
+        ret = getV2AuditPrefix(action) + AtlasType.toJson(entity);
+
+        if (auditMaxSize < 0 || ret.getBytes(StandardCharsets.UTF_8).length <= auditMaxSize) {
+            auditedEntities.put(guid, new AuditedEntityState(currentState, timestamp, 0, storedState));
+        } else { // entity will be truncated to fit in the audit record, hence can't be used to compute the next delta
+            auditedEntities.remove(guid);
+
+            ret = getFullAuditEventDetail(entity, action);
+        }
+
+        return ret;
+    }
+
+    private void putEvents(List<EntityAuditEventV2> events) throws AtlasBaseException {
+        boolean isStored = false;
+
+        try {
+            auditRepository.putEventsV2(events);
+
+            isStored = true;
+        } finally {
+            if (auditedEntities != null) {
+                completePendingStates(events, isStored);
+            }
+        }
+    }
+
+    /**
+     * Pending states of the given events become the base for deltas of subsequent updates once the events are stored;
+     * otherwise the state of the previous stored event is restored. A pending state replaced by a later event is left
+     * as is.
+     */
+    private void completePendingStates(List<EntityAuditEventV2> events, boolean isStored) {
+        for (EntityAuditEventV2 event : events) {
+            String guid = event.getEntityId();
+
+            if (guid == null) {
+                continue;
+            }
+
+            synchronized (getAuditedEntityLock(guid)) {
+                AuditedEntityState state = auditedEntities.get(guid);
+
+                if (state == null || !state.isPending || state.timestamp != event.getTimestamp()) {
+                    continue;
+                }
+
+                if (isStored) {
+                    auditedEntities.put(guid, new AuditedEntityState(state.entity, state.timestamp, state.deltaCount));
+                } else if (state.previous != null) {
+                    auditedEntities.put(guid, state.previous);
+                } else {
+                    auditedEntities.remove(guid);
+                }
+            }
+        }
+    }
+
+    private Object getAuditedEntityLock(String guid) {
+        return auditedEntityLocks[Math.abs(guid.hashCode() % LOCK_STRIPES)];
+    }
+
+    private String getFullAuditEventDetail(AtlasEntity entity, EntityAuditActionV2 action) {
         String auditPrefix  = getV2AuditPrefix(action);
         String auditString  = auditPrefix + AtlasType.toJson(entity);
         byte[] auditBytes   = auditString.getBytes(StandardCharsets.UTF_8);
@@ -297,8 +442,6 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
             entity.setRelationshipAttributes(relAttrValues);
         }
 
-        restoreEntityAttributes(entity, prunedAttributes);
-
         return auditString;
     }
 
@@ -484,4 +627,30 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
             LOG.debug("Relationship(s) deleted from repository(" + relationships.size() + ")");
         }
     }
+
+    private static class AuditedEntityState {
+        final AtlasEntity        entity;
+        final long               timestamp;
+        final int                deltaCount;
+        final boolean            isPending;
+        final AuditedEntityState previous; // state to restore if the pending event fails to be stored
+
+        // state of a stored event
+        AuditedEntityState(AtlasEntity entity, long timestamp, int deltaCount) {
+            this(entity, timestamp, deltaCount, false, null);
+        }
+
+        // state of an event not yet stored
+        AuditedEntityState(AtlasEntity entity, long timestamp, int deltaCount, AuditedEntityState previous) {
+            this(entity, timestamp, deltaCount, true, previous);
+        }
+
+        private AuditedEntityState(AtlasEntity entity, long timestamp, int deltaCount, boolean isPending, AuditedEntityState previous) {
+            this.entity     = entity;
+            this.timestamp  = timestamp;
+            this.deltaCount = deltaCount;
+            this.isPending  = isPending;
+            this.previous   = previous;
+        }
+    }
 }
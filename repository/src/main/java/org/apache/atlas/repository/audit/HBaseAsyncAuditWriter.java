@@ -0,0 +1,199 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.Put;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes audit puts to HBase asynchronously, through a BufferedMutator.
+ *
+ * Puts are queued in a bounded queue and written by a single thread, in the order they were queued; hence events of an
+ * entity are written in the order they were generated. The mutator is flushed after every flushSize puts and at least
+ * once every flushIntervalMs.
+ *
+ * When the queue is full, write() blocks for up to queueTimeoutMs and then fails. Once a write to HBase fails, every
+ * write() fails until the puts of the failed flush are written; hence audit failures are reported to the callers, as with
+ * synchronous writes. Puts given to the mutator since the last successful flush - at most flushSize of them - are retained
+ * and resubmitted every flushIntervalMs until a flush succeeds; puts written earlier than the failure may be written
+ * again, with the same row and column values. While retrying, new puts wait in the queue, whose size bounds the memory used.
+ */
+public class HBaseAsyncAuditWriter implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(HBaseAsyncAuditWriter.class);
+
+    private static final long STOP_WAIT_TIME_MS = 60 * 1000;
+
+    private final BufferedMutator    mutator;
+    private final BlockingQueue<Put> queue;
+    private final int                flushSize;
+    private final long               flushIntervalMs;
+    private final long               queueTimeoutMs;
+    private final Thread             writerThread;
+    private volatile boolean         isStopped = false;
+    private volatile IOException     lastFailure = null;
+
+    public HBaseAsyncAuditWriter(BufferedMutator mutator, int queueSize, int flushSize, long flushIntervalMs, long queueTimeoutMs) {
+        this.mutator         = mutator;
+        this.queue           = new ArrayBlockingQueue<>(queueSize);
+        this.flushSize       = flushSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.queueTimeoutMs  = queueTimeoutMs;
+        this.writerThread    = new Thread(this::run, "atlas-audit-writer");
+
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        LOG.info("HBaseAsyncAuditWriter started: queueSize={}, flushSize={}, flushIntervalMs={}, queueTimeoutMs={}", queueSize, flushSize, flushIntervalMs, queueTimeoutMs);
+    }
+
+    public void write(List<Put> puts) throws AtlasBaseException {
+        if (isStopped) {
+            throw new AtlasBaseException(AtlasErrorCode.AUDIT_WRITE_FAILED, "audit writer is stopped");
+        }
+
+        IOException failure = lastFailure;
+
+        if (failure != null) {
+            throw new AtlasBaseException(AtlasErrorCode.AUDIT_WRITE_FAILED, failure, failure.getMessage());
+        }
+
+        try {
+            for (Put put : puts) {
+                if (!queue.offer(put, queueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    LOG.error("audit writer queue is full: pendingPuts={}; audit writes are not keeping up", queue.size());
+
+                    throw new AtlasBaseException(AtlasErrorCode.AUDIT_WRITE_FAILED, "timed out waiting for space in audit writer queue");
+                }
+            }
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+
+            throw new AtlasBaseException(AtlasErrorCode.AUDIT_WRITE_FAILED, excp, "interrupted while waiting for space in audit writer queue");
+        }
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        LOG.info("==> HBaseAsyncAuditWriter.close(): pendingPuts={}", queue.size());
+
+        isStopped = true;
+
+        try {
+            writerThread.join(STOP_WAIT_TIME_MS);
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (writerThread.isAlive()) {
+            LOG.warn("HBaseAsyncAuditWriter.close(): writer did not complete in {} ms; pendingPuts={}", STOP_WAIT_TIME_MS, queue.size());
+
+            writerThread.interrupt();
+        }
+
+        mutator.close();
+
+        LOG.info("<== HBaseAsyncAuditWriter.close()");
+    }
+
+    private void run() {
+        List<Put> unflushed     = new ArrayList<>(flushSize); // puts given to the mutator since the last successful flush
+        long      nextFlushTime = System.currentTimeMillis() + flushIntervalMs;
+
+        while (!isStopped || !queue.isEmpty() || !unflushed.isEmpty()) {
+            try {
+                if (lastFailure != null) {
+                    // puts of the failed flush are resubmitted until written; new puts wait in the queue meanwhile
+                    mutator.mutate(unflushed);
+
+                    flush(unflushed);
+
+                    nextFlushTime = System.currentTimeMillis() + flushIntervalMs;
+
+                    continue;
+                }
+
+                long waitTime = Math.max(nextFlushTime - System.currentTimeMillis(), 1);
+                Put  put      = isStopped ? queue.poll() : queue.poll(waitTime, TimeUnit.MILLISECONDS);
+
+                if (put != null) {
+                    List<Put> batch = new ArrayList<>(flushSize);
+
+                    batch.add(put);
+
+                    queue.drainTo(batch, Math.max(flushSize - unflushed.size() - 1, 0));
+
+                    unflushed.addAll(batch);
+
+                    mutator.mutate(batch);
+                }
+
+                if (!unflushed.isEmpty() && (unflushed.size() >= flushSize || isStopped || System.currentTimeMillis() >= nextFlushTime)) {
+                    flush(unflushed);
+                }
+
+                if (System.currentTimeMillis() >= nextFlushTime) {
+                    nextFlushTime = System.currentTimeMillis() + flushIntervalMs;
+                }
+            } catch (InterruptedException excp) {
+                LOG.warn("HBaseAsyncAuditWriter: interrupted; unwrittenPuts={}, pendingPuts={}", unflushed.size(), queue.size());
+
+                break;
+            } catch (IOException excp) {
+                LOG.error("HBaseAsyncAuditWriter: failed to write {} audit events; will retry in {} ms", unflushed.size(), flushIntervalMs, excp);
+
+                lastFailure = excp;
+
+                try {
+                    Thread.sleep(flushIntervalMs);
+                } catch (InterruptedException e) {
+                    LOG.warn("HBaseAsyncAuditWriter: interrupted; unwrittenPuts={}, pendingPuts={}", unflushed.size(), queue.size());
+
+                    break;
+                }
+            }
+        }
+    }
+
+    private void flush(List<Put> unflushed) throws IOException {
+        mutator.flush();
+
+        if (lastFailure != null) {
+            LOG.info("HBaseAsyncAuditWriter: audit writes recovered; wrote {} retained puts", unflushed.size());
+
+            lastFailure = null;
+        }
+
+        unflushed.clear();
+    }
+}
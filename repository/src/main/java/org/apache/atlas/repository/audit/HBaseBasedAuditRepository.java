@@ -37,6 +37,7 @@ import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Admin;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
@@ -81,6 +82,8 @@ import java.util.Set;
  * entity id + timestamp, and only 1 version is kept, there can be just 1 audit event per entity
  * id + timestamp. This is ok for one atlas server. But if there are more than one atlas servers,
  * we should use server id in the key
+ * <p>
+ * When atlas.audit.hbase.async.enabled is true, events are written asynchronously by HBaseAsyncAuditWriter.
  */
 @Singleton
 @Component
@@ -93,6 +96,12 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
     public static final String CONFIG_TABLE_NAME = CONFIG_PREFIX + ".hbase.tablename";
     public static final String DEFAULT_TABLE_NAME = "ATLAS_ENTITY_AUDIT_EVENTS";
     public static final String CONFIG_PERSIST_ENTITY_DEFINITION = CONFIG_PREFIX + ".persistEntityDefinition";
+    public static final String CONFIG_ASYNC_ENABLED = CONFIG_PREFIX + ".hbase.async.enabled";
+    public static final String CONFIG_ASYNC_QUEUE_SIZE = CONFIG_PREFIX + ".hbase.async.queue.size";
+    public static final String CONFIG_ASYNC_QUEUE_TIMEOUT_MS = CONFIG_PREFIX + ".hbase.async.queue.timeout.ms";
+    public static final String CONFIG_ASYNC_FLUSH_SIZE = CONFIG_PREFIX + ".hbase.async.flush.size";
+    public static final String CONFIG_ASYNC_FLUSH_INTERVAL_MS = CONFIG_PREFIX + ".hbase.async.flush.interval.ms";
+    public static final String CONFIG_TAG_CHANGE_INDEX_ENABLED = CONFIG_PREFIX + ".hbase.tag.change.index.enabled";
 
     public static final byte[] COLUMN_FAMILY = Bytes.toBytes("dt");
     public static final byte[] COLUMN_ACTION = Bytes.toBytes("a");
@@ -100,6 +109,13 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
     public static final byte[] COLUMN_USER = Bytes.toBytes("u");
     public static final byte[] COLUMN_DEFINITION = Bytes.toBytes("f");
 
+    // prefix of rows in the time-ordered index of classification changes; entity-ids never start with '_'
+    private static final byte[] TAG_CHANGE_INDEX_PREFIX = Bytes.toBytes("_tag" + ":");
+
+    // row that records when the tag-change index started to be populated; sorts before every row of the index
+    private static final byte[] TAG_CHANGE_INDEX_START_ROW     = TAG_CHANGE_INDEX_PREFIX;
+    private static final byte[] COLUMN_TAG_CHANGE_INDEX_START = Bytes.toBytes("s");
+
     private static final String  AUDIT_REPOSITORY_MAX_SIZE_PROPERTY = "atlas.hbase.client.keyvalue.maxsize";
     private static final String  AUDIT_EXCLUDE_ATTRIBUTE_PROPERTY   = "atlas.audit.hbase.entity";
     private static final String  FIELD_SEPARATOR = ":";
@@ -119,6 +135,9 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
     }
     private TableName tableName;
     private Connection connection;
+    private HBaseAsyncAuditWriter asyncWriter;
+    private boolean isTagChangeIndexEnabled = true;
+    private volatile Long tagChangeIndexStartTime;
 
     /**
      * Add events to the event repository
@@ -144,7 +163,7 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
         Table table = null;
 
         try {
-            table          = connection.getTable(tableName);
+            table          = asyncWriter == null ? connection.getTable(tableName) : null;
             List<Put> puts = new ArrayList<>(events.size());
 
             for (int index = 0; index < events.size(); index++) {
@@ -166,8 +185,12 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
                 puts.add(put);
             }
 
-            table.put(puts);
-        } catch (IOException e) {
+            if (asyncWriter != null) {
+                asyncWriter.write(puts);
+            } else {
+                table.put(puts);
+            }
+        } catch (IOException | AtlasBaseException e) {
             throw new AtlasException(e);
         } finally {
             close(table);
@@ -188,7 +211,7 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
         Table table = null;
 
         try {
-            table          = connection.getTable(tableName);
+            table          = asyncWriter == null ? connection.getTable(tableName) : null;
             List<Put> puts = new ArrayList<>(events.size());
 
             for (int index = 0; index < events.size(); index++) {
@@ -209,9 +232,21 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
                 }
 
                 puts.add(put);
+
+                if (isTagChangeEvent(event)) {
+                    Put indexPut = new Put(getTagChangeIndexKey(event.getTimestamp(), event.getEntityId()));
+
+                    addColumn(indexPut, COLUMN_ACTION, event.getAction());
+
+                    puts.add(indexPut);
+                }
             }
 
-            table.put(puts);
+            if (asyncWriter != null) {
+                asyncWriter.write(puts);
+            } else {
+                table.put(puts);
+            }
         } catch (IOException e) {
             throw new AtlasBaseException(e);
         } finally {
@@ -531,8 +566,157 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
         }
     }
 
+    /**
+     * Records the time from which the tag-change index is populated, unless an earlier start is already recorded.
+     */
+    private void initTagChangeIndex() throws AtlasException {
+        Table table = null;
+
+        try {
+            table = connection.getTable(tableName);
+
+            Put put = new Put(TAG_CHANGE_INDEX_START_ROW);
+
+            put.addColumn(COLUMN_FAMILY, COLUMN_TAG_CHANGE_INDEX_START, Bytes.toBytes(System.currentTimeMillis()));
+
+            table.checkAndMutate(TAG_CHANGE_INDEX_START_ROW, COLUMN_FAMILY).qualifier(COLUMN_TAG_CHANGE_INDEX_START).ifNotExists().thenPut(put);
+
+            tagChangeIndexStartTime = null;
+
+            LOG.info("Tag-change index of table {} is populated from {}", tableName.getNameAsString(), getTagChangeIndexStartTime());
+        } catch (IOException | AtlasBaseException e) {
+            throw new AtlasException(e);
+        } finally {
+            close(table);
+        }
+    }
+
+    /**
+     * @return time from which the tag-change index is populated; Long.MAX_VALUE if it is not yet recorded
+     */
+    private long getTagChangeIndexStartTime() throws AtlasBaseException {
+        Long ret = tagChangeIndexStartTime;
+
+        if (ret == null) {
+            Table table = null;
+
+            try {
+                table = connection.getTable(tableName);
+
+                Result result = table.get(new Get(TAG_CHANGE_INDEX_START_ROW).addColumn(COLUMN_FAMILY, COLUMN_TAG_CHANGE_INDEX_START));
+                byte[] value  = result.getValue(COLUMN_FAMILY, COLUMN_TAG_CHANGE_INDEX_START);
+
+                if (value == null) {
+                    return Long.MAX_VALUE;
+                }
+
+                ret = Bytes.toLong(value);
+
+                tagChangeIndexStartTime = ret;
+            } catch (IOException e) {
+                throw new AtlasBaseException(e);
+            } finally {
+                try {
+                    close(table);
+                } catch (AtlasException e) {
+                    throw new AtlasBaseException(e);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Entities with classification add/update/delete events in [fromTimestamp, toTimestamp). Reads only the slice of
+     * the tag-change index for the given time range. The full-table scan is used when the index is disabled, and for
+     * the part of the time range before the index started to be populated - the index has no entries for that period,
+     * as existing audit events are not backfilled.
+     */
     @Override
     public Set<String> getEntitiesWithTagChanges(long fromTimestamp, long toTimestamp) throws AtlasBaseException {
+        if (!isTagChangeIndexEnabled) {
+            return getEntitiesWithTagChangesByScan(fromTimestamp, toTimestamp);
+        }
+
+        Set<String> ret = new HashSet<>();
+
+        if (fromTimestamp >= toTimestamp) {
+            return ret;
+        }
+
+        long indexStartTime = getTagChangeIndexStartTime();
+
+        if (fromTimestamp < indexStartTime) {
+            ret.addAll(getEntitiesWithTagChangesByScan(fromTimestamp, Math.min(toTimestamp, indexStartTime)));
+        }
+
+        if (toTimestamp > indexStartTime) {
+            ret.addAll(getEntitiesWithTagChangesByIndex(Math.max(fromTimestamp, indexStartTime), toTimestamp));
+        }
+
+        return ret;
+    }
+
+    private Set<String> getEntitiesWithTagChangesByIndex(long fromTimestamp, long toTimestamp) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Listing tag-change index for fromTimestamp {}, toTimestamp {}", fromTimestamp, toTimestamp);
+        }
+
+        Table         table   = null;
+        ResultScanner scanner = null;
+
+        try {
+            Set<String> guids = new HashSet<>();
+
+            table = connection.getTable(tableName);
+
+            Scan scan = new Scan().setStartRow(getTagChangeIndexKey(Math.max(fromTimestamp, 0), null))
+                                  .setStopRow(getTagChangeIndexKey(Math.max(toTimestamp, 0), null))
+                                  .addColumn(COLUMN_FAMILY, COLUMN_ACTION)
+                                  .setCaching(1000);
+
+            Result result;
+            scanner = table.getScanner(scan);
+            while ((result = scanner.next()) != null) {
+                String entityId = getEntityIdFromTagChangeIndexKey(result.getRow());
+
+                if (StringUtils.isNotEmpty(entityId)) {
+                    guids.add(entityId);
+                }
+            }
+
+            return guids;
+        } catch (IOException e) {
+            throw new AtlasBaseException(e);
+        } finally {
+            try {
+                close(scanner);
+                close(table);
+            } catch (AtlasException e) {
+                throw new AtlasBaseException(e);
+            }
+        }
+    }
+
+    /**
+     * Row key of tag-change index: prefix + timestamp (8 bytes, big-endian) + entity-id; hence rows are ordered by time.
+     */
+    @VisibleForTesting
+    static byte[] getTagChangeIndexKey(long timestamp, String entityId) {
+        byte[] ret = Bytes.add(TAG_CHANGE_INDEX_PREFIX, Bytes.toBytes(timestamp));
+
+        return entityId != null ? Bytes.add(ret, Bytes.toBytes(entityId)) : ret;
+    }
+
+    @VisibleForTesting
+    static String getEntityIdFromTagChangeIndexKey(byte[] row) {
+        int offset = TAG_CHANGE_INDEX_PREFIX.length + Bytes.SIZEOF_LONG;
+
+        return row != null && row.length > offset ? Bytes.toString(row, offset, row.length - offset) : null;
+    }
+
+    private Set<String> getEntitiesWithTagChangesByScan(long fromTimestamp, long toTimestamp) throws AtlasBaseException {
         final String classificationUpdatesAction = "CLASSIFICATION_";
 
         if (LOG.isDebugEnabled()) {
@@ -555,6 +739,10 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
             Result result;
             scanner = table.getScanner(scan);
             while ((result = scanner.next()) != null) {
+                if (Bytes.startsWith(result.getRow(), TAG_CHANGE_INDEX_PREFIX)) { // skip rows of tag-change index
+                    continue;
+                }
+
                 EntityAuditEvent event = fromKey(result.getRow());
 
                 if (event == null) {
@@ -589,6 +777,7 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
 
         String tableNameStr = atlasConf.getString(CONFIG_TABLE_NAME, DEFAULT_TABLE_NAME);
         tableName = TableName.valueOf(tableNameStr);
+        isTagChangeIndexEnabled = atlasConf.getBoolean(CONFIG_TAG_CHANGE_INDEX_ENABLED, true);
 
         try {
             connection = createConnection(hbaseConf);
@@ -599,6 +788,19 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
         if (!HAConfiguration.isHAEnabled(atlasConf)) {
             LOG.info("HA is disabled. Hence creating table on startup.");
             createTableIfNotExists();
+            initTagChangeIndex();
+        }
+
+        if (atlasConf.getBoolean(CONFIG_ASYNC_ENABLED, false)) {
+            try {
+                asyncWriter = new HBaseAsyncAuditWriter(connection.getBufferedMutator(tableName),
+                                                        atlasConf.getInt(CONFIG_ASYNC_QUEUE_SIZE, 10000),
+                                                        atlasConf.getInt(CONFIG_ASYNC_FLUSH_SIZE, 500),
+                                                        atlasConf.getLong(CONFIG_ASYNC_FLUSH_INTERVAL_MS, 1000),
+                                                        atlasConf.getLong(CONFIG_ASYNC_QUEUE_TIMEOUT_MS, 30000));
+            } catch (IOException e) {
+                throw new AtlasException(e);
+            }
         }
     }
 
@@ -609,6 +811,11 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
 
     @Override
     public void stop() throws AtlasException {
+        // flush pending audit events before closing the connection
+        close(asyncWriter);
+
+        asyncWriter = null;
+
         close(connection);
     }
 
@@ -616,6 +823,7 @@ public class HBaseBasedAuditRepository extends AbstractStorageBasedAuditReposito
     public void instanceIsActive() throws AtlasException {
         LOG.info("Reacting to active: Creating HBase table for Audit if required.");
         createTableIfNotExists();
+        initTagChangeIndex();
     }
 
     @Override
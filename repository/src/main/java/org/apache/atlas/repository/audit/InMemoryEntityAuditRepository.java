@@ -44,6 +44,7 @@ import java.util.TreeMap;
 public class InMemoryEntityAuditRepository implements EntityAuditRepository {
     private TreeMap<String, EntityAuditEvent>   auditEvents   = new TreeMap<>();
     private TreeMap<String, EntityAuditEventV2> auditEventsV2 = new TreeMap<>();
+    private TreeMap<Long, Set<String>>          tagChanges    = new TreeMap<>();
 
     @Override
     public void putEventsV1(EntityAuditEvent... events) throws AtlasException {
@@ -93,11 +94,15 @@ public class InMemoryEntityAuditRepository implements EntityAuditRepository {
     }
 
     @Override
-    public void putEventsV2(List<EntityAuditEventV2> events) {
+    public synchronized void putEventsV2(List<EntityAuditEventV2> events) {
         for (EntityAuditEventV2 event : events) {
             String rowKey = event.getEntityId() + (Long.MAX_VALUE - event.getTimestamp());
             event.setEventKey(rowKey);
             auditEventsV2.put(rowKey, event);
+
+            if (AbstractStorageBasedAuditRepository.isTagChangeEvent(event)) {
+                tagChanges.computeIfAbsent(event.getTimestamp(), k -> new HashSet<>()).add(event.getEntityId());
+            }
         }
     }
 
@@ -122,13 +127,12 @@ public class InMemoryEntityAuditRepository implements EntityAuditRepository {
     }
 
     @Override
-    public Set<String> getEntitiesWithTagChanges(long fromTimestamp, long toTimestamp) throws AtlasBaseException {
+    public synchronized Set<String> getEntitiesWithTagChanges(long fromTimestamp, long toTimestamp) throws AtlasBaseException {
         Set<String> events = new HashSet<>();
 
-        for (EntityAuditEventV2 event : auditEventsV2.values()) {
-            long timestamp = event.getTimestamp();
-            if (timestamp > fromTimestamp && timestamp <= toTimestamp) {
-                events.add(event.getEntityId());
+        if (fromTimestamp < toTimestamp) {
+            for (Set<String> entityIds : tagChanges.subMap(fromTimestamp, true, toTimestamp, false).values()) {
+                events.addAll(entityIds);
             }
         }
 
@@ -202,6 +202,8 @@ public final class GraphHelper {
             AtlasGraphUtilsV2.addEncodedProperty(ret, SUPER_TYPES_PROPERTY_KEY, superTypeName);
         }
 
+        AtlasGraphUtilsV2.setTypeHierarchy(ret, typeName, superTypeNames);
+
         return ret;
     }
 
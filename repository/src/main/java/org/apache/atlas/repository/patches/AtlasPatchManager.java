@@ -22,25 +22,42 @@ import org.apache.atlas.model.patches.AtlasPatch;
 import org.apache.atlas.model.patches.AtlasPatch.PatchStatus;
 import org.apache.atlas.repository.graph.GraphBackedSearchIndexer;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.patches.TypeHierarchyPatch.TypeHierarchyPatchProcessor;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.apache.atlas.model.patches.AtlasPatch.PatchStatus.APPLIED;
 import static org.apache.atlas.model.patches.AtlasPatch.PatchStatus.SKIPPED;
+import static org.apache.atlas.model.patches.AtlasPatch.PatchStatus.UNKNOWN;
 
 @Component
 public class AtlasPatchManager {
     private static final Logger LOG = LoggerFactory.getLogger(AtlasPatchManager.class);
 
-    private final PatchContext context;
+    private final PatchContext    context;
+    private final ExecutorService typeHierarchyExecutor;
+    private       int             pendingTypeHierarchyUpdates = 0;
+    private       boolean         restoreTypeHierarchyPatch   = false;
 
     @Inject
     public AtlasPatchManager(AtlasGraph atlasGraph, AtlasTypeRegistry typeRegistry, GraphBackedSearchIndexer indexer) {
-        this.context = new PatchContext(atlasGraph, typeRegistry, indexer);
+        this.context               = new PatchContext(atlasGraph, typeRegistry, indexer);
+        this.typeHierarchyExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread ret = new Thread(r, "atlas-type-hierarchy-update");
+
+            ret.setDaemon(true);
+
+            return ret;
+        });
     }
 
     public AtlasPatch.AtlasPatches getAllPatches() {
@@ -49,7 +66,8 @@ public class AtlasPatchManager {
 
     public void applyAll() {
         final AtlasPatchHandler handlers[] = {
-                new UniqueAttributePatch(context)
+                new UniqueAttributePatch(context),
+                new TypeHierarchyPatch(context)
         };
 
         try {
@@ -69,4 +87,58 @@ public class AtlasPatchManager {
             LOG.error("Error applying patches.", ex);
         }
     }
+
+    /**
+     * Updates the type-hierarchy property of instances of the given types in the background, after a typedef update
+     * changed their super-types. Until all pending updates complete, TypeHierarchyPatch is marked as not applied - so
+     * that searches list the sub-types instead of filtering on the type-hierarchy property, and so that the patch is
+     * applied again at the next startup in case an update doesn't complete.
+     */
+    public void updateTypeHierarchy(Collection<String> typeNames) {
+        final Set<String> types = new HashSet<>(typeNames);
+
+        synchronized (this) {
+            if (context.getPatchRegistry().getStatus(TypeHierarchyPatch.PATCH_ID) == APPLIED) {
+                new TypeHierarchyPatch(context).setStatus(UNKNOWN);
+
+                restoreTypeHierarchyPatch = true;
+            }
+
+            pendingTypeHierarchyUpdates++;
+        }
+
+        typeHierarchyExecutor.submit(() -> runTypeHierarchyUpdate(types));
+    }
+
+    private void runTypeHierarchyUpdate(Set<String> typeNames) {
+        boolean isSuccess = false;
+
+        try {
+            LOG.info("updating type-hierarchy of instances of types {}", typeNames);
+
+            new TypeHierarchyPatchProcessor(context).apply(typeNames);
+
+            isSuccess = true;
+
+            LOG.info("updated type-hierarchy of instances of types {}", typeNames);
+        } catch (Throwable t) {
+            LOG.error("failed to update type-hierarchy of instances of types {}; TypeHierarchyPatch will be applied at next startup", typeNames, t);
+        } finally {
+            synchronized (this) {
+                if (!isSuccess) { // leave the patch as not applied
+                    restoreTypeHierarchyPatch = false;
+                }
+
+                pendingTypeHierarchyUpdates--;
+
+                if (pendingTypeHierarchyUpdates == 0) {
+                    if (restoreTypeHierarchyPatch) {
+                        new TypeHierarchyPatch(context).setStatus(APPLIED);
+                    }
+
+                    restoreTypeHierarchyPatch = false;
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,101 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.patches;
+
+import org.apache.atlas.listener.ChangedTypeDefs;
+import org.apache.atlas.listener.TypeDefChangeListener;
+import org.apache.atlas.type.AtlasClassificationType;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Updates the type-hierarchy property of existing entity and classification vertices when a typedef update changes the
+ * super-types of their type - either directly, or by adding a super-type to one of its super-types. Otherwise, index
+ * queries on the type-hierarchy property would not find these instances when searching for a new super-type.
+ *
+ * The super-types of each type are compared with those seen at the previous change, so that only instances of types
+ * whose super-types changed are updated; the update runs in the background, via AtlasPatchManager.
+ */
+@Component
+public class TypeHierarchyChangeListener implements TypeDefChangeListener {
+    private static final Logger LOG = LoggerFactory.getLogger(TypeHierarchyChangeListener.class);
+
+    private final AtlasTypeRegistry        typeRegistry;
+    private final AtlasPatchManager        patchManager;
+    private final Map<String, Set<String>> superTypesByType = new HashMap<>();
+
+    @Inject
+    public TypeHierarchyChangeListener(AtlasTypeRegistry typeRegistry, AtlasPatchManager patchManager) {
+        this.typeRegistry = typeRegistry;
+        this.patchManager = patchManager;
+    }
+
+    @Override
+    public synchronized void onLoadCompletion() {
+        superTypesByType.clear();
+        superTypesByType.putAll(getSuperTypesByType());
+    }
+
+    @Override
+    public synchronized void onChange(ChangedTypeDefs changedTypeDefs) {
+        Map<String, Set<String>> currSuperTypesByType = getSuperTypesByType();
+        Set<String>              staleTypeNames       = new HashSet<>();
+
+        for (Map.Entry<String, Set<String>> entry : currSuperTypesByType.entrySet()) {
+            String typeName = entry.getKey();
+
+            // types added by this change have no instances yet
+            if (superTypesByType.containsKey(typeName) && !Objects.equals(superTypesByType.get(typeName), entry.getValue())) {
+                staleTypeNames.add(typeName);
+            }
+        }
+
+        superTypesByType.clear();
+        superTypesByType.putAll(currSuperTypesByType);
+
+        if (!staleTypeNames.isEmpty()) {
+            LOG.info("TypeHierarchyChangeListener: super-types changed for types {}", staleTypeNames);
+
+            patchManager.updateTypeHierarchy(staleTypeNames);
+        }
+    }
+
+    private Map<String, Set<String>> getSuperTypesByType() {
+        Map<String, Set<String>> ret = new HashMap<>();
+
+        for (AtlasEntityType entityType : typeRegistry.getAllEntityTypes()) {
+            ret.put(entityType.getTypeName(), entityType.getAllSuperTypes());
+        }
+
+        for (AtlasClassificationType classificationType : typeRegistry.getAllClassificationTypes()) {
+            ret.put(classificationType.getTypeName(), classificationType.getAllSuperTypes());
+        }
+
+        return ret;
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.patches;
+
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.model.patches.AtlasPatch.PatchStatus;
+import org.apache.atlas.pc.WorkItemBuilder;
+import org.apache.atlas.pc.WorkItemConsumer;
+import org.apache.atlas.pc.WorkItemManager;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.type.AtlasClassificationType;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.atlas.model.patches.AtlasPatch.PatchStatus.APPLIED;
+import static org.apache.atlas.repository.Constants.ENTITY_TYPE_PROPERTY_KEY;
+
+public class TypeHierarchyPatch extends AtlasPatchHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(TypeHierarchyPatch.class);
+
+    static final String PATCH_ID          = "JAVA_PATCH_0000_002";
+    static final String PATCH_DESCRIPTION = "Add __typeHierarchy property to entity and classification vertices";
+
+    // searches filter on the type-hierarchy property only after all instances have it set for their current super-types
+    private static volatile boolean typeHierarchyComplete = false;
+
+    private final PatchContext context;
+
+    public TypeHierarchyPatch(PatchContext context) {
+        super(context.getPatchRegistry(), PATCH_ID, PATCH_DESCRIPTION);
+
+        this.context = context;
+
+        typeHierarchyComplete = getStatus() == APPLIED;
+    }
+
+    public static boolean isTypeHierarchyComplete() {
+        return typeHierarchyComplete;
+    }
+
+    @Override
+    public void setStatus(PatchStatus status) {
+        if (status != APPLIED) {
+            typeHierarchyComplete = false;
+        }
+
+        super.setStatus(status);
+
+        typeHierarchyComplete = status == APPLIED;
+    }
+
+    @Override
+    public void apply() {
+        TypeHierarchyPatchProcessor patchProcessor = new TypeHierarchyPatchProcessor(context);
+
+        patchProcessor.apply();
+
+        setStatus(APPLIED);
+
+        LOG.info("TypeHierarchyPatch.apply(): patchId={}, status={}", getPatchId(), getStatus());
+    }
+
+    public static class TypeHierarchyPatchProcessor {
+        private static final String NUM_WORKERS_PROPERTY = "atlas.patch.type_hierarchy_patch.numWorkers";
+        private static final String BATCH_SIZE_PROPERTY  = "atlas.patch.type_hierarchy_patch.batchSize";
+        private static final int    NUM_WORKERS;
+        private static final int    BATCH_SIZE;
+
+        private final AtlasGraph        graph;
+        private final AtlasTypeRegistry typeRegistry;
+
+        static {
+            int numWorkers = 3;
+            int batchSize  = 300;
+
+            try {
+                numWorkers = ApplicationProperties.get().getInt(NUM_WORKERS_PROPERTY, numWorkers);
+                batchSize  = ApplicationProperties.get().getInt(BATCH_SIZE_PROPERTY, batchSize);
+
+                LOG.info("TypeHierarchyPatch: {}={}, {}={}", NUM_WORKERS_PROPERTY, numWorkers, BATCH_SIZE_PROPERTY, batchSize);
+            } catch (Exception e) {
+                LOG.error("Error retrieving configuration.", e);
+            }
+
+            NUM_WORKERS = numWorkers;
+            BATCH_SIZE  = batchSize;
+        }
+
+        public TypeHierarchyPatchProcessor(PatchContext context) {
+            this(context.getGraph(), context.getTypeRegistry());
+        }
+
+        public TypeHierarchyPatchProcessor(AtlasGraph graph, AtlasTypeRegistry typeRegistry) {
+            this.graph        = graph;
+            this.typeRegistry = typeRegistry;
+        }
+
+        public void apply() {
+            apply(graph.query().vertexIds());
+        }
+
+        /**
+         * Updates the property in instances of the given types, like after a typedef update changed their super-types
+         */
+        public void apply(Collection<String> typeNames) {
+            apply(graph.query().in(ENTITY_TYPE_PROPERTY_KEY, typeNames).vertexIds());
+        }
+
+        private void apply(Iterable<Object> vertexIds) {
+            WorkItemManager manager = new WorkItemManager(new ConsumerBuilder(graph, typeRegistry), BATCH_SIZE, NUM_WORKERS);
+
+            try {
+                for (Object vertexId : vertexIds) {
+                    manager.checkProduce((Long) vertexId);
+                }
+
+                manager.drain();
+            } finally {
+                try {
+                    manager.shutdown();
+                } catch (InterruptedException e) {
+                    LOG.error("TypeHierarchyPatchProcessor.apply(): interrupted during WorkItemManager shutdown", e);
+                }
+            }
+        }
+
+        private static class ConsumerBuilder implements WorkItemBuilder<Consumer, Long> {
+            private final AtlasGraph        graph;
+            private final AtlasTypeRegistry typeRegistry;
+
+            public ConsumerBuilder(AtlasGraph graph, AtlasTypeRegistry typeRegistry) {
+                this.graph        = graph;
+                this.typeRegistry = typeRegistry;
+            }
+
+            @Override
+            public Consumer build(BlockingQueue<Long> queue) {
+                return new Consumer(graph, typeRegistry, queue);
+            }
+        }
+
+        private static class Consumer extends WorkItemConsumer<Long> {
+            private final AtlasGraph        graph;
+            private final AtlasTypeRegistry typeRegistry;
+            private final AtomicLong        counter;
+
+            public Consumer(AtlasGraph graph, AtlasTypeRegistry typeRegistry, BlockingQueue<Long> queue) {
+                super(queue);
+
+                this.graph        = graph;
+                this.typeRegistry = typeRegistry;
+                this.counter      = new AtomicLong(0);
+            }
+
+            @Override
+            protected void doCommit() {
+                if (counter.get() % BATCH_SIZE == 0) {
+                    LOG.info("Processed: {}", counter.get());
+
+                    graph.commit();
+                }
+            }
+
+            @Override
+            protected void commitDirty() {
+                graph.commit();
+
+                LOG.info("Total: Commit: {}", counter.get());
+
+                super.commitDirty();
+            }
+
+            @Override
+            protected void processItem(Long vertexId) {
+                AtlasVertex vertex = graph.getVertex(Long.toString(vertexId));
+
+                if (vertex == null || AtlasGraphUtilsV2.isTypeVertex(vertex)) {
+                    return;
+                }
+
+                String                  typeName           = AtlasGraphUtilsV2.getTypeName(vertex);
+                AtlasEntityType         entityType         = typeName != null ? typeRegistry.getEntityTypeByName(typeName) : null;
+                AtlasClassificationType classificationType = entityType == null && typeName != null ? typeRegistry.getClassificationTypeByName(typeName) : null;
+                Set<String>             superTypeNames;
+
+                if (entityType != null) {
+                    superTypeNames = entityType.getAllSuperTypes();
+                } else if (classificationType != null) {
+                    superTypeNames = classificationType.getAllSuperTypes();
+                } else {
+                    return;
+                }
+
+                if (AtlasGraphUtilsV2.hasTypeHierarchy(vertex, typeName, superTypeNames)) {
+                    return;
+                }
+
+                try {
+                    counter.incrementAndGet();
+
+                    AtlasGraphUtilsV2.setTypeHierarchy(vertex, typeName, superTypeNames);
+                } catch (Exception ex) {
+                    LOG.error("processItem(typeName={}, vertexId={}): failed!", typeName, vertexId, ex);
+                } finally {
+                    commit();
+                }
+            }
+        }
+    }
+}
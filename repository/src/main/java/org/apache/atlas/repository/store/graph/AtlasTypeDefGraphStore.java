@@ -59,12 +59,14 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
     private final AtlasTypeRegistry          typeRegistry;
     private final Set<TypeDefChangeListener> typeDefChangeListeners;
     private final int                        typeUpdateLockMaxWaitTimeSeconds;
+    private final AtlasTypeDefSnapshot       typeDefSnapshot;
 
     protected AtlasTypeDefGraphStore(AtlasTypeRegistry typeRegistry,
                                      Set<TypeDefChangeListener> typeDefChangeListeners) {
         this.typeRegistry                     = typeRegistry;
         this.typeDefChangeListeners           = typeDefChangeListeners;
         this.typeUpdateLockMaxWaitTimeSeconds = AtlasRepositoryConfiguration.getTypeUpdateLockMaxWaitTimeInSeconds();
+        this.typeDefSnapshot                  = AtlasTypeDefSnapshot.getInstance();
     }
 
     protected abstract AtlasDefStore<AtlasEnumDef> getEnumDefStore(AtlasTypeRegistry typeRegistry);
@@ -77,6 +79,17 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
     protected abstract AtlasDefStore<AtlasRelationshipDef> getRelationshipDefStore(AtlasTypeRegistry typeRegistry);
 
+    /**
+     * @return version of the typedefs in the store; null if the store doesn't have a version yet
+     */
+    protected abstract String getTypeSystemVersion();
+
+    /**
+     * Sets a new version for the typedefs in the store. Called in the graph transaction that updates typedefs.
+     * @return the new version
+     */
+    protected abstract String updateTypeSystemVersion();
+
     public AtlasTypeRegistry getTypeRegistry() { return typeRegistry; }
 
     @Override
@@ -89,24 +102,74 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
         try {
             ttr = typeRegistry.lockTypeRegistryForUpdate(typeUpdateLockMaxWaitTimeSeconds);
 
-            ttr.clear();
+            String  typeSystemVersion = getTypeSystemVersion();
+            boolean loadedFromSnapshot = typeDefSnapshot != null && loadFromSnapshot(ttr, typeSystemVersion);
 
-            AtlasTypesDef typesDef = new AtlasTypesDef(getEnumDefStore(ttr).getAll(),
-                    getStructDefStore(ttr).getAll(),
-                    getClassificationDefStore(ttr).getAll(),
-                    getEntityDefStore(ttr).getAll(),
-                    getRelationshipDefStore(ttr).getAll());
+            if (!loadedFromSnapshot) {
+                ttr.clear();
 
-            rectifyTypeErrorsIfAny(typesDef);
+                AtlasTypesDef typesDef = new AtlasTypesDef(getEnumDefStore(ttr).getAll(),
+                        getStructDefStore(ttr).getAll(),
+                        getClassificationDefStore(ttr).getAll(),
+                        getEntityDefStore(ttr).getAll(),
+                        getRelationshipDefStore(ttr).getAll());
 
-            ttr.addTypes(typesDef);
+                rectifyTypeErrorsIfAny(typesDef);
+
+                ttr.addTypes(typesDef);
+
+                if (typeSystemVersion == null) {
+                    typeSystemVersion = updateTypeSystemVersion();
+                }
+            }
 
             commitUpdates = true;
+
+            if (typeDefSnapshot != null && !loadedFromSnapshot) {
+                typeDefSnapshot.save(ttr, typeSystemVersion);
+            }
         } finally {
             typeRegistry.releaseTypeRegistryForUpdate(ttr, commitUpdates);
 
             LOG.info("<== AtlasTypeDefGraphStore.init()");
         }
+
+        notifyLoadCompletion();
+    }
+
+    private void notifyLoadCompletion() {
+        if (CollectionUtils.isNotEmpty(typeDefChangeListeners)) {
+            for (TypeDefChangeListener changeListener : typeDefChangeListeners) {
+                try {
+                    changeListener.onLoadCompletion();
+                } catch (Throwable t) {
+                    LOG.error("OnLoadCompletion failed for listener {}", changeListener.getClass().getName(), t);
+                }
+            }
+        }
+    }
+
+    // returns false if the snapshot is not available or not of the given version, or if it fails to load
+    private boolean loadFromSnapshot(AtlasTransientTypeRegistry ttr, String typeSystemVersion) {
+        long          startTime = System.currentTimeMillis();
+        AtlasTypesDef typesDef  = typeDefSnapshot.load(typeSystemVersion);
+        boolean       ret       = false;
+
+        if (typesDef != null) {
+            try {
+                ttr.clear();
+
+                ttr.addTypes(typesDef);
+
+                ret = true;
+
+                LOG.info("loaded {} types from typedef snapshot {} in {} ms", ttr.getAllTypeNames().size(), typeDefSnapshot.getFile(), (System.currentTimeMillis() - startTime));
+            } catch (AtlasBaseException excp) {
+                LOG.warn("failed to load types from typedef snapshot {}. Will load from the store", typeDefSnapshot.getFile(), excp);
+            }
+        }
+
+        return ret;
     }
 
     @Override
@@ -713,9 +776,11 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
     }
 
     private AtlasTransientTypeRegistry lockTypeRegistryAndReleasePostCommit() throws AtlasBaseException {
-        AtlasTransientTypeRegistry ttr = typeRegistry.lockTypeRegistryForUpdate(typeUpdateLockMaxWaitTimeSeconds);
+        AtlasTransientTypeRegistry ttr  = typeRegistry.lockTypeRegistryForUpdate(typeUpdateLockMaxWaitTimeSeconds);
+        TypeRegistryUpdateHook     hook = new TypeRegistryUpdateHook(ttr);
 
-        new TypeRegistryUpdateHook(ttr);
+        // updated in the same graph transaction as the typedefs, so that snapshots in other instances become stale
+        hook.typeSystemVersion = updateTypeSystemVersion();
 
         return ttr;
     }
@@ -965,6 +1030,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
     private class TypeRegistryUpdateHook extends GraphTransactionInterceptor.PostTransactionHook {
 
         private final AtlasTransientTypeRegistry ttr;
+        private       String                     typeSystemVersion;
 
         private TypeRegistryUpdateHook(AtlasTransientTypeRegistry ttr) {
             super();
@@ -981,6 +1047,10 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
             if (isSuccess) {
                 notifyListeners(ttr);
+
+                if (typeDefSnapshot != null) {
+                    typeDefSnapshot.save(typeRegistry, typeSystemVersion);
+                }
             }
 
             if (LOG.isDebugEnabled()) {
@@ -0,0 +1,178 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph;
+
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local file snapshot of the typedefs in the type-registry, used to avoid loading all typedefs from the graph at startup.
+ * Each snapshot is tagged with the type-system version from the graph at the time it was taken; a snapshot is used only
+ * when its version matches the version currently in the graph.
+ *
+ * File format (gzip compressed): format-version (int), type-system version (UTF), length (int) and bytes of typedefs JSON.
+ */
+public class AtlasTypeDefSnapshot {
+    private static final Logger LOG = LoggerFactory.getLogger(AtlasTypeDefSnapshot.class);
+
+    public static final String SNAPSHOT_FILE_NAME = "typedef-snapshot.bin";
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final File file;
+
+    public AtlasTypeDefSnapshot(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @return snapshot configured with atlas.typedef.snapshot.* properties; null if snapshot is disabled
+     */
+    public static AtlasTypeDefSnapshot getInstance() {
+        AtlasTypeDefSnapshot ret = null;
+
+        if (AtlasConfiguration.TYPEDEF_SNAPSHOT_ENABLED.getBoolean()) {
+            String fileName = AtlasConfiguration.TYPEDEF_SNAPSHOT_FILE.getString();
+
+            if (StringUtils.isEmpty(fileName)) {
+                String dataDir = System.getProperty("atlas.data");
+
+                if (StringUtils.isNotEmpty(dataDir)) {
+                    fileName = dataDir + File.separator + SNAPSHOT_FILE_NAME;
+                }
+            }
+
+            if (StringUtils.isNotEmpty(fileName)) {
+                ret = new AtlasTypeDefSnapshot(new File(fileName));
+            } else {
+                LOG.info("typedef snapshot disabled, as neither atlas.typedef.snapshot.file nor atlas.data is set");
+            }
+        }
+
+        return ret;
+    }
+
+    public File getFile() { return file; }
+
+    /**
+     * @param typeSystemVersion current type-system version in the graph
+     * @return typedefs in the snapshot; null if the snapshot doesn't exist, can't be read or is of a different version
+     */
+    public AtlasTypesDef load(String typeSystemVersion) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> AtlasTypeDefSnapshot.load({})", typeSystemVersion);
+        }
+
+        AtlasTypesDef ret = null;
+
+        if (StringUtils.isNotEmpty(typeSystemVersion) && file.exists()) {
+            try (DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))))) {
+                int    formatVersion   = in.readInt();
+                String snapshotVersion = formatVersion == FORMAT_VERSION ? in.readUTF() : null;
+
+                if (StringUtils.equals(typeSystemVersion, snapshotVersion)) {
+                    byte[] json = new byte[in.readInt()];
+
+                    in.readFully(json);
+
+                    ret = AtlasType.fromJson(new String(json, StandardCharsets.UTF_8), AtlasTypesDef.class);
+                } else {
+                    LOG.info("typedef snapshot {} is stale: formatVersion={}, version={}, expected version={}", file, formatVersion, snapshotVersion, typeSystemVersion);
+                }
+            } catch (Exception excp) {
+                LOG.warn("failed to read typedef snapshot {}. Ignored", file, excp);
+
+                ret = null;
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== AtlasTypeDefSnapshot.load({}): found={}", typeSystemVersion, ret != null);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Saves typedefs in the given type-registry. Any failure is logged and ignored, as the snapshot can be rebuilt from
+     * the graph.
+     */
+    public synchronized void save(AtlasTypeRegistry typeRegistry, String typeSystemVersion) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> AtlasTypeDefSnapshot.save({})", typeSystemVersion);
+        }
+
+        if (StringUtils.isNotEmpty(typeSystemVersion)) {
+            long          startTime = System.currentTimeMillis();
+            AtlasTypesDef typesDef  = new AtlasTypesDef(new ArrayList<>(typeRegistry.getAllEnumDefs()),
+                                                        new ArrayList<>(typeRegistry.getAllStructDefs()),
+                                                        new ArrayList<>(typeRegistry.getAllClassificationDefs()),
+                                                        new ArrayList<>(typeRegistry.getAllEntityDefs()),
+                                                        new ArrayList<>(typeRegistry.getAllRelationshipDefs()));
+            byte[]        json      = AtlasType.toJson(typesDef).getBytes(StandardCharsets.UTF_8);
+            File          tmpFile   = new File(file.getPath() + ".tmp");
+
+            try {
+                File parentDir = file.getAbsoluteFile().getParentFile();
+
+                if (parentDir != null && !parentDir.exists()) {
+                    parentDir.mkdirs();
+                }
+
+                try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile))))) {
+                    out.writeInt(FORMAT_VERSION);
+                    out.writeUTF(typeSystemVersion);
+                    out.writeInt(json.length);
+                    out.write(json);
+                }
+
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+                LOG.info("saved typedef snapshot {}: version={}, size={} bytes, timeTaken={} ms", file, typeSystemVersion, file.length(), (System.currentTimeMillis() - startTime));
+            } catch (IOException excp) {
+                LOG.warn("failed to save typedef snapshot {}. Ignored", file, excp);
+
+                tmpFile.delete();
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== AtlasTypeDefSnapshot.save({})", typeSystemVersion);
+        }
+    }
+}
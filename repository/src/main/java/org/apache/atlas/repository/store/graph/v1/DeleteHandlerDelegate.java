@@ -49,6 +49,13 @@ public class DeleteHandlerDelegate {
         return getHandler(RequestContext.get().getDeleteType());
     }
 
+    /**
+     * @return true if entities deleted in the current request are soft-deleted
+     */
+    public boolean isSoftDelete() {
+        return getHandler().isSoftDelete();
+    }
+
     public DeleteHandlerV1 getHandler(DeleteType deleteType) {
         if (deleteType == null) {
             deleteType = DeleteType.DEFAULT;
@@ -88,6 +88,10 @@ public abstract class DeleteHandlerV1 {
         this.softDelete                    = softDelete;
     }
 
+    public boolean isSoftDelete() {
+        return softDelete;
+    }
+
     /**
      * Deletes the specified entity vertices.
      * Deletes any traits, composite entities, and structs owned by each entity.
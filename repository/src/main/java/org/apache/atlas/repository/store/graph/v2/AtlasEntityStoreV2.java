@@ -173,10 +173,18 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
         AtlasEntitiesWithExtInfo ret = entityRetriever.toAtlasEntitiesWithExtInfo(guids, isMinExtInfo);
 
         if(ret != null){
+            List<AtlasEntityAccessRequest> requests = new ArrayList<>(guids.size());
+
             for(String guid : guids){
                 AtlasEntity entity = ret.getEntity(guid);
 
-                AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, new AtlasEntityHeader(entity)), "read entity: guid=", guid);
+                requests.add(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, new AtlasEntityHeader(entity)));
+            }
+
+            int deniedIdx = AtlasAuthorizationUtils.getFirstDeniedIndex(requests);
+
+            if (deniedIdx != -1) {
+                throw new AtlasBaseException(AtlasErrorCode.UNAUTHORIZED_ACCESS, requests.get(deniedIdx).getUser(), "read entity: guid=" + guids.get(deniedIdx));
             }
         }
 
@@ -199,8 +207,16 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
         AtlasEntitiesWithExtInfo ret = entityRetriever.getEntitiesByUniqueAttributes(entityType.getTypeName(), uniqueAttributes, isMinExtInfo);
 
         if (ret != null && ret.getEntities() != null) {
+            List<AtlasEntityAccessRequest> requests = new ArrayList<>(ret.getEntities().size());
+
             for (AtlasEntity entity : ret.getEntities()) {
-                AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, new AtlasEntityHeader(entity)), "read entity: typeName=", entityType.getTypeName(), ", guid=", entity.getGuid());
+                requests.add(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, new AtlasEntityHeader(entity)));
+            }
+
+            int deniedIdx = AtlasAuthorizationUtils.getFirstDeniedIndex(requests);
+
+            if (deniedIdx != -1) {
+                throw new AtlasBaseException(AtlasErrorCode.UNAUTHORIZED_ACCESS, requests.get(deniedIdx).getUser(), "read entity: typeName=" + entityType.getTypeName() + ", guid=" + ret.getEntities().get(deniedIdx).getGuid());
             }
         }
 
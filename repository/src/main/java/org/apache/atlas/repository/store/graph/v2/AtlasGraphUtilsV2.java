@@ -50,9 +50,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -62,6 +65,8 @@ import static org.apache.atlas.repository.Constants.ENTITY_TYPE_PROPERTY_KEY;
 import static org.apache.atlas.repository.Constants.INDEX_SEARCH_VERTEX_PREFIX_DEFAULT;
 import static org.apache.atlas.repository.Constants.INDEX_SEARCH_VERTEX_PREFIX_PROPERTY;
 import static org.apache.atlas.repository.Constants.STATE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TYPE_HIERARCHY_DELIMITER;
+import static org.apache.atlas.repository.Constants.TYPE_HIERARCHY_PROPERTY_KEY;
 import static org.apache.atlas.repository.Constants.TYPE_NAME_PROPERTY_KEY;
 import static org.apache.atlas.repository.Constants.TYPENAME_PROPERTY_KEY;
 import static org.apache.atlas.repository.graph.AtlasGraphProvider.getGraphInstance;
@@ -153,6 +158,43 @@ public class AtlasGraphUtilsV2 {
         return vertex.getProperty(TYPENAME_PROPERTY_KEY, String.class) != null;
     }
 
+    /**
+     * Sets the type-hierarchy property of the given entity/classification vertex, which is used by index queries to find
+     * instances of a type and its sub-types.
+     */
+    public static void setTypeHierarchy(AtlasVertex vertex, String typeName, Collection<String> superTypeNames) {
+        StringBuilder sb = new StringBuilder(TYPE_HIERARCHY_DELIMITER).append(typeName).append(TYPE_HIERARCHY_DELIMITER);
+
+        if (superTypeNames != null) {
+            for (String superTypeName : superTypeNames) {
+                sb.append(superTypeName).append(TYPE_HIERARCHY_DELIMITER);
+            }
+        }
+
+        setEncodedProperty(vertex, TYPE_HIERARCHY_PROPERTY_KEY, sb.toString());
+    }
+
+    /**
+     * @return true if the type-hierarchy property of the given vertex lists exactly the given type and super-types
+     */
+    public static boolean hasTypeHierarchy(AtlasVertex vertex, String typeName, Collection<String> superTypeNames) {
+        String value = vertex.getProperty(TYPE_HIERARCHY_PROPERTY_KEY, String.class);
+
+        if (value == null) {
+            return false;
+        }
+
+        Set<String> expected = new HashSet<>();
+
+        expected.add(typeName);
+
+        if (superTypeNames != null) {
+            expected.addAll(superTypeNames);
+        }
+
+        return expected.equals(new HashSet<>(Arrays.asList(StringUtils.split(value, TYPE_HIERARCHY_DELIMITER))));
+    }
+
     public static boolean isReference(AtlasType type) {
         return isReference(type.getTypeCategory());
     }
@@ -351,6 +393,42 @@ public class AtlasGraphUtilsV2 {
         return ret;
     }
 
+    /**
+     * Finds vertices of the given guids with a single graph query, instead of one query per guid.
+     * Guids that are not found are not present in the returned map.
+     */
+    public static Map<String, AtlasVertex> findByGuids(Collection<String> guids) {
+        Map<String, AtlasVertex> ret         = new HashMap<>();
+        List<String>             guidsToFind = new ArrayList<>();
+
+        for (String guid : guids) {
+            AtlasVertex vertex = GraphTransactionInterceptor.getVertexFromCache(guid);
+
+            if (vertex != null) {
+                ret.put(guid, vertex);
+            } else if (guid != null) {
+                guidsToFind.add(guid);
+            }
+        }
+
+        if (!guidsToFind.isEmpty()) {
+            AtlasGraphQuery query = getGraphInstance().query().in(Constants.GUID_PROPERTY_KEY, guidsToFind);
+
+            for (Object result : query.vertices()) {
+                AtlasVertex vertex = (AtlasVertex) result;
+                String      guid   = GraphHelper.getGuid(vertex);
+
+                if (guid != null) {
+                    ret.put(guid, vertex);
+
+                    GraphTransactionInterceptor.addToVertexCache(guid, vertex);
+                }
+            }
+        }
+
+        return ret;
+    }
+
     public static String getTypeNameFromGuid(String guid) {
         String ret = null;
 
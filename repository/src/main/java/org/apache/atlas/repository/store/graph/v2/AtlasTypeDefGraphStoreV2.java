@@ -20,6 +20,7 @@ package org.apache.atlas.repository.store.graph.v2;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 
+import static org.apache.atlas.repository.Constants.TYPESYSTEM_VERSION_PROPERTY_KEY;
 import static org.apache.atlas.repository.Constants.TYPE_CATEGORY_PROPERTY_KEY;
 import static org.apache.atlas.repository.Constants.VERTEX_TYPE_PROPERTY_KEY;
 import static org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2.VERTEX_TYPE;
@@ -60,6 +61,8 @@ import javax.inject.Singleton;
 public class AtlasTypeDefGraphStoreV2 extends AtlasTypeDefGraphStore {
     private static final Logger LOG = LoggerFactory.getLogger(AtlasTypeDefGraphStoreV2.class);
 
+    static final String TYPESYSTEM_VERSION_VERTEX_TYPE = "typeSystemVersion";
+
     protected final AtlasGraph atlasGraph;
 
     @Inject
@@ -108,8 +111,43 @@ public class AtlasTypeDefGraphStoreV2 extends AtlasTypeDefGraphStore {
         LOG.info("<== AtlasTypeDefGraphStoreV1.init()");
     }
 
+    @Override
+    protected String getTypeSystemVersion() {
+        AtlasVertex vertex = findTypeSystemVersionVertex();
+
+        return vertex != null ? vertex.getProperty(TYPESYSTEM_VERSION_PROPERTY_KEY, String.class) : null;
+    }
+
+    @Override
+    protected String updateTypeSystemVersion() {
+        AtlasVertex vertex = findTypeSystemVersionVertex();
+
+        if (vertex == null) {
+            vertex = atlasGraph.addVertex();
+
+            vertex.setProperty(VERTEX_TYPE_PROPERTY_KEY, TYPESYSTEM_VERSION_VERTEX_TYPE);
+        }
+
+        String ret = UUID.randomUUID().toString();
+
+        vertex.setProperty(TYPESYSTEM_VERSION_PROPERTY_KEY, ret);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("updateTypeSystemVersion(): {}", ret);
+        }
+
+        return ret;
+    }
+
     AtlasGraph getAtlasGraph() { return atlasGraph; }
 
+    private AtlasVertex findTypeSystemVersionVertex() {
+        Iterator<AtlasVertex> vertices = atlasGraph.query().has(VERTEX_TYPE_PROPERTY_KEY, TYPESYSTEM_VERSION_VERTEX_TYPE)
+                .vertices().iterator();
+
+        return (vertices != null && vertices.hasNext()) ? vertices.next() : null;
+    }
+
     @VisibleForTesting
     public AtlasVertex findTypeVertexByName(String typeName) {
         Iterator results = atlasGraph.query().has(VERTEX_TYPE_PROPERTY_KEY, VERTEX_TYPE)
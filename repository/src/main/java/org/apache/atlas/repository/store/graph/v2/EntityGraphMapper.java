@@ -168,6 +168,7 @@ public class EntityGraphMapper {
             AtlasGraphUtilsV2.addEncodedProperty(ret, SUPER_TYPES_PROPERTY_KEY, superTypeName);
         }
 
+        AtlasGraphUtilsV2.setTypeHierarchy(ret, entityType.getTypeName(), entityType.getAllSuperTypes());
         AtlasGraphUtilsV2.setEncodedProperty(ret, GUID_PROPERTY_KEY, guid);
         AtlasGraphUtilsV2.setEncodedProperty(ret, VERSION_PROPERTY_KEY, getEntityVersion(entity));
 
@@ -311,6 +312,7 @@ public class EntityGraphMapper {
         AtlasVertex ret = createStructVertex(classification);
 
         AtlasGraphUtilsV2.addEncodedProperty(ret, SUPER_TYPES_PROPERTY_KEY, classificationType.getAllSuperTypes());
+        AtlasGraphUtilsV2.setTypeHierarchy(ret, classificationType.getTypeName(), classificationType.getAllSuperTypes());
         AtlasGraphUtilsV2.setEncodedProperty(ret, CLASSIFICATION_ENTITY_GUID, classification.getEntityGuid());
         AtlasGraphUtilsV2.setEncodedProperty(ret, CLASSIFICATION_ENTITY_STATUS, classification.getEntityStatus().name());
 
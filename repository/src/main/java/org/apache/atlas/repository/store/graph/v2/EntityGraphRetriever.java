@@ -38,6 +38,7 @@ import org.apache.atlas.model.typedef.AtlasRelationshipDef;
 import org.apache.atlas.model.typedef.AtlasRelationshipEndDef;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
 import org.apache.atlas.repository.graph.GraphHelper;
 import org.apache.atlas.repository.graphdb.AtlasEdge;
 import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
@@ -209,6 +210,29 @@ public class EntityGraphRetriever {
         return atlasVertex != null ? mapVertexToAtlasEntityHeader(atlasVertex, attributes) : null;
     }
 
+    /**
+     * Maps entities of the given guids to headers, looking up the vertices with a single query and prefetching their
+     * properties and term assignments in bulk; used for lists of entities, like referred entities in search results.
+     */
+    public Map<String, AtlasEntityHeader> toAtlasEntityHeaders(Collection<String> guids) throws AtlasBaseException {
+        Map<String, AtlasEntityHeader> ret      = new HashMap<>();
+        Map<String, AtlasVertex>       vertices = AtlasGraphUtilsV2.findByGuids(guids);
+
+        for (String guid : guids) {
+            if (!vertices.containsKey(guid)) {
+                throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guid);
+            }
+        }
+
+        AtlasGraphProvider.getGraphInstance().prefetchVertices(vertices.values(), Collections.singleton(TERM_ASSIGNMENT_LABEL));
+
+        for (Map.Entry<String, AtlasVertex> entry : vertices.entrySet()) {
+            ret.put(entry.getKey(), toAtlasEntityHeader(entry.getValue()));
+        }
+
+        return ret;
+    }
+
     public AtlasEntityHeader toAtlasEntityHeaderWithClassifications(String guid) throws AtlasBaseException {
         return toAtlasEntityHeaderWithClassifications(getEntityVertex(guid), Collections.emptySet());
     }
@@ -0,0 +1,607 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.services;
+
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.Status;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v1.DeleteHandlerDelegate;
+import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.service.Service;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.apache.atlas.discovery.SearchProcessor.AND_STR;
+import static org.apache.atlas.model.instance.AtlasEntity.Status.ACTIVE;
+import static org.apache.atlas.model.instance.AtlasEntity.Status.DELETED;
+import static org.apache.atlas.repository.Constants.ENTITY_COUNTS_ID_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.ENTITY_COUNTS_VALUE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.ENTITY_TYPE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.STATE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.VERTEX_INDEX;
+
+/**
+ * Number of active and deleted entities of each entity type, and number of entities having each classification.
+ *
+ * Counts are maintained from entity and classification changes, applied once the changing transaction commits. They
+ * are stored in a graph vertex every flush interval, loaded from there on start, and periodically reconciled with
+ * the counts from the index in the background; hence reading the counts doesn't require an index query per type.
+ * Changes not seen here (for example classifications removed along with a hard-deleted entity) are corrected at the
+ * next reconciliation.
+ *
+ * When disabled, or until the counts are loaded or reconciled for the first time, counts are computed from the index
+ * on every call.
+ */
+@Component
+@Order(6)
+public class EntityCountService implements Service, ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityCountService.class);
+
+    private static final String COUNTS_VERTEX_ID = "entityCounts";
+    private static final String KEY_TIMESTAMP    = "timestamp";
+    private static final String KEY_ACTIVE       = "active";
+    private static final String KEY_DELETED      = "deleted";
+    private static final String KEY_TAGGED       = "tagged";
+
+    private static final ThreadLocal<EntityCountChanges> pendingChanges = new ThreadLocal<>();
+
+    private final AtlasGraph               graph;
+    private final AtlasTypeRegistry        typeRegistry;
+    private final DeleteHandlerDelegate    deleteDelegate;
+    private final Configuration            configuration;
+    private final boolean                  isEnabled;
+    private final long                     flushIntervalSecs;
+    private final long                     reconcileIntervalSecs;
+    private final String                   indexSearchPrefix  = AtlasGraphUtilsV2.getIndexSearchPrefix();
+    private final Map<String, AtomicLong>  activeCounts       = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong>  deletedCounts      = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong>  taggedCounts       = new ConcurrentHashMap<>();
+    private final AtomicLong               changeCount        = new AtomicLong();
+    private final Object                   reconcileLock      = new Object();
+    private volatile boolean               isInitialized      = false;
+    private volatile long                  lastReconcileTime  = 0;
+    private long                           flushedChangeCount = 0;
+    private EntityCountChanges             reconcileChanges   = null; // changes applied while reconciliation queries the index
+    private ScheduledExecutorService       executor;
+
+    @Inject
+    public EntityCountService(AtlasGraph graph, AtlasTypeRegistry typeRegistry, DeleteHandlerDelegate deleteDelegate, Configuration configuration) {
+        this(graph, typeRegistry, deleteDelegate, configuration,
+             AtlasConfiguration.METRICS_ENTITY_COUNTS_ENABLED.getBoolean(),
+             AtlasConfiguration.METRICS_ENTITY_COUNTS_FLUSH_INTERVAL_SECONDS.getLong(),
+             AtlasConfiguration.METRICS_ENTITY_COUNTS_RECONCILE_INTERVAL_SECONDS.getLong());
+    }
+
+    public EntityCountService(AtlasGraph graph, AtlasTypeRegistry typeRegistry, DeleteHandlerDelegate deleteDelegate, Configuration configuration,
+                              boolean isEnabled, long flushIntervalSecs, long reconcileIntervalSecs) {
+        this.graph                 = graph;
+        this.typeRegistry          = typeRegistry;
+        this.deleteDelegate        = deleteDelegate;
+        this.configuration         = configuration;
+        this.isEnabled             = isEnabled;
+        this.flushIntervalSecs     = flushIntervalSecs;
+        this.reconcileIntervalSecs = reconcileIntervalSecs;
+
+        LOG.info("EntityCountService: enabled={}, flushIntervalSecs={}, reconcileIntervalSecs={}", isEnabled, flushIntervalSecs, reconcileIntervalSecs);
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    @Override
+    public void start() {
+        if (!isEnabled) {
+            return;
+        }
+
+        if (configuration == null || !HAConfiguration.isHAEnabled(configuration)) {
+            startInternal();
+        } else {
+            LOG.info("EntityCountService.start(): deferring until instance activation");
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (isEnabled) {
+            stopInternal();
+        }
+    }
+
+    @Override
+    public void instanceIsActive() {
+        if (isEnabled) {
+            // counts of this instance are stale, as changes were made by the previously active instance
+            clearCounts();
+
+            startInternal();
+        }
+    }
+
+    @Override
+    public void instanceIsPassive() {
+        if (isEnabled) {
+            stopInternal();
+        }
+    }
+
+    @Override
+    public int getHandlerOrder() {
+        return HandlerOrder.ENTITY_COUNT_SERVICE.getOrder();
+    }
+
+    /**
+     * @return current counts; computed from the index when disabled or when counts haven't been loaded yet
+     */
+    public EntityCounts getCounts() {
+        if (!isEnabled || !isInitialized) { // counts are initialized by the background reconciliation
+            return getCountsFromIndex();
+        }
+
+        return new EntityCounts(toMap(activeCounts), toMap(deletedCounts), toMap(taggedCounts));
+    }
+
+    /**
+     * Called on entity changes, from within the transaction making the changes.
+     */
+    public void onEntitiesMutated(EntityMutationResponse response) {
+        if (!isEnabled || response == null) {
+            return;
+        }
+
+        List<AtlasEntityHeader> createdEntities = response.getCreatedEntities();
+        List<AtlasEntityHeader> deletedEntities = response.getDeletedEntities();
+
+        if (CollectionUtils.isNotEmpty(createdEntities)) {
+            EntityCountChanges changes = getPendingChanges();
+            Set<String>        guids   = new HashSet<>();
+
+            for (AtlasEntityHeader entity : createdEntities) {
+                if (guids.add(entity.getGuid())) {
+                    changes.add(changes.active, entity.getTypeName(), 1);
+                }
+            }
+        }
+
+        if (CollectionUtils.isNotEmpty(deletedEntities)) {
+            EntityCountChanges changes      = getPendingChanges();
+            Set<String>        guids        = new HashSet<>();
+            boolean            isSoftDelete = deleteDelegate.isSoftDelete();
+
+            for (AtlasEntityHeader entity : deletedEntities) {
+                if (guids.add(entity.getGuid())) {
+                    AtlasEntityType entityType = typeRegistry.getEntityTypeByName(entity.getTypeName());
+
+                    changes.add(changes.active, entity.getTypeName(), -1);
+
+                    // entities of internal types are always deleted from the graph
+                    if (isSoftDelete && (entityType == null || !entityType.isInternalType())) {
+                        changes.add(changes.deleted, entity.getTypeName(), 1);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Called on classifications added to an entity, from within the transaction adding them.
+     */
+    public void onClassificationsAdded(AtlasEntity entity, List<AtlasClassification> classifications) {
+        onClassificationsChanged(entity, classifications, 1);
+    }
+
+    /**
+     * Called on classifications deleted from an entity, from within the transaction deleting them.
+     */
+    public void onClassificationsDeleted(AtlasEntity entity, List<AtlasClassification> classifications) {
+        onClassificationsChanged(entity, classifications, -1);
+    }
+
+    /**
+     * Replaces the counts with the counts from the index, and stores them. Changes applied while the index is queried
+     * for a type are added to the count of the type from the index.
+     */
+    public void reconcile() {
+        synchronized (reconcileLock) {
+            LOG.info("==> EntityCountService.reconcile()");
+
+            Collection<String> entityDefNames         = typeRegistry.getAllEntityDefNames();
+            Collection<String> classificationDefNames = typeRegistry.getAllClassificationDefNames();
+
+            reconcileCounts(activeCounts, entityDefNames, ACTIVE, changes -> changes.active);
+            reconcileCounts(deletedCounts, entityDefNames, DELETED, changes -> changes.deleted);
+            reconcileCounts(taggedCounts, classificationDefNames, ACTIVE, changes -> changes.tagged);
+
+            synchronized (this) {
+                isInitialized     = true;
+                lastReconcileTime = System.currentTimeMillis();
+
+                changeCount.incrementAndGet();
+            }
+
+            flush();
+
+            LOG.info("<== EntityCountService.reconcile()");
+        }
+    }
+
+    synchronized void flush() {
+        long currentChangeCount = changeCount.get();
+
+        if (!isInitialized || currentChangeCount == flushedChangeCount) {
+            return;
+        }
+
+        Map<String, Object> value = new HashMap<>();
+
+        value.put(KEY_TIMESTAMP, lastReconcileTime);
+        value.put(KEY_ACTIVE, toMap(activeCounts));
+        value.put(KEY_DELETED, toMap(deletedCounts));
+        value.put(KEY_TAGGED, toMap(taggedCounts));
+
+        try {
+            AtlasVertex vertex = findCountsVertex();
+
+            if (vertex == null) {
+                vertex = graph.addVertex();
+
+                AtlasGraphUtilsV2.setEncodedProperty(vertex, ENTITY_COUNTS_ID_PROPERTY_KEY, COUNTS_VERTEX_ID);
+            }
+
+            AtlasGraphUtilsV2.setEncodedProperty(vertex, ENTITY_COUNTS_VALUE_PROPERTY_KEY, AtlasType.toJson(value));
+
+            graph.commit();
+
+            flushedChangeCount = currentChangeCount;
+        } catch (Exception excp) {
+            LOG.warn("EntityCountService: failed to store entity counts; will be retried", excp);
+
+            graph.rollback();
+        }
+    }
+
+    /**
+     * Loads counts stored earlier, and adds them to counts of changes made since this instance started.
+     *
+     * @return time of the last reconciliation of the stored counts; -1 if no counts are stored
+     */
+    @SuppressWarnings("unchecked")
+    synchronized long load() {
+        long ret = -1;
+
+        try {
+            AtlasVertex vertex = findCountsVertex();
+            String      json   = vertex != null ? AtlasGraphUtilsV2.getEncodedProperty(vertex, ENTITY_COUNTS_VALUE_PROPERTY_KEY, String.class) : null;
+
+            graph.commit();
+
+            if (StringUtils.isNotEmpty(json)) {
+                Map<String, Object> value = AtlasType.fromJson(json, Map.class);
+
+                addCounts(activeCounts, (Map<String, Number>) value.get(KEY_ACTIVE));
+                addCounts(deletedCounts, (Map<String, Number>) value.get(KEY_DELETED));
+                addCounts(taggedCounts, (Map<String, Number>) value.get(KEY_TAGGED));
+
+                ret = value.get(KEY_TIMESTAMP) instanceof Number ? ((Number) value.get(KEY_TIMESTAMP)).longValue() : 0;
+
+                isInitialized     = true;
+                lastReconcileTime = ret;
+            }
+        } catch (Exception excp) {
+            LOG.warn("EntityCountService: failed to load stored entity counts", excp);
+
+            graph.rollback();
+        }
+
+        return ret;
+    }
+
+    private void startInternal() {
+        long storedReconcileTime = load();
+        long reconcileAge        = storedReconcileTime < 0 ? Long.MAX_VALUE : (System.currentTimeMillis() - storedReconcileTime) / 1000;
+        long reconcileDelay      = Math.max(reconcileIntervalSecs - reconcileAge, 0);
+
+        LOG.info("EntityCountService: loaded stored counts={}; next reconciliation in {} seconds", storedReconcileTime >= 0, reconcileDelay);
+
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread ret = new Thread(r, "atlas-entity-counts");
+
+            ret.setDaemon(true);
+
+            return ret;
+        });
+
+        executor.scheduleWithFixedDelay(this::runFlush, flushIntervalSecs, flushIntervalSecs, TimeUnit.SECONDS);
+        executor.scheduleWithFixedDelay(this::runReconcile, reconcileDelay, reconcileIntervalSecs, TimeUnit.SECONDS);
+    }
+
+    private void stopInternal() {
+        if (executor != null) {
+            executor.shutdownNow();
+
+            executor = null;
+        }
+
+        flush();
+    }
+
+    private void runFlush() {
+        try {
+            flush();
+        } catch (Throwable t) {
+            LOG.warn("EntityCountService: flush failed", t);
+        }
+    }
+
+    private void runReconcile() {
+        try {
+            reconcile();
+        } catch (Throwable t) {
+            LOG.warn("EntityCountService: reconciliation failed", t);
+        }
+    }
+
+    private synchronized void clearCounts() {
+        activeCounts.clear();
+        deletedCounts.clear();
+        taggedCounts.clear();
+
+        isInitialized = false;
+    }
+
+    private void onClassificationsChanged(AtlasEntity entity, List<AtlasClassification> classifications, int delta) {
+        if (!isEnabled || entity == null || CollectionUtils.isEmpty(classifications)) {
+            return;
+        }
+
+        EntityCountChanges changes = null;
+
+        for (AtlasClassification classification : classifications) {
+            // propagated classifications are notified for each entity they are propagated to; count the associated entity only
+            if (classification != null && StringUtils.equals(classification.getEntityGuid(), entity.getGuid())) {
+                if (changes == null) {
+                    changes = getPendingChanges();
+                }
+
+                changes.add(changes.tagged, classification.getTypeName(), delta);
+            }
+        }
+    }
+
+    private EntityCountChanges getPendingChanges() {
+        EntityCountChanges ret = pendingChanges.get();
+
+        if (ret == null) {
+            ret = new EntityCountChanges();
+
+            pendingChanges.set(ret);
+
+            final EntityCountChanges changes = ret;
+
+            new GraphTransactionInterceptor.PostTransactionHook() {
+                @Override
+                public void onComplete(boolean isSuccess) {
+                    pendingChanges.remove();
+
+                    if (isSuccess) {
+                        apply(changes);
+                    }
+                }
+            };
+        }
+
+        return ret;
+    }
+
+    private synchronized void apply(EntityCountChanges changes) {
+        addCounts(activeCounts, changes.active);
+        addCounts(deletedCounts, changes.deleted);
+        addCounts(taggedCounts, changes.tagged);
+
+        if (reconcileChanges != null) {
+            reconcileChanges.addAll(changes);
+        }
+
+        changeCount.incrementAndGet();
+    }
+
+    // the lock is not held during the index query, so that changes are applied without waiting for reconciliation
+    private void reconcileCounts(Map<String, AtomicLong> counts, Collection<String> typeNames, Status status, Function<EntityCountChanges, Map<String, Long>> typeChanges) {
+        Set<String> names = typeNames != null ? new HashSet<>(typeNames) : Collections.emptySet();
+
+        synchronized (this) {
+            counts.keySet().retainAll(names);
+        }
+
+        for (String typeName : names) {
+            synchronized (this) {
+                reconcileChanges = new EntityCountChanges();
+            }
+
+            long count = getTypeCount(typeName, status);
+
+            synchronized (this) {
+                Long delta = typeChanges.apply(reconcileChanges).get(typeName);
+
+                reconcileChanges = null;
+
+                if (delta != null) {
+                    count += delta;
+                }
+
+                if (count != 0) {
+                    counts.computeIfAbsent(typeName, k -> new AtomicLong()).set(count);
+                } else {
+                    counts.remove(typeName);
+                }
+            }
+        }
+    }
+
+    private EntityCounts getCountsFromIndex() {
+        Collection<String> entityDefNames         = typeRegistry.getAllEntityDefNames();
+        Collection<String> classificationDefNames = typeRegistry.getAllClassificationDefNames();
+        Map<String, Long>  active                 = new HashMap<>();
+        Map<String, Long>  deleted                = new HashMap<>();
+        Map<String, Long>  tagged                 = new HashMap<>();
+
+        if (entityDefNames != null) {
+            for (String entityDefName : entityDefNames) {
+                putIfPositive(active, entityDefName, getTypeCount(entityDefName, ACTIVE));
+                putIfPositive(deleted, entityDefName, getTypeCount(entityDefName, DELETED));
+            }
+        }
+
+        if (classificationDefNames != null) {
+            for (String classificationDefName : classificationDefNames) {
+                putIfPositive(tagged, classificationDefName, getTypeCount(classificationDefName, ACTIVE));
+            }
+        }
+
+        return new EntityCounts(active, deleted, tagged);
+    }
+
+    private long getTypeCount(String typeName, Status status) {
+        Long   ret        = null;
+        String indexQuery = indexSearchPrefix + "\"" + ENTITY_TYPE_PROPERTY_KEY + "\" : (%s)" + AND_STR +
+                            indexSearchPrefix + "\"" + STATE_PROPERTY_KEY       + "\" : (%s)";
+
+        indexQuery = String.format(indexQuery, typeName, status.name());
+
+        try {
+            ret = graph.indexQuery(VERTEX_INDEX, indexQuery).vertexTotals();
+        } catch (Exception e) {
+            LOG.error("Failed fetching using indexQuery: " + e.getMessage());
+        }
+
+        return ret == null ? 0L : ret;
+    }
+
+    private AtlasVertex findCountsVertex() {
+        Iterator<AtlasVertex> vertices = graph.query().has(ENTITY_COUNTS_ID_PROPERTY_KEY, COUNTS_VERTEX_ID).vertices().iterator();
+
+        return vertices.hasNext() ? vertices.next() : null;
+    }
+
+    private static void putIfPositive(Map<String, Long> counts, String name, long count) {
+        if (count > 0) {
+            counts.put(name, count);
+        }
+    }
+
+    private static Map<String, Long> toMap(Map<String, AtomicLong> counts) {
+        Map<String, Long> ret = new HashMap<>();
+
+        for (Map.Entry<String, AtomicLong> entry : counts.entrySet()) {
+            putIfPositive(ret, entry.getKey(), entry.getValue().get());
+        }
+
+        return ret;
+    }
+
+    private static void addCounts(Map<String, AtomicLong> counts, Map<String, ? extends Number> deltas) {
+        if (deltas != null) {
+            for (Map.Entry<String, ? extends Number> entry : deltas.entrySet()) {
+                if (entry.getKey() != null && entry.getValue() != null) {
+                    counts.computeIfAbsent(entry.getKey(), k -> new AtomicLong()).addAndGet(entry.getValue().longValue());
+                }
+            }
+        }
+    }
+
+    public static class EntityCounts {
+        private final Map<String, Long> activeCounts;
+        private final Map<String, Long> deletedCounts;
+        private final Map<String, Long> taggedCounts;
+
+        public EntityCounts(Map<String, Long> activeCounts, Map<String, Long> deletedCounts, Map<String, Long> taggedCounts) {
+            this.activeCounts  = activeCounts;
+            this.deletedCounts = deletedCounts;
+            this.taggedCounts  = taggedCounts;
+        }
+
+        public Map<String, Long> getActiveCounts() { return activeCounts; }
+
+        public Map<String, Long> getDeletedCounts() { return deletedCounts; }
+
+        public Map<String, Long> getTaggedCounts() { return taggedCounts; }
+
+        public long getActiveCount(String typeName) { return getCount(activeCounts, typeName); }
+
+        public long getDeletedCount(String typeName) { return getCount(deletedCounts, typeName); }
+
+        public long getTaggedCount(String typeName) { return getCount(taggedCounts, typeName); }
+
+        private static long getCount(Map<String, Long> counts, String typeName) {
+            Long ret = counts.get(typeName);
+
+            return ret != null ? ret : 0L;
+        }
+    }
+
+    private static class EntityCountChanges {
+        final Map<String, Long> active  = new HashMap<>();
+        final Map<String, Long> deleted = new HashMap<>();
+        final Map<String, Long> tagged  = new HashMap<>();
+
+        void add(Map<String, Long> changes, String typeName, long delta) {
+            if (typeName != null) {
+                changes.merge(typeName, delta, Long::sum);
+            }
+        }
+
+        void addAll(EntityCountChanges other) {
+            other.active.forEach((typeName, delta) -> add(active, typeName, delta));
+            other.deleted.forEach((typeName, delta) -> add(deleted, typeName, delta));
+            other.tagged.forEach((typeName, delta) -> add(tagged, typeName, delta));
+        }
+    }
+}
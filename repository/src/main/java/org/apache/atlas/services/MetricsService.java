@@ -18,10 +18,8 @@
 package org.apache.atlas.services;
 
 import org.apache.atlas.annotation.AtlasService;
-import org.apache.atlas.model.instance.AtlasEntity.Status;
 import org.apache.atlas.model.metrics.AtlasMetrics;
-import org.apache.atlas.repository.graphdb.AtlasGraph;
-import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.services.EntityCountService.EntityCounts;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.util.AtlasMetricsUtil;
 import org.apache.commons.collections.CollectionUtils;
@@ -33,13 +31,6 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
-import static org.apache.atlas.discovery.SearchProcessor.AND_STR;
-import static org.apache.atlas.model.instance.AtlasEntity.Status.ACTIVE;
-import static org.apache.atlas.model.instance.AtlasEntity.Status.DELETED;
-import static org.apache.atlas.repository.Constants.ENTITY_TYPE_PROPERTY_KEY;
-import static org.apache.atlas.repository.Constants.STATE_PROPERTY_KEY;
-import static org.apache.atlas.repository.Constants.VERTEX_INDEX;
-
 @AtlasService
 public class MetricsService {
     private static final Logger LOG = LoggerFactory.getLogger(MetricsService.class);
@@ -61,42 +52,30 @@ public class MetricsService {
     protected static final String METRIC_TAG_COUNT         = TAG + "Count";
     protected static final String METRIC_ENTITIES_PER_TAG  = TAG + "Entities";
 
-    private final AtlasGraph        atlasGraph;
-    private final AtlasTypeRegistry typeRegistry;
-    private final AtlasMetricsUtil  metricsUtil;
-    private final String            indexSearchPrefix = AtlasGraphUtilsV2.getIndexSearchPrefix();
+    private final AtlasTypeRegistry  typeRegistry;
+    private final AtlasMetricsUtil   metricsUtil;
+    private final EntityCountService entityCountService;
 
     @Inject
-    public MetricsService(final AtlasGraph graph, final AtlasTypeRegistry typeRegistry, AtlasMetricsUtil metricsUtil) {
-        this.atlasGraph   = graph;
-        this.typeRegistry = typeRegistry;
-        this.metricsUtil  = metricsUtil;
+    public MetricsService(final AtlasTypeRegistry typeRegistry, AtlasMetricsUtil metricsUtil, EntityCountService entityCountService) {
+        this.typeRegistry       = typeRegistry;
+        this.metricsUtil        = metricsUtil;
+        this.entityCountService = entityCountService;
     }
 
     @SuppressWarnings("unchecked")
     public AtlasMetrics getMetrics() {
-        Collection<String> entityDefNames         = typeRegistry.getAllEntityDefNames();
-        Collection<String> classificationDefNames = typeRegistry.getAllClassificationDefNames();
-        Map<String, Long>  activeEntityCount      = new HashMap<>();
-        Map<String, Long>  deletedEntityCount     = new HashMap<>();
-        Map<String, Long>  taggedEntityCount      = new HashMap<>();
-        long               unusedTypeCount        = 0;
-        long               totalEntities          = 0;
+        Collection<String> entityDefNames  = typeRegistry.getAllEntityDefNames();
+        EntityCounts       counts          = entityCountService.getCounts();
+        long               unusedTypeCount = 0;
+        long               totalEntities   = 0;
 
         if (entityDefNames != null) {
             for (String entityDefName : entityDefNames) {
-                long activeCount  = getTypeCount(entityDefName, ACTIVE);
-                long deletedCount = getTypeCount(entityDefName, DELETED);
-
-                if (activeCount > 0) {
-                    activeEntityCount.put(entityDefName, activeCount);
-                    totalEntities += activeCount;
-                }
+                long activeCount  = counts.getActiveCount(entityDefName);
+                long deletedCount = counts.getDeletedCount(entityDefName);
 
-                if (deletedCount > 0) {
-                    deletedEntityCount.put(entityDefName, deletedCount);
-                    totalEntities += deletedCount;
-                }
+                totalEntities += activeCount + deletedCount;
 
                 if (activeCount == 0 && deletedCount == 0) {
                     unusedTypeCount++;
@@ -104,16 +83,6 @@ public class MetricsService {
             }
         }
 
-        if (classificationDefNames != null) {
-            for (String classificationDefName : classificationDefNames) {
-                long count = getTypeCount(classificationDefName, ACTIVE);
-
-                if (count > 0) {
-                    taggedEntityCount.put(classificationDefName, count);
-                }
-            }
-        }
-
         AtlasMetrics metrics = new AtlasMetrics();
 
         metrics.addMetric(GENERAL, METRIC_COLLECTION_TIME, System.currentTimeMillis());
@@ -123,28 +92,29 @@ public class MetricsService {
         metrics.addMetric(GENERAL, METRIC_TYPE_UNUSED_COUNT, unusedTypeCount);
         metrics.addMetric(GENERAL, METRIC_ENTITY_COUNT, totalEntities);
 
-        metrics.addMetric(ENTITY, METRIC_ENTITY_ACTIVE, activeEntityCount);
-        metrics.addMetric(ENTITY, METRIC_ENTITY_DELETED, deletedEntityCount);
+        metrics.addMetric(ENTITY, METRIC_ENTITY_ACTIVE, getCounts(counts.getActiveCounts(), entityDefNames));
+        metrics.addMetric(ENTITY, METRIC_ENTITY_DELETED, getCounts(counts.getDeletedCounts(), entityDefNames));
 
-        metrics.addMetric(TAG, METRIC_ENTITIES_PER_TAG, taggedEntityCount);
+        metrics.addMetric(TAG, METRIC_ENTITIES_PER_TAG, getCounts(counts.getTaggedCounts(), typeRegistry.getAllClassificationDefNames()));
 
         return metrics;
     }
 
-    private long getTypeCount(String typeName, Status status) {
-        Long   ret        = null;
-        String indexQuery = indexSearchPrefix + "\"" + ENTITY_TYPE_PROPERTY_KEY + "\" : (%s)" + AND_STR +
-                            indexSearchPrefix + "\"" + STATE_PROPERTY_KEY       + "\" : (%s)";
+    // counts of types that exist now; counts of deleted types are retained until the next reconciliation
+    private Map<String, Long> getCounts(Map<String, Long> counts, Collection<String> typeNames) {
+        Map<String, Long> ret = new HashMap<>();
 
-        indexQuery = String.format(indexQuery, typeName, status.name());
+        if (typeNames != null) {
+            for (String typeName : typeNames) {
+                Long count = counts.get(typeName);
 
-        try {
-            ret = atlasGraph.indexQuery(VERTEX_INDEX, indexQuery).vertexTotals();
-        }catch (Exception e){
-            LOG.error("Failed fetching using indexQuery: " + e.getMessage());
+                if (count != null && count > 0) {
+                    ret.put(typeName, count);
+                }
+            }
         }
 
-        return ret == null ? 0L : ret;
+        return ret;
     }
 
     private int getAllTypesCount() {
@@ -0,0 +1,257 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.TestModules;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.discovery.AtlasSearchResult;
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.query.BasicTestSetup;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graph.GraphHelper;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v2.EntityGraphRetriever;
+import org.apache.atlas.runner.LocalSolrRunner;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.atlas.graph.GraphSandboxUtil.useLocalSolr;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.fail;
+
+@Guice(modules = TestModules.TestOnlyModule.class)
+public class BulkEntityHeaderTest extends BasicTestSetup {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkEntityHeaderTest.class);
+
+    private static final int ITERATIONS = 10;
+
+    @Inject
+    private AtlasDiscoveryService discoveryService;
+
+    private EntityGraphRetriever entityRetriever;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        LocalSolrRunner.start();
+
+        loadHiveDataset();
+
+        entityRetriever = new EntityGraphRetriever(typeRegistry);
+    }
+
+    @AfterClass
+    public void teardown() throws Exception {
+        AtlasGraphProvider.cleanup();
+
+        if (useLocalSolr()) {
+            LocalSolrRunner.stop();
+        }
+    }
+
+    @Test
+    public void testBulkHeadersMatchPerEntityHeaders() throws AtlasBaseException {
+        List<String> guids = getGuids(HIVE_TABLE_TYPE, "hive_column", DATABASE_TYPE);
+
+        assertFalse(guids.isEmpty());
+
+        Map<String, AtlasEntityHeader> expected      = null;
+        Map<String, AtlasEntityHeader> actual        = null;
+        long                           perEntityTime = 0;
+        long                           bulkTime      = 0;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            clearVertexCache(guids); // vertices looked up by guid are cached; start each pass with an empty cache
+
+            long startTime = System.nanoTime();
+
+            expected = new HashMap<>();
+
+            for (String guid : guids) {
+                expected.put(guid, entityRetriever.toAtlasEntityHeader(guid));
+            }
+
+            perEntityTime += System.nanoTime() - startTime;
+
+            clearVertexCache(guids);
+
+            startTime = System.nanoTime();
+
+            actual = entityRetriever.toAtlasEntityHeaders(guids);
+
+            bulkTime += System.nanoTime() - startTime;
+        }
+
+        LOG.info("entity headers for {} entities, {} iterations: perEntity={} ms, bulk={} ms", guids.size(), ITERATIONS, perEntityTime / 1000000, bulkTime / 1000000);
+
+        assertEquals(actual, expected);
+    }
+
+    @Test
+    public void testBulkHeadersUnknownGuid() throws AtlasBaseException {
+        List<String> guids = getGuids(DATABASE_TYPE);
+
+        guids.add("unknown-guid");
+
+        try {
+            entityRetriever.toAtlasEntityHeaders(guids);
+
+            fail("expected unknown guid to be rejected");
+        } catch (AtlasBaseException excp) {
+            assertEquals(excp.getAtlasErrorCode(), AtlasErrorCode.INSTANCE_GUID_NOT_FOUND);
+        }
+    }
+
+    @Test
+    public void testPrefetchVertices() throws AtlasBaseException {
+        AtlasGraph        graph      = AtlasGraphProvider.getGraphInstance();
+        AtlasEntityType   tableType  = typeRegistry.getEntityTypeByName(HIVE_TABLE_TYPE);
+        Set<String>       attributes = new HashSet<>(Arrays.asList("db", "columns"));
+        List<AtlasVertex> vertices   = getVertices(HIVE_TABLE_TYPE);
+        List<String>      edgeLabels = new ArrayList<>(Arrays.asList(Constants.TERM_ASSIGNMENT_LABEL, Constants.CLASSIFICATION_LABEL));
+
+        for (String attribute : attributes) {
+            AtlasAttribute attr = tableType.getAttribute(attribute);
+
+            edgeLabels.add((attr != null ? attr : tableType.getRelationshipAttribute(attribute, null)).getRelationshipEdgeLabel());
+        }
+
+        assertFalse(vertices.isEmpty());
+
+        Map<String, AtlasEntityHeader> expected = new HashMap<>();
+
+        for (AtlasVertex vertex : vertices) {
+            expected.put(GraphHelper.getGuid(vertex), entityRetriever.toAtlasEntityHeaderWithClassifications(vertex, attributes));
+        }
+
+        graph.commit(); // prefetch in a new transaction, in which no vertex is loaded yet
+
+        vertices = getVertices(HIVE_TABLE_TYPE);
+
+        graph.prefetchVertices(vertices, edgeLabels);
+
+        Map<String, AtlasEntityHeader> actual = new HashMap<>();
+
+        for (AtlasVertex vertex : vertices) {
+            actual.put(GraphHelper.getGuid(vertex), entityRetriever.toAtlasEntityHeaderWithClassifications(vertex, attributes));
+        }
+
+        assertEquals(actual, expected);
+
+        // nothing to prefetch
+        graph.prefetchVertices(null, null);
+        graph.prefetchVertices(Collections.emptyList(), Collections.singleton(Constants.TERM_ASSIGNMENT_LABEL));
+        graph.prefetchVertices(vertices.subList(0, 1), Collections.emptyList());
+        graph.prefetchVertices(vertices, Collections.emptyList());
+    }
+
+    @Test
+    public void testSearchResultsMatchPerEntityHeaders() throws AtlasBaseException {
+        SearchParameters params = new SearchParameters();
+
+        params.setTypeName(HIVE_TABLE_TYPE);
+        params.setExcludeDeletedEntities(true);
+        params.setAttributes(new HashSet<>(Arrays.asList("db", "columns")));
+        params.setIncludeClassificationAttributes(true);
+        params.setLimit(1000);
+
+        AtlasSearchResult result = null;
+        long              time   = 0;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            long startTime = System.nanoTime();
+
+            result = discoveryService.searchWithParameters(params);
+
+            time += System.nanoTime() - startTime;
+        }
+
+        assertNotNull(result.getEntities());
+        assertFalse(result.getEntities().isEmpty());
+        assertNotNull(result.getReferredEntities());
+        assertFalse(result.getReferredEntities().isEmpty());
+
+        LOG.info("search with {} results and {} referred entities, {} iterations: {} ms", result.getEntities().size(), result.getReferredEntities().size(), ITERATIONS, time / 1000000);
+
+        List<String> guids = new ArrayList<>();
+
+        for (AtlasEntityHeader entity : result.getEntities()) {
+            guids.add(entity.getGuid());
+        }
+
+        clearVertexCache(guids);
+
+        for (AtlasEntityHeader entity : result.getEntities()) {
+            assertEquals(entity, entityRetriever.toAtlasEntityHeaderWithClassifications(entityRetriever.getEntityVertex(entity.getGuid()), params.getAttributes()));
+        }
+
+        clearVertexCache(new ArrayList<>(result.getReferredEntities().keySet()));
+
+        for (Map.Entry<String, AtlasEntityHeader> entry : result.getReferredEntities().entrySet()) {
+            assertEquals(entry.getValue(), entityRetriever.toAtlasEntityHeader(entry.getKey()));
+        }
+    }
+
+    private void clearVertexCache(List<String> guids) {
+        for (String guid : guids) {
+            GraphTransactionInterceptor.removeFromVertexCache(guid);
+        }
+    }
+
+    private List<String> getGuids(String... typeNames) {
+        List<String> ret = new ArrayList<>();
+
+        for (AtlasVertex vertex : getVertices(typeNames)) {
+            ret.add(GraphHelper.getGuid(vertex));
+        }
+
+        return ret;
+    }
+
+    private List<AtlasVertex> getVertices(String... typeNames) {
+        List<AtlasVertex> ret = new ArrayList<>();
+
+        for (Object vertex : AtlasGraphProvider.getGraphInstance().query().in(Constants.ENTITY_TYPE_PROPERTY_KEY, Arrays.asList(typeNames)).vertices()) {
+            ret.add((AtlasVertex) vertex);
+        }
+
+        return ret;
+    }
+}
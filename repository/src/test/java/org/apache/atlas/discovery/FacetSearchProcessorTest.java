@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.atlas.repository.Constants.PROPAGATED_TRAIT_NAMES_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TRAIT_NAMES_PROPERTY_KEY;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+public class FacetSearchProcessorTest {
+    @Test
+    public void testTypeNameCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+
+        counts.put("hive_table", 10L);
+        counts.put("hive_column", 100L);
+        counts.put("piitag", 5L);
+        counts.put("unknown_type", 1L);
+
+        Map<String, Long> expected = new LinkedHashMap<>();
+
+        expected.put("hive_table", 10L);
+        expected.put("hive_column", 100L);
+        expected.put("PIITag", 5L);
+
+        // values from the index are lower-case; values of types not in the list are dropped
+        assertEquals(FacetSearchProcessor.toTypeNameCounts(counts, Arrays.asList("hive_table", "hive_column", "PIITag")), expected);
+    }
+
+    @Test
+    public void testClassificationCounts() {
+        List<AtlasVertex> vertices = Arrays.asList(createVertex(Arrays.asList("PII", "Fact"), null),
+                                                   createVertex(Collections.singletonList("PII"), Arrays.asList("PII", "Log Data")),
+                                                   createVertex(null, Collections.singletonList("Fact")),
+                                                   createVertex(null, null));
+
+        Map<String, Long> expected = new LinkedHashMap<>();
+
+        expected.put("PII", 2L);
+        expected.put("Fact", 2L);
+        expected.put("Log Data", 1L);
+
+        // an entity is counted once for a classification, whether direct or propagated; highest counts first
+        Map<String, Long> counts = FacetSearchProcessor.toClassificationCounts(vertices, 10);
+
+        assertEquals(counts, expected);
+        assertEquals(new ArrayList<>(counts.keySet()), Arrays.asList("Fact", "PII", "Log Data"));
+
+        assertEquals(FacetSearchProcessor.toClassificationCounts(vertices, 2).keySet(), new HashSet<>(Arrays.asList("Fact", "PII")));
+    }
+
+    private static AtlasVertex createVertex(List<String> traitNames, List<String> propagatedTraitNames) {
+        AtlasVertex ret = mock(AtlasVertex.class);
+
+        when(ret.getPropertyValues(TRAIT_NAMES_PROPERTY_KEY, String.class)).thenReturn(traitNames);
+        when(ret.getPropertyValues(PROPAGATED_TRAIT_NAMES_PROPERTY_KEY, String.class)).thenReturn(propagatedTraitNames);
+
+        return ret;
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.TestModules;
+import org.apache.atlas.model.discovery.AtlasSearchResult;
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.query.BasicTestSetup;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.runner.LocalSolrRunner;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.apache.atlas.graph.GraphSandboxUtil.useLocalSolr;
+import static org.apache.atlas.model.discovery.SearchParameters.FACET_CLASSIFICATION;
+import static org.apache.atlas.model.discovery.SearchParameters.FACET_TYPE_NAME;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+@Guice(modules = TestModules.TestOnlyModule.class)
+public class FacetSearchTest extends BasicTestSetup {
+    @Inject
+    private AtlasDiscoveryService discoveryService;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        LocalSolrRunner.start();
+
+        loadHiveDataset();
+    }
+
+    @AfterClass
+    public void teardown() throws Exception {
+        AtlasGraphProvider.cleanup();
+
+        if (useLocalSolr()) {
+            LocalSolrRunner.stop();
+        }
+    }
+
+    @Test
+    public void testTypeNameFacetMatchesSearchResults() throws Exception {
+        for (String typeName : Arrays.asList(HIVE_TABLE_TYPE, DATABASE_TYPE)) {
+            SearchParameters params = new SearchParameters();
+
+            params.setTypeName(typeName);
+            params.setExcludeDeletedEntities(true);
+            params.setLimit(1000);
+            params.setFacets(new HashSet<>(Arrays.asList(FACET_TYPE_NAME, "unknownAttribute")));
+
+            AtlasSearchResult result = discoveryService.searchWithParameters(params);
+
+            assertNotNull(result.getEntities());
+            assertNotNull(result.getFacets());
+
+            Map<String, Long> expected = new HashMap<>();
+
+            for (AtlasEntityHeader entity : result.getEntities()) {
+                expected.merge(entity.getTypeName(), 1L, Long::sum);
+            }
+
+            // facets are counted by the index, over all entities matching the search
+            assertEquals(result.getFacets().get(FACET_TYPE_NAME), expected);
+
+            // attributes not in the type are withheld
+            assertFalse(result.getFacets().containsKey("unknownAttribute"));
+            assertTrue(result.getWithheldFacets().containsKey("unknownAttribute"));
+        }
+    }
+
+    @Test
+    public void testClassificationFacetMatchesSearchResults() throws Exception {
+        SearchParameters params = new SearchParameters();
+
+        params.setTypeName(HIVE_TABLE_TYPE);
+        params.setExcludeDeletedEntities(true);
+        params.setLimit(1000);
+        params.setFacets(Collections.singleton(FACET_CLASSIFICATION));
+
+        AtlasSearchResult result = discoveryService.searchWithParameters(params);
+
+        assertNotNull(result.getEntities());
+        assertNotNull(result.getFacets());
+
+        Map<String, Long> expected = new HashMap<>();
+
+        for (AtlasEntityHeader entity : result.getEntities()) {
+            if (entity.getClassificationNames() != null) {
+                for (String classificationName : new HashSet<>(entity.getClassificationNames())) {
+                    expected.merge(classificationName, 1L, Long::sum);
+                }
+            }
+        }
+
+        assertFalse(expected.isEmpty());
+        assertEquals(result.getFacets().get(FACET_CLASSIFICATION), expected);
+    }
+
+    @Test
+    public void testTokenizedAttributeFacetWithheld() throws Exception {
+        SearchParameters params = new SearchParameters();
+
+        params.setTypeName(HIVE_TABLE_TYPE);
+        params.setLimit(1000);
+        params.setFacets(Collections.singleton("name"));
+
+        AtlasSearchResult result = discoveryService.searchWithParameters(params);
+
+        // string attributes are tokenized by the index; counts of tokens are not counts of attribute values
+        assertFalse(result.getFacets() != null && result.getFacets().containsKey("name"));
+        assertTrue(result.getWithheldFacets().containsKey("name"));
+    }
+
+    @Test
+    public void testNoFacetsWhenSearchIsNotIndexOnly() throws Exception {
+        SearchParameters params = new SearchParameters();
+
+        params.setTypeName(HIVE_TABLE_TYPE);
+        params.setClassification(FACT_CLASSIFICATION);
+        params.setLimit(1000);
+        params.setFacets(new HashSet<>(Arrays.asList(FACET_TYPE_NAME)));
+
+        AtlasSearchResult result = discoveryService.searchWithParameters(params);
+
+        assertTrue(result.getFacets() == null || !result.getFacets().containsKey(FACET_TYPE_NAME));
+        assertTrue(result.getWithheldFacets().containsKey(FACET_TYPE_NAME));
+    }
+}
@@ -0,0 +1,206 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.apache.atlas.model.typedef.AtlasEntityDef;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.type.AtlasTypeRegistry.AtlasTransientTypeRegistry;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.fail;
+
+public class SearchContinuationTokenTest {
+    @Test
+    public void testTokenRoundTrip() throws AtlasBaseException {
+        SearchParameters params = getSearchParameters("hive_table", 25, 0);
+
+        assertEquals(SearchContext.parseContinuationToken(params), -1);
+
+        params.setContinuationToken(SearchContext.toContinuationToken(params, 1234));
+
+        assertEquals(SearchContext.parseContinuationToken(params), 1234);
+
+        // page size and offset can change between pages
+        SearchParameters nextPage = getSearchParameters("hive_table", 100, 50);
+
+        nextPage.setContinuationToken(params.getContinuationToken());
+
+        assertEquals(SearchContext.parseContinuationToken(nextPage), 1234);
+    }
+
+    @Test
+    public void testTokenOfProfiledSearch() throws AtlasBaseException {
+        SearchParameters params   = getSearchParameters("hive_table", 25, 0);
+        SearchParameters profiled = getSearchParameters("hive_table", 25, 25);
+
+        profiled.setProfile(true);
+        profiled.setContinuationToken(SearchContext.toContinuationToken(params, 25));
+
+        // profiling a page doesn't change the search it continues
+        assertEquals(SearchContext.parseContinuationToken(profiled), 25);
+    }
+
+    @Test
+    public void testTokenOfOtherSearch() {
+        SearchParameters params = getSearchParameters("hive_table", 25, 0);
+        SearchParameters other  = getSearchParameters("hive_column", 25, 0);
+
+        other.setContinuationToken(SearchContext.toContinuationToken(params, 25));
+
+        assertInvalidToken(other);
+
+        other.setContinuationToken("not-a-token");
+
+        assertInvalidToken(other);
+    }
+
+    @Test
+    public void testPagingWithToken() throws Exception {
+        List<AtlasVertex> queryResults = new ArrayList<>();
+        List<AtlasVertex> expected     = new ArrayList<>();
+
+        for (int i = 0; i < 23; i++) {
+            // typeName is matched case-sensitively after the index query (ATLAS-2121): every third result is filtered out
+            boolean     isFilteredOut = i % 3 == 1;
+            AtlasVertex vertex        = createVertex(i, isFilteredOut ? "Hive_Table" : "hive_table");
+
+            queryResults.add(vertex);
+
+            if (!isFilteredOut) {
+                expected.add(vertex);
+            }
+        }
+
+        AtlasTypeRegistry typeRegistry = createTypeRegistry("hive_table");
+        AtlasGraph        graph        = createGraph(queryResults);
+
+        for (int limit = 1; limit <= expected.size() + 1; limit++) {
+            List<AtlasVertex> results = new ArrayList<>();
+            String            token   = null;
+
+            do {
+                SearchParameters params = getSearchParameters("hive_table", limit, 0);
+
+                params.setContinuationToken(token);
+
+                SearchContext     context = new SearchContext(params, typeRegistry, graph, Collections.emptySet());
+                List<AtlasVertex> page    = context.getSearchProcessor().execute();
+
+                results.addAll(page);
+
+                token = context.getNextContinuationToken();
+
+                if (token == null) {
+                    break;
+                }
+
+                assertEquals(page.size(), limit, "limit=" + limit);
+            } while (results.size() <= expected.size());
+
+            // no duplicates or gaps, and no token after the last page
+            assertEquals(results, expected, "limit=" + limit);
+            assertNull(token, "limit=" + limit);
+        }
+    }
+
+    private void assertInvalidToken(SearchParameters params) {
+        try {
+            SearchContext.parseContinuationToken(params);
+
+            fail("expected invalid continuationToken to be rejected");
+        } catch (AtlasBaseException excp) {
+            assertEquals(excp.getAtlasErrorCode(), AtlasErrorCode.INVALID_PARAMETERS);
+        }
+    }
+
+    private SearchParameters getSearchParameters(String typeName, int limit, int offset) {
+        SearchParameters ret = new SearchParameters();
+
+        ret.setTypeName(typeName);
+        ret.setExcludeDeletedEntities(true);
+        ret.setLimit(limit);
+        ret.setOffset(offset);
+
+        return ret;
+    }
+
+    private AtlasTypeRegistry createTypeRegistry(String typeName) throws AtlasBaseException {
+        AtlasTypeRegistry          ret = new AtlasTypeRegistry();
+        AtlasTransientTypeRegistry ttr = ret.lockTypeRegistryForUpdate();
+
+        ttr.addType(new AtlasEntityDef(typeName));
+
+        ret.releaseTypeRegistryForUpdate(ttr, true);
+
+        return ret;
+    }
+
+    // index query returns the given vertices, in the same order for every page
+    private AtlasGraph createGraph(List<AtlasVertex> queryResults) {
+        AtlasGraph      graph      = mock(AtlasGraph.class);
+        AtlasIndexQuery indexQuery = mock(AtlasIndexQuery.class);
+
+        when(graph.indexQuery(anyString(), anyString())).thenReturn(indexQuery);
+        when(indexQuery.vertices(anyInt(), anyInt())).thenAnswer(invocation -> {
+            int                           offset = (Integer) invocation.getArguments()[0];
+            int                           limit  = (Integer) invocation.getArguments()[1];
+            List<AtlasIndexQuery.Result> ret    = new ArrayList<>();
+
+            for (int i = offset; i < queryResults.size() && i < offset + limit; i++) {
+                AtlasIndexQuery.Result result = mock(AtlasIndexQuery.Result.class);
+
+                when(result.getVertex()).thenReturn(queryResults.get(i));
+
+                ret.add(result);
+            }
+
+            return ret.iterator();
+        });
+
+        return graph;
+    }
+
+    private AtlasVertex createVertex(int id, String typeName) {
+        AtlasVertex ret = mock(AtlasVertex.class);
+
+        when(ret.getId()).thenReturn(id);
+        when(ret.getProperty(eq(Constants.TYPE_NAME_PROPERTY_KEY), any(Class.class))).thenReturn(typeName);
+        when(ret.getProperty(eq(Constants.STATE_PROPERTY_KEY), any(Class.class))).thenReturn("ACTIVE");
+
+        return ret;
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.model.discovery.AtlasSearchResult;
+import org.apache.atlas.model.discovery.AtlasSearchResult.AtlasQueryType;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class SearchResultCacheTest {
+    @Test
+    public void testGetAndPut() {
+        SearchResultCache cache      = new SearchResultCache(true, 10, 60);
+        String            key        = cache.getKey(AtlasQueryType.DSL, "hive_table", "user1", Collections.singleton("group1"), "127.0.0.1");
+        AtlasSearchResult result     = new AtlasSearchResult("hive_table", AtlasQueryType.DSL);
+        long              generation = cache.getGeneration();
+
+        assertNull(cache.get(key));
+
+        cache.put(key, generation, result);
+
+        assertSame(cache.get(key), result);
+    }
+
+    @Test
+    public void testKeyIncludesAuthorizationContext() {
+        SearchResultCache cache = new SearchResultCache(true, 10, 60);
+        String            key   = cache.getKey(AtlasQueryType.BASIC, "query", "user1", new HashSet<>(Arrays.asList("g1", "g2")), "127.0.0.1");
+
+        assertEquals(cache.getKey(AtlasQueryType.BASIC, "query", "user1", new HashSet<>(Arrays.asList("g2", "g1")), "127.0.0.1"), key);
+        assertNotEquals(cache.getKey(AtlasQueryType.BASIC, "query", "user2", new HashSet<>(Arrays.asList("g1", "g2")), "127.0.0.1"), key);
+        assertNotEquals(cache.getKey(AtlasQueryType.BASIC, "query", "user1", Collections.singleton("g1"), "127.0.0.1"), key);
+        assertNotEquals(cache.getKey(AtlasQueryType.BASIC, "query", "user1", new HashSet<>(Arrays.asList("g1", "g2")), "10.0.0.1"), key);
+        assertNotEquals(cache.getKey(AtlasQueryType.DSL, "query", "user1", new HashSet<>(Arrays.asList("g1", "g2")), "127.0.0.1"), key);
+    }
+
+    @Test
+    public void testInvalidation() {
+        SearchResultCache cache      = new SearchResultCache(true, 10, 60);
+        String            key        = cache.getKey(AtlasQueryType.BASIC, "query", "user1", null, null);
+        AtlasSearchResult result     = new AtlasSearchResult();
+        long              generation = cache.getGeneration();
+
+        cache.put(key, generation, result);
+        cache.onChange(null);
+
+        assertNull(cache.get(key));
+
+        // result computed before the change must not be cached
+        cache.put(key, generation, result);
+
+        assertNull(cache.get(key));
+
+        cache.put(key, cache.getGeneration(), result);
+
+        assertSame(cache.get(key), result);
+    }
+
+    @Test
+    public void testDisabled() {
+        SearchResultCache cache = new SearchResultCache(false, 10, 60);
+
+        cache.put("key", cache.getGeneration(), new AtlasSearchResult());
+
+        assertNull(cache.get("key"));
+        assertNull(cache.getKey(AtlasQueryType.BASIC, "query"));
+    }
+}
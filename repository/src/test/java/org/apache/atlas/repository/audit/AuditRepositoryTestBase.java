@@ -34,7 +34,7 @@ import static org.testng.Assert.assertNotNull;
 public class AuditRepositoryTestBase {
     protected EntityAuditRepository eventRepository;
 
-    private String rand() {
+    protected String rand() {
          return TestUtilsV2.randomString(10);
     }
 
@@ -21,6 +21,8 @@ package org.apache.atlas.repository.audit;
 import com.datastax.driver.core.Cluster;
 import com.datastax.driver.core.Session;
 import org.apache.atlas.AtlasException;
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.model.instance.AtlasEntity;
 import org.apache.cassandra.exceptions.ConfigurationException;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.MapConfiguration;
@@ -28,11 +30,15 @@ import org.apache.thrift.transport.TTransportException;
 import org.cassandraunit.utils.EmbeddedCassandraServerHelper;
 import org.testng.SkipException;
 import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
 
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
 public class CassandraAuditRepositoryTest extends AuditRepositoryTestBase {
     private static final int MAX_RETRIES    = 9;
     private final String CLUSTER_HOST       = "localhost";
@@ -55,6 +61,36 @@ public class CassandraAuditRepositoryTest extends AuditRepositoryTestBase {
         }
     }
 
+    @Test
+    public void testTagChangesFromStartOfTime() throws Exception {
+        String             entityId = rand();
+        EntityAuditEventV2 event    = new EntityAuditEventV2(entityId, System.currentTimeMillis(), "u1",
+                EntityAuditEventV2.EntityAuditActionV2.CLASSIFICATION_ADD, "d1", new AtlasEntity(rand()));
+
+        eventRepository.putEventsV2(event);
+
+        // only days since tag_changes is populated are queried
+        assertTrue(eventRepository.getEntitiesWithTagChanges(0, Long.MAX_VALUE).contains(entityId));
+    }
+
+    @Test
+    public void testTagChangesBuckets() {
+        long day   = 24L * 60 * 60 * 1000;
+        long start = 20000 * day + 10;
+        long now   = start + 5 * day;
+
+        // from the day before tag_changes started to be populated, to the day after today
+        long[] buckets = CassandraBasedAuditRepository.getTagChangesBuckets(0, Long.MAX_VALUE, start, now);
+
+        assertEquals(buckets[0], 19999);
+        assertEquals(buckets[1], 20006);
+
+        buckets = CassandraBasedAuditRepository.getTagChangesBuckets(start + 2 * day, start + 3 * day, start, now);
+
+        assertEquals(buckets[0], 20002);
+        assertEquals(buckets[1], 20003);
+    }
+
     private Map<String, Object> getClusterProperties() {
         Map<String, Object> props = new HashMap<>();
         props.put(CassandraBasedAuditRepository.MANAGE_EMBEDDED_CASSANDRA, Boolean.TRUE);
@@ -0,0 +1,198 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class EntityAuditDeltaTest {
+    @AfterMethod
+    public void cleanup() {
+        RequestContext.clear();
+    }
+
+    @Test
+    public void testCreateAndApply() {
+        AtlasEntity previous = new AtlasEntity("hive_table");
+
+        previous.setGuid("guid-1");
+        previous.setAttribute("name", "t1");
+        previous.setAttribute("owner", "u1");
+        previous.setAttribute("comment", "c1");
+
+        AtlasEntity current = EntityAuditDelta.copyOf(previous);
+
+        current.setAttribute("owner", "u2");
+        current.getAttributes().remove("comment");
+        current.setClassifications(Collections.singletonList(new AtlasClassification("PII")));
+
+        EntityAuditDelta delta = EntityAuditDelta.create(previous, current);
+
+        assertEquals(delta.getEntity().getAttributes(), Collections.singletonMap("owner", "u2"));
+        assertEquals(delta.getRemovedAttributes(), Collections.singletonList("comment"));
+        assertTrue(delta.isClassificationsChanged());
+        assertFalse(delta.isMeaningsChanged());
+
+        // delta must survive serialization, as it is stored in audit details
+        AtlasEntity applied = AtlasType.fromJson(AtlasType.toJson(delta), EntityAuditDelta.class).applyTo(previous);
+
+        assertEquals(applied.getAttributes(), current.getAttributes());
+        assertEquals(applied.getClassifications().size(), 1);
+        assertEquals(applied.getClassifications().get(0).getTypeName(), "PII");
+        assertEquals(previous.getAttribute("comment"), "c1");
+    }
+
+    @Test
+    public void testListenerWritesDeltasAndResolve() throws Exception {
+        InMemoryEntityAuditRepository repository = new InMemoryEntityAuditRepository();
+        EntityAuditListenerV2         listener   = new EntityAuditListenerV2(repository, new AtlasTypeRegistry(), null, true, 3, 100);
+        AtlasEntity                   entity     = new AtlasEntity("hive_table");
+
+        entity.setGuid("guid-2");
+        entity.setAttribute("name", "t2");
+
+        newRequest();
+        listener.onEntitiesAdded(Collections.singletonList(entity), false);
+
+        for (int i = 1; i <= 4; i++) {
+            entity.setAttribute("owner", "user" + i);
+
+            newRequest();
+            listener.onEntitiesUpdated(Collections.singletonList(entity), false);
+        }
+
+        // create: full; update 1, 2: delta; update 3: full (snapshot interval); update 4: delta
+        List<EntityAuditEventV2> events = repository.listEventsV2("guid-2", null, (short) 10);
+
+        assertEquals(events.size(), 5);
+        assertTrue(EntityAuditDelta.isDelta(events.get(0)));
+        assertFalse(EntityAuditDelta.isDelta(events.get(1)));
+        assertTrue(EntityAuditDelta.isDelta(events.get(2)));
+        assertTrue(EntityAuditDelta.isDelta(events.get(3)));
+        assertFalse(EntityAuditDelta.isDelta(events.get(4)));
+
+        // resolve a page that starts with deltas; full entity is read from earlier events in the repository
+        List<EntityAuditEventV2> page = repository.listEventsV2("guid-2", events.get(2).getEventKey(), (short) 1);
+
+        EntityAuditDelta.resolve(repository, page);
+
+        assertResolved(page.get(0), "user2");
+
+        EntityAuditDelta.resolve(repository, events);
+
+        for (int i = 0; i < 4; i++) {
+            assertResolved(events.get(i), "user" + (4 - i));
+        }
+
+        assertNull(getEntity(events.get(4)).getAttribute("owner"));
+    }
+
+    @Test
+    public void testListenerWithFailedPut() throws Exception {
+        FailingAuditRepository repository = new FailingAuditRepository();
+        EntityAuditListenerV2  listener   = new EntityAuditListenerV2(repository, new AtlasTypeRegistry(), null, true, 10, 100);
+        AtlasEntity            entity     = new AtlasEntity("hive_table");
+
+        entity.setGuid("guid-3");
+        entity.setAttribute("name", "t2");
+
+        newRequest();
+        listener.onEntitiesAdded(Collections.singletonList(entity), false);
+
+        // update 1 is not stored, hence must not be the base for the delta of update 2
+        entity.setAttribute("owner", "user1");
+        entity.setAttribute("comment", "c1");
+
+        repository.failPuts = true;
+
+        newRequest();
+
+        try {
+            listener.onEntitiesUpdated(Collections.singletonList(entity), false);
+
+            fail("expected putEventsV2() to fail");
+        } catch (IllegalStateException excp) {
+            // expected
+        }
+
+        repository.failPuts = false;
+
+        entity.setAttribute("owner", "user2");
+
+        newRequest();
+        listener.onEntitiesUpdated(Collections.singletonList(entity), false);
+
+        List<EntityAuditEventV2> events = repository.listEventsV2("guid-3", null, (short) 10);
+
+        assertEquals(events.size(), 2);
+        assertTrue(EntityAuditDelta.isDelta(events.get(0)));
+
+        EntityAuditDelta.resolve(repository, events);
+
+        assertResolved(events.get(0), "user2");
+        assertEquals(getEntity(events.get(0)).getAttribute("comment"), "c1");
+    }
+
+    private void assertResolved(EntityAuditEventV2 event, String expectedOwner) {
+        assertFalse(EntityAuditDelta.isDelta(event));
+        assertTrue(event.getDetails().startsWith("Updated: {"));
+
+        AtlasEntity entity = getEntity(event);
+
+        assertEquals(entity.getAttribute("name"), "t2");
+        assertEquals(entity.getAttribute("owner"), expectedOwner);
+    }
+
+    private AtlasEntity getEntity(EntityAuditEventV2 event) {
+        return AtlasType.fromJson(event.getDetails().substring(event.getDetails().indexOf('{')), AtlasEntity.class);
+    }
+
+    private static class FailingAuditRepository extends InMemoryEntityAuditRepository {
+        boolean failPuts = false;
+
+        @Override
+        public void putEventsV2(List<EntityAuditEventV2> events) {
+            if (failPuts) {
+                throw new IllegalStateException("audit repository is not available");
+            }
+
+            super.putEventsV2(events);
+        }
+    }
+
+    private void newRequest() throws InterruptedException {
+        Thread.sleep(2); // audit events of an entity must have different timestamps
+
+        RequestContext.clear();
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class HBaseAsyncAuditWriterTest {
+    @Test
+    public void testWritesInOrder() throws Exception {
+        BufferedMutator mutator = mock(BufferedMutator.class);
+        List<String>    written = Collections.synchronizedList(new ArrayList<>());
+
+        doAnswer(invocation -> {
+            for (Object mutation : (List) invocation.getArguments()[0]) {
+                written.add(Bytes.toString(((Mutation) mutation).getRow()));
+            }
+
+            return null;
+        }).when(mutator).mutate(anyListOf(Mutation.class));
+
+        HBaseAsyncAuditWriter writer   = new HBaseAsyncAuditWriter(mutator, 100, 10, 50, 1000);
+        List<String>          expected = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            List<Put> puts = new ArrayList<>();
+
+            for (int j = 0; j < 7; j++) {
+                String row = "entity" + j + ":" + i;
+
+                puts.add(new Put(Bytes.toBytes(row)));
+                expected.add(row);
+            }
+
+            writer.write(puts);
+        }
+
+        writer.close();
+
+        assertEquals(written, expected);
+        assertEquals(writer.getPendingCount(), 0);
+
+        verify(mutator, atLeastOnce()).flush();
+        verify(mutator).close();
+    }
+
+    @Test
+    public void testBackPressure() throws Exception {
+        BufferedMutator mutator = mock(BufferedMutator.class);
+        CountDownLatch  release = new CountDownLatch(1);
+
+        doAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+
+            return null;
+        }).when(mutator).mutate(anyListOf(Mutation.class));
+
+        HBaseAsyncAuditWriter writer = new HBaseAsyncAuditWriter(mutator, 2, 1, 50, 100);
+
+        try {
+            for (int i = 0; i < 10; i++) {
+                writer.write(Collections.singletonList(new Put(Bytes.toBytes("row" + i))));
+            }
+
+            fail("write should have failed when the queue is full");
+        } catch (AtlasBaseException excp) {
+            // expected
+        } finally {
+            release.countDown();
+
+            writer.close();
+        }
+    }
+
+    @Test
+    public void testFailureIsReportedUntilRecovery() throws Exception {
+        BufferedMutator mutator   = mock(BufferedMutator.class);
+        AtomicBoolean   isHBaseUp = new AtomicBoolean(false);
+        List<String>    buffered  = Collections.synchronizedList(new ArrayList<>());
+        List<String>    written   = Collections.synchronizedList(new ArrayList<>());
+
+        doAnswer(invocation -> {
+            for (Object mutation : (List) invocation.getArguments()[0]) {
+                buffered.add(Bytes.toString(((Mutation) mutation).getRow()));
+            }
+
+            return null;
+        }).when(mutator).mutate(anyListOf(Mutation.class));
+
+        // like BufferedMutator, failed mutations are dropped from the buffer
+        doAnswer(invocation -> {
+            synchronized (buffered) {
+                if (!isHBaseUp.get()) {
+                    buffered.clear();
+
+                    throw new IOException("hbase is down");
+                }
+
+                written.addAll(buffered);
+                buffered.clear();
+            }
+
+            return null;
+        }).when(mutator).flush();
+
+        HBaseAsyncAuditWriter writer = new HBaseAsyncAuditWriter(mutator, 100, 1, 20, 1000);
+
+        try {
+            writer.write(Arrays.asList(new Put(Bytes.toBytes("row1"))));
+
+            assertTrue(waitForWriteFailure(writer), "write should fail after a flush failure");
+
+            // failure must continue to be reported while hbase is down, across many flush intervals
+            Thread.sleep(200);
+
+            assertTrue(waitForWriteFailure(writer), "write should fail while hbase is down");
+            assertTrue(written.isEmpty());
+
+            isHBaseUp.set(true);
+
+            long timeout = System.currentTimeMillis() + 5000;
+
+            while (waitForWriteFailure(writer)) {
+                assertTrue(System.currentTimeMillis() < timeout, "writer did not recover");
+            }
+
+            // puts of the failed flush are written after recovery
+            assertEquals(written, Collections.singletonList("row1"));
+
+            writer.write(Arrays.asList(new Put(Bytes.toBytes("row2"))));
+        } finally {
+            isHBaseUp.set(true);
+
+            writer.close();
+        }
+
+        assertEquals(written, Arrays.asList("row1", "row2"));
+    }
+
+    private boolean waitForWriteFailure(HBaseAsyncAuditWriter writer) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            try {
+                writer.write(Collections.emptyList());
+            } catch (AtlasBaseException excp) {
+                return true;
+            }
+
+            Thread.sleep(10);
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.MapConfiguration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.atlas.repository.audit.HBaseBasedAuditRepository.COLUMN_ACTION;
+import static org.apache.atlas.repository.audit.HBaseBasedAuditRepository.COLUMN_FAMILY;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class HBaseBasedAuditRepositoryTest {
+    private static final long INDEX_START_TIME = 1000;
+
+    private Table      table;
+    private List<Scan> scans;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        table = mock(Table.class);
+        scans = new ArrayList<>();
+
+        // full-table scan finds g1 (before the index started) and the index finds g2
+        when(table.getScanner(any(Scan.class))).thenAnswer(invocation -> {
+            Scan scan = (Scan) invocation.getArguments()[0];
+
+            scans.add(scan);
+
+            byte[] row = scan.getFilter() != null ? Bytes.toBytes("g1:500") : HBaseBasedAuditRepository.getTagChangeIndexKey(1500, "g2");
+
+            return createScanner(row);
+        });
+    }
+
+    @Test
+    public void testTagChangesBeforeIndexStartUseScan() throws Exception {
+        setIndexStartTime(INDEX_START_TIME);
+
+        HBaseBasedAuditRepository repository = createRepository(true);
+
+        assertEquals(repository.getEntitiesWithTagChanges(100, 2000), new HashSet<>(Arrays.asList("g1", "g2")));
+        assertEquals(scans.size(), 2);
+
+        Scan fullScan  = getScan(true);
+        Scan indexScan = getScan(false);
+
+        assertEquals(fullScan.getTimeRange().getMin(), 100);
+        assertEquals(fullScan.getTimeRange().getMax(), INDEX_START_TIME);
+        assertTrue(Bytes.equals(indexScan.getStartRow(), HBaseBasedAuditRepository.getTagChangeIndexKey(INDEX_START_TIME, null)));
+        assertTrue(Bytes.equals(indexScan.getStopRow(), HBaseBasedAuditRepository.getTagChangeIndexKey(2000, null)));
+    }
+
+    @Test
+    public void testTagChangesAfterIndexStartUseIndex() throws Exception {
+        setIndexStartTime(INDEX_START_TIME);
+
+        HBaseBasedAuditRepository repository = createRepository(true);
+
+        assertEquals(repository.getEntitiesWithTagChanges(1200, 2000), Collections.singleton("g2"));
+        assertEquals(scans.size(), 1);
+        assertNotNull(getScan(false));
+    }
+
+    @Test
+    public void testTagChangesWithoutIndexStartUseScan() throws Exception {
+        setIndexStartTime(null);
+
+        HBaseBasedAuditRepository repository = createRepository(true);
+
+        assertEquals(repository.getEntitiesWithTagChanges(1200, 2000), Collections.singleton("g1"));
+        assertEquals(scans.size(), 1);
+        assertEquals(getScan(true).getTimeRange().getMax(), 2000);
+    }
+
+    @Test
+    public void testTagChangesWithIndexDisabledUseScan() throws Exception {
+        setIndexStartTime(INDEX_START_TIME);
+
+        HBaseBasedAuditRepository repository = createRepository(false);
+
+        assertEquals(repository.getEntitiesWithTagChanges(1200, 2000), Collections.singleton("g1"));
+        assertEquals(scans.size(), 1);
+        assertNull(getScan(false));
+    }
+
+    private HBaseBasedAuditRepository createRepository(boolean isTagChangeIndexEnabled) throws Exception {
+        Connection connection = mock(Connection.class);
+
+        when(connection.getTable(any())).thenReturn(table);
+
+        Map<String, Object> props = new HashMap<>();
+
+        props.put(HAConfiguration.ATLAS_SERVER_HA_ENABLED_KEY, true); // skip table creation on start
+        props.put(HBaseBasedAuditRepository.CONFIG_TAG_CHANGE_INDEX_ENABLED, isTagChangeIndexEnabled);
+
+        Configuration             atlasConf  = new MapConfiguration(props);
+        HBaseBasedAuditRepository repository = new HBaseBasedAuditRepository() {
+            @Override
+            protected Connection createConnection(org.apache.hadoop.conf.Configuration hbaseConf) {
+                return connection;
+            }
+        };
+
+        repository.startInternal(atlasConf, HBaseConfiguration.create());
+
+        return repository;
+    }
+
+    private void setIndexStartTime(Long indexStartTime) throws Exception {
+        Result result = indexStartTime == null ? Result.EMPTY_RESULT :
+                        Result.create(Collections.singletonList(new KeyValue(Bytes.toBytes("_tag:"), COLUMN_FAMILY, Bytes.toBytes("s"), Bytes.toBytes(indexStartTime))));
+
+        when(table.get(any(Get.class))).thenReturn(result);
+    }
+
+    private Scan getScan(boolean isFullScan) {
+        for (Scan scan : scans) {
+            if ((scan.getFilter() != null) == isFullScan) {
+                return scan;
+            }
+        }
+
+        return null;
+    }
+
+    private static ResultScanner createScanner(byte[] row) throws Exception {
+        ResultScanner    scanner = mock(ResultScanner.class);
+        Iterator<Result> results = Collections.singletonList(Result.create(Collections.<Cell>singletonList(new KeyValue(row, COLUMN_FAMILY, COLUMN_ACTION, Bytes.toBytes("CLASSIFICATION_ADD"))))).iterator();
+
+        when(scanner.next()).thenAnswer(invocation -> results.hasNext() ? results.next() : null);
+
+        return scanner;
+    }
+}
@@ -18,11 +18,38 @@
 
 package org.apache.atlas.repository.audit;
 
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.model.audit.EntityAuditEventV2.EntityAuditActionV2;
+import org.apache.atlas.model.instance.AtlasEntity;
 import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.testng.Assert.assertEquals;
 
 public class InMemoryAuditRepositoryTest extends AuditRepositoryTestBase {
     @BeforeClass
     public void setup() {
         eventRepository = new InMemoryEntityAuditRepository();
     }
+
+    @Test
+    public void testEntitiesWithTagChanges() throws Exception {
+        EntityAuditRepository repository = new InMemoryEntityAuditRepository();
+        AtlasEntity           entity     = new AtlasEntity("t1");
+
+        repository.putEventsV2(new EntityAuditEventV2("g1", 100, "u1", EntityAuditActionV2.CLASSIFICATION_ADD, "d1", entity),
+                               new EntityAuditEventV2("g2", 200, "u1", EntityAuditActionV2.ENTITY_UPDATE, "d2", entity),
+                               new EntityAuditEventV2("g3", 200, "u1", EntityAuditActionV2.CLASSIFICATION_DELETE, "d3", entity),
+                               new EntityAuditEventV2("g4", 300, "u1", EntityAuditActionV2.PROPAGATED_CLASSIFICATION_ADD, "d4", entity),
+                               new EntityAuditEventV2("g5", 400, "u1", EntityAuditActionV2.CLASSIFICATION_UPDATE, "d5", entity));
+
+        // range is [from, to); non-classification events are not included
+        assertEquals(repository.getEntitiesWithTagChanges(100, 400), new HashSet<>(Arrays.asList("g1", "g3")));
+        assertEquals(repository.getEntitiesWithTagChanges(101, 401), new HashSet<>(Arrays.asList("g3", "g5")));
+        assertEquals(repository.getEntitiesWithTagChanges(400, 400), Collections.emptySet());
+    }
 }
@@ -0,0 +1,203 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.patches;
+
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.TestModules;
+import org.apache.atlas.TestUtilsV2;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.typedef.AtlasClassificationDef;
+import org.apache.atlas.model.typedef.AtlasEntityDef;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graph.GraphBackedSearchIndexer;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.AtlasEntityStore;
+import org.apache.atlas.repository.store.graph.v2.AtlasEntityStream;
+import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.runner.LocalSolrRunner;
+import org.apache.atlas.store.AtlasTypeDefStore;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.apache.atlas.graph.GraphSandboxUtil.useLocalSolr;
+import static org.apache.atlas.repository.Constants.ENTITY_TYPE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TYPE_HIERARCHY_PROPERTY_KEY;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Guice(modules = TestModules.TestOnlyModule.class)
+public class TypeHierarchyChangeListenerTest {
+    private static final long MAX_WAIT_MS = 30000;
+
+    @Inject
+    private AtlasTypeRegistry typeRegistry;
+
+    @Inject
+    private AtlasTypeDefStore typeDefStore;
+
+    @Inject
+    private AtlasEntityStore entityStore;
+
+    @Inject
+    private AtlasGraph graph;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        LocalSolrRunner.start();
+
+        RequestContext.clear();
+        RequestContext.get().setUser(TestUtilsV2.TEST_USER, null);
+
+        new GraphBackedSearchIndexer(typeRegistry);
+    }
+
+    @AfterClass
+    public void teardown() throws Exception {
+        AtlasGraphProvider.cleanup();
+
+        if (useLocalSolr()) {
+            LocalSolrRunner.stop();
+        }
+    }
+
+    @Test
+    public void testSuperTypeAddedToEntityType() throws Exception {
+        AtlasEntityDef baseDef   = new AtlasEntityDef("th_base");
+        AtlasEntityDef parentDef = new AtlasEntityDef("th_parent");
+        AtlasEntityDef childDef  = new AtlasEntityDef("th_child");
+
+        childDef.setSuperTypes(Collections.singleton(parentDef.getName()));
+
+        typeDefStore.createTypesDef(new AtlasTypesDef(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Arrays.asList(baseDef, parentDef, childDef)));
+
+        String parentGuid = createEntity(parentDef.getName());
+        String childGuid  = createEntity(childDef.getName());
+
+        assertTrue(hasTypeHierarchy(childGuid, "th_child", "th_parent"));
+
+        // adding a super-type to th_parent changes the type-hierarchy of instances of th_parent and of its sub-type th_child
+        parentDef = new AtlasEntityDef(typeDefStore.getEntityDefByName(parentDef.getName()));
+
+        parentDef.setSuperTypes(Collections.singleton(baseDef.getName()));
+
+        typeDefStore.updateTypesDef(new AtlasTypesDef(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Collections.singletonList(parentDef)));
+
+        // the update runs in the background
+        waitForTypeHierarchy(childGuid, "th_child", "th_parent", "th_base");
+
+        assertTrue(hasTypeHierarchy(parentGuid, "th_parent", "th_base"));
+        assertTrue(hasTypeHierarchy(childGuid, "th_child", "th_parent", "th_base"));
+        assertFalse(hasTypeHierarchy(childGuid, "th_child", "th_parent"));
+    }
+
+    @Test
+    public void testSuperTypeAddedToClassificationType() throws Exception {
+        AtlasClassificationDef baseDef   = new AtlasClassificationDef("th_base_tag");
+        AtlasClassificationDef tagDef    = new AtlasClassificationDef("th_tag");
+        AtlasEntityDef         entityDef = new AtlasEntityDef("th_tagged");
+
+        typeDefStore.createTypesDef(new AtlasTypesDef(Collections.emptyList(), Collections.emptyList(), Arrays.asList(baseDef, tagDef), Collections.singletonList(entityDef)));
+
+        String guid = createEntity(entityDef.getName());
+
+        entityStore.addClassification(Collections.singletonList(guid), new AtlasClassification(tagDef.getName()));
+
+        tagDef = new AtlasClassificationDef(tagDef.getName());
+
+        tagDef.setSuperTypes(Collections.singleton(baseDef.getName()));
+
+        typeDefStore.updateTypesDef(new AtlasTypesDef(Collections.emptyList(), Collections.emptyList(), Collections.singletonList(tagDef), Collections.emptyList()));
+
+        long deadline = System.currentTimeMillis() + MAX_WAIT_MS;
+        int  count    = 0;
+
+        while (count == 0 && System.currentTimeMillis() < deadline) {
+            graph.commit(); // read the vertices in a new transaction
+
+            for (Object vertex : graph.query().has(ENTITY_TYPE_PROPERTY_KEY, tagDef.getName()).vertices()) {
+                if (!AtlasGraphUtilsV2.hasTypeHierarchy((AtlasVertex) vertex, "th_tag", Collections.singleton("th_base_tag"))) {
+                    count = 0;
+
+                    break;
+                }
+
+                count++;
+            }
+
+            if (count == 0) {
+                Thread.sleep(100);
+            }
+        }
+
+        assertTrue(count > 0);
+    }
+
+    @Test
+    public void testUnchangedSuperTypesNotUpdated() throws Exception {
+        AtlasEntityDef entityDef = new AtlasEntityDef("th_unchanged");
+
+        typeDefStore.createTypesDef(new AtlasTypesDef(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Collections.singletonList(entityDef)));
+
+        String guid = createEntity(entityDef.getName());
+
+        graph.commit();
+
+        AtlasGraphUtilsV2.findByGuid(guid).removeProperty(TYPE_HIERARCHY_PROPERTY_KEY);
+
+        graph.commit();
+
+        // a change that doesn't touch the super-types must not trigger an update of the instances
+        entityDef = new AtlasEntityDef(typeDefStore.getEntityDefByName(entityDef.getName()));
+
+        entityDef.setDescription("updated description");
+
+        typeDefStore.updateTypesDef(new AtlasTypesDef(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Collections.singletonList(entityDef)));
+
+        Thread.sleep(1000);
+
+        assertFalse(hasTypeHierarchy(guid, "th_unchanged"));
+    }
+
+    private String createEntity(String typeName) throws Exception {
+        return entityStore.createOrUpdate(new AtlasEntityStream(new AtlasEntity(typeName)), false).getFirstEntityCreated().getGuid();
+    }
+
+    private void waitForTypeHierarchy(String guid, String typeName, String... superTypeNames) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + MAX_WAIT_MS;
+
+        while (!hasTypeHierarchy(guid, typeName, superTypeNames) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+    }
+
+    private boolean hasTypeHierarchy(String guid, String typeName, String... superTypeNames) {
+        graph.commit(); // read the vertex in a new transaction
+
+        return AtlasGraphUtilsV2.hasTypeHierarchy(AtlasGraphUtilsV2.findByGuid(guid), typeName, Arrays.asList(superTypeNames));
+    }
+}
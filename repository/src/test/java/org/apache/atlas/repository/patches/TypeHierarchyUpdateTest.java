@@ -0,0 +1,172 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.patches;
+
+import org.apache.atlas.listener.ChangedTypeDefs;
+import org.apache.atlas.model.typedef.AtlasEntityDef;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.patches.TypeHierarchyPatch.TypeHierarchyPatchProcessor;
+import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.type.AtlasTypeRegistry.AtlasTransientTypeRegistry;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.apache.atlas.repository.Constants.ENTITY_TYPE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TYPENAME_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TYPE_HIERARCHY_PROPERTY_KEY;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TypeHierarchyUpdateTest {
+    @Test
+    public void testListenerUpdatesOnlyTypesWithChangedSuperTypes() throws Exception {
+        AtlasTypeRegistry typeRegistry = new AtlasTypeRegistry();
+        AtlasPatchManager patchManager = mock(AtlasPatchManager.class);
+        AtlasEntityDef    baseDef      = new AtlasEntityDef("th_base");
+        AtlasEntityDef    parentDef    = new AtlasEntityDef("th_parent");
+        AtlasEntityDef    childDef     = new AtlasEntityDef("th_child");
+        AtlasEntityDef    otherDef     = new AtlasEntityDef("th_other");
+
+        childDef.setSuperTypes(Collections.singleton(parentDef.getName()));
+
+        updateRegistry(typeRegistry, new AtlasTypesDef(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Arrays.asList(baseDef, parentDef, childDef, otherDef)), false);
+
+        TypeHierarchyChangeListener listener = new TypeHierarchyChangeListener(typeRegistry, patchManager);
+
+        listener.onLoadCompletion();
+
+        // no change in super-types: no update
+        otherDef = new AtlasEntityDef(otherDef);
+
+        otherDef.setDescription("updated description");
+
+        updateRegistry(typeRegistry, new AtlasTypesDef(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Collections.singletonList(otherDef)), true);
+
+        listener.onChange(new ChangedTypeDefs(null, Collections.singletonList(otherDef), null));
+
+        verify(patchManager, never()).updateTypeHierarchy(anyCollection());
+
+        // super-type added to th_parent: update instances of th_parent and of its sub-type th_child; new types have no instances
+        AtlasEntityDef newDef = new AtlasEntityDef("th_new");
+
+        newDef.setSuperTypes(Collections.singleton(baseDef.getName()));
+
+        parentDef = new AtlasEntityDef(parentDef);
+
+        parentDef.setSuperTypes(Collections.singleton(baseDef.getName()));
+
+        updateRegistry(typeRegistry, new AtlasTypesDef(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Collections.singletonList(newDef)), false);
+        updateRegistry(typeRegistry, new AtlasTypesDef(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Collections.singletonList(parentDef)), true);
+
+        listener.onChange(new ChangedTypeDefs(Collections.singletonList(newDef), Collections.singletonList(parentDef), null));
+
+        verify(patchManager).updateTypeHierarchy(new HashSet<>(Arrays.asList("th_parent", "th_child")));
+    }
+
+    @Test
+    public void testProcessorUpdatesOnlyStaleInstances() throws Exception {
+        AtlasTypeRegistry typeRegistry = new AtlasTypeRegistry();
+        AtlasEntityDef    parentDef    = new AtlasEntityDef("th_parent");
+        AtlasEntityDef    childDef     = new AtlasEntityDef("th_child");
+
+        childDef.setSuperTypes(Collections.singleton(parentDef.getName()));
+
+        updateRegistry(typeRegistry, new AtlasTypesDef(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Arrays.asList(parentDef, childDef)), false);
+
+        AtlasGraph      graph       = mock(AtlasGraph.class);
+        AtlasGraphQuery query       = mock(AtlasGraphQuery.class);
+        AtlasVertex     staleVertex = mockVertex(ENTITY_TYPE_PROPERTY_KEY, "th_child", TYPE_HIERARCHY_PROPERTY_KEY, "|th_child|");
+        AtlasVertex     validVertex = mockVertex(ENTITY_TYPE_PROPERTY_KEY, "th_child", TYPE_HIERARCHY_PROPERTY_KEY, "|th_child|th_parent|");
+        AtlasVertex     typeVertex  = mockVertex(TYPENAME_PROPERTY_KEY, "th_child");
+
+        when(graph.query()).thenReturn(query);
+        when(query.in(eq(ENTITY_TYPE_PROPERTY_KEY), anyCollection())).thenReturn(query);
+        when(query.vertexIds()).thenReturn(Arrays.asList((Object) 1L, 2L, 3L));
+        when(graph.getVertex("1")).thenReturn(staleVertex);
+        when(graph.getVertex("2")).thenReturn(validVertex);
+        when(graph.getVertex("3")).thenReturn(typeVertex);
+
+        new TypeHierarchyPatchProcessor(graph, typeRegistry).apply(Collections.singleton("th_child"));
+
+        assertTrue(AtlasGraphUtilsV2.hasTypeHierarchy(staleVertex, "th_child", Collections.singleton("th_parent")));
+        assertTrue(AtlasGraphUtilsV2.hasTypeHierarchy(validVertex, "th_child", Collections.singleton("th_parent")));
+        assertFalse(AtlasGraphUtilsV2.hasTypeHierarchy(typeVertex, "th_child", Collections.singleton("th_parent")));
+
+        verify(validVertex, never()).setProperty(anyString(), any());
+        verify(typeVertex, never()).setProperty(anyString(), any());
+        verify(query).in(ENTITY_TYPE_PROPERTY_KEY, Collections.singleton("th_child"));
+    }
+
+    private static void updateRegistry(AtlasTypeRegistry typeRegistry, AtlasTypesDef typesDef, boolean isUpdate) throws Exception {
+        AtlasTransientTypeRegistry ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+        if (isUpdate) {
+            ttr.updateTypes(typesDef);
+        } else {
+            ttr.addTypes(typesDef);
+        }
+
+        typeRegistry.releaseTypeRegistryForUpdate(ttr, true);
+    }
+
+    private static AtlasVertex mockVertex(String... properties) {
+        final Map<String, Object> values = new HashMap<>();
+        final AtlasVertex         ret    = mock(AtlasVertex.class);
+
+        for (int i = 0; i < properties.length; i += 2) {
+            values.put(properties[i], properties[i + 1]);
+        }
+
+        when(ret.getId()).thenReturn(ret.hashCode());
+        when(ret.getProperty(anyString(), any(Class.class))).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                return values.get((String) invocation.getArguments()[0]);
+            }
+        });
+
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                return values.put((String) invocation.getArguments()[0], invocation.getArguments()[1]);
+            }
+        }).when(ret).setProperty(anyString(), any());
+
+        return ret;
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.typedef.AtlasBaseTypeDef;
+import org.apache.atlas.model.typedef.AtlasClassificationDef;
+import org.apache.atlas.model.typedef.AtlasEntityDef;
+import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.type.AtlasTypeRegistry.AtlasTransientTypeRegistry;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class AtlasTypeDefSnapshotTest {
+    private File snapshotFile;
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        snapshotFile = File.createTempFile("typedef-snapshot", ".bin");
+
+        snapshotFile.delete();
+    }
+
+    @AfterMethod
+    public void cleanup() {
+        snapshotFile.delete();
+    }
+
+    @Test
+    public void testSaveAndLoad() throws AtlasBaseException {
+        AtlasTypeDefSnapshot snapshot = new AtlasTypeDefSnapshot(snapshotFile);
+
+        assertNull(snapshot.load("v1"));
+
+        snapshot.save(createTypeRegistry(), "v1");
+
+        assertTrue(snapshotFile.exists());
+
+        AtlasTypesDef typesDef = snapshot.load("v1");
+
+        assertNotNull(typesDef);
+        assertEquals(typesDef.getEntityDefs().size(), 1);
+        assertEquals(typesDef.getEntityDefs().get(0).getName(), "snapshot_entity");
+        assertEquals(typesDef.getEntityDefs().get(0).getAttributeDefs().size(), 1);
+        assertEquals(typesDef.getClassificationDefs().size(), 1);
+        assertEquals(typesDef.getClassificationDefs().get(0).getName(), "snapshot_tag");
+
+        // the loaded typedefs must be accepted by a new type-registry
+        AtlasTypeRegistry          typeRegistry = new AtlasTypeRegistry();
+        AtlasTransientTypeRegistry ttr          = typeRegistry.lockTypeRegistryForUpdate();
+
+        ttr.addTypes(typesDef);
+
+        typeRegistry.releaseTypeRegistryForUpdate(ttr, true);
+
+        assertNotNull(typeRegistry.getEntityTypeByName("snapshot_entity"));
+    }
+
+    @Test
+    public void testLoadOfStaleSnapshot() throws AtlasBaseException {
+        AtlasTypeDefSnapshot snapshot = new AtlasTypeDefSnapshot(snapshotFile);
+
+        snapshot.save(createTypeRegistry(), "v1");
+
+        assertNull(snapshot.load("v2"));
+        assertNull(snapshot.load(null));
+    }
+
+    @Test
+    public void testLoadOfCorruptSnapshot() throws IOException {
+        Files.write(snapshotFile.toPath(), "not a snapshot".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(new AtlasTypeDefSnapshot(snapshotFile).load("v1"));
+    }
+
+    private AtlasTypeRegistry createTypeRegistry() throws AtlasBaseException {
+        AtlasEntityDef entityDef = new AtlasEntityDef("snapshot_entity");
+
+        entityDef.addAttribute(new AtlasAttributeDef("name", AtlasBaseTypeDef.ATLAS_TYPE_STRING));
+
+        AtlasTypesDef typesDef = new AtlasTypesDef();
+
+        typesDef.getEntityDefs().add(entityDef);
+        typesDef.getClassificationDefs().add(new AtlasClassificationDef("snapshot_tag"));
+
+        AtlasTypeRegistry          ret = new AtlasTypeRegistry();
+        AtlasTransientTypeRegistry ttr = ret.lockTypeRegistryForUpdate();
+
+        ttr.addTypes(typesDef);
+
+        ret.releaseTypeRegistryForUpdate(ttr, true);
+
+        return ret;
+    }
+}
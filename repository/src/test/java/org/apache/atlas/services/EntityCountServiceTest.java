@@ -0,0 +1,222 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.services;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.model.instance.EntityMutations.EntityOperation;
+import org.apache.atlas.model.typedef.AtlasEntityDef;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
+import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v1.DeleteHandlerDelegate;
+import org.apache.atlas.services.EntityCountService.EntityCounts;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.type.AtlasTypeRegistry.AtlasTransientTypeRegistry;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+public class EntityCountServiceTest {
+    private AtlasGraph                  graph;
+    private DeleteHandlerDelegate       deleteDelegate;
+    private GraphTransactionInterceptor interceptor;
+    private EntityCountService          service;
+
+    @BeforeMethod
+    public void setup() {
+        AtlasIndexQuery indexQuery = mock(AtlasIndexQuery.class);
+        AtlasGraphQuery graphQuery = mock(AtlasGraphQuery.class);
+        AtlasVertex     vertex     = mock(AtlasVertex.class);
+
+        graph          = mock(AtlasGraph.class);
+        deleteDelegate = mock(DeleteHandlerDelegate.class);
+
+        when(graph.indexQuery(anyString(), anyString())).thenReturn(indexQuery);
+        when(indexQuery.vertexTotals()).thenReturn(0L);
+        when(graph.query()).thenReturn(graphQuery);
+        when(graphQuery.has(anyString(), any())).thenReturn(graphQuery);
+        when(graphQuery.vertices()).thenReturn(Collections.emptyList());
+        when(graph.addVertex()).thenReturn(vertex);
+
+        interceptor = new GraphTransactionInterceptor(graph);
+        service     = new EntityCountService(graph, new AtlasTypeRegistry(), deleteDelegate, null, true, 60, 3600);
+    }
+
+    @Test
+    public void testCountsFromChanges() throws Throwable {
+        assertEquals(service.getCounts().getActiveCounts(), Collections.emptyMap());
+
+        // counts are initialized by the background reconciliation
+        service.reconcile();
+
+        inTransaction(() -> service.onEntitiesMutated(getResponse(EntityOperation.CREATE, "hive_table", "t1", "t2", "t3")), true);
+
+        assertCounts(3, 0, 0);
+
+        // changes of a transaction that fails are not counted
+        inTransaction(() -> service.onEntitiesMutated(getResponse(EntityOperation.CREATE, "hive_table", "t4")), false);
+
+        assertCounts(3, 0, 0);
+
+        when(deleteDelegate.isSoftDelete()).thenReturn(true);
+
+        inTransaction(() -> service.onEntitiesMutated(getResponse(EntityOperation.DELETE, "hive_table", "t1")), true);
+
+        assertCounts(2, 1, 0);
+
+        when(deleteDelegate.isSoftDelete()).thenReturn(false);
+
+        inTransaction(() -> service.onEntitiesMutated(getResponse(EntityOperation.DELETE, "hive_table", "t2")), true);
+
+        assertCounts(1, 1, 0);
+
+        AtlasEntity entity    = new AtlasEntity("hive_table");
+        AtlasEntity propagate = new AtlasEntity("hive_table");
+
+        entity.setGuid("t3");
+        propagate.setGuid("t5");
+
+        inTransaction(() -> {
+            service.onClassificationsAdded(entity, Collections.singletonList(getClassification("PII", "t3")));
+
+            // propagated classification is not counted
+            service.onClassificationsAdded(propagate, Collections.singletonList(getClassification("PII", "t3")));
+        }, true);
+
+        assertCounts(1, 1, 1);
+
+        inTransaction(() -> service.onClassificationsDeleted(entity, Collections.singletonList(getClassification("PII", "t3"))), true);
+
+        assertCounts(1, 1, 0);
+    }
+
+    @Test
+    public void testReconcile() throws Throwable {
+        inTransaction(() -> service.onEntitiesMutated(getResponse(EntityOperation.CREATE, "hive_table", "t1")), true);
+
+        // until initialized, counts are read from the index - without reconciling on the calling thread
+        assertCounts(0, 0, 0);
+
+        service.reconcile();
+
+        inTransaction(() -> service.onEntitiesMutated(getResponse(EntityOperation.CREATE, "hive_table", "t2")), true);
+
+        assertCounts(1, 0, 0);
+
+        // index has no entities; reconciliation replaces the counts
+        service.reconcile();
+
+        assertCounts(0, 0, 0);
+    }
+
+    @Test
+    public void testChangesDuringReconcile() throws Throwable {
+        AtlasTypeRegistry          typeRegistry = new AtlasTypeRegistry();
+        AtlasTransientTypeRegistry ttr          = typeRegistry.lockTypeRegistryForUpdate();
+        AtlasIndexQuery            indexQuery   = mock(AtlasIndexQuery.class);
+        AtomicBoolean              isChanged    = new AtomicBoolean();
+
+        ttr.addType(new AtlasEntityDef("hive_table"));
+
+        typeRegistry.releaseTypeRegistryForUpdate(ttr, true);
+
+        service = new EntityCountService(graph, typeRegistry, deleteDelegate, null, true, 60, 3600);
+
+        when(graph.indexQuery(anyString(), anyString())).thenReturn(indexQuery);
+
+        // an entity is created while the index is queried for the count of active hive_table entities
+        when(indexQuery.vertexTotals()).thenAnswer(i -> {
+            if (isChanged.compareAndSet(false, true)) {
+                inTransaction(() -> service.onEntitiesMutated(getResponse(EntityOperation.CREATE, "hive_table", "t1")), true);
+            }
+
+            return 5L;
+        });
+
+        service.reconcile();
+
+        assertCounts(6, 5, 0);
+    }
+
+    private void assertCounts(long active, long deleted, long tagged) {
+        EntityCounts counts = service.getCounts();
+
+        assertEquals(counts.getActiveCount("hive_table"), active);
+        assertEquals(counts.getDeletedCount("hive_table"), deleted);
+        assertEquals(counts.getTaggedCount("PII"), tagged);
+    }
+
+    private void inTransaction(Runnable change, boolean isSuccess) throws Throwable {
+        MethodInvocation invocation = mock(MethodInvocation.class);
+
+        when(invocation.getMethod()).thenReturn(Object.class.getMethod("toString"));
+        when(invocation.proceed()).thenAnswer(i -> {
+            change.run();
+
+            if (!isSuccess) {
+                throw new RuntimeException("transaction failed");
+            }
+
+            return null;
+        });
+
+        try {
+            interceptor.invoke(invocation);
+        } catch (RuntimeException excp) {
+            if (isSuccess) {
+                throw excp;
+            }
+        }
+    }
+
+    private EntityMutationResponse getResponse(EntityOperation operation, String typeName, String... guids) {
+        EntityMutationResponse ret = new EntityMutationResponse();
+
+        for (String guid : guids) {
+            AtlasEntityHeader header = new AtlasEntityHeader(typeName);
+
+            header.setGuid(guid);
+
+            ret.addEntity(operation, header);
+        }
+
+        return ret;
+    }
+
+    private AtlasClassification getClassification(String typeName, String entityGuid) {
+        AtlasClassification ret = new AtlasClassification(typeName);
+
+        ret.setEntityGuid(entityGuid);
+
+        return ret;
+    }
+}
@@ -45,7 +45,7 @@ public class RequestContext {
     private final Map<String, AtlasEntityWithExtInfo>    entityExtInfoCache  = new HashMap<>();
     private final Map<String, List<AtlasClassification>> addedPropagations   = new HashMap<>();
     private final Map<String, List<AtlasClassification>> removedPropagations = new HashMap<>();
-    private final AtlasPerfMetrics                       metrics             = isMetricsEnabled ? new AtlasPerfMetrics() : null;
+    private       AtlasPerfMetrics                       metrics             = isMetricsEnabled ? new AtlasPerfMetrics() : null;
     private       List<EntityGuidPair>                   entityGuidInRequest = null;
 
     private String      user;
@@ -304,6 +304,15 @@ public class RequestContext {
 
 
 
+    // record metrics of this request even when METRICS logger is not enabled; used to profile a request
+    public void enableMetrics() {
+        if (metrics == null) {
+            metrics = new AtlasPerfMetrics();
+        }
+    }
+
+    public AtlasPerfMetrics getMetrics() { return metrics; }
+
     public MetricRecorder startMetricRecord(String name) { return metrics != null ? metrics.getMetricRecorder(name) : null; }
 
     public void endMetricRecord(MetricRecorder recorder) {
@@ -29,6 +29,8 @@ import org.apache.atlas.AtlasServiceException;
 import org.apache.atlas.RequestContext;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.hook.AtlasTopicCreator;
+import org.apache.atlas.kafka.AtlasKafkaConsumer;
 import org.apache.atlas.kafka.AtlasKafkaMessage;
 import org.apache.atlas.listener.ActiveStateChangeHandler;
 import org.apache.atlas.model.instance.AtlasEntity;
@@ -37,6 +39,7 @@ import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.model.notification.DeadLetterMessage;
 import org.apache.atlas.model.notification.HookNotification;
 import org.apache.atlas.model.notification.HookNotification.EntityCreateRequestV2;
 import org.apache.atlas.model.notification.HookNotification.EntityDeleteRequestV2;
@@ -44,11 +47,10 @@ import org.apache.atlas.model.notification.HookNotification.EntityUpdateRequestV
 import org.apache.atlas.model.notification.HookNotification.EntityPartialUpdateRequestV2;
 import org.apache.atlas.notification.NotificationInterface.NotificationType;
 import org.apache.atlas.notification.preprocessor.EntityPreprocessor;
+import org.apache.atlas.notification.preprocessor.PreprocessRuleEngine;
 import org.apache.atlas.notification.preprocessor.PreprocessorContext;
-import org.apache.atlas.notification.preprocessor.PreprocessorContext.PreprocessAction;
 import org.apache.atlas.util.AtlasMetricsCounter;
 import org.apache.atlas.utils.AtlasJson;
-import org.apache.atlas.utils.LruCache;
 import org.apache.atlas.util.AtlasMetricsUtil;
 import org.apache.atlas.util.AtlasMetricsUtil.NotificationStat;
 import org.apache.atlas.v1.model.instance.Referenceable;
@@ -80,10 +82,12 @@ import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
+import java.io.File;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -93,10 +97,10 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.regex.Pattern;
 
 import static org.apache.atlas.model.instance.AtlasObjectId.*;
 import static org.apache.atlas.notification.preprocessor.EntityPreprocessor.TYPE_HIVE_PROCESS;
+import static org.apache.atlas.notification.preprocessor.EntityPreprocessor.TYPE_HIVE_TABLE;
 
 
 /**
@@ -129,6 +133,14 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     public static final String CONSUMER_COMMIT_BATCH_SIZE        = "atlas.notification.consumer.commit.batch.size";
     public static final String CONSUMER_DISABLED                 = "atlas.notification.consumer.disabled";
 
+    public static final String CONSUMER_ADAPTIVE_BATCH_ENABLED              = "atlas.notification.consumer.adaptive.batch.enabled";
+    public static final String CONSUMER_ADAPTIVE_BATCH_MAX_SIZE             = "atlas.notification.consumer.adaptive.batch.max.size";
+    public static final String CONSUMER_ADAPTIVE_THROTTLE_MAX_MS            = "atlas.notification.consumer.adaptive.throttle.max.ms";
+    public static final String CONSUMER_ADAPTIVE_COMMIT_LATENCY_TARGET_MS   = "atlas.notification.consumer.adaptive.commit.latency.target.ms";
+    public static final String CONSUMER_ADAPTIVE_MESSAGE_LATENCY_TARGET_MS  = "atlas.notification.consumer.adaptive.message.latency.target.ms";
+    public static final String CONSUMER_ADAPTIVE_LAG_THRESHOLD              = "atlas.notification.consumer.adaptive.lag.threshold";
+    public static final String CONSUMER_ADAPTIVE_ADJUST_INTERVAL_MS         = "atlas.notification.consumer.adaptive.adjust.interval.ms";
+
 
     public static final String CONSUMER_SKIP_HIVE_COLUMN_LINEAGE_HIVE_20633                  = "atlas.notification.consumer.skip.hive_column_lineage.hive-20633";
     public static final String CONSUMER_SKIP_HIVE_COLUMN_LINEAGE_HIVE_20633_INPUTS_THRESHOLD = "atlas.notification.consumer.skip.hive_column_lineage.hive-20633.inputs.threshold";
@@ -154,11 +166,11 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     private final int                           skipHiveColumnLineageHive20633InputsThreshold;
     private final int                           largeMessageProcessingTimeThresholdMs;
     private final boolean                       consumerDisabled;
-    private final List<Pattern>                 hiveTablesToIgnore = new ArrayList<>();
-    private final List<Pattern>                 hiveTablesToPrune  = new ArrayList<>();
-    private final Map<String, PreprocessAction> hiveTablesCache;
     private final boolean                       hiveTypesRemoveOwnedRefAttrs;
     private final boolean                       rdbmsTypesRemoveOwnedRefAttrs;
+    private final PreprocessRuleEngine          preprocessRules;
+    private final AdaptiveBatchController       batchController;
+    private final DeadLetterPublisher           deadLetterPublisher;
     private final boolean                       preprocessEnabled;
     private final NotificationInterface         notificationInterface;
     private final Configuration                 applicationProperties;
@@ -195,50 +207,57 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         consumerDisabled                              = applicationProperties.getBoolean(CONSUMER_DISABLED, false);
         largeMessageProcessingTimeThresholdMs         = applicationProperties.getInt("atlas.notification.consumer.large.message.processing.time.threshold.ms", 60 * 1000);  //  60 sec by default
 
-        String[] patternHiveTablesToIgnore = applicationProperties.getStringArray(CONSUMER_PREPROCESS_HIVE_TABLE_IGNORE_PATTERN);
-        String[] patternHiveTablesToPrune  = applicationProperties.getStringArray(CONSUMER_PREPROCESS_HIVE_TABLE_PRUNE_PATTERN);
-
-        if (patternHiveTablesToIgnore != null) {
-            for (String pattern : patternHiveTablesToIgnore) {
-                try {
-                    hiveTablesToIgnore.add(Pattern.compile(pattern));
+        hiveTypesRemoveOwnedRefAttrs  = applicationProperties.getBoolean(CONSUMER_PREPROCESS_HIVE_TYPES_REMOVE_OWNEDREF_ATTRS, true);
+        rdbmsTypesRemoveOwnedRefAttrs = applicationProperties.getBoolean(CONSUMER_PREPROCESS_RDBMS_TYPES_REMOVE_OWNEDREF_ATTRS, true);
+        preprocessRules               = new PreprocessRuleEngine(applicationProperties, typeRegistry);
 
-                    LOG.info("{}={}", CONSUMER_PREPROCESS_HIVE_TABLE_IGNORE_PATTERN, pattern);
-                } catch (Throwable t) {
-                    LOG.warn("failed to compile pattern {}", pattern, t);
-                    LOG.warn("Ignoring invalid pattern in configuration {}: {}", CONSUMER_PREPROCESS_HIVE_TABLE_IGNORE_PATTERN, pattern);
-                }
-            }
+        if (hiveTypesRemoveOwnedRefAttrs || preprocessRules.hasRules(TYPE_HIVE_TABLE)) {
+            preprocessRules.addPreprocessedTypes(EntityPreprocessor.getHivePreprocessorTypes());
         }
 
-        if (patternHiveTablesToPrune != null) {
-            for (String pattern : patternHiveTablesToPrune) {
-                try {
-                    hiveTablesToPrune.add(Pattern.compile(pattern));
-
-                    LOG.info("{}={}", CONSUMER_PREPROCESS_HIVE_TABLE_PRUNE_PATTERN, pattern);
-                } catch (Throwable t) {
-                    LOG.warn("failed to compile pattern {}", pattern, t);
-                    LOG.warn("Ignoring invalid pattern in configuration {}: {}", CONSUMER_PREPROCESS_HIVE_TABLE_PRUNE_PATTERN, pattern);
-                }
-            }
+        if (skipHiveColumnLineageHive20633) {
+            preprocessRules.addPreprocessedTypes(Collections.singletonList(TYPE_HIVE_COLUMN_LINEAGE));
         }
 
-        if (!hiveTablesToIgnore.isEmpty() || !hiveTablesToPrune.isEmpty()) {
-            hiveTablesCache = new LruCache<>(applicationProperties.getInt(CONSUMER_PREPROCESS_HIVE_TABLE_CACHE_SIZE, 10000), 0);
-        } else {
-            hiveTablesCache = Collections.emptyMap();
+        if (rdbmsTypesRemoveOwnedRefAttrs) {
+            preprocessRules.addPreprocessedTypes(EntityPreprocessor.getRdbmsPreprocessorTypes());
         }
 
-        hiveTypesRemoveOwnedRefAttrs  = applicationProperties.getBoolean(CONSUMER_PREPROCESS_HIVE_TYPES_REMOVE_OWNEDREF_ATTRS, true);
-        rdbmsTypesRemoveOwnedRefAttrs = applicationProperties.getBoolean(CONSUMER_PREPROCESS_RDBMS_TYPES_REMOVE_OWNEDREF_ATTRS, true);
-        preprocessEnabled             = !hiveTablesToIgnore.isEmpty() || !hiveTablesToPrune.isEmpty() || skipHiveColumnLineageHive20633 || hiveTypesRemoveOwnedRefAttrs || rdbmsTypesRemoveOwnedRefAttrs;
+        preprocessEnabled = skipHiveColumnLineageHive20633 || hiveTypesRemoveOwnedRefAttrs || rdbmsTypesRemoveOwnedRefAttrs || preprocessRules.hasRules();
 
         LOG.info("{}={}", CONSUMER_SKIP_HIVE_COLUMN_LINEAGE_HIVE_20633, skipHiveColumnLineageHive20633);
         LOG.info("{}={}", CONSUMER_SKIP_HIVE_COLUMN_LINEAGE_HIVE_20633_INPUTS_THRESHOLD, skipHiveColumnLineageHive20633InputsThreshold);
         LOG.info("{}={}", CONSUMER_PREPROCESS_HIVE_TYPES_REMOVE_OWNEDREF_ATTRS, hiveTypesRemoveOwnedRefAttrs);
         LOG.info("{}={}", CONSUMER_PREPROCESS_RDBMS_TYPES_REMOVE_OWNEDREF_ATTRS, rdbmsTypesRemoveOwnedRefAttrs);
         LOG.info("{}={}", CONSUMER_COMMIT_BATCH_SIZE, commitBatchSize);
+
+        if (commitBatchSize > 0 && applicationProperties.getBoolean(CONSUMER_ADAPTIVE_BATCH_ENABLED, false)) {
+            batchController = new AdaptiveBatchController(commitBatchSize,
+                                                          applicationProperties.getInt(CONSUMER_ADAPTIVE_BATCH_MAX_SIZE, commitBatchSize * 20),
+                                                          applicationProperties.getLong(CONSUMER_ADAPTIVE_THROTTLE_MAX_MS, 5000),
+                                                          applicationProperties.getLong(CONSUMER_ADAPTIVE_COMMIT_LATENCY_TARGET_MS, 5000),
+                                                          applicationProperties.getLong(CONSUMER_ADAPTIVE_MESSAGE_LATENCY_TARGET_MS, largeMessageProcessingTimeThresholdMs),
+                                                          applicationProperties.getLong(CONSUMER_ADAPTIVE_LAG_THRESHOLD, 1000),
+                                                          applicationProperties.getLong(CONSUMER_ADAPTIVE_ADJUST_INTERVAL_MS, 30 * 1000));
+
+            LOG.info("adaptive batching enabled: {}", batchController);
+        } else {
+            batchController = null;
+        }
+
+        if (AtlasConfiguration.NOTIFICATION_HOOK_DEAD_LETTER_ENABLED.getBoolean()) {
+            DeadLetterStore localStore = new DeadLetterStore(new File(AtlasConfiguration.NOTIFICATION_HOOK_DEAD_LETTER_LOCAL_DIRECTORY.getString()),
+                                                             AtlasConfiguration.NOTIFICATION_HOOK_DEAD_LETTER_LOCAL_ROLL_INTERVAL_MS.getLong());
+
+            localStore.closeInProgressFiles();
+
+            deadLetterPublisher = new DeadLetterPublisher(notificationInterface, localStore);
+
+            LOG.info("failed messages will be published to topic {}, or written to {} when the topic is unavailable", AtlasConfiguration.NOTIFICATION_HOOK_DEAD_LETTER_TOPIC_NAME.getString(), localStore.getDirectory());
+        } else {
+            deadLetterPublisher = null;
+        }
+
         LOG.info("{}={}", CONSUMER_DISABLED, consumerDisabled);
     }
 
@@ -249,6 +268,10 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
             return;
         }
 
+        if (deadLetterPublisher != null) {
+            createDeadLetterTopic();
+        }
+
         startInternal(applicationProperties, null);
     }
 
@@ -266,6 +289,17 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         }
     }
 
+    // failed messages are written to the local store while the topic is not available
+    private void createDeadLetterTopic() {
+        String topicName = AtlasConfiguration.NOTIFICATION_HOOK_DEAD_LETTER_TOPIC_NAME.getString();
+
+        try {
+            new AtlasTopicCreator().createAtlasTopic(applicationProperties, topicName);
+        } catch (Exception excp) {
+            LOG.warn("failed to create dead-letter topic {}", topicName, excp);
+        }
+    }
+
     private void startConsumers(ExecutorService executorService) {
         int                                          numThreads            = applicationProperties.getInt(CONSUMER_THREADS_PROPERTY, 1);
         List<NotificationConsumer<HookNotification>> notificationConsumers = notificationInterface.createConsumers(NotificationType.HOOK, numThreads);
@@ -303,6 +337,10 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                 executors = null;
             }
 
+            if (deadLetterPublisher != null) {
+                deadLetterPublisher.close();
+            }
+
             notificationInterface.close();
         } catch (InterruptedException e) {
             LOG.error("Failure in shutting down consumers");
@@ -419,6 +457,122 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         }
     }
 
+    /**
+     * Adapts hook consumption to consumer lag and processing latencies, with two knobs:
+     *  - throttle: the time a consumer waits after processing the messages of a poll, which limits the rate of messages
+     *    processed. While average commit or message processing latency exceeds its target, the throttle doubles, up to
+     *    the configured maximum; once latencies are back within targets, it halves until it is removed.
+     *  - batch size: the number of entities committed to the graph in a transaction. This only splits messages having
+     *    more entities than the batch size - smaller messages are committed in one transaction regardless - hence it is
+     *    not used to limit throughput; shrinking it would only make large messages slower. While lag is over the
+     *    threshold and commits take less than half the target latency, the batch size grows by half, up to the
+     *    configured maximum; otherwise it moves back to the configured commit batch size.
+     * Latencies and lag are aggregated over the adjust interval.
+     */
+    static class AdaptiveBatchController {
+        private static final long MIN_THROTTLE_MS = 100;
+
+        private final    int  baseBatchSize;
+        private final    int  maxBatchSize;
+        private final    long maxThrottleMs;
+        private final    long commitLatencyTargetMs;
+        private final    long messageLatencyTargetMs;
+        private final    long lagThreshold;
+        private final    long adjustIntervalMs;
+        private volatile int  batchSize;
+        private volatile long throttleMs        = 0;
+        private          long intervalStartTime = System.currentTimeMillis();
+        private          long commitCount       = 0;
+        private          long commitTimeMs      = 0;
+        private          long messageCount      = 0;
+        private          long messageTimeMs     = 0;
+        private          long maxLag            = -1;
+
+        AdaptiveBatchController(int baseBatchSize, int maxBatchSize, long maxThrottleMs, long commitLatencyTargetMs, long messageLatencyTargetMs, long lagThreshold, long adjustIntervalMs) {
+            this.maxBatchSize           = Math.max(maxBatchSize, baseBatchSize);
+            this.baseBatchSize          = baseBatchSize;
+            this.maxThrottleMs          = Math.max(0, maxThrottleMs);
+            this.commitLatencyTargetMs  = commitLatencyTargetMs;
+            this.messageLatencyTargetMs = messageLatencyTargetMs;
+            this.lagThreshold           = lagThreshold;
+            this.adjustIntervalMs       = adjustIntervalMs;
+            this.batchSize              = baseBatchSize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public long getThrottleMs() {
+            return throttleMs;
+        }
+
+        public synchronized void onCommit(long timeTakenMs) {
+            commitCount++;
+            commitTimeMs += timeTakenMs;
+
+            adjustIfDue();
+        }
+
+        public synchronized void onMessageProcessed(long timeTakenMs) {
+            messageCount++;
+            messageTimeMs += timeTakenMs;
+
+            adjustIfDue();
+        }
+
+        public synchronized void onLag(long lag) {
+            maxLag = Math.max(maxLag, lag);
+        }
+
+        @VisibleForTesting
+        synchronized void adjust() {
+            long avgCommitMs   = commitCount > 0 ? commitTimeMs / commitCount : 0;
+            long avgMessageMs  = messageCount > 0 ? messageTimeMs / messageCount : 0;
+            int  newBatchSize  = batchSize;
+            long newThrottleMs = throttleMs;
+
+            if (avgCommitMs > commitLatencyTargetMs || avgMessageMs > messageLatencyTargetMs) {
+                newThrottleMs = Math.min(maxThrottleMs, Math.max(MIN_THROTTLE_MS, throttleMs * 2));
+                newBatchSize  = baseBatchSize;
+            } else {
+                newThrottleMs = throttleMs / 2 >= MIN_THROTTLE_MS ? throttleMs / 2 : 0;
+
+                if (maxLag > lagThreshold && avgCommitMs < commitLatencyTargetMs / 2) {
+                    newBatchSize = Math.min(maxBatchSize, batchSize + Math.max(1, batchSize / 2));
+                } else if (batchSize > baseBatchSize) {
+                    newBatchSize = Math.max(baseBatchSize, batchSize / 2);
+                }
+            }
+
+            if (newBatchSize != batchSize || newThrottleMs != throttleMs) {
+                LOG.info("adaptive batching: commit batch size {} => {}, throttle {}ms => {}ms (avgCommitMs={}, avgMessageMs={}, lag={})", batchSize, newBatchSize, throttleMs, newThrottleMs, avgCommitMs, avgMessageMs, maxLag);
+
+                batchSize  = newBatchSize;
+                throttleMs = newThrottleMs;
+            }
+
+            intervalStartTime = System.currentTimeMillis();
+            commitCount       = 0;
+            commitTimeMs      = 0;
+            messageCount      = 0;
+            messageTimeMs     = 0;
+            maxLag            = -1;
+        }
+
+        @Override
+        public String toString() {
+            return "batchSize=" + batchSize + ", maxBatchSize=" + maxBatchSize + ", maxThrottleMs=" + maxThrottleMs + ", commitLatencyTargetMs=" + commitLatencyTargetMs +
+                   ", messageLatencyTargetMs=" + messageLatencyTargetMs + ", lagThreshold=" + lagThreshold + ", adjustIntervalMs=" + adjustIntervalMs;
+        }
+
+        private void adjustIfDue() {
+            if (System.currentTimeMillis() - intervalStartTime >= adjustIntervalMs) {
+                adjust();
+            }
+        }
+    }
+
     @VisibleForTesting
     class HookConsumer extends ShutdownableThread {
         private final NotificationConsumer<HookNotification> consumer;
@@ -451,9 +605,21 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                     try {
                         List<AtlasKafkaMessage<HookNotification>> messages = consumer.receive();
 
+                        if (batchController != null && consumer instanceof AtlasKafkaConsumer) {
+                            batchController.onLag(((AtlasKafkaConsumer) consumer).getLag());
+                        }
+
+                        if (deadLetterPublisher != null) {
+                            deadLetterPublisher.rollIfDue();
+                        }
+
                         for (AtlasKafkaMessage<HookNotification> msg : messages) {
                             handleMessage(msg);
                         }
+
+                        if (batchController != null && batchController.getThrottleMs() > 0 && !messages.isEmpty()) {
+                            Thread.sleep(batchController.getThrottleMs());
+                        }
                     } catch (IllegalStateException ex) {
                         adaptiveWaiter.pause(ex);
                     } catch (Exception e) {
@@ -678,6 +844,11 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                             if (failedMessages.size() >= failedMsgCacheSize) {
                                 recordFailedMessages();
                             }
+
+                            if (deadLetterPublisher != null) {
+                                deadLetterPublisher.publish(new DeadLetterMessage(message, ATLAS_HOOK_TOPIC, kafkaMsg.getPartition(), kafkaMsg.getOffset(),
+                                                                                  System.currentTimeMillis(), maxRetries, getFailureCause(e)));
+                            }
                             return;
                         } else {
                             LOG.warn("Error handling message", e);
@@ -703,6 +874,10 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
 
                 metricsUtil.onNotificationProcessingComplete(kafkaMsg.getOffset(), stats);
 
+                if (batchController != null) {
+                    batchController.onMessageProcessed(stats.timeTakenMs);
+                }
+
                 if (stats.timeTakenMs > largeMessageProcessingTimeThresholdMs) {
                     String strMessage = AbstractNotification.getMessageJson(message);
 
@@ -722,6 +897,14 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                 if (now.isAfter(nextStatsLogTime)) {
                     LOG.info("STATS: {}", AtlasJson.toJson(metricsUtil.getStats()));
 
+                    if (preprocessRules.hasRules()) {
+                        LOG.info("STATS: preprocess rule hits: {}", preprocessRules.getRuleHits());
+                    }
+
+                    if (deadLetterPublisher != null) {
+                        LOG.info("STATS: dead-letter messages: published={}, storedLocally={}, lost={}", deadLetterPublisher.getPublishedCount(), deadLetterPublisher.getStoredCount(), deadLetterPublisher.getLostCount());
+                    }
+
                     nextStatsLogTime = AtlasMetricsCounter.getNextHourStartTime(now);
                 }
             }
@@ -730,14 +913,20 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         private void createOrUpdate(AtlasEntitiesWithExtInfo entities, boolean isPartialUpdate, NotificationStat stats, PreprocessorContext context) throws AtlasBaseException {
             List<AtlasEntity> entitiesList = entities.getEntities();
             AtlasEntityStream entityStream = new AtlasEntityStream(entities);
+            int               batchSize    = batchController != null ? batchController.getBatchSize() : commitBatchSize;
+
+            if (batchSize <= 0 || entitiesList.size() <= batchSize) {
+                long                   startTime = System.currentTimeMillis();
+                EntityMutationResponse response  = atlasEntityStore.createOrUpdate(entityStream, isPartialUpdate);
 
-            if (commitBatchSize <= 0 || entitiesList.size() <= commitBatchSize) {
-                EntityMutationResponse response = atlasEntityStore.createOrUpdate(entityStream, isPartialUpdate);
+                onCommit(startTime);
 
                 recordProcessedEntities(response, stats, context);
             } else {
-                for (int fromIdx = 0; fromIdx < entitiesList.size(); fromIdx += commitBatchSize) {
-                    int toIndex = fromIdx + commitBatchSize;
+                Map<String, String> guidAssignments = context != null ? context.getGuidAssignments() : new HashMap<>();
+
+                for (int fromIdx = 0; fromIdx < entitiesList.size(); fromIdx += batchSize) {
+                    int toIndex = fromIdx + batchSize;
 
                     if (toIndex > entitiesList.size()) {
                         toIndex = entitiesList.size();
@@ -745,15 +934,22 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
 
                     List<AtlasEntity> entitiesBatch = new ArrayList<>(entitiesList.subList(fromIdx, toIndex));
 
-                    updateProcessedEntityReferences(entitiesBatch, context.getGuidAssignments());
+                    updateProcessedEntityReferences(entitiesBatch, guidAssignments);
 
                     AtlasEntitiesWithExtInfo batch       = new AtlasEntitiesWithExtInfo(entitiesBatch);
                     AtlasEntityStream        batchStream = new AtlasEntityStream(batch, entityStream);
 
-                    EntityMutationResponse response = atlasEntityStore.createOrUpdate(batchStream, isPartialUpdate);
+                    long                   startTime = System.currentTimeMillis();
+                    EntityMutationResponse response  = atlasEntityStore.createOrUpdate(batchStream, isPartialUpdate);
+
+                    onCommit(startTime);
 
                     recordProcessedEntities(response, stats, context);
 
+                    if (context == null && response != null && MapUtils.isNotEmpty(response.getGuidAssignments())) {
+                        guidAssignments.putAll(response.getGuidAssignments());
+                    }
+
                     RequestContext.get().resetEntityGuidUpdates();
 
                     RequestContext.get().clearCache();
@@ -771,6 +967,12 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
             }
         }
 
+        private void onCommit(long startTime) {
+            if (batchController != null) {
+                batchController.onCommit(System.currentTimeMillis() - startTime);
+            }
+        }
+
         private void recordFailedMessages() {
             //logging failed messages
             for (String message : failedMessages) {
@@ -780,6 +982,21 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
             failedMessages.clear();
         }
 
+        // exception and its causes, without stack traces
+        private String getFailureCause(Throwable excp) {
+            StringBuilder sb = new StringBuilder();
+
+            for (Throwable t = excp; t != null; t = (t.getCause() == t ? null : t.getCause())) {
+                if (sb.length() > 0) {
+                    sb.append("; caused by: ");
+                }
+
+                sb.append(t.toString());
+            }
+
+            return sb.toString();
+        }
+
         private void commit(AtlasKafkaMessage<HookNotification> kafkaMessage) {
             boolean commitSucceessStatus = false;
             try {
@@ -845,13 +1062,19 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     private PreprocessorContext preProcessNotificationMessage(AtlasKafkaMessage<HookNotification> kafkaMsg) {
         PreprocessorContext context = null;
 
-        if (preprocessEnabled) {
-            context = new PreprocessorContext(kafkaMsg, typeRegistry, hiveTablesToIgnore, hiveTablesToPrune, hiveTablesCache, hiveTypesRemoveOwnedRefAttrs, rdbmsTypesRemoveOwnedRefAttrs);
+        // messages having no entity of a preprocessed type, or of a type a preprocess rule applies to, are skipped
+        if (preprocessEnabled && preprocessRules.isApplicable(kafkaMsg.getMessage())) {
+            context = new PreprocessorContext(kafkaMsg, typeRegistry, preprocessRules, hiveTypesRemoveOwnedRefAttrs, rdbmsTypesRemoveOwnedRefAttrs);
 
             if (context.isHivePreprocessEnabled()) {
                 preprocessHiveTypes(context);
             }
 
+            // after Hive preprocessing, which applies the hive_table rules with Hive-specific handling of processes
+            if (preprocessRules.hasRules()) {
+                preprocessRules.preprocess(context);
+            }
+
             if (skipHiveColumnLineageHive20633) {
                 skipHiveColumnLineage(context);
             }
@@ -22,8 +22,10 @@ import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
 import org.apache.atlas.model.instance.AtlasObjectId;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 
 public abstract class EntityPreprocessor {
@@ -108,6 +110,14 @@ public abstract class EntityPreprocessor {
         return typeName != null ? RDBMS_PREPROCESSOR_MAP.get(typeName) : null;
     }
 
+    public static Set<String> getHivePreprocessorTypes() {
+        return Collections.unmodifiableSet(HIVE_PREPROCESSOR_MAP.keySet());
+    }
+
+    public static Set<String> getRdbmsPreprocessorTypes() {
+        return Collections.unmodifiableSet(RDBMS_PREPROCESSOR_MAP.keySet());
+    }
+
     public static String getQualifiedName(AtlasEntity entity) {
         Object obj = entity != null ? entity.getAttribute(ATTRIBUTE_QUALIFIED_NAME) : null;
 
@@ -44,7 +44,7 @@ public class HivePreprocessor {
             if (context.isIgnoredEntity(entity.getGuid())) {
                 context.addToIgnoredEntities(entity); // so that this will be logged with typeName and qualifiedName
             } else {
-                PreprocessAction action = context.getPreprocessActionForHiveTable(getQualifiedName(entity));
+                PreprocessAction action = context.getPreprocessAction(entity);
 
                 if (action == PreprocessAction.IGNORE) {
                     context.addToIgnoredEntities(entity);
@@ -0,0 +1,494 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification.preprocessor;
+
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.notification.preprocessor.PreprocessorContext.PreprocessAction;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.utils.AtlasCache;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static org.apache.atlas.notification.NotificationHookConsumer.CONSUMER_PREPROCESS_HIVE_TABLE_CACHE_SIZE;
+import static org.apache.atlas.notification.NotificationHookConsumer.CONSUMER_PREPROCESS_HIVE_TABLE_IGNORE_PATTERN;
+import static org.apache.atlas.notification.NotificationHookConsumer.CONSUMER_PREPROCESS_HIVE_TABLE_PRUNE_PATTERN;
+import static org.apache.atlas.notification.preprocessor.EntityPreprocessor.TYPE_HIVE_TABLE;
+
+/**
+ * Preprocessing rules, compiled from configuration, to ignore or prune entities of any type in hook notifications:
+ *   atlas.notification.consumer.preprocess.rules=tmp_tables,...
+ *   atlas.notification.consumer.preprocess.rule.tmp_tables.types=hive_table,...
+ *   atlas.notification.consumer.preprocess.rule.tmp_tables.qualifiedName.pattern=.*\.tmp_.*,...
+ *   atlas.notification.consumer.preprocess.rule.tmp_tables.action=IGNORE
+ *
+ * IGNORE removes the matching entities, and entities they own - like columns of a table, from the message; PRUNE removes only
+ * the owned entities. References to the removed entities are removed from other entities in the message. Rules are evaluated
+ * in the configured order; the first matching rule is applied. Rules are indexed by type-name, so messages having no entity
+ * of these types, or of their sub-types, are skipped with a lookup per entity; match results are cached by type-name and
+ * qualifiedName.
+ *
+ * The hive_table ignore/prune patterns (atlas.notification.consumer.preprocess.hive_table.ignore.pattern/prune.pattern) are
+ * compiled into rules named hive_table.ignore and hive_table.prune, evaluated ahead of the configured rules. Entities of these
+ * rules are handled by the Hive preprocessors, which also drop processes whose inputs or outputs were all ignored.
+ */
+public class PreprocessRuleEngine {
+    private static final Logger LOG = LoggerFactory.getLogger(PreprocessRuleEngine.class);
+
+    public static final String CONSUMER_PREPROCESS_RULES            = "atlas.notification.consumer.preprocess.rules";
+    public static final String CONSUMER_PREPROCESS_RULE_PREFIX      = "atlas.notification.consumer.preprocess.rule.";
+    public static final String CONSUMER_PREPROCESS_RULES_CACHE_SIZE = "atlas.notification.consumer.preprocess.rules.cache.size";
+    public static final String RULE_PROPERTY_TYPES                  = ".types";
+    public static final String RULE_PROPERTY_QUALIFIED_NAME_PATTERN = ".qualifiedName.pattern";
+    public static final String RULE_PROPERTY_ACTION                 = ".action";
+
+    private static final Rule NO_MATCH = new Rule("", PreprocessAction.NONE, null, Collections.emptySet());
+
+    private final AtlasTypeRegistry        typeRegistry;
+    private final List<Rule>               rules             = new ArrayList<>();
+    private final Map<String, List<Rule>>  rulesByType       = new ConcurrentHashMap<>();
+    private final Set<String>              preprocessedTypes = new HashSet<>();
+    private final AtlasCache<String, Rule> matchCache;
+
+    public PreprocessRuleEngine(Configuration configuration, AtlasTypeRegistry typeRegistry) {
+        this.typeRegistry = typeRegistry;
+
+        addRule(compileRule("hive_table.ignore", PreprocessAction.IGNORE, CONSUMER_PREPROCESS_HIVE_TABLE_IGNORE_PATTERN, configuration.getStringArray(CONSUMER_PREPROCESS_HIVE_TABLE_IGNORE_PATTERN), TYPE_HIVE_TABLE));
+        addRule(compileRule("hive_table.prune", PreprocessAction.PRUNE, CONSUMER_PREPROCESS_HIVE_TABLE_PRUNE_PATTERN, configuration.getStringArray(CONSUMER_PREPROCESS_HIVE_TABLE_PRUNE_PATTERN), TYPE_HIVE_TABLE));
+
+        for (String ruleName : configuration.getStringArray(CONSUMER_PREPROCESS_RULES)) {
+            addRule(compileRule(configuration, ruleName.trim()));
+        }
+
+        int cacheSize = rules.isEmpty() ? 0 : configuration.getInt(CONSUMER_PREPROCESS_RULES_CACHE_SIZE, configuration.getInt(CONSUMER_PREPROCESS_HIVE_TABLE_CACHE_SIZE, 10000));
+
+        matchCache = AtlasCache.<String, Rule>newBuilder().name("preprocessRulesCache").maximumSize(cacheSize).build();
+    }
+
+    public boolean hasRules() {
+        return !rules.isEmpty();
+    }
+
+    /**
+     * @return true if a rule applies to entities of the given type, or of one of its super-types
+     */
+    public boolean hasRules(String typeName) {
+        return !getRules(typeName).isEmpty();
+    }
+
+    /**
+     * Registers types preprocessed outside of the rules, like by Hive and RDBMS preprocessors, so that messages having entities
+     * of these types pass isApplicable(). To be called before messages are preprocessed.
+     */
+    public void addPreprocessedTypes(Collection<String> typeNames) {
+        preprocessedTypes.addAll(typeNames);
+    }
+
+    /**
+     * @return true if the message has an entity of a type that a rule applies to, or that is registered via addPreprocessedTypes()
+     */
+    public boolean isApplicable(HookNotification message) {
+        if (rules.isEmpty() && preprocessedTypes.isEmpty()) {
+            return false;
+        }
+
+        AtlasEntitiesWithExtInfo entitiesWithExtInfo = PreprocessorContext.getEntitiesWithExtInfo(message);
+
+        if (entitiesWithExtInfo == null) {
+            return false;
+        }
+
+        if (entitiesWithExtInfo.getEntities() != null) {
+            for (AtlasEntity entity : entitiesWithExtInfo.getEntities()) {
+                if (isApplicable(entity.getTypeName())) {
+                    return true;
+                }
+            }
+        }
+
+        if (entitiesWithExtInfo.getReferredEntities() != null) {
+            for (AtlasEntity entity : entitiesWithExtInfo.getReferredEntities().values()) {
+                if (isApplicable(entity.getTypeName())) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return action of the first rule matching the entity; the rule's hit count is incremented
+     */
+    public PreprocessAction getPreprocessAction(AtlasEntity entity) {
+        Rule rule = getMatchingRule(entity.getTypeName(), EntityPreprocessor.getQualifiedName(entity));
+
+        if (rule == null) {
+            return PreprocessAction.NONE;
+        }
+
+        rule.hits.incrementAndGet();
+
+        return rule.action;
+    }
+
+    /**
+     * @return action of the first rule matching the given type-name and qualifiedName, without updating the rule's hit count
+     */
+    public PreprocessAction getPreprocessAction(String typeName, String qualifiedName) {
+        Rule rule = getMatchingRule(typeName, qualifiedName);
+
+        return rule != null ? rule.action : PreprocessAction.NONE;
+    }
+
+    public void preprocess(PreprocessorContext context) {
+        List<AtlasEntity>        entities         = context.getEntities();
+        Map<String, AtlasEntity> referredEntities = context.getReferredEntities();
+        Set<String>              ignoredGuids     = new HashSet<>();
+        List<String>             ownedGuids       = new LinkedList<>();
+        int                      prunedCount      = 0;
+
+        List<AtlasEntity> allEntities = new ArrayList<>();
+
+        if (entities != null) {
+            allEntities.addAll(entities);
+        }
+
+        if (referredEntities != null) {
+            allEntities.addAll(referredEntities.values());
+        }
+
+        for (AtlasEntity entity : allEntities) {
+            if (context.isIgnoredEntity(entity.getGuid()) || context.isPrunedEntity(entity.getGuid())) { // already handled by Hive preprocessors
+                continue;
+            }
+
+            Rule rule = getMatchingRule(entity.getTypeName(), EntityPreprocessor.getQualifiedName(entity));
+
+            if (rule == null) {
+                continue;
+            }
+
+            rule.hits.incrementAndGet();
+
+            if (rule.action == PreprocessAction.IGNORE) {
+                context.addToIgnoredEntities(entity);
+
+                ignoredGuids.add(entity.getGuid());
+
+                collectOwnedEntities(entity, false, ownedGuids, context);
+            } else {
+                context.addToPrunedEntities(entity);
+
+                prunedCount++;
+
+                collectOwnedEntities(entity, true, ownedGuids, context);
+            }
+        }
+
+        // entities owned by ignored or pruned entities are ignored, along with entities owned by them
+        while (!ownedGuids.isEmpty()) {
+            String guid = ownedGuids.remove(0);
+
+            if (guid != null && ignoredGuids.add(guid)) {
+                context.addToIgnoredEntities(guid);
+
+                AtlasEntity entity = context.getEntity(guid);
+
+                if (entity != null) {
+                    collectOwnedEntities(entity, false, ownedGuids, context);
+                }
+            }
+        }
+
+        if (!ignoredGuids.isEmpty()) {
+            if (entities != null) {
+                for (Iterator<AtlasEntity> iter = entities.iterator(); iter.hasNext(); ) {
+                    if (ignoredGuids.contains(iter.next().getGuid())) {
+                        iter.remove();
+                    }
+                }
+
+                for (AtlasEntity entity : entities) {
+                    removeReferences(entity, ignoredGuids, context);
+                }
+            }
+
+            if (referredEntities != null) {
+                referredEntities.keySet().removeAll(ignoredGuids);
+
+                for (AtlasEntity entity : referredEntities.values()) {
+                    removeReferences(entity, ignoredGuids, context);
+                }
+            }
+        }
+
+        if (!ignoredGuids.isEmpty() || prunedCount > 0) {
+            LOG.info("preprocess rules: ignored entities={}; pruned entities={}. topic-offset={}, partition={}", ignoredGuids.size(), prunedCount, context.getKafkaMessageOffset(), context.getKafkaPartition());
+        }
+    }
+
+    /**
+     * @return number of entities each rule was applied to, by rule name
+     */
+    public Map<String, Long> getRuleHits() {
+        Map<String, Long> ret = new LinkedHashMap<>();
+
+        for (Rule rule : rules) {
+            ret.put(rule.name, rule.hits.get());
+        }
+
+        return ret;
+    }
+
+    private boolean isApplicable(String typeName) {
+        return preprocessedTypes.contains(typeName) || !getRules(typeName).isEmpty();
+    }
+
+    // rules of the type and of its super-types, in the configured order; so a rule for a type applies to all its sub-types
+    private List<Rule> getRules(String typeName) {
+        if (typeName == null || rules.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Rule> ret = rulesByType.get(typeName);
+
+        if (ret == null) {
+            AtlasEntityType entityType        = typeRegistry.getEntityTypeByName(typeName);
+            Set<String>     typeAndSuperTypes = new HashSet<>();
+
+            typeAndSuperTypes.add(typeName);
+
+            if (entityType != null) {
+                typeAndSuperTypes.addAll(entityType.getAllSuperTypes());
+            }
+
+            ret = new ArrayList<>();
+
+            for (Rule rule : rules) {
+                if (!Collections.disjoint(rule.types, typeAndSuperTypes)) {
+                    ret.add(rule);
+                }
+            }
+
+            // types not yet in the registry aren't cached, as their super-types are known only after they are registered
+            if (entityType != null) {
+                rulesByType.put(typeName, ret);
+            }
+        }
+
+        return ret;
+    }
+
+    private Rule getMatchingRule(String typeName, String qualifiedName) {
+        if (qualifiedName == null) {
+            return null;
+        }
+
+        List<Rule> typeRules = getRules(typeName);
+
+        if (typeRules.isEmpty()) {
+            return null;
+        }
+
+        String cacheKey = typeName + ":" + qualifiedName;
+        Rule   ret      = matchCache.get(cacheKey);
+
+        if (ret == null) {
+            ret = NO_MATCH;
+
+            for (Rule rule : typeRules) {
+                if (rule.pattern.matcher(qualifiedName).matches()) {
+                    ret = rule;
+
+                    break;
+                }
+            }
+
+            matchCache.put(cacheKey, ret);
+        }
+
+        return ret == NO_MATCH ? null : ret;
+    }
+
+    // collects guids of entities referred by owned-ref attributes (like columns of a table); these attributes are removed when pruned
+    private void collectOwnedEntities(AtlasEntity entity, boolean removeAttributes, List<String> guids, PreprocessorContext context) {
+        AtlasEntityType entityType = typeRegistry.getEntityTypeByName(entity.getTypeName());
+
+        if (entityType == null) {
+            return;
+        }
+
+        Set<String> ownedGuids = new HashSet<>();
+
+        for (AtlasAttribute attribute : entityType.getOwnedRefAttributes()) {
+            String attrName = attribute.getName();
+
+            if (entity.hasAttribute(attrName)) {
+                context.collectGuids(removeAttributes ? entity.removeAttribute(attrName) : entity.getAttribute(attrName), ownedGuids);
+            }
+
+            if (entity.hasRelationshipAttribute(attrName)) {
+                context.collectGuids(removeAttributes ? entity.getRelationshipAttributes().remove(attrName) : entity.getRelationshipAttribute(attrName), ownedGuids);
+            }
+        }
+
+        guids.addAll(ownedGuids);
+    }
+
+    private static void removeReferences(AtlasEntity entity, Set<String> guids, PreprocessorContext context) {
+        removeReferences(entity.getAttributes(), guids, context);
+        removeReferences(entity.getRelationshipAttributes(), guids, context);
+    }
+
+    private static void removeReferences(Map<String, Object> attributes, Set<String> guids, PreprocessorContext context) {
+        if (attributes == null) {
+            return;
+        }
+
+        for (Iterator<Map.Entry<String, Object>> iter = attributes.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry<String, Object> entry = iter.next();
+            Object                    value = entry.getValue();
+
+            if (value instanceof Collection) {
+                Collection<?> values   = (Collection<?>) value;
+                List<Object>  retained = new ArrayList<>(values.size());
+
+                for (Object element : values) {
+                    if (!guids.contains(context.getGuid(element))) {
+                        retained.add(element);
+                    }
+                }
+
+                if (retained.size() != values.size()) {
+                    entry.setValue(retained);
+                }
+            } else if (guids.contains(context.getGuid(value))) {
+                iter.remove();
+            }
+        }
+    }
+
+    private void addRule(Rule rule) {
+        if (rule != null) {
+            rules.add(rule);
+
+            LOG.info("preprocess rule {}: types={}, action={}, pattern={}", rule.name, rule.types, rule.action, rule.pattern);
+        }
+    }
+
+    private static Rule compileRule(Configuration configuration, String ruleName) {
+        String   prefix     = CONSUMER_PREPROCESS_RULE_PREFIX + ruleName;
+        String[] types      = configuration.getStringArray(prefix + RULE_PROPERTY_TYPES);
+        String[] patterns   = configuration.getStringArray(prefix + RULE_PROPERTY_QUALIFIED_NAME_PATTERN);
+        String   actionName = configuration.getString(prefix + RULE_PROPERTY_ACTION, PreprocessAction.IGNORE.name());
+
+        if (StringUtils.isEmpty(ruleName) || types.length == 0 || patterns.length == 0) {
+            LOG.warn("Ignoring preprocess rule '{}': {} and {} must be specified", ruleName, prefix + RULE_PROPERTY_TYPES, prefix + RULE_PROPERTY_QUALIFIED_NAME_PATTERN);
+
+            return null;
+        }
+
+        final PreprocessAction action;
+
+        try {
+            action = PreprocessAction.valueOf(actionName.trim().toUpperCase());
+        } catch (IllegalArgumentException excp) {
+            LOG.warn("Ignoring preprocess rule '{}': invalid action {}", ruleName, actionName);
+
+            return null;
+        }
+
+        if (action == PreprocessAction.NONE) {
+            LOG.warn("Ignoring preprocess rule '{}': action must be IGNORE or PRUNE", ruleName);
+
+            return null;
+        }
+
+        return compileRule(ruleName, action, prefix + RULE_PROPERTY_QUALIFIED_NAME_PATTERN, patterns, types);
+    }
+
+    private static Rule compileRule(String ruleName, PreprocessAction action, String patternsProperty, String[] patterns, String... types) {
+        // patterns of the rule are combined into one, so that a name is matched once per rule
+        StringBuilder sb = new StringBuilder();
+
+        for (String pattern : patterns) {
+            try {
+                Pattern.compile(pattern);
+            } catch (PatternSyntaxException excp) {
+                LOG.warn("Ignoring invalid pattern in configuration {}: {}", patternsProperty, pattern, excp);
+
+                continue;
+            }
+
+            if (sb.length() > 0) {
+                sb.append('|');
+            }
+
+            sb.append("(?:").append(pattern).append(')');
+        }
+
+        if (sb.length() == 0) {
+            return null;
+        }
+
+        Set<String> typeNames = new LinkedHashSet<>();
+
+        for (String type : types) {
+            typeNames.add(type.trim());
+        }
+
+        return new Rule(ruleName, action, Pattern.compile(sb.toString()), typeNames);
+    }
+
+    private static class Rule {
+        final String           name;
+        final PreprocessAction action;
+        final Pattern          pattern;
+        final Set<String>      types;
+        final AtomicLong       hits = new AtomicLong();
+
+        Rule(String name, PreprocessAction action, Pattern pattern, Set<String> types) {
+            this.name    = name;
+            this.action  = action;
+            this.pattern = pattern;
+            this.types   = types;
+        }
+    }
+}
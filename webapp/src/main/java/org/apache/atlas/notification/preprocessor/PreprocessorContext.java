@@ -25,7 +25,6 @@ import org.apache.atlas.model.instance.AtlasRelatedObjectId;
 import org.apache.atlas.model.notification.HookNotification;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.type.AtlasTypeUtil;
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,7 +37,6 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 import static org.apache.atlas.model.instance.AtlasObjectId.KEY_GUID;
 
@@ -48,45 +46,39 @@ public class PreprocessorContext {
 
     public enum PreprocessAction { NONE, IGNORE, PRUNE }
 
-    private final AtlasKafkaMessage<HookNotification> kafkaMessage;
-    private final AtlasTypeRegistry                   typeRegistry;
-    private final AtlasEntitiesWithExtInfo            entitiesWithExtInfo;
-    private final List<Pattern>                       hiveTablesToIgnore;
-    private final List<Pattern>                       hiveTablesToPrune;
-    private final Map<String, PreprocessAction>       hiveTablesCache;
-    private final boolean                             hiveTypesRemoveOwnedRefAttrs;
-    private final boolean                             rdbmsTypesRemoveOwnedRefAttrs;
-    private final Set<String>                         ignoredEntities        = new HashSet<>();
-    private final Set<String>                         prunedEntities         = new HashSet<>();
-    private final Set<String>                         referredEntitiesToMove = new HashSet<>();
-    private final Set<String>                         createdEntities        = new HashSet<>();
-    private final Set<String>                         deletedEntities        = new HashSet<>();
-    private final Map<String, String>                 guidAssignments        = new HashMap<>();
-    private       List<AtlasEntity>                   postUpdateEntities     = null;
-
-    public PreprocessorContext(AtlasKafkaMessage<HookNotification> kafkaMessage, AtlasTypeRegistry typeRegistry, List<Pattern> hiveTablesToIgnore, List<Pattern> hiveTablesToPrune, Map<String, PreprocessAction> hiveTablesCache, boolean hiveTypesRemoveOwnedRefAttrs, boolean rdbmsTypesRemoveOwnedRefAttrs) {
+    private final AtlasKafkaMessage<HookNotification>  kafkaMessage;
+    private final AtlasTypeRegistry                    typeRegistry;
+    private final AtlasEntitiesWithExtInfo             entitiesWithExtInfo;
+    private final PreprocessRuleEngine                 preprocessRules;
+    private final boolean                              hiveTypesRemoveOwnedRefAttrs;
+    private final boolean                              rdbmsTypesRemoveOwnedRefAttrs;
+    private final Set<String>                          ignoredEntities        = new HashSet<>();
+    private final Set<String>                          prunedEntities         = new HashSet<>();
+    private final Set<String>                          referredEntitiesToMove = new HashSet<>();
+    private final Set<String>                          createdEntities        = new HashSet<>();
+    private final Set<String>                          deletedEntities        = new HashSet<>();
+    private final Map<String, String>                  guidAssignments        = new HashMap<>();
+    private       List<AtlasEntity>                    postUpdateEntities     = null;
+
+    public PreprocessorContext(AtlasKafkaMessage<HookNotification> kafkaMessage, AtlasTypeRegistry typeRegistry, PreprocessRuleEngine preprocessRules, boolean hiveTypesRemoveOwnedRefAttrs, boolean rdbmsTypesRemoveOwnedRefAttrs) {
         this.kafkaMessage                  = kafkaMessage;
         this.typeRegistry                  = typeRegistry;
-        this.hiveTablesToIgnore            = hiveTablesToIgnore;
-        this.hiveTablesToPrune             = hiveTablesToPrune;
-        this.hiveTablesCache               = hiveTablesCache;
+        this.preprocessRules               = preprocessRules;
         this.hiveTypesRemoveOwnedRefAttrs  = hiveTypesRemoveOwnedRefAttrs;
         this.rdbmsTypesRemoveOwnedRefAttrs = rdbmsTypesRemoveOwnedRefAttrs;
+        this.entitiesWithExtInfo           = getEntitiesWithExtInfo(kafkaMessage.getMessage());
+    }
 
-        final HookNotification  message = kafkaMessage.getMessage();
-
+    public static AtlasEntitiesWithExtInfo getEntitiesWithExtInfo(HookNotification message) {
         switch (message.getType()) {
             case ENTITY_CREATE_V2:
-                entitiesWithExtInfo = ((HookNotification.EntityCreateRequestV2) message).getEntities();
-            break;
+                return ((HookNotification.EntityCreateRequestV2) message).getEntities();
 
             case ENTITY_FULL_UPDATE_V2:
-                entitiesWithExtInfo = ((HookNotification.EntityUpdateRequestV2) message).getEntities();
-            break;
+                return ((HookNotification.EntityUpdateRequestV2) message).getEntities();
 
             default:
-                entitiesWithExtInfo = null;
-            break;
+                return null;
         }
     }
 
@@ -107,7 +99,7 @@ public class PreprocessorContext {
     public boolean getRdbmsTypesRemoveOwnedRefAttrs() { return rdbmsTypesRemoveOwnedRefAttrs; }
 
     public boolean isHivePreprocessEnabled() {
-        return !hiveTablesToIgnore.isEmpty() || !hiveTablesToPrune.isEmpty() || hiveTypesRemoveOwnedRefAttrs;
+        return hiveTypesRemoveOwnedRefAttrs || preprocessRules.hasRules(EntityPreprocessor.TYPE_HIVE_TABLE);
     }
 
     public List<AtlasEntity> getEntities() {
@@ -142,26 +134,12 @@ public class PreprocessorContext {
 
     public List<AtlasEntity> getPostUpdateEntities() { return postUpdateEntities; }
 
-    public PreprocessAction getPreprocessActionForHiveTable(String qualifiedName) {
-        PreprocessAction ret = PreprocessAction.NONE;
-
-        if (qualifiedName != null && (CollectionUtils.isNotEmpty(hiveTablesToIgnore) || CollectionUtils.isNotEmpty(hiveTablesToPrune))) {
-            ret = hiveTablesCache.get(qualifiedName);
-
-            if (ret == null) {
-                if (isMatch(qualifiedName, hiveTablesToIgnore)) {
-                    ret = PreprocessAction.IGNORE;
-                } else if (isMatch(qualifiedName, hiveTablesToPrune)) {
-                    ret = PreprocessAction.PRUNE;
-                } else {
-                    ret = PreprocessAction.NONE;
-                }
-
-                hiveTablesCache.put(qualifiedName, ret);
-            }
-        }
+    public PreprocessAction getPreprocessAction(AtlasEntity entity) {
+        return preprocessRules.getPreprocessAction(entity);
+    }
 
-        return ret;
+    public PreprocessAction getPreprocessActionForHiveTable(String qualifiedName) {
+        return preprocessRules.getPreprocessAction(EntityPreprocessor.TYPE_HIVE_TABLE, qualifiedName);
     }
 
     public boolean isIgnoredEntity(String guid) {
@@ -376,20 +354,6 @@ public class PreprocessorContext {
     }
 
 
-    private boolean isMatch(String name, List<Pattern> patterns) {
-        boolean ret = false;
-
-        for (Pattern p : patterns) {
-            if (p.matcher(name).matches()) {
-                ret = true;
-
-                break;
-            }
-        }
-
-        return ret;
-    }
-
     private AtlasRelatedObjectId setRelationshipType(Object attr, String relationshipType) {
         AtlasRelatedObjectId ret = null;
 
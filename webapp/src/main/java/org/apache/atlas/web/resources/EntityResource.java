@@ -35,6 +35,7 @@ import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
 import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.atlas.model.instance.GuidMapping;
 import org.apache.atlas.model.legacy.EntityResult;
+import org.apache.atlas.repository.audit.EntityAuditDelta;
 import org.apache.atlas.repository.audit.EntityAuditRepository;
 import org.apache.atlas.repository.converters.AtlasInstanceConverter;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
@@ -1137,8 +1138,17 @@ public class EntityResource {
                 perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityResource.getAuditEvents(" + guid + ", " + startKey + ", " + count + ")");
             }
 
-            List                   events   = entityAuditRepository.listEvents(guid, startKey, count);
-            List<EntityAuditEvent> v1Events = new ArrayList<>();
+            List                     events   = entityAuditRepository.listEvents(guid, startKey, count);
+            List<EntityAuditEvent>   v1Events = new ArrayList<>();
+            List<EntityAuditEventV2> v2Events = new ArrayList<>();
+
+            for (Object event : events) {
+                if (event instanceof EntityAuditEventV2) {
+                    v2Events.add((EntityAuditEventV2) event);
+                }
+            }
+
+            EntityAuditDelta.resolve(entityAuditRepository, v2Events);
 
             for (Object event : events) {
                 if (event instanceof EntityAuditEvent) {
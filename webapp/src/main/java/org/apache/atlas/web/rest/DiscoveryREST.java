@@ -54,6 +54,7 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 
 /**
  * REST interface for data discovery using dsl or full text search
@@ -90,6 +91,7 @@ public class DiscoveryREST {
      * @param classification limit the result to only entities tagged with the given classification or or its sub-types
      * @param limit          limit the result set to only include the specified number of entries
      * @param offset         start offset of the result set (useful for pagination)
+     * @param profile        include the translated Gremlin query and the time taken by each stage in the result
      * @return Search results
      * @throws AtlasBaseException
      * @HTTP 200 On successful DSL execution with some results, might return an empty list if execution succeeded
@@ -98,11 +100,12 @@ public class DiscoveryREST {
      */
     @GET
     @Path("/dsl")
-    public AtlasSearchResult searchUsingDSL(@QueryParam("query")          String query,
-                                            @QueryParam("typeName")       String typeName,
-                                            @QueryParam("classification") String classification,
-                                            @QueryParam("limit")          int    limit,
-                                            @QueryParam("offset")         int    offset) throws AtlasBaseException {
+    public AtlasSearchResult searchUsingDSL(@QueryParam("query")          String  query,
+                                            @QueryParam("typeName")       String  typeName,
+                                            @QueryParam("classification") String  classification,
+                                            @QueryParam("limit")          int     limit,
+                                            @QueryParam("offset")         int     offset,
+                                            @QueryParam("profile")        boolean profile) throws AtlasBaseException {
         Servlets.validateQueryParamLength("typeName", typeName);
         Servlets.validateQueryParamLength("classification", classification);
 
@@ -123,7 +126,7 @@ public class DiscoveryREST {
 
             String queryStr = atlasDiscoveryService.getDslQueryUsingTypeNameClassification(query, typeName, classification);
 
-            return atlasDiscoveryService.searchUsingDslQuery(queryStr, limit, offset);
+            return atlasDiscoveryService.searchUsingDslQuery(queryStr, limit, offset, profile);
         } finally {
             AtlasPerfTracer.log(perf);
         }
@@ -176,6 +179,10 @@ public class DiscoveryREST {
      * @param classification limit the result to only entities tagged with the given classification or or its sub-types
      * @param limit          limit the result set to only include the specified number of entries
      * @param offset         start offset of the result set (useful for pagination)
+     * @param continuationToken continuationToken from the result of the previous page; offset is ignored when specified
+     * @param profile        include the processors, queries, counts and time taken by each stage in the result
+     * @param facets         include counts of entities by values of these facets: typeName, classification or attributes of the type
+     *                       that are indexed without tokenization, like numeric, boolean and date attributes
      * @return Search results
      * @throws AtlasBaseException
      * @HTTP 200 On successful FullText lookup with some results, might return an empty list if execution succeeded
@@ -189,7 +196,10 @@ public class DiscoveryREST {
                                               @QueryParam("classification")         String  classification,
                                               @QueryParam("excludeDeletedEntities") boolean excludeDeletedEntities,
                                               @QueryParam("limit")                  int     limit,
-                                              @QueryParam("offset")                 int     offset) throws AtlasBaseException {
+                                              @QueryParam("offset")                 int     offset,
+                                              @QueryParam("continuationToken")      String  continuationToken,
+                                              @QueryParam("profile")                boolean profile,
+                                              @QueryParam("facet")                  Set<String> facets) throws AtlasBaseException {
         Servlets.validateQueryParamLength("typeName", typeName);
         Servlets.validateQueryParamLength("classification", classification);
         if (StringUtils.isNotEmpty(query) && query.length() > maxFullTextQueryLength) {
@@ -211,6 +221,9 @@ public class DiscoveryREST {
             searchParameters.setExcludeDeletedEntities(excludeDeletedEntities);
             searchParameters.setLimit(limit);
             searchParameters.setOffset(offset);
+            searchParameters.setContinuationToken(continuationToken);
+            searchParameters.setProfile(profile);
+            searchParameters.setFacets(CollectionUtils.isEmpty(facets) ? null : facets);
 
             return atlasDiscoveryService.searchWithParameters(searchParameters);
         } finally {
@@ -30,6 +30,7 @@ import org.apache.atlas.model.instance.AtlasEntityHeaders;
 import org.apache.atlas.model.instance.ClassificationAssociateRequest;
 import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
+import org.apache.atlas.repository.audit.EntityAuditDelta;
 import org.apache.atlas.repository.audit.EntityAuditRepository;
 import org.apache.atlas.repository.store.graph.v2.ClassificationAssociator;
 import org.apache.atlas.repository.converters.AtlasInstanceConverter;
@@ -764,6 +765,8 @@ public class EntityREST {
                 }
             }
 
+            EntityAuditDelta.resolve(auditRepository, ret);
+
             return ret;
         } finally {
             AtlasPerfTracer.log(perf);
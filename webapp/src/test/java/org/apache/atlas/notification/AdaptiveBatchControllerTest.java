@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class AdaptiveBatchControllerTest {
+    private static final int  BASE_BATCH_SIZE           = 50;
+    private static final int  MAX_BATCH_SIZE            = 200;
+    private static final long MAX_THROTTLE_MS           = 1000;
+    private static final long COMMIT_LATENCY_TARGET_MS  = 1000;
+    private static final long MESSAGE_LATENCY_TARGET_MS = 10000;
+    private static final long LAG_THRESHOLD             = 1000;
+
+    @Test
+    public void testGrowsWhileBacklogged() {
+        NotificationHookConsumer.AdaptiveBatchController controller = createController();
+
+        for (int i = 0; i < 10; i++) {
+            controller.onLag(100000);
+            controller.onCommit(100);
+            controller.adjust();
+        }
+
+        assertEquals(controller.getBatchSize(), MAX_BATCH_SIZE);
+
+        // backlog cleared: batch size goes back to configured size
+        for (int i = 0; i < 10; i++) {
+            controller.onLag(0);
+            controller.onCommit(100);
+            controller.adjust();
+        }
+
+        assertEquals(controller.getBatchSize(), BASE_BATCH_SIZE);
+    }
+
+    @Test
+    public void testThrottlesWhenLatencyTargetExceeded() {
+        NotificationHookConsumer.AdaptiveBatchController controller = createController();
+
+        for (int i = 0; i < 3; i++) {
+            controller.onLag(100000);
+            controller.onCommit(100);
+            controller.adjust();
+        }
+
+        assertEquals(controller.getBatchSize(), 168);
+        assertEquals(controller.getThrottleMs(), 0);
+
+        // slow commits: throttle consumption, and go back to the configured batch size - but not below it
+        controller.onLag(100000);
+        controller.onCommit(COMMIT_LATENCY_TARGET_MS * 2);
+        controller.adjust();
+
+        assertEquals(controller.getBatchSize(), BASE_BATCH_SIZE);
+        assertTrue(controller.getThrottleMs() > 0);
+
+        for (int i = 0; i < 10; i++) {
+            controller.onLag(100000);
+            controller.onCommit(100);
+            controller.onMessageProcessed(MESSAGE_LATENCY_TARGET_MS * 2);
+            controller.adjust();
+        }
+
+        assertEquals(controller.getBatchSize(), BASE_BATCH_SIZE);
+        assertEquals(controller.getThrottleMs(), MAX_THROTTLE_MS);
+
+        // latencies back within targets: throttle is removed
+        for (int i = 0; i < 10; i++) {
+            controller.onLag(0);
+            controller.onCommit(100);
+            controller.onMessageProcessed(100);
+            controller.adjust();
+        }
+
+        assertEquals(controller.getThrottleMs(), 0);
+        assertEquals(controller.getBatchSize(), BASE_BATCH_SIZE);
+    }
+
+    @Test
+    public void testNoGrowthWhenCommitsAreSlow() {
+        NotificationHookConsumer.AdaptiveBatchController controller = createController();
+
+        // commits within target, but close to it: don't grow even with backlog
+        controller.onLag(100000);
+        controller.onCommit(COMMIT_LATENCY_TARGET_MS * 3 / 4);
+        controller.adjust();
+
+        assertEquals(controller.getBatchSize(), BASE_BATCH_SIZE);
+        assertEquals(controller.getThrottleMs(), 0);
+    }
+
+    private static NotificationHookConsumer.AdaptiveBatchController createController() {
+        return new NotificationHookConsumer.AdaptiveBatchController(BASE_BATCH_SIZE, MAX_BATCH_SIZE, MAX_THROTTLE_MS, COMMIT_LATENCY_TARGET_MS, MESSAGE_LATENCY_TARGET_MS, LAG_THRESHOLD, Long.MAX_VALUE);
+    }
+}
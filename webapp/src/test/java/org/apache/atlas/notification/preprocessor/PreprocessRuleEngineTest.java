@@ -0,0 +1,223 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification.preprocessor;
+
+import org.apache.atlas.kafka.AtlasKafkaMessage;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.model.notification.HookNotification.EntityCreateRequestV2;
+import org.apache.atlas.notification.NotificationHookConsumer;
+import org.apache.atlas.notification.preprocessor.PreprocessorContext.PreprocessAction;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class PreprocessRuleEngineTest {
+    private PreprocessRuleEngine ruleEngine;
+    private AtlasTypeRegistry    typeRegistry;
+
+    @BeforeMethod
+    public void setup() {
+        Configuration   configuration = new BaseConfiguration();
+        AtlasEntityType tableType     = mock(AtlasEntityType.class);
+        AtlasAttribute  columnsAttr   = mock(AtlasAttribute.class);
+
+        configuration.addProperty(PreprocessRuleEngine.CONSUMER_PREPROCESS_RULES, "tmp_tables,staging_tables,invalid_rule");
+        configuration.addProperty("atlas.notification.consumer.preprocess.rule.tmp_tables.types", "hive_table");
+        configuration.addProperty("atlas.notification.consumer.preprocess.rule.tmp_tables.qualifiedName.pattern", ".*\\.tmp_.*@cl1");
+        configuration.addProperty("atlas.notification.consumer.preprocess.rule.tmp_tables.action", "IGNORE");
+        configuration.addProperty("atlas.notification.consumer.preprocess.rule.staging_tables.types", "hive_table");
+        configuration.addProperty("atlas.notification.consumer.preprocess.rule.staging_tables.qualifiedName.pattern", "staging\\..*@cl1");
+        configuration.addProperty("atlas.notification.consumer.preprocess.rule.staging_tables.action", "PRUNE");
+        configuration.addProperty("atlas.notification.consumer.preprocess.rule.invalid_rule.types", "hive_table");
+
+        typeRegistry = mock(AtlasTypeRegistry.class);
+
+        when(columnsAttr.getName()).thenReturn("columns");
+        when(tableType.getOwnedRefAttributes()).thenReturn(Collections.singletonList(columnsAttr));
+        when(typeRegistry.getEntityTypeByName("hive_table")).thenReturn(tableType);
+
+        ruleEngine = new PreprocessRuleEngine(configuration, typeRegistry);
+    }
+
+    @Test
+    public void testIgnoreRemovesOwnedEntitiesAndReferences() {
+        AtlasEntity tmpTable  = createEntity("hive_table", "db1.tmp_t1@cl1");
+        AtlasEntity tmpColumn = createEntity("hive_column", "db1.tmp_t1.c1@cl1");
+        AtlasEntity table     = createEntity("hive_table", "db1.t2@cl1");
+        AtlasEntity process   = createEntity("hive_process", "insert into db1.t2@cl1");
+
+        tmpTable.setAttribute("columns", new ArrayList<>(Collections.singletonList(getObjectId(tmpColumn))));
+        tmpColumn.setAttribute("table", getObjectId(tmpTable));
+        process.setAttribute("inputs", Arrays.asList(getObjectId(tmpTable), getObjectId(table)));
+        process.setAttribute("outputs", Collections.singletonList(getObjectId(table)));
+
+        AtlasEntitiesWithExtInfo entities = new AtlasEntitiesWithExtInfo();
+
+        entities.addEntity(tmpTable);
+        entities.addEntity(table);
+        entities.addEntity(process);
+        entities.addReferredEntity(tmpColumn);
+
+        PreprocessorContext context = createContext(entities);
+
+        assertTrue(ruleEngine.isApplicable(context.getKafkaMessage().getMessage()));
+
+        ruleEngine.preprocess(context);
+
+        assertEquals(entities.getEntities(), Arrays.asList(table, process));
+        assertTrue(entities.getReferredEntities().isEmpty());
+        assertEquals(process.getAttribute("inputs"), Collections.singletonList(getObjectId(table)));
+        assertTrue(context.isIgnoredEntity(tmpTable.getGuid()));
+        assertTrue(context.isIgnoredEntity(tmpColumn.getGuid()));
+        assertEquals(ruleEngine.getRuleHits().get("tmp_tables"), Long.valueOf(1));
+        assertEquals(ruleEngine.getRuleHits().get("staging_tables"), Long.valueOf(0));
+        assertFalse(ruleEngine.getRuleHits().containsKey("invalid_rule"));
+    }
+
+    @Test
+    public void testPruneRemovesOwnedEntities() {
+        AtlasEntity table  = createEntity("hive_table", "staging.t1@cl1");
+        AtlasEntity column = createEntity("hive_column", "staging.t1.c1@cl1");
+
+        table.setAttribute("columns", Collections.singletonList(getObjectId(column)));
+        column.setAttribute("table", getObjectId(table));
+
+        AtlasEntitiesWithExtInfo entities = new AtlasEntitiesWithExtInfo(table);
+
+        entities.addReferredEntity(column);
+
+        PreprocessorContext context = createContext(entities);
+
+        ruleEngine.preprocess(context);
+
+        assertEquals(entities.getEntities(), Collections.singletonList(table));
+        assertFalse(table.hasAttribute("columns"));
+        assertTrue(entities.getReferredEntities().isEmpty());
+        assertTrue(context.isPrunedEntity(table.getGuid()));
+        assertEquals(ruleEngine.getRuleHits().get("staging_tables"), Long.valueOf(1));
+    }
+
+    @Test
+    public void testMessagesWithoutRuleTypesAreSkipped() {
+        AtlasEntity db    = createEntity("hive_db", "tmp_db@cl1");
+        AtlasEntity table = createEntity("hive_table", "db1.t1@cl1");
+
+        assertFalse(ruleEngine.isApplicable(createContext(new AtlasEntitiesWithExtInfo(db)).getKafkaMessage().getMessage()));
+
+        AtlasEntitiesWithExtInfo entities = new AtlasEntitiesWithExtInfo(table);
+        PreprocessorContext      context  = createContext(entities);
+
+        assertTrue(ruleEngine.isApplicable(context.getKafkaMessage().getMessage()));
+
+        ruleEngine.preprocess(context);
+
+        assertEquals(entities.getEntities(), Collections.singletonList(table));
+        assertNull(entities.getReferredEntities());
+    }
+
+    @Test
+    public void testRulesApplyToSubTypes() {
+        AtlasEntityType icebergTableType = mock(AtlasEntityType.class);
+
+        when(icebergTableType.getAllSuperTypes()).thenReturn(Collections.singleton("hive_table"));
+        when(typeRegistry.getEntityTypeByName("iceberg_table")).thenReturn(icebergTableType);
+
+        AtlasEntity              table    = createEntity("iceberg_table", "db1.tmp_t1@cl1");
+        AtlasEntitiesWithExtInfo entities = new AtlasEntitiesWithExtInfo();
+
+        entities.addEntity(table);
+
+        PreprocessorContext context = createContext(entities);
+
+        assertTrue(ruleEngine.hasRules("iceberg_table"));
+        assertTrue(ruleEngine.isApplicable(context.getKafkaMessage().getMessage()));
+
+        ruleEngine.preprocess(context);
+
+        assertTrue(entities.getEntities().isEmpty());
+        assertTrue(context.isIgnoredEntity(table.getGuid()));
+    }
+
+    @Test
+    public void testHiveTablePatternsAreCompiledToRules() {
+        Configuration configuration = new BaseConfiguration();
+
+        configuration.addProperty(NotificationHookConsumer.CONSUMER_PREPROCESS_HIVE_TABLE_IGNORE_PATTERN, "db1\\.tmp_.*@cl1");
+        configuration.addProperty(NotificationHookConsumer.CONSUMER_PREPROCESS_HIVE_TABLE_IGNORE_PATTERN, "[invalid");
+        configuration.addProperty(NotificationHookConsumer.CONSUMER_PREPROCESS_HIVE_TABLE_PRUNE_PATTERN, "db1\\..*@cl1");
+
+        PreprocessRuleEngine hiveRules = new PreprocessRuleEngine(configuration, typeRegistry);
+
+        assertTrue(hiveRules.hasRules("hive_table"));
+        assertFalse(hiveRules.hasRules("hive_db"));
+        assertEquals(hiveRules.getPreprocessAction("hive_table", "db1.tmp_t1@cl1"), PreprocessAction.IGNORE);
+        assertEquals(hiveRules.getPreprocessAction("hive_table", "db1.t1@cl1"), PreprocessAction.PRUNE);
+        assertEquals(hiveRules.getPreprocessAction("hive_table", "db2.t1@cl1"), PreprocessAction.NONE);
+
+        AtlasEntity db = createEntity("hive_db", "db1@cl1");
+
+        assertFalse(hiveRules.isApplicable(new EntityCreateRequestV2("test", new AtlasEntitiesWithExtInfo(db))));
+
+        hiveRules.addPreprocessedTypes(EntityPreprocessor.getHivePreprocessorTypes());
+
+        assertFalse(hiveRules.isApplicable(new EntityCreateRequestV2("test", new AtlasEntitiesWithExtInfo(db))));
+        assertTrue(hiveRules.isApplicable(new EntityCreateRequestV2("test", new AtlasEntitiesWithExtInfo(createEntity("hive_column", "db1.t1.c1@cl1")))));
+
+        AtlasEntity table = createEntity("hive_table", "db1.tmp_t1@cl1");
+
+        assertEquals(hiveRules.getPreprocessAction(table), PreprocessAction.IGNORE);
+        assertEquals(hiveRules.getRuleHits().get("hive_table.ignore"), Long.valueOf(1));
+        assertEquals(hiveRules.getRuleHits().get("hive_table.prune"), Long.valueOf(0));
+    }
+
+    private PreprocessorContext createContext(AtlasEntitiesWithExtInfo entities) {
+        HookNotification message = new EntityCreateRequestV2("test", entities);
+
+        return new PreprocessorContext(new AtlasKafkaMessage<>(message, 1, 0), typeRegistry, ruleEngine, false, false);
+    }
+
+    private static AtlasEntity createEntity(String typeName, String qualifiedName) {
+        AtlasEntity ret = new AtlasEntity(typeName);
+
+        ret.setAttribute("qualifiedName", qualifiedName);
+
+        return ret;
+    }
+
+    private static AtlasObjectId getObjectId(AtlasEntity entity) {
+        return new AtlasObjectId(entity.getGuid(), entity.getTypeName());
+    }
+}